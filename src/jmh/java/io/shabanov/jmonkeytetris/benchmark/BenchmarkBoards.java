@@ -0,0 +1,77 @@
+package io.shabanov.jmonkeytetris.benchmark;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.save.SaveState;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import lombok.experimental.UtilityClass;
+
+import java.util.Random;
+
+/**
+ * Fixtures shared by the benchmarks: seeded, reproducible board fills that resemble positions reached in real games.
+ */
+@UtilityClass class BenchmarkBoards {
+
+    static final int I_ELEMENT = 6;
+    static final int I_VERTICAL_ORIENTATION = 1;
+
+    /**
+     * Creates a stack of the given height where each row has one or two holes and the top surface is jagged.
+     */
+    static long[][] newStack(long seed, int stackHeight) {
+        final Random random = new Random(seed);
+        final long[][] cells = new long[TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT][TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH];
+        long cellId = 1;
+        for (int y = 0; y < stackHeight; ++y) {
+            final int hole = random.nextInt(TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH);
+            final boolean jagged = y >= stackHeight - 2;
+            for (int x = 0; x < TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH; ++x) {
+                if (x == hole || (jagged && random.nextBoolean())) {
+                    continue;
+                }
+                cells[y][x] = ++cellId;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Creates a state with {@code lines} complete rows at the bottom (except the leftmost column) and a vertical
+     * I-element resting in the leftmost column, so that the next {@link TetrisModel#moveDown()} locks it and clears
+     * exactly that many lines.
+     */
+    static SaveState newLineClearState(int lines) {
+        final long[][] cells = new long[TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT][TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH];
+        long cellId = 1;
+        for (int y = 0; y < lines; ++y) {
+            for (int x = 1; x < TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH; ++x) {
+                cells[y][x] = ++cellId;
+            }
+        }
+        final SaveState state = newState(cells);
+        state.setTetradeOffset(I_ELEMENT);
+        state.setTetradeOrientation(I_VERTICAL_ORIENTATION);
+        state.setTetradeCenter(TetrisCoordinate.of(0, 2));
+        return state;
+    }
+
+    /**
+     * Creates a state with the given cells and no active tetrade, i.e. the one {@link TetrisModel#spawnNewTetrade()}
+     * expects.
+     */
+    static SaveState newState(long[][] cells) {
+        final SaveState state = new SaveState();
+        state.setCells(cells);
+        state.setTetradeCenter(TetrisCoordinate.of(TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH / 2,
+                TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT - Tetrades.BOUNDING_BOX_RADIUS));
+        state.setTetradeOffset(-1);
+        state.setNextTetradeOffset(-1);
+        return state;
+    }
+
+    static TetrisModel newModel(long seed) {
+        return new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(seed)));
+    }
+}
@@ -0,0 +1,123 @@
+package io.shabanov.jmonkeytetris.benchmark;
+
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.save.SaveState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the hot {@link TetrisModel} operations on realistic board fills.
+ *
+ * Operations that consume the state they need (spawning requires no active tetrade, locking requires a resting one)
+ * reload it from a {@link SaveState} first; {@link #loadBaseline()} measures that reload alone so it can be subtracted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelBenchmark {
+
+    @State(Scope.Thread)
+    public static class FilledBoard {
+        /**
+         * Height of the stack of garbage at the bottom of the board.
+         */
+        @Param({"0", "8", "14"})
+        int stackHeight;
+
+        TetrisModel model;
+        SaveState emptyTetradeState;
+        int direction = 1;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            model = BenchmarkBoards.newModel(42L);
+            emptyTetradeState = BenchmarkBoards.newState(BenchmarkBoards.newStack(42L, stackHeight));
+            model.load(emptyTetradeState);
+            model.spawnNewTetrade();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LineClear {
+        @Param({"1", "2", "3", "4"})
+        int lines;
+
+        TetrisModel model;
+        SaveState lockingState;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            model = BenchmarkBoards.newModel(42L);
+            lockingState = BenchmarkBoards.newLineClearState(lines);
+        }
+    }
+
+    @Benchmark
+    public boolean tryMoveToShift(FilledBoard board) {
+        // alternate directions so that the tetrade never gets stuck against the wall
+        board.direction = -board.direction;
+        return board.model.tryMoveTo(board.direction, 0);
+    }
+
+    @Benchmark
+    public boolean tryMoveToRotate(FilledBoard board) {
+        // rotation is the worst case for the projected coordinate recomputation as the orientation changes
+        return board.model.tryMoveTo(0, 1);
+    }
+
+    @Benchmark
+    public TetrisModel.MoveResult moveDown(FilledBoard board) {
+        final TetrisModel.MoveResult result = board.model.moveDown();
+        if (result.isLastMove()) {
+            // restore the board so that the stack doesn't grow over the course of the measurement
+            board.model.load(board.emptyTetradeState);
+            board.model.spawnNewTetrade();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public TetrisModel.MoveResult hardDrop(FilledBoard board) {
+        // includes the reload and spawn, compare against spawnNewTetrade
+        board.model.load(board.emptyTetradeState);
+        board.model.spawnNewTetrade();
+        return board.model.hardDrop();
+    }
+
+    @Benchmark
+    public long stateHash(FilledBoard board) {
+        return board.model.stateHash();
+    }
+
+    @Benchmark
+    public boolean spawnNewTetrade(FilledBoard board) {
+        board.model.load(board.emptyTetradeState);
+        return board.model.spawnNewTetrade();
+    }
+
+    @Benchmark
+    public TetrisModel loadBaseline(FilledBoard board) {
+        board.model.load(board.emptyTetradeState);
+        return board.model;
+    }
+
+    @Benchmark
+    public TetrisModel.MoveResult clearLines(LineClear lineClear) {
+        lineClear.model.load(lineClear.lockingState);
+        return lineClear.model.moveDown();
+    }
+}
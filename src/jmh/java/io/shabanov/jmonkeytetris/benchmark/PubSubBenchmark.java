@@ -0,0 +1,59 @@
+package io.shabanov.jmonkeytetris.benchmark;
+
+import io.shabanov.jmonkeytetris.util.PubSub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks event delivery of the default {@link PubSub.Manager} depending on the number of subscribers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PubSubBenchmark {
+
+    @Param({"1", "16", "256"})
+    int subscriberCount;
+
+    private PubSub.Manager manager;
+    private final SampleEvent event = new SampleEvent();
+    private final UnsubscribedEvent unsubscribedEvent = new UnsubscribedEvent();
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        manager = PubSub.defaultManager();
+        for (int i = 0; i < subscriberCount; ++i) {
+            manager.subscribe(SampleEvent.class, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void publish() {
+        manager.publish(event);
+    }
+
+    @Benchmark
+    public void publishWithoutSubscribers() {
+        manager.publish(unsubscribedEvent);
+    }
+
+    private static final class SampleEvent implements PubSub.Event {}
+
+    private static final class UnsubscribedEvent implements PubSub.Event {}
+}
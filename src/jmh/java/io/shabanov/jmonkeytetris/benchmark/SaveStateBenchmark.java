@@ -0,0 +1,61 @@
+package io.shabanov.jmonkeytetris.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.save.SaveState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JSON round-trips of a {@link SaveState} captured from a half-filled board, as done by quick save/load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SaveStateBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private SaveState state;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final TetrisModel model = BenchmarkBoards.newModel(42L);
+        model.load(BenchmarkBoards.newState(BenchmarkBoards.newStack(42L, TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT / 2)));
+        model.spawnNewTetrade();
+
+        state = new SaveState();
+        model.save(state);
+        state.setCurrentScore(123_456);
+        serialized = mapper.writeValueAsBytes(state);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(state);
+    }
+
+    @Benchmark
+    public SaveState read() throws IOException {
+        return mapper.readValue(serialized, SaveState.class);
+    }
+
+    @Benchmark
+    public SaveState roundTrip() throws IOException {
+        return mapper.readValue(mapper.writeValueAsBytes(state), SaveState.class);
+    }
+}
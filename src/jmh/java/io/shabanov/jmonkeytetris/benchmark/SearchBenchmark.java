@@ -0,0 +1,98 @@
+package io.shabanov.jmonkeytetris.benchmark;
+
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.search.BitBoard;
+import io.shabanov.jmonkeytetris.model.search.BoardArena;
+import io.shabanov.jmonkeytetris.model.search.BoardFeatures;
+import io.shabanov.jmonkeytetris.model.search.PlacementGenerator;
+import io.shabanov.jmonkeytetris.model.search.Placements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the move generation used by bots and hints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SearchBenchmark {
+
+    @State(Scope.Thread)
+    public static class FilledBoard {
+        @Param({"0", "8", "14"})
+        int stackHeight;
+
+        TetrisModel model;
+        final int[] rows = new int[BitBoard.HEIGHT];
+        final Placements placements = new Placements();
+        final BoardFeatures features = new BoardFeatures();
+        final int[] candidateBoards = new int[Placements.MAX_PATH_LENGTH * BitBoard.HEIGHT];
+        final int[] featureMatrix = new int[Placements.MAX_PATH_LENGTH * BoardFeatures.COUNT];
+        final BoardArena arena = new BoardArena(Placements.MAX_PATH_LENGTH + 1);
+        final int[] candidateSlots = new int[Placements.MAX_PATH_LENGTH];
+        int rootSlot;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            model = BenchmarkBoards.newModel(42L);
+            model.load(BenchmarkBoards.newState(BenchmarkBoards.newStack(42L, stackHeight)));
+            model.spawnNewTetrade();
+            model.copyRowMasks(rows);
+            rootSlot = arena.allocate();
+            arena.store(rootSlot, rows, 0);
+        }
+    }
+
+    @Benchmark
+    public int generatePlacements(FilledBoard board) {
+        return PlacementGenerator.generate(board.model, board.rows, board.placements);
+    }
+
+    @Benchmark
+    public int[] extractPlacementFeatures(FilledBoard board) {
+        // lay out every placement as a separate candidate board and evaluate them all at once
+        final int count = PlacementGenerator.generate(board.model, board.rows, board.placements);
+        for (int i = 0; i < count; ++i) {
+            final int offset = i * BitBoard.HEIGHT;
+            System.arraycopy(board.rows, 0, board.candidateBoards, offset, BitBoard.HEIGHT);
+            BitBoard.place(board.candidateBoards, offset, board.placements.getOrientationIndex(i),
+                    board.placements.getX(i), board.placements.getY(i));
+        }
+        board.features.extractBatch(board.candidateBoards, count, board.featureMatrix);
+        return board.featureMatrix;
+    }
+
+    @Benchmark
+    public int[] extractPlacementFeaturesOffHeap(FilledBoard board) {
+        // same as above with candidate boards kept in the off-heap arena
+        final BoardArena arena = board.arena;
+        final int count = PlacementGenerator.generate(arena, board.rootSlot, board.model.getTetradeIndices(),
+                board.model.getTetradeOrientation(), board.model.getTetradeCenter().x,
+                board.model.getTetradeCenter().y, board.placements);
+        for (int i = 0; i < count; ++i) {
+            final int slot = arena.allocateCopy(board.rootSlot);
+            arena.place(slot, board.placements.getOrientationIndex(i), board.placements.getX(i),
+                    board.placements.getY(i));
+            board.candidateSlots[i] = slot;
+        }
+        board.features.extractBatch(arena, board.candidateSlots, count, board.featureMatrix);
+        for (int i = 0; i < count; ++i) {
+            arena.free(board.candidateSlots[i]);
+        }
+        return board.featureMatrix;
+    }
+}
@@ -2,9 +2,12 @@ package io.shabanov.jmonkeytetris;
 
 import com.jme3.app.SimpleApplication;
 import com.jme3.system.AppSettings;
+import io.shabanov.jmonkeytetris.ai.WeightTuner;
 import io.shabanov.jmonkeytetris.app.DebugApplication;
 import io.shabanov.jmonkeytetris.app.TetrisApplication;
 import io.shabanov.jmonkeytetris.model.save.Persistence;
+import io.shabanov.jmonkeytetris.replay.ReplayVerifier;
+import io.shabanov.jmonkeytetris.server.GameServer;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.bridge.SLF4JBridgeHandler;
@@ -22,9 +25,23 @@ import java.util.List;
         // reroute all the JUL log lines to SLF4J
         SLF4JBridgeHandler.install();
 
+        final List<String> argList = Arrays.asList(args);
+        if (argList.contains("--tune")) {
+            // headless, no display settings involved
+            WeightTuner.main(args);
+            return;
+        }
+        if (argList.contains("--verify-replays")) {
+            ReplayVerifier.main(args);
+            return;
+        }
+        if (argList.contains("--server")) {
+            GameServer.main(args);
+            return;
+        }
+
         log.info("Starting application");
 
-        final List<String> argList = Arrays.asList(args);
         final SimpleApplication app = argList.contains("--debug") ? new DebugApplication() : new TetrisApplication();
         final boolean autoPersistSettings = argList.contains("--persist-settings");
 
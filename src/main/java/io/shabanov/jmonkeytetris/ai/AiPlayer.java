@@ -0,0 +1,189 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.search.BitBoard;
+import io.shabanov.jmonkeytetris.model.search.Placements;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Plays the game through {@link TetrisGameController} the way a player would: plans every new tetrade with
+ * {@link BeamSearch}, then carries out the planned moves a few per tick and drops the tetrade.
+ *
+ * A {@link #synchronous(TetrisModel, BeamSearch) synchronous} player searches on the simulation thread without a
+ * deadline, so that its games are reproducible. A {@link #realTime(TetrisModel, BeamSearch, Executor, long, int)
+ * real time} one searches on a background executor within a time budget and leaves the tetrade to gravity meanwhile,
+ * which keeps the simulation ticking at its rate however long the search takes.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+public final class AiPlayer implements TetrisGameController.InputSource {
+    private final TetrisModel model;
+    private final BeamSearch search;
+    @Nullable private final Executor executor;
+    private final long thinkNanos;
+    private final int movesPerTick;
+
+    // spawn count of the tetrade the current plan is for
+    private long plannedSpawn = -1;
+    @Nullable private CompletableFuture<Plan> pendingPlan;
+    @Nullable private AtomicBoolean pendingCancelled;
+    @Nullable private Plan plan;
+    private int startY;
+    private int step;
+    private int stepsDown;
+
+    private AiPlayer(TetrisModel model, BeamSearch search, @Nullable Executor executor, long thinkNanos,
+                     int movesPerTick) {
+        if (movesPerTick <= 0) {
+            throw new IllegalArgumentException("movesPerTick must be positive");
+        }
+        this.model = model;
+        this.search = search;
+        this.executor = executor;
+        this.thinkNanos = thinkNanos;
+        this.movesPerTick = movesPerTick;
+    }
+
+    /**
+     * @return Player that plans on the simulation thread and makes all the moves of a plan on a single tick
+     */
+    public static AiPlayer synchronous(TetrisModel model, BeamSearch search) {
+        return new AiPlayer(model, search, null, 0L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param executor Executor to plan on, e.g. the search pool
+     * @param thinkNanos Time budget of planning a tetrade
+     * @param movesPerTick Moves made per simulation tick once a plan is ready
+     */
+    public static AiPlayer realTime(TetrisModel model, BeamSearch search, Executor executor, long thinkNanos,
+                                    int movesPerTick) {
+        return new AiPlayer(model, search, executor, thinkNanos, movesPerTick);
+    }
+
+    @Override
+    public void poll(TetrisGameController controller) {
+        if (controller.getSpawnCount() != plannedSpawn) {
+            plannedSpawn = controller.getSpawnCount();
+            startPlanning();
+        }
+
+        if (plan == null) {
+            if (pendingPlan == null || !pendingPlan.isDone()) {
+                return; // still thinking, let gravity do its thing meanwhile
+            }
+            plan = completedPlan(pendingPlan);
+            pendingPlan = null;
+            if (plan == null) {
+                controller.hardDrop(); // no way to place it, get it over with
+                return;
+            }
+        }
+
+        final byte[] path = plan.getPath();
+        for (int moves = 0; moves < movesPerTick && step < path.length; ++moves) {
+            if (path[step] == Placements.MOVE_DOWN) {
+                // tucks under overhangs need the tetrade to actually get down there, soft drop until it does
+                if (model.getTetradeCenter().y > startY - stepsDown - 1) {
+                    controller.setDownSpeedUp(true);
+                    return;
+                }
+                controller.setDownSpeedUp(false);
+                ++stepsDown;
+                ++step;
+                continue;
+            }
+
+            if (!controller.moveTetrade(dx(path[step]), path[step] == Placements.ROTATE ? 1 : 0)) {
+                // gravity has taken the tetrade somewhere the plan didn't expect, drop it where it is
+                log.debug("Planned move {} has failed at step {}, dropping the tetrade", path[step], step);
+                step = path.length;
+                break;
+            }
+            ++step;
+        }
+
+        if (step == path.length) {
+            controller.setDownSpeedUp(false);
+            controller.hardDrop();
+        }
+    }
+
+    /**
+     * Cancels planning in progress, if any.
+     */
+    public void cancel() {
+        if (pendingCancelled != null) {
+            pendingCancelled.set(true);
+        }
+        pendingPlan = null;
+        pendingCancelled = null;
+    }
+
+    //
+    // Private
+    //
+
+    private void startPlanning() {
+        cancel();
+        plan = null;
+        step = 0;
+        stepsDown = 0;
+
+        final Tetrades.OrientationIndices tetrade = model.getTetradeIndices();
+        if (tetrade == null) {
+            return;
+        }
+        final TetrisCoordinate center = model.getTetradeCenter();
+        startY = center.y;
+
+        if (executor == null) {
+            pendingPlan = CompletableFuture.completedFuture(search.search(model, BeamSearch.NO_DEADLINE));
+            return;
+        }
+
+        // the search runs on a copy of the board, the model keeps changing meanwhile
+        final int[] rows = new int[BitBoard.HEIGHT];
+        model.copyRowMasks(rows);
+        final Tetrades.OrientationIndices next = model.getNextTetradeIndices();
+        final List<Tetrades.OrientationIndices> preview = next != null ? List.of(next) : List.of();
+        final int orientation = model.getTetradeOrientation();
+        final long deadlineNanos = System.nanoTime() + thinkNanos;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        pendingCancelled = cancelled;
+        pendingPlan = CompletableFuture.supplyAsync(() -> search.search(rows, tetrade, orientation, center.x, center.y,
+                preview, deadlineNanos, cancelled::get), executor);
+    }
+
+    @Nullable
+    private static Plan completedPlan(CompletableFuture<Plan> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            log.warn("Unable to plan the falling tetrade", e.getCause());
+            return null;
+        }
+    }
+
+    private static int dx(byte move) {
+        switch (move) {
+            case Placements.MOVE_LEFT:
+                return -1;
+            case Placements.MOVE_RIGHT:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.search.BitBoard;
+import io.shabanov.jmonkeytetris.model.search.BoardArena;
+import io.shabanov.jmonkeytetris.model.search.BoardFeatures;
+import io.shabanov.jmonkeytetris.model.search.PlacementGenerator;
+import io.shabanov.jmonkeytetris.model.search.Placements;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Beam search over the falling tetrade and the known upcoming ones.
+ *
+ * Every placement of the falling tetrade is evaluated, the best {@code beamWidth} resulting boards are kept and each
+ * of them is expanded by every placement of the next tetrade, and so on for the whole preview. Expansion of a beam
+ * level is split across a work-stealing pool, each worker reusing its own search buffers.
+ *
+ * Candidate boards are kept off heap in {@link BoardArena arenas} rather than as row arrays: the children of every
+ * parent of a level go to an arena of their own, so that workers never write to the same one, and the arenas of a
+ * level are reset once the level after the next one gets expanded. Arenas are taken back after the search for later
+ * searches of the instance to reuse.
+ *
+ * A search can be cut short by a deadline or a cancellation flag, both checked before each board is expanded; the
+ * best placement of the deepest fully expanded level is returned then, the falling tetrade level always being
+ * expanded in full. An instance is thread safe and may run several searches at once.
+ */
+@ParametersAreNonnullByDefault
+public final class BeamSearch {
+    public static final int DEFAULT_BEAM_WIDTH = 8;
+
+    /**
+     * Deadline that never comes, for searches that must not depend on timing, e.g. reproducible bot games.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // boards expanded by a single task without further splitting
+    private static final int EXPAND_THRESHOLD = 2;
+
+    private static final Comparator<Node> BEST_FIRST = Comparator.comparingDouble((Node node) -> node.score).reversed();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final EvaluationWeights weights;
+    private final int beamWidth;
+    private final ForkJoinPool pool;
+    private final Queue<Levels> levelsPool = new ConcurrentLinkedQueue<>();
+
+    public BeamSearch(EvaluationWeights weights, int beamWidth, ForkJoinPool pool) {
+        if (beamWidth <= 0) {
+            throw new IllegalArgumentException("beamWidth must be positive");
+        }
+        this.weights = weights;
+        this.beamWidth = beamWidth;
+        this.pool = pool;
+    }
+
+    public EvaluationWeights getWeights() {
+        return weights;
+    }
+
+    /**
+     * Searches a placement for the falling tetrade of the model using its next tetrade as the preview.
+     * Must be called by the thread that owns the model.
+     *
+     * @return Best plan found or {@code null} if the model has no falling tetrade or it can't be placed at all
+     */
+    @Nullable
+    public Plan search(TetrisModel model, long deadlineNanos) {
+        final Tetrades.OrientationIndices tetrade = model.getTetradeIndices();
+        if (tetrade == null) {
+            return null;
+        }
+        final int[] rows = new int[BitBoard.HEIGHT];
+        model.copyRowMasks(rows);
+        final Tetrades.OrientationIndices next = model.getNextTetradeIndices();
+        final TetrisCoordinate center = model.getTetradeCenter();
+        return search(rows, tetrade, model.getTetradeOrientation(), center.x, center.y,
+                next != null ? List.of(next) : List.of(), deadlineNanos, () -> false);
+    }
+
+    /**
+     * Searches a placement for the given tetrade, the preview tetrades are assumed to spawn at
+     * {@link TetrisModel#DEFAULT_SPAWNING_POINT} in their first orientation.
+     *
+     * @param rows Row masks of the board, see {@link BitBoard}; not modified
+     * @param orientation Orientation of the tetrade relative to its first one
+     * @param deadlineNanos {@link System#nanoTime()} to stop deepening at, or {@link #NO_DEADLINE}
+     * @param cancelled Checked along with the deadline, cancelled search returns {@code null}
+     * @return Best plan found or {@code null} if the tetrade can't be placed at all or the search has been cancelled
+     */
+    @Nullable
+    public Plan search(int[] rows, Tetrades.OrientationIndices tetrade, int orientation, int x, int y,
+                       List<Tetrades.OrientationIndices> preview, long deadlineNanos, BooleanSupplier cancelled) {
+        final Levels levels = acquireLevels();
+        try {
+            return search(rows, tetrade, orientation, x, y, preview, deadlineNanos, cancelled, levels);
+        } finally {
+            levelsPool.offer(levels);
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private static final class Node {
+        @Nullable final Node parent;
+        // board after the placement
+        final BoardArena arena;
+        final int slot;
+        final int orientationIndex;
+        final int x;
+        final int y;
+        // cleared lines accumulated along the path from the root
+        int clearedLines;
+        double score;
+
+        Node(@Nullable Node parent, BoardArena arena, int slot, int orientationIndex, int x, int y,
+             int clearedLines) {
+            this.parent = parent;
+            this.arena = arena;
+            this.slot = slot;
+            this.orientationIndex = orientationIndex;
+            this.x = x;
+            this.y = y;
+            this.clearedLines = clearedLines;
+        }
+    }
+
+    /**
+     * Boards of the level being expanded and of the one it expands into, an arena per parent.
+     */
+    private static final class Levels {
+        BoardArena[] current;
+        BoardArena[] next;
+
+        Levels(int beamWidth) {
+            current = newArenas(beamWidth);
+            next = newArenas(beamWidth);
+        }
+
+        /**
+         * Makes the expanded level the current one, boards of the former current level are dropped.
+         */
+        void advance() {
+            final BoardArena[] expanded = next;
+            next = current;
+            current = expanded;
+            for (final BoardArena arena : next) {
+                arena.reset();
+            }
+        }
+
+        private static BoardArena[] newArenas(int count) {
+            final BoardArena[] arenas = new BoardArena[count];
+            for (int i = 0; i < count; ++i) {
+                arenas[i] = new BoardArena(Placements.MAX_COUNT);
+            }
+            return arenas;
+        }
+    }
+
+    private Levels acquireLevels() {
+        final Levels levels = levelsPool.poll();
+        if (levels == null) {
+            return new Levels(beamWidth);
+        }
+        for (final BoardArena arena : levels.current) {
+            arena.reset();
+        }
+        for (final BoardArena arena : levels.next) {
+            arena.reset();
+        }
+        return levels;
+    }
+
+    @Nullable
+    private Plan search(int[] rows, Tetrades.OrientationIndices tetrade, int orientation, int x, int y,
+                        List<Tetrades.OrientationIndices> preview, long deadlineNanos, BooleanSupplier cancelled,
+                        Levels levels) {
+        final Scratch scratch = SCRATCH.get();
+        final int count = PlacementGenerator.generate(rows, tetrade, orientation, x, y, scratch.placements);
+        if (count == 0) {
+            return null;
+        }
+
+        // roots all share the first arena of the level
+        final BoardArena rootArena = levels.current[0];
+        List<Node> beam = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final int slot = rootArena.allocate();
+            rootArena.store(slot, rows, 0);
+            final Node root = new Node(null, rootArena, slot, scratch.placements.getOrientationIndex(i),
+                    scratch.placements.getX(i), scratch.placements.getY(i), 0);
+            root.clearedLines = rootArena.place(slot, root.orientationIndex, root.x, root.y);
+            root.score = evaluate(root, scratch);
+            beam.add(root);
+        }
+        int depth = 1;
+
+        final Search search = new Search(deadlineNanos, cancelled);
+        for (final Tetrades.OrientationIndices next : preview) {
+            beam.sort(BEST_FIRST);
+            final List<Node> parents = beam.subList(0, Math.min(beamWidth, beam.size()));
+            final List<List<Node>> children = new ArrayList<>(Collections.nCopies(parents.size(), null));
+            pool.invoke(new Expand(search, next, parents, children, levels.next, 0, parents.size()));
+            if (search.isStopped()) {
+                break;
+            }
+
+            final List<Node> nextBeam = new ArrayList<>();
+            for (final List<Node> nodeChildren : children) {
+                nextBeam.addAll(nodeChildren);
+            }
+            if (nextBeam.isEmpty()) {
+                break; // every board tops out, the deepest surviving level is as good as it gets
+            }
+            beam = nextBeam;
+            levels.advance();
+            ++depth;
+        }
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+
+        final Node best = Collections.max(beam, BEST_FIRST.reversed());
+        Node root = best;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return toPlan(rows, tetrade, orientation, x, y, root, best.score, depth, scratch);
+    }
+
+    private static final class Scratch {
+        final Placements placements = new Placements();
+        final BoardFeatures features = new BoardFeatures();
+        final int[] featureValues = new int[BoardFeatures.COUNT];
+        final byte[] path = new byte[Placements.MAX_PATH_LENGTH];
+    }
+
+    private static final class Search {
+        final long deadlineNanos;
+        final BooleanSupplier cancelled;
+        volatile boolean stopped;
+
+        Search(long deadlineNanos, BooleanSupplier cancelled) {
+            this.deadlineNanos = deadlineNanos;
+            this.cancelled = cancelled;
+        }
+
+        boolean isStopped() {
+            if (!stopped && (cancelled.getAsBoolean()
+                    || deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0)) {
+                stopped = true;
+            }
+            return stopped;
+        }
+    }
+
+    private final class Expand extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final Tetrades.OrientationIndices tetrade;
+        private final List<Node> parents;
+        private final List<List<Node>> children;
+        // arena of the children of each parent
+        private final BoardArena[] arenas;
+        private final int from;
+        private final int to;
+
+        Expand(Search search, Tetrades.OrientationIndices tetrade, List<Node> parents, List<List<Node>> children,
+               BoardArena[] arenas, int from, int to) {
+            this.search = search;
+            this.tetrade = tetrade;
+            this.parents = parents;
+            this.children = children;
+            this.arenas = arenas;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > EXPAND_THRESHOLD) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Expand(search, tetrade, parents, children, arenas, from, middle),
+                        new Expand(search, tetrade, parents, children, arenas, middle, to));
+                return;
+            }
+
+            final Scratch scratch = SCRATCH.get();
+            for (int i = from; i < to && !search.isStopped(); ++i) {
+                children.set(i, expand(parents.get(i), tetrade, arenas[i], scratch));
+            }
+        }
+    }
+
+    private List<Node> expand(Node parent, Tetrades.OrientationIndices tetrade, BoardArena arena, Scratch scratch) {
+        final TetrisCoordinate spawn = TetrisModel.DEFAULT_SPAWNING_POINT;
+        final Placements placements = scratch.placements;
+        final int count = PlacementGenerator.generate(parent.arena, parent.slot, tetrade, 0, spawn.x, spawn.y,
+                placements);
+
+        final List<Node> result = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final int slot = arena.allocateCopy(parent.arena, parent.slot);
+            final Node child = new Node(parent, arena, slot, placements.getOrientationIndex(i), placements.getX(i),
+                    placements.getY(i), parent.clearedLines);
+            child.clearedLines += arena.place(slot, child.orientationIndex, child.x, child.y);
+            child.score = evaluate(child, scratch);
+            result.add(child);
+        }
+        return result;
+    }
+
+    private double evaluate(Node node, Scratch scratch) {
+        scratch.features.markAllDirty();
+        scratch.features.update(node.arena, node.slot);
+        scratch.features.copyTo(scratch.featureValues, 0);
+        return weights.evaluate(scratch.featureValues, 0, node.clearedLines);
+    }
+
+    private static Plan toPlan(int[] rows, Tetrades.OrientationIndices tetrade, int orientation, int x, int y,
+                               Node root, double score, int depth, Scratch scratch) {
+        // the simplest way there is rotating and shifting at the top, then dropping; fall back to the searched path
+        // for tucks and spins under overhangs
+        final byte[] path = dropPath(rows, tetrade, orientation, x, y, root);
+        if (path != null) {
+            return new Plan(root.orientationIndex, root.x, root.y, path, score, depth);
+        }
+
+        final Placements placements = scratch.placements;
+        final int count = PlacementGenerator.generate(rows, tetrade, orientation, x, y, placements);
+        for (int i = 0; i < count; ++i) {
+            if (placements.getOrientationIndex(i) == root.orientationIndex && placements.getX(i) == root.x
+                    && placements.getY(i) == root.y) {
+                final int length = placements.copyPath(i, scratch.path);
+                return new Plan(root.orientationIndex, root.x, root.y, Arrays.copyOf(scratch.path, length), score,
+                        depth);
+            }
+        }
+        throw new IllegalStateException("placement is no longer reachable");
+    }
+
+    @Nullable
+    private static byte[] dropPath(int[] rows, Tetrades.OrientationIndices tetrade, int orientation, int x, int y,
+                                   Node target) {
+        final int first = tetrade.getFirstOrientationIndex();
+        final int rotations = Math.floorMod(target.orientationIndex - first - orientation, tetrade.count());
+        final int shift = target.x - x;
+        final byte[] path = new byte[rotations + Math.abs(shift)];
+
+        int r = orientation;
+        int pos = 0;
+        for (int i = 0; i < rotations; ++i) {
+            r = (r + 1) % tetrade.count();
+            if (BitBoard.collides(rows, first + r, x, y)) {
+                return null;
+            }
+            path[pos++] = Placements.ROTATE;
+        }
+        int cx = x;
+        for (int i = 0; i < Math.abs(shift); ++i) {
+            cx += Integer.signum(shift);
+            if (BitBoard.collides(rows, first + r, cx, y)) {
+                return null;
+            }
+            path[pos++] = shift < 0 ? Placements.MOVE_LEFT : Placements.MOVE_RIGHT;
+        }
+        return BitBoard.dropY(rows, first + r, cx, y) == target.y ? path : null;
+    }
+}
@@ -0,0 +1,72 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.FixedStepClock;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Runs bot games headless and as fast as the machine allows, e.g. to stress-test the difficulty curve or to compare
+ * evaluation weights.
+ *
+ * Games are simulated tick by tick through {@link TetrisGameController} with a {@link AiPlayer#synchronous synchronous}
+ * player, so a game is fully determined by its seed and the weights.
+ */
+@UtilityClass
+@ParametersAreNonnullByDefault
+public class BotRunner {
+    private static final float TICK_SECONDS = 1f / FixedStepClock.DEFAULT_TICKS_PER_SECOND;
+
+    @Value
+    public static class Result {
+        long seed;
+        long pieces;
+        int clearedLines;
+        int score;
+        long ticks;
+        boolean gameOver;
+    }
+
+    /**
+     * Plays a single game until it is over or the given number of tetrades has spawned.
+     */
+    public static Result play(BeamSearch search, long seed, int maxPieces) {
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(),
+                Tetrades.tetradeProviderFromRandom(new Random(seed)));
+        final TetrisGameController controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        controller.setInputSource(AiPlayer.synchronous(model, search));
+
+        while (controller.getPhase() == TetrisGamePhase.RUNNING && controller.getSpawnCount() <= maxPieces) {
+            controller.update(TICK_SECONDS);
+        }
+        return new Result(seed, Math.min(controller.getSpawnCount(), maxPieces), controller.getClearedLines(),
+                controller.getCurrentScore(), controller.getTick(),
+                controller.getPhase() == TetrisGamePhase.GAME_OVER);
+    }
+
+    /**
+     * Plays a game per seed, games running in parallel on the given pool which is shared with their searches.
+     */
+    public static List<Result> playAll(BeamSearch search, ForkJoinPool pool, long firstSeed, int games,
+                                       int maxPieces) {
+        return pool.submit(() -> LongStream.range(firstSeed, firstSeed + games)
+                .parallel()
+                .mapToObj(seed -> play(search, seed, maxPieces))
+                .collect(Collectors.toList())).join();
+    }
+}
@@ -0,0 +1,83 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import io.shabanov.jmonkeytetris.model.search.BoardFeatures;
+
+import java.util.Arrays;
+
+/**
+ * Linear evaluation of a board: a weight per {@link BoardFeatures board feature} plus a reward per cleared line.
+ * Higher is better, so most of the feature weights are negative.
+ */
+public final class EvaluationWeights {
+    /**
+     * Number of weights: one per board feature and the last one for cleared lines.
+     */
+    public static final int COUNT = BoardFeatures.COUNT + 1;
+
+    private static final EvaluationWeights DEFAULTS = of(
+            -0.51, // aggregate height
+            -0.05, // max height
+            -0.36, // holes
+            -0.10, // covered cells
+            -0.18, // bumpiness
+            -0.05, // well depth
+            -0.08, // row transitions
+            -0.12, // column transitions
+            0.76   // cleared lines
+    );
+
+    private final double[] weights;
+
+    private EvaluationWeights(double[] weights) {
+        this.weights = weights;
+    }
+
+    public static EvaluationWeights of(double... weights) {
+        if (weights.length != COUNT) {
+            throw new IllegalArgumentException("expected " + COUNT + " weights, got " + weights.length);
+        }
+        return new EvaluationWeights(weights.clone());
+    }
+
+    /**
+     * @return Hand-picked weights that play decently, a starting point for tuning
+     */
+    public static EvaluationWeights defaults() {
+        return DEFAULTS;
+    }
+
+    public double get(int index) {
+        return weights[index];
+    }
+
+    public double[] toArray() {
+        return weights.clone();
+    }
+
+    /**
+     * @param features Feature matrix, see {@link BoardFeatures#copyTo(int[], int)}
+     * @param offset Offset of the board's features in the matrix
+     */
+    public double evaluate(int[] features, int offset, int clearedLines) {
+        double result = weights[BoardFeatures.COUNT] * clearedLines;
+        for (int i = 0; i < BoardFeatures.COUNT; ++i) {
+            result += weights[i] * features[offset + i];
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EvaluationWeights && Arrays.equals(weights, ((EvaluationWeights) o).weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationWeights" + Arrays.toString(weights);
+    }
+}
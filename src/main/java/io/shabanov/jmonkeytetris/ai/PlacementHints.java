@@ -0,0 +1,92 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Suggests the best placement of the falling tetrade to a player without ever making the caller wait for it.
+ *
+ * Each {@link #request} starts a search on the executor and supersedes the previous request, which is cancelled if it
+ * is still running; the caller then {@link #poll() polls} for the result, e.g. once per frame. Results of superseded
+ * requests are never delivered. Requests and polls are expected to come from a single thread.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+public final class PlacementHints {
+    private static final class Hint {
+        final long request;
+        @Nullable final Plan plan;
+
+        Hint(long request, @Nullable Plan plan) {
+            this.request = request;
+            this.plan = plan;
+        }
+    }
+
+    private final BeamSearch search;
+    private final Executor executor;
+    private final long thinkNanos;
+
+    // id of the latest request, searches of the earlier ones see themselves cancelled
+    private final AtomicLong latestRequest = new AtomicLong();
+    private final AtomicReference<Hint> latestHint = new AtomicReference<>();
+
+    /**
+     * @param thinkNanos Time budget of a search
+     */
+    public PlacementHints(BeamSearch search, Executor executor, long thinkNanos) {
+        this.search = search;
+        this.executor = executor;
+        this.thinkNanos = thinkNanos;
+    }
+
+    /**
+     * Starts searching the best placement of the given tetrade, see
+     * {@link BeamSearch#search(int[], Tetrades.OrientationIndices, int, int, int, List, long, java.util.function.BooleanSupplier)}.
+     *
+     * @param rows Row masks of the board, copied before this method returns
+     * @param next Upcoming tetrade, if known
+     */
+    public void request(int[] rows, Tetrades.OrientationIndices tetrade, int orientation, int x, int y,
+                        @Nullable Tetrades.OrientationIndices next) {
+        final long request = latestRequest.incrementAndGet();
+        final int[] board = rows.clone();
+        final List<Tetrades.OrientationIndices> preview = next != null ? List.of(next) : List.of();
+        final long deadlineNanos = System.nanoTime() + thinkNanos;
+        executor.execute(() -> {
+            try {
+                final Plan plan = search.search(board, tetrade, orientation, x, y, preview, deadlineNanos,
+                        () -> latestRequest.get() != request);
+                if (latestRequest.get() == request) {
+                    latestHint.set(new Hint(request, plan));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Unable to compute placement hint", e);
+            }
+        });
+    }
+
+    /**
+     * @return Best placement found for the latest request or {@code null} if it is still being searched, has been
+     * cancelled or there is no placement at all
+     */
+    @Nullable
+    public Plan poll() {
+        final Hint hint = latestHint.get();
+        return hint != null && hint.request == latestRequest.get() ? hint.plan : null;
+    }
+
+    /**
+     * Cancels the latest request, no hint is available until the next one.
+     */
+    public void cancel() {
+        latestRequest.incrementAndGet();
+    }
+}
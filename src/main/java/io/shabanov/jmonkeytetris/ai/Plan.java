@@ -0,0 +1,21 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import lombok.Value;
+
+/**
+ * Placement chosen for the falling tetrade along with the moves that lead to it, see
+ * {@link io.shabanov.jmonkeytetris.model.search.Placements} for the move codes.
+ */
+@Value
+public class Plan {
+    int orientationIndex;
+    int x;
+    int y;
+    byte[] path;
+    double score;
+
+    /**
+     * Number of pieces the search has fully looked ahead, 1 means only the falling tetrade has been considered.
+     */
+    int depth;
+}
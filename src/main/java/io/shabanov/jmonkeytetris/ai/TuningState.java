@@ -0,0 +1,27 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Progress of {@link WeightTuner}, saved after every generation so that tuning can be resumed where it has stopped.
+ */
+@Getter
+@Setter
+public final class TuningState {
+    // number of completed generations
+    private int generation;
+
+    // distribution the next generation of weights is sampled from
+    private double[] mean;
+    private double[] deviation;
+
+    // best candidate seen so far and its fitness, i.e. average number of cleared lines per game
+    private double[] bestWeights;
+    private double bestFitness;
+
+    // totals over all the generations, for reporting only
+    private long totalGames;
+    private long totalPieces;
+    private long totalNanos;
+}
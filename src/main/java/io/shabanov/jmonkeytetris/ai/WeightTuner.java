@@ -0,0 +1,209 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.shabanov.jmonkeytetris.model.save.Persistence;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Offline tuning of {@link EvaluationWeights} by the cross-entropy method.
+ *
+ * Every generation samples a population of weight vectors from a normal distribution, scores each of them by the
+ * lines it clears in a number of headless {@link BotRunner} games and refits the distribution to the best ones. All the
+ * games of a generation run in parallel; candidates of a generation play the same seeds, so that they are compared on
+ * equal terms, and sampling is seeded by the generation number, so that a resumed run continues exactly as the
+ * interrupted one would have.
+ *
+ * The state is saved to the checkpoint file after every generation and loaded from it on start, if it exists.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+public final class WeightTuner {
+    public static final Path DEFAULT_CHECKPOINT_PATH = Persistence.BASE_PATH.resolve("tuning").resolve("checkpoint.json");
+
+    private static final long SEED = 0x7e7215L;
+    private static final double INITIAL_DEVIATION = 0.5;
+    // extra variance added when refitting, decaying with generations, keeps the distribution from collapsing early
+    private static final double NOISE = 0.1;
+
+    @Value
+    public static class Settings {
+        int population;
+        int gamesPerCandidate;
+        int maxPieces;
+        double eliteFraction;
+        int beamWidth;
+
+        public static Settings defaults() {
+            return new Settings(100, 20, 500, 0.1, 1);
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Settings settings;
+    private final ForkJoinPool pool;
+    private final Path checkpointPath;
+
+    public WeightTuner(Settings settings, ForkJoinPool pool, Path checkpointPath) {
+        this.settings = settings;
+        this.pool = pool;
+        this.checkpointPath = checkpointPath;
+    }
+
+    /**
+     * Runs generations until the given number of them is complete, resuming from the checkpoint if there is one.
+     *
+     * @return State after the last generation
+     */
+    public TuningState run(int generations) {
+        TuningState state = Files.exists(checkpointPath) ? load() : initialState();
+        if (state.getGeneration() > 0) {
+            log.info("Resuming tuning after generation {}, best fitness so far {}", state.getGeneration(),
+                    state.getBestFitness());
+        }
+        while (state.getGeneration() < generations) {
+            runGeneration(state);
+            save(state);
+        }
+        return state;
+    }
+
+    public static void main(String[] args) {
+        final int generations = Integer.getInteger("TUNING_GENERATIONS", 100);
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            final TuningState state = new WeightTuner(Settings.defaults(), pool, DEFAULT_CHECKPOINT_PATH)
+                    .run(generations);
+            log.info("Tuned weights: {}", Arrays.toString(state.getBestWeights()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private TuningState initialState() {
+        final TuningState state = new TuningState();
+        state.setMean(EvaluationWeights.defaults().toArray());
+        final double[] deviation = new double[EvaluationWeights.COUNT];
+        Arrays.fill(deviation, INITIAL_DEVIATION);
+        state.setDeviation(deviation);
+        state.setBestWeights(EvaluationWeights.defaults().toArray());
+        state.setBestFitness(Double.NEGATIVE_INFINITY);
+        return state;
+    }
+
+    private void runGeneration(TuningState state) {
+        final int generation = state.getGeneration();
+        final Random random = new Random(SEED + generation);
+        final double[][] candidates = new double[settings.getPopulation()][EvaluationWeights.COUNT];
+        for (final double[] candidate : candidates) {
+            for (int i = 0; i < candidate.length; ++i) {
+                candidate[i] = state.getMean()[i] + state.getDeviation()[i] * random.nextGaussian();
+            }
+        }
+
+        // every candidate plays the same seeds, all the games at once
+        final long firstSeed = (long) generation * settings.getGamesPerCandidate();
+        final int games = settings.getPopulation() * settings.getGamesPerCandidate();
+        final BeamSearch[] searches = new BeamSearch[candidates.length];
+        for (int c = 0; c < candidates.length; ++c) {
+            searches[c] = new BeamSearch(EvaluationWeights.of(candidates[c]), settings.getBeamWidth(), pool);
+        }
+        final long startedAt = System.nanoTime();
+        final List<BotRunner.Result> results = pool.submit(() -> IntStream.range(0, games)
+                .parallel()
+                .mapToObj(game -> BotRunner.play(searches[game / settings.getGamesPerCandidate()],
+                        firstSeed + game % settings.getGamesPerCandidate(), settings.getMaxPieces()))
+                .collect(Collectors.toList())).join();
+        final long elapsedNanos = System.nanoTime() - startedAt;
+
+        final double[] fitness = new double[candidates.length];
+        long pieces = 0L;
+        for (int game = 0; game < games; ++game) {
+            final BotRunner.Result result = results.get(game);
+            fitness[game / settings.getGamesPerCandidate()] += result.getClearedLines();
+            pieces += result.getPieces();
+        }
+        for (int c = 0; c < candidates.length; ++c) {
+            fitness[c] /= settings.getGamesPerCandidate();
+        }
+
+        // refit the distribution to the elite candidates
+        final Integer[] order = new Integer[candidates.length];
+        for (int c = 0; c < order.length; ++c) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+        final int eliteCount = Math.max(1, (int) Math.round(candidates.length * settings.getEliteFraction()));
+        final double noise = NOISE / (generation + 1);
+        final double[] mean = new double[EvaluationWeights.COUNT];
+        final double[] deviation = new double[EvaluationWeights.COUNT];
+        for (int i = 0; i < mean.length; ++i) {
+            double sum = 0;
+            for (int e = 0; e < eliteCount; ++e) {
+                sum += candidates[order[e]][i];
+            }
+            mean[i] = sum / eliteCount;
+
+            double variance = 0;
+            for (int e = 0; e < eliteCount; ++e) {
+                final double d = candidates[order[e]][i] - mean[i];
+                variance += d * d;
+            }
+            deviation[i] = Math.sqrt(variance / eliteCount + noise);
+        }
+        state.setMean(mean);
+        state.setDeviation(deviation);
+
+        final int best = order[0];
+        if (fitness[best] > state.getBestFitness()) {
+            state.setBestFitness(fitness[best]);
+            state.setBestWeights(candidates[best]);
+        }
+        state.setGeneration(generation + 1);
+        state.setTotalGames(state.getTotalGames() + games);
+        state.setTotalPieces(state.getTotalPieces() + pieces);
+        state.setTotalNanos(state.getTotalNanos() + elapsedNanos);
+
+        final double seconds = elapsedNanos / 1e9;
+        log.info("Generation {}: best fitness {}, elite fitness {}, {} games/sec, {} pieces/sec", generation + 1,
+                String.format("%.1f", fitness[best]), String.format("%.1f", fitness[order[eliteCount - 1]]),
+                String.format("%.1f", games / seconds), String.format("%.0f", pieces / seconds));
+    }
+
+    private TuningState load() {
+        try {
+            return mapper.readValue(checkpointPath.toFile(), TuningState.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load tuning checkpoint from " + checkpointPath, e);
+        }
+    }
+
+    private void save(TuningState state) {
+        // write aside and move over, so that an interrupted run never leaves a torn checkpoint behind
+        final Path tempPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(checkpointPath.toAbsolutePath().getParent());
+            mapper.writeValue(tempPath.toFile(), state);
+            Files.move(tempPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to save tuning checkpoint to " + checkpointPath, e);
+        }
+    }
+}
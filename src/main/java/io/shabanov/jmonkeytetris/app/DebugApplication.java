@@ -14,11 +14,15 @@ import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.debug.Grid;
 import com.jme3.util.TangentBinormalGenerator;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
 import io.shabanov.jmonkeytetris.model.Tetrades;
 import io.shabanov.jmonkeytetris.model.TetrisModel;
 import io.shabanov.jmonkeytetris.util.KeyBindings;
 import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
 import io.shabanov.jmonkeytetris.util.fadeout.FadeoutTextBlock;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import io.shabanov.jmonkeytetris.view.TetrisView;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -34,6 +38,9 @@ public final class DebugApplication extends SimpleApplication {
 
     private final PubSub.Manager pubSubManager = PubSub.defaultManager();
 
+    // game falling down inside the grids, e.g. to try out rewinding
+    private TetrisGameController controller;
+
     public void simpleInitApp() {
         viewPort.setBackgroundColor(ColorRGBA.fromRGBA255(0x11, 0x11, 0x11, 0xff));
 
@@ -45,6 +52,7 @@ public final class DebugApplication extends SimpleApplication {
 
         setUpGui();
         setupGrids(model);
+        setupGame(model);
 
         // Must add a light to make the lit object visible
         {
@@ -62,7 +70,8 @@ public final class DebugApplication extends SimpleApplication {
         UP("Up", KeyInput.KEY_I),
         LEFT("Left", KeyInput.KEY_J),
         RIGHT("Right", KeyInput.KEY_L),
-        DOWN("Down", KeyInput.KEY_K);
+        DOWN("Down", KeyInput.KEY_K),
+        REWIND("Rewind", KeyInput.KEY_R);
 
         private final String code;
         private final int defaultKey;
@@ -86,9 +95,19 @@ public final class DebugApplication extends SimpleApplication {
             gridHolder.move(-1, 0, 0);
         } else if (InputAction.RIGHT.matches(name) && !isPressed) {
             gridHolder.move(1, 0, 0);
+        } else if (InputAction.REWIND.matches(name) && !isPressed) {
+            final int rewound = controller.rewind(1);
+            fadeoutTextBlock.pushText(ColorRGBA.Yellow, "Rewound pieces=" + rewound + ", tick=" + controller.getTick());
         }
     };
 
+    private void setupGame(TetrisModel model) {
+        model.clear();
+        final TetrisView tetrisView = new TetrisView(new Random(), assetManager, model);
+        rootNode.attachChild(tetrisView.getHolderNode());
+        controller = new TetrisGameController(model, tetrisView, StatusView.noOp(), SoundEffectsStore.noOp());
+    }
+
     private void setupGrids(TetrisModel model) {
         rootNode.attachChild(gridHolder);
 
@@ -199,5 +218,6 @@ public final class DebugApplication extends SimpleApplication {
         }
 
         fadeoutTextBlock.update(tpf);
+        controller.update(tpf);
     }
 }
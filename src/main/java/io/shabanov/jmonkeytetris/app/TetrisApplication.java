@@ -2,6 +2,7 @@ package io.shabanov.jmonkeytetris.app;
 
 import com.jme3.app.SimpleApplication;
 import com.jme3.math.ColorRGBA;
+import io.shabanov.jmonkeytetris.app.states.FramePacingState;
 import io.shabanov.jmonkeytetris.app.states.TetrisGameState;
 import io.shabanov.jmonkeytetris.app.states.TitleScreenState;
 
@@ -21,6 +22,7 @@ public final class TetrisApplication extends SimpleApplication {
             inputManager.deleteMapping(INPUT_MAPPING_EXIT);
         }
 
+        stateManager.attach(new FramePacingState());
         if (Boolean.TRUE.toString().equals(System.getProperty("QUICK_GAME_START"))) {
             stateManager.attach(new TetrisGameState());
         } else {
@@ -28,10 +30,29 @@ public final class TetrisApplication extends SimpleApplication {
         }
     }
 
+    @Override
+    public void loseFocus() {
+        super.loseFocus();
+        setPacingFocused(false);
+    }
+
+    @Override
+    public void gainFocus() {
+        super.gainFocus();
+        setPacingFocused(true);
+    }
+
     //
     // Private
     //
 
+    private void setPacingFocused(boolean focused) {
+        final FramePacingState pacing = stateManager.getState(FramePacingState.class);
+        if (pacing != null) {
+            pacing.setFocused(focused);
+        }
+    }
+
     private void setUpCamera() {
         flyCam.setEnabled(false);
     }
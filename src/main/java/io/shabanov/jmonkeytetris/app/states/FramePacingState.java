@@ -0,0 +1,113 @@
+package io.shabanov.jmonkeytetris.app.states;
+
+import com.jme3.app.Application;
+import com.jme3.app.state.BaseAppState;
+import com.jme3.input.RawInputListener;
+import com.jme3.input.event.JoyAxisEvent;
+import com.jme3.input.event.JoyButtonEvent;
+import com.jme3.input.event.KeyInputEvent;
+import com.jme3.input.event.MouseButtonEvent;
+import com.jme3.input.event.MouseMotionEvent;
+import com.jme3.input.event.TouchEvent;
+import io.shabanov.jmonkeytetris.util.FramePacer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds frames back as per a {@link FramePacer}, so that the app idles while nothing moves or the window is out of
+ * focus.
+ *
+ * Other states {@link #demand(FramePacer.Demand) state their demand} on every update they need more than a static
+ * scene's frame rate. The frame is held back by a single sleep after it has been rendered: the input manager only
+ * polls input at the start of the next frame, so input that arrives meanwhile waits for the rest of the held back
+ * frame, and the frames after it run at full rate.
+ */
+public final class FramePacingState extends BaseAppState {
+    private final FramePacer pacer = new FramePacer();
+    private long frameStartNanos = System.nanoTime();
+
+    private final RawInputListener inputListener = new RawInputListener() {
+        @Override
+        public void beginInput() {
+        }
+
+        @Override
+        public void endInput() {
+        }
+
+        @Override
+        public void onJoyAxisEvent(JoyAxisEvent evt) {
+            // axes of a resting stick may jitter all the time, buttons are enough to wake up
+        }
+
+        @Override
+        public void onJoyButtonEvent(JoyButtonEvent evt) {
+            pacer.onInput(System.nanoTime());
+        }
+
+        @Override
+        public void onMouseMotionEvent(MouseMotionEvent evt) {
+            pacer.onInput(System.nanoTime());
+        }
+
+        @Override
+        public void onMouseButtonEvent(MouseButtonEvent evt) {
+            pacer.onInput(System.nanoTime());
+        }
+
+        @Override
+        public void onKeyEvent(KeyInputEvent evt) {
+            pacer.onInput(System.nanoTime());
+        }
+
+        @Override
+        public void onTouchEvent(TouchEvent evt) {
+            pacer.onInput(System.nanoTime());
+        }
+    };
+
+    /**
+     * Raises the frame rate of the current frame to the given demand, to be called on every update that needs it.
+     */
+    public void demand(FramePacer.Demand demand) {
+        pacer.demand(demand);
+    }
+
+    /**
+     * Caps the frame rate while the window is out of focus, see {@link Application#loseFocus()}.
+     */
+    public void setFocused(boolean focused) {
+        pacer.setFocused(focused);
+    }
+
+    @Override
+    protected void initialize(Application app) {
+        app.getInputManager().addRawInputListener(inputListener);
+    }
+
+    @Override
+    protected void cleanup(Application app) {
+        app.getInputManager().removeRawInputListener(inputListener);
+    }
+
+    @Override
+    protected void onEnable() {
+    }
+
+    @Override
+    protected void onDisable() {
+    }
+
+    @Override
+    public void postRender() {
+        final long waitNanos = pacer.endFrame(frameStartNanos, System.nanoTime());
+        if (waitNanos > 0L) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        frameStartNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,227 @@
+package io.shabanov.jmonkeytetris.app.states;
+
+import com.jme3.app.Application;
+import com.jme3.app.SimpleApplication;
+import com.jme3.app.state.BaseAppState;
+import com.jme3.input.KeyInput;
+import com.jme3.input.controls.ActionListener;
+import io.shabanov.jmonkeytetris.audio.TetrisSoundEffects;
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.FixedStepClock;
+import io.shabanov.jmonkeytetris.util.FramePacer;
+import io.shabanov.jmonkeytetris.util.KeyBindings;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.versus.VersusMatch;
+import io.shabanov.jmonkeytetris.view.BoardGrid;
+import io.shabanov.jmonkeytetris.view.BoardResources;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.ScoreboardView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import io.shabanov.jmonkeytetris.view.TetrisView;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local versus match of 2 to 4 players sharing one keyboard and one screen.
+ *
+ * All the games run in a single {@link VersusMatch} ticked by one clock in one pass a frame, and share the scene
+ * resources: the boards are laid out by one {@link BoardGrid} under its single light, the status of all the players is
+ * shown by one {@link ScoreboardView} and there is a single {@link SoundEffectsStore}.
+ * Each player has a key set of their own, see {@link InputAction}.
+ */
+public final class SplitScreenState extends BaseAppState {
+    private final int players;
+    private final Random random = ThreadLocalRandom.current();
+    private final FixedStepClock clock = new FixedStepClock();
+
+    private SimpleApplication app;
+    private SoundEffectsStore soundEffectsStore;
+    private ScoreboardView scoreboard;
+    private BoardGrid boardGrid;
+    private VersusMatch match;
+    private InputAction[] boundActions;
+    private boolean paused;
+    private boolean overAnnounced;
+
+    // commands held by each player as input bit masks, and the ones pressed since the last tick: a command pressed and
+    // released within a frame still makes it to one tick
+    private final int[] heldInputs = new int[VersusMatch.MAX_PLAYERS];
+    private final int[] pressedInputs = new int[VersusMatch.MAX_PLAYERS];
+    private final int[] tickInputs;
+
+    private final KeyBindings.ActionHandler<InputAction> inputHandler = (action, isPressed, timestampNanos) -> {
+        if (action.command != null) {
+            final int bit = VersusMatch.inputOf(action.command);
+            if (isPressed) {
+                heldInputs[action.player] |= bit;
+                pressedInputs[action.player] |= bit;
+            } else {
+                heldInputs[action.player] &= ~bit;
+            }
+        } else if (action == InputAction.QUIT && !isPressed) {
+            app.getStateManager().detach(this);
+            app.getStateManager().attach(new TitleScreenState());
+        } else if (action == InputAction.PAUSE_OR_RESTART && isPressed) {
+            togglePauseOrRestart();
+        }
+    };
+    private final ActionListener appActionListener = KeyBindings.dispatchingListener(InputAction.values(), inputHandler);
+
+    @Getter
+    private enum InputAction implements KeyBindings.ActionDetails {
+        P1_LEFT("P1L", KeyInput.KEY_A, 0, GameCommand.MOVE_LEFT),
+        P1_RIGHT("P1R", KeyInput.KEY_D, 0, GameCommand.MOVE_RIGHT),
+        P1_DOWN("P1D", KeyInput.KEY_S, 0, GameCommand.SOFT_DROP),
+        P1_ROTATE("P1Rt", KeyInput.KEY_W, 0, GameCommand.ROTATE),
+        P1_HARD_DROP("P1HDrop", KeyInput.KEY_LSHIFT, 0, GameCommand.HARD_DROP),
+        P2_LEFT("P2L", KeyInput.KEY_LEFT, 1, GameCommand.MOVE_LEFT),
+        P2_RIGHT("P2R", KeyInput.KEY_RIGHT, 1, GameCommand.MOVE_RIGHT),
+        P2_DOWN("P2D", KeyInput.KEY_DOWN, 1, GameCommand.SOFT_DROP),
+        P2_ROTATE("P2Rt", KeyInput.KEY_UP, 1, GameCommand.ROTATE),
+        P2_HARD_DROP("P2HDrop", KeyInput.KEY_RETURN, 1, GameCommand.HARD_DROP),
+        P3_LEFT("P3L", KeyInput.KEY_J, 2, GameCommand.MOVE_LEFT),
+        P3_RIGHT("P3R", KeyInput.KEY_L, 2, GameCommand.MOVE_RIGHT),
+        P3_DOWN("P3D", KeyInput.KEY_K, 2, GameCommand.SOFT_DROP),
+        P3_ROTATE("P3Rt", KeyInput.KEY_I, 2, GameCommand.ROTATE),
+        P3_HARD_DROP("P3HDrop", KeyInput.KEY_M, 2, GameCommand.HARD_DROP),
+        P4_LEFT("P4L", KeyInput.KEY_NUMPAD4, 3, GameCommand.MOVE_LEFT),
+        P4_RIGHT("P4R", KeyInput.KEY_NUMPAD6, 3, GameCommand.MOVE_RIGHT),
+        P4_DOWN("P4D", KeyInput.KEY_NUMPAD5, 3, GameCommand.SOFT_DROP),
+        P4_ROTATE("P4Rt", KeyInput.KEY_NUMPAD8, 3, GameCommand.ROTATE),
+        P4_HARD_DROP("P4HDrop", KeyInput.KEY_NUMPAD0, 3, GameCommand.HARD_DROP),
+        QUIT("Quit", KeyInput.KEY_ESCAPE, -1, null),
+        PAUSE_OR_RESTART("Pause", KeyInput.KEY_SPACE, -1, null);
+
+        final String code;
+        final int defaultKey;
+        final int player; //< -1 for actions shared by all the players
+        @Nullable final GameCommand command; //< null for actions handled by this state itself
+
+        InputAction(String code, int defaultKey, int player, @Nullable GameCommand command) {
+            this.code = code;
+            this.defaultKey = defaultKey;
+            this.player = player;
+            this.command = command;
+        }
+    }
+
+    public SplitScreenState(int players) {
+        if (players < VersusMatch.MIN_PLAYERS || players > VersusMatch.MAX_PLAYERS) {
+            throw new IllegalArgumentException("players");
+        }
+        this.players = players;
+        this.tickInputs = new int[players];
+    }
+
+    @Override
+    protected void initialize(Application app) {
+        this.app = (SimpleApplication) app;
+
+        if (soundEffectsStore == null) {
+            soundEffectsStore = SoundEffectsStore.from(this.app.getAssetManager(), TetrisSoundEffects.values());
+        }
+
+        scoreboard = new ScoreboardView(this.app.getAssetManager(), this.app.getContext().getSettings(), players);
+        boardGrid = new BoardGrid();
+        final BoardResources resources = new BoardResources(this.app.getAssetManager());
+        match = new VersusMatch(random.nextLong(), players, new VersusMatch.ViewFactory() {
+            @Override
+            public FieldView newFieldView(int player, TetrisModel model) {
+                final TetrisView view = new TetrisView(random, resources, model, TetrisView.CellPresentationStyle.PEBBLE);
+                boardGrid.add(view);
+                return view;
+            }
+
+            @Override
+            public StatusView newStatusView(int player) {
+                return scoreboard.getPlayerView(player);
+            }
+        }, soundEffectsStore);
+
+        this.app.getRootNode().attachChild(boardGrid.getHolderNode());
+        this.app.getGuiNode().attachChild(scoreboard.getHolderNode());
+        boardGrid.frameCamera(this.app.getCamera());
+
+        final List<InputAction> actions = new ArrayList<>();
+        for (final InputAction action : InputAction.values()) {
+            if (action.player < players) {
+                actions.add(action);
+            }
+        }
+        boundActions = actions.toArray(new InputAction[0]);
+        KeyBindings.bindActions(boundActions, this.app.getInputManager(), appActionListener);
+
+        soundEffectsStore.play(TetrisSoundEffects.START);
+    }
+
+    @Override
+    protected void cleanup(Application app) {
+        KeyBindings.unbindActions(boundActions, this.app.getInputManager(), appActionListener);
+
+        this.app.getRootNode().detachChild(boardGrid.getHolderNode());
+        this.app.getGuiNode().detachChild(scoreboard.getHolderNode());
+
+        match = null;
+        boardGrid = null;
+        scoreboard = null;
+        this.app = null;
+    }
+
+    @Override
+    protected void onEnable() {
+    }
+
+    @Override
+    protected void onDisable() {
+    }
+
+    @Override
+    public void update(float tpf) {
+        scoreboard.update(tpf);
+        if (paused || match.isOver()) {
+            return;
+        }
+        final FramePacingState pacing = getState(FramePacingState.class);
+        if (pacing != null) {
+            pacing.demand(FramePacer.Demand.FULL);
+        }
+
+        // all the boards advance in the same ticks of one clock
+        for (int ticks = clock.advance(tpf); ticks > 0 && !match.isOver(); --ticks) {
+            for (int i = 0; i < players; ++i) {
+                tickInputs[i] = heldInputs[i] | pressedInputs[i];
+                pressedInputs[i] = 0;
+            }
+            match.tick(tickInputs);
+        }
+        match.present(tpf, clock.getAlpha());
+
+        if (match.isOver() && !overAnnounced) {
+            overAnnounced = true;
+            final int winner = match.getWinner();
+            scoreboard.addNotification(winner >= 0 ? "Player " + (winner + 1) + " wins!" : "Draw!");
+            scoreboard.addNotification("Press [SPACE] to play again");
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private void togglePauseOrRestart() {
+        if (match.isOver()) {
+            app.getStateManager().detach(this);
+            app.getStateManager().attach(new SplitScreenState(players));
+            return;
+        }
+
+        paused = !paused;
+        scoreboard.addNotification(paused ? "Paused" : "Resumed");
+    }
+}
@@ -5,77 +5,120 @@ import com.jme3.app.SimpleApplication;
 import com.jme3.app.state.BaseAppState;
 import com.jme3.input.KeyInput;
 import com.jme3.input.controls.ActionListener;
-import com.jme3.light.DirectionalLight;
-import com.jme3.math.ColorRGBA;
-import com.jme3.math.Vector3f;
-import com.jme3.renderer.Camera;
+import io.shabanov.jmonkeytetris.ai.AiPlayer;
+import io.shabanov.jmonkeytetris.ai.BeamSearch;
+import io.shabanov.jmonkeytetris.ai.EvaluationWeights;
+import io.shabanov.jmonkeytetris.ai.PlacementHints;
+import io.shabanov.jmonkeytetris.audio.TetrisSoundEffects;
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.controller.SimulationThread;
 import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.leaderboard.Leaderboard;
+import io.shabanov.jmonkeytetris.leaderboard.ScoreEntry;
+import io.shabanov.jmonkeytetris.model.BoardSnapshot;
 import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
 import io.shabanov.jmonkeytetris.model.TetrisModel;
-import io.shabanov.jmonkeytetris.util.PubSub;
-import io.shabanov.jmonkeytetris.view.TetrisView;
-import io.shabanov.jmonkeytetris.audio.TetrisSoundEffects;
+import io.shabanov.jmonkeytetris.model.TetrisScoring;
+import io.shabanov.jmonkeytetris.model.save.Persistence;
+import io.shabanov.jmonkeytetris.util.FramePacer;
 import io.shabanov.jmonkeytetris.util.KeyBindings;
+import io.shabanov.jmonkeytetris.util.LatencyStats;
+import io.shabanov.jmonkeytetris.util.PubSub;
 import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.BoardGrid;
+import io.shabanov.jmonkeytetris.view.BoardResources;
+import io.shabanov.jmonkeytetris.view.FieldView;
 import io.shabanov.jmonkeytetris.view.HudView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import io.shabanov.jmonkeytetris.view.TetrisView;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Main game with falling blocks.
+ *
+ * When started with {@code -DSIMULATION_THREAD=true} system property, game logic runs on a dedicated
+ * {@link SimulationThread} and this state only renders its snapshots and forwards player input to it.
+ * With {@code -DAI_PLAYER=true} the game is played by {@link AiPlayer}, e.g. for demo play.
+ *
+ * Final scores of the player's games are recorded on a {@link Leaderboard}, under the {@code PLAYER_NAME} system
+ * property or the OS user name, and the best ones are shown once a game is over.
  */
+@Slf4j
 public final class TetrisGameState extends BaseAppState {
+    private static final boolean USE_SIMULATION_THREAD = Boolean.TRUE.toString().equals(System.getProperty("SIMULATION_THREAD"));
+    private static final boolean USE_AI_PLAYER = Boolean.TRUE.toString().equals(System.getProperty("AI_PLAYER"));
+    private static final int INPUT_LATENCY_REPORT_SAMPLES = 100;
+    private static final long AI_THINK_NANOS = 100_000_000L;
+    private static final int AI_MOVES_PER_TICK = 1;
+    private static final long HINT_THINK_NANOS = 200_000_000L;
+    private static final String PLAYER_NAME = System.getProperty("PLAYER_NAME", System.getProperty("user.name"));
+
     private SimpleApplication app;
-    private final Random random = ThreadLocalRandom.current();
+    private final Random random = ThreadLocalRandom.current(); //< render thread only
     private final PubSub.Manager pubSubManager = PubSub.defaultManager();
-    private final TetrisModel model = new TetrisModel(pubSubManager, Tetrades.tetradeProviderFromRandom(random));
+    // the model deals pieces on the simulation thread when there is one, so it gets its own per-game generator
+    private final TetrisModel model = new TetrisModel(pubSubManager, Tetrades.tetradeProviderFromRandom(new Random()));
     private TetrisView tetrisView;
+    private BoardGrid boardGrid;
     private HudView hudView;
     private TetrisGameController controller;
-    private DirectionalLight sun;
+    private SimulationThread simulation; //< only set when game logic runs on a dedicated thread
+    private AiPlayer aiPlayer; //< only set when the game plays itself
+    private Leaderboard leaderboard; //< only set when the game is played by a human and the leaderboard has opened
     private SoundEffectsStore soundEffectsStore;
-    private final ActionListener appActionListener = (name, isPressed, tpf) -> {
-        if (InputAction.PAUSE_OR_RESTART.matches(name) && !isPressed) {
-            if (!controller.togglePause()) {
-                controller.restart();
-            }
-        } else if (InputAction.ROTATE.matches(name) && !isPressed) {
-            controller.moveTetrade(0, 1);
-        } else if (InputAction.LEFT.matches(name) && !isPressed) {
-            controller.moveTetrade(-1, 0);
-        } else if (InputAction.RIGHT.matches(name) && !isPressed) {
-            controller.moveTetrade(1, 0);
-        } else if (InputAction.QUICK_SAVE.matches(name) && !isPressed) {
-            controller.saveState();
-        } else if (InputAction.QUICK_LOAD.matches(name) && !isPressed) {
-            controller.loadState();
-        } else if (InputAction.QUIT.matches(name) && !isPressed) {
+    private BoardSnapshot renderedSnapshot; //< snapshot rendered in the current frame when simulation thread is used
+    private boolean simulationStopReported;
+
+    // input-to-display latency instrumentation
+    private final LatencyStats inputLatency = new LatencyStats();
+    private long measuredInputNanos;
+
+    private final KeyBindings.ActionHandler<InputAction> inputHandler = (action, isPressed, timestampNanos) -> {
+        if (action.command != null) {
+            execute(action.command, isPressed, timestampNanos);
+        } else if (action == InputAction.QUIT && !isPressed) {
             app.getStateManager().detach(this);
             app.getStateManager().attach(new TitleScreenState());
-        } else if (InputAction.DOWN.matches(name)) {
-            controller.setDownSpeedUp(isPressed);
+        } else if (action == InputAction.HINT && isPressed) {
+            toggleHints();
         }
     };
+    private final ActionListener appActionListener = KeyBindings.dispatchingListener(InputAction.values(), inputHandler);
 
     @Getter
     private enum InputAction implements KeyBindings.ActionDetails {
-        LEFT("L", KeyInput.KEY_LEFT),
-        RIGHT("R", KeyInput.KEY_RIGHT),
-        DOWN("D", KeyInput.KEY_DOWN),
-        ROTATE("Rt", KeyInput.KEY_UP),
-        QUICK_SAVE("QSave", KeyInput.KEY_Q),
-        QUICK_LOAD("QLoad", KeyInput.KEY_L),
-        QUIT("Quit", KeyInput.KEY_ESCAPE),
-        PAUSE_OR_RESTART("Pause", KeyInput.KEY_SPACE);
+        LEFT("L", KeyInput.KEY_LEFT, GameCommand.MOVE_LEFT),
+        RIGHT("R", KeyInput.KEY_RIGHT, GameCommand.MOVE_RIGHT),
+        DOWN("D", KeyInput.KEY_DOWN, GameCommand.SOFT_DROP),
+        ROTATE("Rt", KeyInput.KEY_UP, GameCommand.ROTATE),
+        HARD_DROP("HDrop", KeyInput.KEY_RETURN, GameCommand.HARD_DROP),
+        QUICK_SAVE("QSave", KeyInput.KEY_Q, GameCommand.QUICK_SAVE),
+        QUICK_LOAD("QLoad", KeyInput.KEY_L, GameCommand.QUICK_LOAD),
+        REWIND("Rewind", KeyInput.KEY_BACK, GameCommand.REWIND),
+        HINT("Hint", KeyInput.KEY_H, null),
+        QUIT("Quit", KeyInput.KEY_ESCAPE, null),
+        PAUSE_OR_RESTART("Pause", KeyInput.KEY_SPACE, GameCommand.PAUSE_OR_RESTART);
 
         final String code;
         final int defaultKey;
+        @Nullable final GameCommand command; //< null for actions handled by this state itself
 
-        InputAction(String code, int defaultKey) {
+        InputAction(String code, int defaultKey, @Nullable GameCommand command) {
             this.code = code;
             this.defaultKey = defaultKey;
+            this.command = command;
         }
     }
 
@@ -88,39 +131,85 @@ public final class TetrisGameState extends BaseAppState {
         }
 
         model.clear();
-        tetrisView = new TetrisView(random, this.app.getAssetManager(), model);
         hudView = new HudView(this.app.getAssetManager(), this.app.getContext().getSettings());
-        controller = new TetrisGameController(model, tetrisView, hudView, soundEffectsStore);
+        final BoardResources resources = new BoardResources(this.app.getAssetManager());
+        if (USE_SIMULATION_THREAD) {
+            // controller is confined to the simulation thread, so anything it wants to show is passed to render thread
+            final Executor renderThread = this.app::enqueue;
+            final SoundEffectsStore sounds = soundEffectsStore;
+            tetrisView = TetrisView.forSnapshots(random, resources, model, TetrisView.CellPresentationStyle.PEBBLE);
+            controller = new TetrisGameController(model, FieldView.noOp(), new RenderThreadStatusView(hudView, renderThread),
+                    (effect) -> renderThread.execute(() -> sounds.play(effect)));
+            simulation = new SimulationThread(controller);
+        } else {
+            tetrisView = new TetrisView(random, resources, model, TetrisView.CellPresentationStyle.PEBBLE);
+            controller = new TetrisGameController(model, tetrisView, hudView, soundEffectsStore);
+        }
+        if (USE_AI_PLAYER) {
+            final ForkJoinPool pool = ForkJoinPool.commonPool();
+            final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH, pool);
+            aiPlayer = AiPlayer.realTime(model, search, pool, AI_THINK_NANOS, AI_MOVES_PER_TICK);
+            controller.setInputSource(aiPlayer);
+        } else {
+            leaderboard = tryOpenLeaderboard();
+        }
+        if (leaderboard != null) {
+            // the result comes from the simulation thread if there is one, the HUD is updated on the render thread
+            final Leaderboard results = leaderboard;
+            final HudView hud = hudView;
+            final Executor renderThread = this.app::enqueue;
+            controller.setResultListener((scoring) -> recordResult(results, scoring, hud, renderThread));
+        }
 
-        this.app.getRootNode().attachChild(tetrisView.getHolderNode());
+        // the grid also carries the light that makes the lit cells visible
+        boardGrid = new BoardGrid();
+        boardGrid.add(tetrisView);
+        this.app.getRootNode().attachChild(boardGrid.getHolderNode());
         this.app.getGuiNode().attachChild(hudView.getHolderNode());
 
-        tetrisView.getHolderNode().setLocalTranslation(-5f, 0, 0);
-
-        // Must add a light to make the lit object visible
-        sun = new DirectionalLight();
-        sun.setDirection(new Vector3f(-1,-2,-10).normalizeLocal());
-        sun.setColor(ColorRGBA.White);
-        this.app.getRootNode().addLight(sun);
-
-        setUpCamera();
+        boardGrid.frameCamera(this.app.getCamera());
 
         KeyBindings.bindActions(InputAction.values(), this.app.getInputManager(), appActionListener);
 
         soundEffectsStore.play(TetrisSoundEffects.START);
+
+        if (simulation != null) {
+            simulation.start();
+        }
     }
 
     @Override
     protected void cleanup(Application app) {
         KeyBindings.unbindActions(InputAction.values(), this.app.getInputManager(), appActionListener);
 
+        if (simulation != null) {
+            simulation.close();
+            simulation = null;
+            renderedSnapshot = null;
+            simulationStopReported = false;
+        }
+        if (aiPlayer != null) {
+            aiPlayer.cancel();
+            aiPlayer = null;
+        }
+        tetrisView.setHints(null);
+        reportInputLatency();
+        if (leaderboard != null) {
+            try {
+                leaderboard.close();
+            } catch (IOException e) {
+                log.warn("Unable to close the leaderboard", e);
+            }
+            leaderboard = null;
+        }
+
         model.clear();
-        this.app.getRootNode().detachChild(tetrisView.getHolderNode());
-        this.app.getRootNode().removeLight(sun);
+        this.app.getRootNode().detachChild(boardGrid.getHolderNode());
         this.app.getGuiNode().detachChild(hudView.getHolderNode());
 
         controller = null;
         tetrisView = null;
+        boardGrid = null;
         hudView = null;
 
         // finally remove app
@@ -137,15 +226,136 @@ public final class TetrisGameState extends BaseAppState {
 
     @Override
     public void update(float tpf) {
-        controller.update(tpf);
+        if (simulation == null) {
+            controller.update(tpf);
+            demandFrames(controller.getPhase());
+            return;
+        }
+
+        if (simulation.isStopped() && !simulationStopReported) {
+            simulationStopReported = true;
+            hudView.addNotification("Game has stopped, see logs");
+        }
+        hudView.update(tpf);
+        renderedSnapshot = simulation.acquireSnapshot();
+        tetrisView.render(renderedSnapshot);
+        if (renderedSnapshot.getPhase() == TetrisGamePhase.RUNNING) {
+            tetrisView.updateStaticAnimation(tpf);
+        }
+        demandFrames(renderedSnapshot.getPhase());
+    }
+
+    @Override
+    public void postRender() {
+        if (controller == null) {
+            return;
+        }
+
+        // the frame showing the latest applied input has just been rendered
+        final long appliedInputNanos = renderedSnapshot != null ? renderedSnapshot.getLastAppliedInputNanos() :
+                controller.getLastAppliedInputNanos();
+        if (appliedInputNanos != measuredInputNanos) {
+            measuredInputNanos = appliedInputNanos;
+            inputLatency.record(System.nanoTime() - appliedInputNanos);
+            if (inputLatency.getCount() >= INPUT_LATENCY_REPORT_SAMPLES) {
+                reportInputLatency();
+            }
+        }
+    }
+
+    /**
+     * Only a running game needs every frame, a paused or finished one doesn't move.
+     */
+    private void demandFrames(TetrisGamePhase phase) {
+        final FramePacingState pacing = getState(FramePacingState.class);
+        if (pacing != null) {
+            pacing.demand(phase == TetrisGamePhase.RUNNING ? FramePacer.Demand.FULL : FramePacer.Demand.STATIC);
+        }
+    }
+
+    private void execute(GameCommand command, boolean isPressed, long timestampNanos) {
+        if (simulation != null) {
+            simulation.post(command, isPressed, timestampNanos);
+        } else if (isPressed) {
+            controller.press(command, timestampNanos);
+        } else {
+            controller.release(command, timestampNanos);
+        }
     }
 
-    private void setUpCamera() {
-        // assuming that field width < height, adjust camera position according to field's height
-        // TODO: better computation taking into an account desired screen padding
-        final Camera cam = this.app.getCamera();
-        final float adjustedHeight = 1.2f * TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT;
-        cam.setLocation(new Vector3f(0, adjustedHeight, adjustedHeight));
-        cam.lookAt(new Vector3f(0, TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT * .6f, 0), new Vector3f(0, 1, 0));
+    private void toggleHints() {
+        if (tetrisView.isShowingHints()) {
+            tetrisView.setHints(null);
+            return;
+        }
+
+        // searches run on the common pool, so that a hint never takes a frame's time
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH, pool);
+        tetrisView.setHints(new PlacementHints(search, pool, HINT_THINK_NANOS));
+    }
+
+    @Nullable
+    private static Leaderboard tryOpenLeaderboard() {
+        try {
+            return Leaderboard.open(Persistence.LEADERBOARD_PATH, Leaderboard.DEFAULT_TOP_SIZE);
+        } catch (IOException e) {
+            log.warn("Unable to open the leaderboard at {}, scores won't be recorded", Persistence.LEADERBOARD_PATH, e);
+            return null;
+        }
+    }
+
+    private static void recordResult(Leaderboard results, TetrisScoring scoring, HudView hud, Executor renderThread) {
+        final ScoreEntry entry;
+        try {
+            entry = results.submit(PLAYER_NAME, scoring);
+        } catch (UncheckedIOException e) {
+            log.warn("Unable to record the score of {}", PLAYER_NAME, e);
+            return;
+        }
+        final List<ScoreEntry> topScores = results.getTopScores();
+        final double percentileRank = results.getPercentileRank(entry.getScore());
+        renderThread.execute(() -> hud.showLeaderboard(topScores, entry, percentileRank));
+    }
+
+    private void reportInputLatency() {
+        if (inputLatency.getCount() > 0) {
+            log.info("Input-to-display latency: {}", inputLatency);
+            inputLatency.reset();
+        }
+    }
+
+    /**
+     * Forwards status updates from the simulation thread to the HUD on the render thread.
+     */
+    @ParametersAreNonnullByDefault
+    private static final class RenderThreadStatusView implements StatusView {
+        private final StatusView target;
+        private final Executor renderThread;
+
+        RenderThreadStatusView(StatusView target, Executor renderThread) {
+            this.target = target;
+            this.renderThread = renderThread;
+        }
+
+        @Override
+        public void addNotification(String notification) {
+            renderThread.execute(() -> target.addNotification(notification));
+        }
+
+        @Override
+        public void announcePhase(TetrisGamePhase phase) {
+            renderThread.execute(() -> target.announcePhase(phase));
+        }
+
+        @Override
+        public void announceScore(int currentScore) {
+            renderThread.execute(() -> target.announceScore(currentScore));
+        }
+
+        @Override
+        public void update(float tpf) {
+            // HUD animation is updated by the render thread itself
+        }
     }
 }
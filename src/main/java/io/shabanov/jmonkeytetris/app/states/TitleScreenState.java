@@ -22,7 +22,10 @@ import com.jme3.scene.Spatial;
 import com.jme3.system.AppSettings;
 import io.shabanov.jmonkeytetris.model.Tetrades;
 import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.util.FixedStepClock;
+import io.shabanov.jmonkeytetris.util.FramePacer;
 import io.shabanov.jmonkeytetris.util.KeyBindings;
+import io.shabanov.jmonkeytetris.util.TimerWheel;
 import io.shabanov.jmonkeytetris.view.presentation.TetradeColors;
 import lombok.Getter;
 
@@ -43,7 +46,10 @@ public final class TitleScreenState extends BaseAppState {
     private final Node fallingNodeHolder = new Node();
     private Spatial tetrisTitle;
     private Quaternion tetrisTitleOriginalRotation;
-    private float titleScreenPause;
+    private final FixedStepClock clock = new FixedStepClock();
+    private final TimerWheel timers = new TimerWheel();
+    // logo stays still while this one is scheduled
+    private final TimerWheel.Timer titleScreenPause = timers.newTimer(() -> {});
     private final Random random = ThreadLocalRandom.current();
 
     private static final class Figure {
@@ -95,6 +101,12 @@ public final class TitleScreenState extends BaseAppState {
         if (InputAction.START.matches(name) && !isPressed) {
             app.getStateManager().detach(this);
             app.getStateManager().attach(new TetrisGameState());
+        } else if (InputAction.TWO_PLAYERS.matches(name) && !isPressed) {
+            startSplitScreen(2);
+        } else if (InputAction.THREE_PLAYERS.matches(name) && !isPressed) {
+            startSplitScreen(3);
+        } else if (InputAction.FOUR_PLAYERS.matches(name) && !isPressed) {
+            startSplitScreen(4);
         } else if (InputAction.STOP.matches(name) && !isPressed) {
             app.stop();
         }
@@ -140,12 +152,20 @@ public final class TitleScreenState extends BaseAppState {
 
     @Override
     public void update(float tpf) {
+        // falling figures and the logo move slowly, a capped frame rate does for them
+        final FramePacingState pacing = getState(FramePacingState.class);
+        if (pacing != null) {
+            pacing.demand(FramePacer.Demand.ANIMATED);
+        }
+
         for (final Figure figure : figures) {
             figure.update(random, tpf);
         }
 
-        if (titleScreenPause > 0f) {
-            titleScreenPause -= tpf;
+        for (int ticks = clock.advance(tpf); ticks > 0; --ticks) {
+            timers.advance();
+        }
+        if (titleScreenPause.isScheduled()) {
             return;
         }
 
@@ -160,7 +180,10 @@ public final class TitleScreenState extends BaseAppState {
     @Getter
     private enum InputAction implements KeyBindings.ActionDetails {
         STOP("Quit", KeyInput.KEY_ESCAPE),
-        START("Start", KeyInput.KEY_SPACE);
+        START("Start", KeyInput.KEY_SPACE),
+        TWO_PLAYERS("Start2", KeyInput.KEY_2),
+        THREE_PLAYERS("Start3", KeyInput.KEY_3),
+        FOUR_PLAYERS("Start4", KeyInput.KEY_4);
 
         final String code;
         final int defaultKey;
@@ -171,6 +194,11 @@ public final class TitleScreenState extends BaseAppState {
         }
     }
 
+    private void startSplitScreen(int players) {
+        app.getStateManager().detach(this);
+        app.getStateManager().attach(new SplitScreenState(players));
+    }
+
     private void initializeMenuLabels(AssetManager assetManager, AppSettings appSettings) {
         final BitmapFont guiFont = assetManager.loadFont("Interface/Fonts/Default.fnt");
 
@@ -185,6 +213,16 @@ public final class TitleScreenState extends BaseAppState {
             titleScreenUi.attachChild(welcomeText);
         }
 
+        {
+            menuOffsetY -= 22f;
+            final BitmapText splitScreenText = new BitmapText(guiFont, false, false);
+            splitScreenText.setSize(guiFont.getCharSet().getRenderedSize());
+            splitScreenText.setColor(ColorRGBA.Orange);
+            splitScreenText.setText("Press [2]-[4] for Split-Screen Versus");
+            splitScreenText.setLocalTranslation((appSettings.getWidth() - splitScreenText.getLineWidth()) / 2f, menuOffsetY, 0);
+            titleScreenUi.attachChild(splitScreenText);
+        }
+
         {
             menuOffsetY -= 22f;
             final BitmapText stopText = new BitmapText(guiFont, false, false);
@@ -210,7 +248,7 @@ public final class TitleScreenState extends BaseAppState {
         }
         titleScreenField.attachChild(tetrisTitle);
 
-        titleScreenPause = TITLE_SCREEN_PAUSE_INIT;
+        titleScreenPause.schedule(clock.secondsToTicks(TITLE_SCREEN_PAUSE_INIT));
     }
 
     private void initializeFallingFigures(AssetManager assetManager) {
@@ -0,0 +1,92 @@
+package io.shabanov.jmonkeytetris.controller;
+
+/**
+ * Delayed auto shift (DAS) and auto repeat rate (ARR) of horizontal movement, counted in simulation ticks.
+ *
+ * A press moves the tetrade right away, holding the key for {@code delayTicks} starts repeating the move every
+ * {@code repeatTicks}. When both directions are held, the one pressed last wins.
+ */
+final class AutoShift {
+    private final int delayTicks;
+    private final int repeatTicks;
+
+    private boolean leftHeld;
+    private boolean rightHeld;
+
+    // -1, 1 or 0 if neither direction is held
+    private int direction;
+    private int heldTicks;
+
+    AutoShift(int delayTicks, int repeatTicks) {
+        if (delayTicks < 1 || repeatTicks < 1) {
+            throw new IllegalArgumentException("delay and repeat must be at least one tick");
+        }
+        this.delayTicks = delayTicks;
+        this.repeatTicks = repeatTicks;
+    }
+
+    /**
+     * @param dx Direction, -1 or 1
+     */
+    void press(int dx) {
+        if (dx < 0) {
+            leftHeld = true;
+        } else {
+            rightHeld = true;
+        }
+        direction = dx;
+        heldTicks = 0;
+    }
+
+    void release(int dx) {
+        if (dx < 0) {
+            leftHeld = false;
+        } else {
+            rightHeld = false;
+        }
+        if (direction == dx) {
+            // fall back to the opposite direction if it is still held, which needs to charge again
+            direction = leftHeld ? -1 : (rightHeld ? 1 : 0);
+            heldTicks = 0;
+        }
+    }
+
+    void save(ControllerSnapshot snapshot) {
+        snapshot.leftHeld = leftHeld;
+        snapshot.rightHeld = rightHeld;
+        snapshot.autoShiftDirection = direction;
+        snapshot.autoShiftHeldTicks = heldTicks;
+    }
+
+    void restore(ControllerSnapshot snapshot) {
+        leftHeld = snapshot.leftHeld;
+        rightHeld = snapshot.rightHeld;
+        direction = snapshot.autoShiftDirection;
+        heldTicks = snapshot.autoShiftHeldTicks;
+    }
+
+    /**
+     * Forgets the held keys, e.g. when the game jumps to another state, so that a key held across doesn't keep
+     * shifting the tetrade until it is pressed again.
+     */
+    void reset() {
+        leftHeld = false;
+        rightHeld = false;
+        direction = 0;
+        heldTicks = 0;
+    }
+
+    /**
+     * @return Direction to move in on this tick or 0 if there should be no move
+     */
+    int tick() {
+        if (direction == 0) {
+            return 0;
+        }
+        ++heldTicks;
+        if (heldTicks < delayTicks) {
+            return 0;
+        }
+        return (heldTicks - delayTicks) % repeatTicks == 0 ? direction : 0;
+    }
+}
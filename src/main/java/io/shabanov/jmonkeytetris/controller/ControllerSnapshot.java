@@ -0,0 +1,40 @@
+package io.shabanov.jmonkeytetris.controller;
+
+import io.shabanov.jmonkeytetris.model.ModelCheckpoint;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+
+/**
+ * Complete game state of a {@link TetrisGameController} on a given tick, see
+ * {@link TetrisGameController#save(ControllerSnapshot)}. Unlike the checkpoints taken on spawns this one captures the
+ * game in between them too: timers, held keys and the falling tetrade position.
+ *
+ * Snapshots are meant to be allocated once and refilled, e.g. as a ring of the last few ticks.
+ */
+public final class ControllerSnapshot {
+    // model and scoring state
+    final ModelCheckpoint model = new ModelCheckpoint();
+
+    TetrisGamePhase phase;
+    long tick;
+    int ticksSinceLastStep;
+    // ticks left until the next gravity step, zero if none is scheduled
+    int gravityTicks;
+    boolean downSpeedUp;
+    boolean spawnNewTetrade;
+    long spawnCount;
+    long checkpointCount;
+    float smoothOffset;
+
+    // auto shift state
+    boolean leftHeld;
+    boolean rightHeld;
+    int autoShiftDirection;
+    int autoShiftHeldTicks;
+
+    /**
+     * @return Simulation tick the state has been captured on
+     */
+    public long getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,25 @@
+package io.shabanov.jmonkeytetris.controller;
+
+/**
+ * Commands a player can issue to {@link TetrisGameController}.
+ *
+ * Each command has a press and a release, see {@link TetrisGameController#press(GameCommand, long)} and
+ * {@link TetrisGameController#release(GameCommand, long)}; commands that act once take effect on press.
+ */
+public enum GameCommand {
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    ROTATE,
+    SOFT_DROP,
+    HARD_DROP,
+    PAUSE_OR_RESTART,
+    QUICK_SAVE,
+    QUICK_LOAD,
+    REWIND;
+
+    private static final GameCommand[] VALUES = values();
+
+    public static GameCommand fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,35 @@
+package io.shabanov.jmonkeytetris.controller;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Gravity curve by difficulty level, in 60 Hz simulation ticks.
+ *
+ * Up to 1G (one row per tick) the falling tetrade steps down one row every few ticks; past that it steps down several
+ * rows per tick in a single model operation, up to 20G where it lands on the first tick after it has spawned.
+ */
+@UtilityClass
+class Gravity {
+    /**
+     * Minimum number of ticks a tetrade that rests on the stack can still be moved before it locks.
+     */
+    static final int LOCK_DELAY_TICKS = 30;
+
+    private static final int[] TICKS_PER_STEP = {30, 26, 22, 18, 15, 12, 9, 7, 5, 4, 3, 2, 1};
+    private static final int[] ROWS_PER_STEP = {1, 2, 3, 5, 10, 20};
+
+    /**
+     * @return Number of ticks between the steps down at the given level
+     */
+    static int ticksPerStep(int level) {
+        return TICKS_PER_STEP[Math.min(Math.max(level, 0), TICKS_PER_STEP.length - 1)];
+    }
+
+    /**
+     * @return Number of rows the tetrade falls in a single step at the given level
+     */
+    static int rowsPerStep(int level) {
+        final int index = Math.max(level - (TICKS_PER_STEP.length - 1), 0);
+        return ROWS_PER_STEP[Math.min(index, ROWS_PER_STEP.length - 1)];
+    }
+}
@@ -0,0 +1,144 @@
+package io.shabanov.jmonkeytetris.controller;
+
+import io.shabanov.jmonkeytetris.model.BoardSnapshot;
+import io.shabanov.jmonkeytetris.util.FixedStepClock;
+import io.shabanov.jmonkeytetris.util.SpscCommandQueue;
+import io.shabanov.jmonkeytetris.util.TripleBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs {@link TetrisGameController} on a dedicated thread at a fixed tick rate, so that gameplay timing doesn't depend
+ * on how long it takes to render a frame.
+ *
+ * The render thread talks to the simulation through two lock-free channels only: it
+ * {@link #post(GameCommand, boolean, long) posts} timestamped command presses and releases and
+ * {@link #acquireSnapshot() acquires} the latest state published at the end of each tick.
+ * The controller must not be accessed by any other thread while the simulation is running, hence it is expected to
+ * be created with views that either do nothing or hand their work over to the render thread.
+ *
+ * Quick save and load commands read and write their file right on the simulation thread: the tick that executes them
+ * is late by the time the IO takes, and the ticks missed meanwhile are caught up right after, same as after any other
+ * stall. Handing the IO over to another thread would instead need a copy of the controller state confined to this one.
+ *
+ * An exception thrown by the controller stops the simulation, the render thread finds out by checking
+ * {@link #isStopped()}.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+public final class SimulationThread implements AutoCloseable {
+    private static final int COMMAND_QUEUE_CAPACITY = 256;
+
+    private final TetrisGameController controller;
+    private final long tickNanos;
+    private final float tickSeconds;
+    private final SpscCommandQueue commands = new SpscCommandQueue(COMMAND_QUEUE_CAPACITY);
+    private final TripleBuffer<BoardSnapshot> snapshots = new TripleBuffer<>(BoardSnapshot::new);
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile boolean failed;
+
+    public SimulationThread(TetrisGameController controller) {
+        this(controller, FixedStepClock.DEFAULT_TICKS_PER_SECOND);
+    }
+
+    public SimulationThread(TetrisGameController controller, int ticksPerSecond) {
+        this.controller = controller;
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.tickSeconds = 1f / ticksPerSecond;
+        this.thread = new Thread(this::run, "tetris-simulation");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Render thread side: hands over a player's command press or release to be executed before the next tick.
+     */
+    public void post(GameCommand command, boolean pressed, long timestampNanos) {
+        if (!commands.offer(command.ordinal() << 1 | (pressed ? 1 : 0), timestampNanos)) {
+            log.warn("Simulation command queue is full, dropping command={}, pressed={}", command, pressed);
+        }
+    }
+
+    /**
+     * Render thread side: returns the latest published state, the returned snapshot remains valid until the next call.
+     */
+    public BoardSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+
+    /**
+     * Render thread side: tells if the simulation has stopped on its own because of a failure, see the logs for it.
+     */
+    public boolean isStopped() {
+        return failed;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private void run() {
+        try {
+            runTicks();
+        } catch (RuntimeException e) {
+            log.error("Simulation has stopped", e);
+            failed = true;
+        }
+    }
+
+    private void runTicks() {
+        long nextTickAt = System.nanoTime();
+        while (running) {
+            // run all the ticks that are due, a few of them at once if simulation has fallen behind
+            int dueTicks = 0;
+            while (nextTickAt - System.nanoTime() <= 0 && dueTicks < FixedStepClock.DEFAULT_MAX_TICKS_PER_FRAME) {
+                executeCommands();
+                controller.update(tickSeconds);
+                nextTickAt += tickNanos;
+                ++dueTicks;
+            }
+            if (dueTicks == FixedStepClock.DEFAULT_MAX_TICKS_PER_FRAME) {
+                nextTickAt = System.nanoTime() + tickNanos; // too far behind, drop the rest
+            }
+
+            if (dueTicks > 0) {
+                final BoardSnapshot snapshot = snapshots.getWriteBuffer();
+                controller.copyTo(snapshot);
+                snapshot.setTakenAtNanos(System.nanoTime());
+                snapshots.publish();
+            }
+
+            LockSupport.parkNanos(nextTickAt - System.nanoTime());
+        }
+    }
+
+    private void executeCommands() {
+        while (commands.poll()) {
+            final int polledCommand = commands.getPolledCommand();
+            final GameCommand command = GameCommand.fromOrdinal(polledCommand >>> 1);
+            if ((polledCommand & 1) != 0) {
+                controller.press(command, commands.getPolledTimestamp());
+            } else {
+                controller.release(command, commands.getPolledTimestamp());
+            }
+        }
+    }
+}
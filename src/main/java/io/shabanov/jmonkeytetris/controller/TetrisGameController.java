@@ -2,16 +2,22 @@ package io.shabanov.jmonkeytetris.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.shabanov.jmonkeytetris.audio.TetrisSoundEffects;
+import io.shabanov.jmonkeytetris.model.BoardSnapshot;
+import io.shabanov.jmonkeytetris.model.CheckpointHistory;
+import io.shabanov.jmonkeytetris.model.ModelCheckpoint;
 import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
 import io.shabanov.jmonkeytetris.model.TetrisModel;
 import io.shabanov.jmonkeytetris.model.TetrisScoring;
 import io.shabanov.jmonkeytetris.model.save.Persistence;
 import io.shabanov.jmonkeytetris.model.save.SaveState;
+import io.shabanov.jmonkeytetris.util.FixedStepClock;
+import io.shabanov.jmonkeytetris.util.TimerWheel;
 import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
-import io.shabanov.jmonkeytetris.view.HudView;
-import io.shabanov.jmonkeytetris.view.TetrisView;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.io.File;
 import java.io.FileInputStream;
@@ -22,54 +28,293 @@ import java.nio.file.Path;
 @Slf4j
 @ParametersAreNonnullByDefault
 public final class TetrisGameController {
+    private static final int HISTORY_CAPACITY = 64;
+
+    /**
+     * Source of commands other than player key presses, e.g. a bot, polled by the simulation once per tick.
+     */
+    public interface InputSource {
+        /**
+         * Called on the simulation thread before the tick advances the game timers; may move the falling tetrade
+         * through the controller.
+         */
+        void poll(TetrisGameController controller);
+    }
+
+    /**
+     * Receives the final score of every game that is over, e.g. to record it on a leaderboard. A game is reported
+     * once: a game over after rewinding or loading a quick save is not, until the game is restarted.
+     */
+    public interface ResultListener {
+        /**
+         * Called on the thread the controller runs on right after the game is over.
+         *
+         * @param scoring Final score, only valid for the duration of the call
+         */
+        void onGameOver(TetrisScoring scoring);
+    }
+
     private final ObjectMapper mapper = new ObjectMapper();
     private final TetrisModel model;
-    private final TetrisView tetrisView;
-    private final HudView hudView;
+    private final FieldView tetrisView;
+    private final StatusView hudView;
     private final SoundEffectsStore soundEffectsStore;
 
     // current phase of the playfield
     private TetrisGamePhase phase = TetrisGamePhase.RUNNING;
 
-    // a desired move speed, smaller is faster, uses the same units as moveTick below
-    private float moveSpeed;
+    // simulation clock, all the game logic advances in its fixed ticks regardless of the frame rate
+    private final FixedStepClock clock = new FixedStepClock();
+
+    // gravity of the current difficulty level: simulation ticks between steps down and rows fallen per step
+    private int ticksPerStep;
+    private int rowsPerStep;
 
-    // game loop speed
-    private float moveTick = 0.0f;
+    // game timers, advanced once per simulation tick
+    private final TimerWheel timers = new TimerWheel();
+
+    // steps the falling tetrade down, or locks it once it has been resting on the stack long enough
+    private final TimerWheel.Timer gravityTimer = timers.newTimer(this::onGravityStep);
+
+    // timer tick the falling tetrade has spawned or moved down last time on
+    private long lastStepTick;
 
     // indicates whether falling tetrade speed needs to be increased (e.g. when player doesn't want to wait
     // for a tetrade to fall)
     private boolean downSpeedUp = false;
 
+    // horizontal auto-repeat of held move keys
+    private final AutoShift autoShift = new AutoShift(clock.secondsToTicks(.17f), clock.secondsToTicks(.05f));
+
+    // System.nanoTime() of the latest player input that has changed the falling tetrade position
+    private long lastAppliedInputNanos;
+
+    // checkpoints taken on every spawned tetrade, see rewind
+    private final CheckpointHistory history = new CheckpointHistory(HISTORY_CAPACITY);
+    // number of checkpoints taken, lets a restored snapshot drop the ones taken after it
+    private long checkpointCount;
+
+    // polled on every tick a tetrade is falling
+    @Nullable private InputSource inputSource;
+
+    @Nullable private ResultListener resultListener;
+    private boolean resultReported;
+
     private boolean spawnNewTetrade = true;
+    private long spawnCount;
     private final TetrisScoring tetrisScoring = new TetrisScoring();
     private float smoothOffset = 0;
 
-    public TetrisGameController(TetrisModel model, TetrisView tetrisView, HudView hudView, SoundEffectsStore soundEffectsStore) {
+    public TetrisGameController(TetrisModel model, FieldView tetrisView, StatusView hudView, SoundEffectsStore soundEffectsStore) {
         this.model = model;
         this.tetrisView = tetrisView;
         this.hudView = hudView;
         this.soundEffectsStore = soundEffectsStore;
-        this.moveSpeed = .5f;
 
         // update listeners
         this.model.updateFieldListeners();
 
         tetrisScoring.setDifficultyLevel(0);
         tetrisScoring.setCurrentScore(0);
+        applyGravity();
         hudView.announceScore(tetrisScoring.getCurrentScore());
     }
 
-    public void moveTetrade(int dx, int dOrientation) {
+    /**
+     * Applies a pressed command right away, held moves are then auto-repeated by the simulation ticks until
+     * {@link #release(GameCommand, long) released}.
+     *
+     * @param timestampNanos {@link System#nanoTime()} of the key press, used to measure input latency
+     */
+    public void press(GameCommand command, long timestampNanos) {
+        switch (command) {
+            case MOVE_LEFT:
+                autoShift.press(-1);
+                trackInput(timestampNanos, moveTetrade(-1, 0));
+                break;
+            case MOVE_RIGHT:
+                autoShift.press(1);
+                trackInput(timestampNanos, moveTetrade(1, 0));
+                break;
+            case ROTATE:
+                trackInput(timestampNanos, moveTetrade(0, 1));
+                break;
+            case SOFT_DROP:
+                setDownSpeedUp(true);
+                break;
+            case HARD_DROP:
+                trackInput(timestampNanos, hardDrop());
+                break;
+            case PAUSE_OR_RESTART:
+                if (!togglePause()) {
+                    restart();
+                }
+                break;
+            case QUICK_SAVE:
+                saveState();
+                break;
+            case QUICK_LOAD:
+                loadState();
+                break;
+            case REWIND:
+                rewind(1);
+                break;
+        }
+    }
+
+    public void release(GameCommand command, long timestampNanos) {
+        switch (command) {
+            case MOVE_LEFT:
+                autoShift.release(-1);
+                break;
+            case MOVE_RIGHT:
+                autoShift.release(1);
+                break;
+            case SOFT_DROP:
+                setDownSpeedUp(false);
+                break;
+            default:
+                // the rest of commands act on press only
+        }
+    }
+
+    /**
+     * Presses and releases the given command at once.
+     */
+    public void execute(GameCommand command) {
+        final long timestampNanos = System.nanoTime();
+        press(command, timestampNanos);
+        release(command, timestampNanos);
+    }
+
+    public boolean moveTetrade(int dx, int dOrientation) {
         if (phase != TetrisGamePhase.RUNNING) {
-            return;
+            return false;
         }
 
         if (!model.tryMoveTo(dx, dOrientation)) {
-            return;
+            return false;
         }
 
         tetrisView.updateFallingTetrade(smoothOffset);
+        return true;
+    }
+
+    /**
+     * Drops the falling tetrade onto the stack and locks it right away.
+     */
+    public boolean hardDrop() {
+        if (phase != TetrisGamePhase.RUNNING || spawnNewTetrade) {
+            return false;
+        }
+
+        lockTetrade(model.hardDrop());
+        return true;
+    }
+
+    /**
+     * Pushes the stack up by the given number of garbage rows with a hole at the given column, e.g. sent by
+     * an opponent in a versus match. The game is over if the stack doesn't fit the field anymore.
+     *
+     * @return Whether the game goes on
+     */
+    public boolean insertGarbage(int rows, int holeX) {
+        if (phase == TetrisGamePhase.GAME_OVER) {
+            return false;
+        }
+
+        if (!model.insertGarbageRows(rows, holeX)) {
+            gravityTimer.cancel();
+            setPhase(TetrisGamePhase.GAME_OVER);
+            return false;
+        }
+
+        if (!spawnNewTetrade) {
+            tetrisView.updateFallingTetrade(smoothOffset);
+        }
+        return true;
+    }
+
+    /**
+     * Takes the game back to the moment the tetrade the given number of pieces ago has spawned, as far as the history
+     * goes; rewinding zero pieces restarts the falling tetrade from its spawning point.
+     *
+     * @return Number of pieces actually rewound
+     */
+    public int rewind(int pieces) {
+        final int historySize = history.size();
+        final ModelCheckpoint checkpoint = history.rewind(pieces);
+        if (checkpoint == null) {
+            return 0;
+        }
+        final int rewound = historySize - history.size();
+        checkpointCount -= rewound;
+
+        model.restore(checkpoint);
+        tetrisView.clear(); //< this also puts the restored cells to the view
+        tetrisScoring.setCurrentScore(checkpoint.getCurrentScore());
+        tetrisScoring.setDifficultyLevel(checkpoint.getDifficultyLevel());
+        tetrisScoring.setClearedLines(checkpoint.getClearedLines());
+        applyGravity();
+
+        spawnNewTetrade = false;
+        ++spawnCount;
+        downSpeedUp = false;
+        autoShift.reset();
+        smoothOffset = 0f;
+        lastStepTick = timers.getTick();
+        gravityTimer.schedule(ticksPerStep);
+
+        if (phase == TetrisGamePhase.GAME_OVER) {
+            setPhase(TetrisGamePhase.RUNNING);
+        }
+        tetrisView.setupFallingTetrade();
+        tetrisView.updateNextTetrade();
+        hudView.announceScore(tetrisScoring.getCurrentScore());
+
+        return rewound;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} of the latest key press that has moved the falling tetrade
+     */
+    public long getLastAppliedInputNanos() {
+        return lastAppliedInputNanos;
+    }
+
+    /**
+     * @return Timers driven by the simulation clock, they don't advance while the game is paused or over
+     */
+    public TimerWheel getTimers() {
+        return timers;
+    }
+
+    public void setInputSource(@Nullable InputSource inputSource) {
+        this.inputSource = inputSource;
+    }
+
+    public void setResultListener(@Nullable ResultListener resultListener) {
+        this.resultListener = resultListener;
+    }
+
+    /**
+     * @return Number of times a tetrade has started falling, i.e. has spawned or been rewound or loaded; changes
+     * whenever the falling tetrade is a different one
+     */
+    public long getSpawnCount() {
+        return spawnCount;
+    }
+
+    public TetrisGamePhase getPhase() {
+        return phase;
+    }
+
+    public int getCurrentScore() {
+        return tetrisScoring.getCurrentScore();
+    }
+
+    public int getClearedLines() {
+        return tetrisScoring.getClearedLines();
     }
 
     public void setDownSpeedUp(boolean value) {
@@ -77,14 +322,21 @@ public final class TetrisGameController {
     }
 
     public void restart() {
+        model.clearCheckpoints(history);
         model.clear();
         tetrisView.clear();
 
+        resultReported = false;
         setPhase(TetrisGamePhase.RUNNING);
         tetrisScoring.setCurrentScore(0);
+        tetrisScoring.setDifficultyLevel(0);
+        tetrisScoring.setClearedLines(0);
+        applyGravity();
+        gravityTimer.cancel();
         hudView.announceScore(tetrisScoring.getCurrentScore());
 
         spawnNewTetrade = true;
+        autoShift.reset();
     }
 
     public boolean togglePause() {
@@ -111,8 +363,137 @@ public final class TetrisGameController {
         // update non-blocking animation
         tetrisView.updateStaticAnimation(tpf);
 
+        // run as many simulation ticks as fit into this frame, this might be zero on fast machines
+        for (int ticks = clock.advance(tpf); ticks > 0 && phase == TetrisGamePhase.RUNNING; --ticks) {
+            tick();
+        }
+
+        interpolateFallingTetrade(clock.getAlpha());
+    }
+
+    /**
+     * Frame update for loops that run the ticks themselves through {@link #step()}, e.g. several games sharing one
+     * clock: animates the field and moves the falling tetrade the given fraction of a tick past the last simulated one.
+     * The status view is left to the caller, as it may be shared as well.
+     */
+    public void present(float tpf, float alpha) {
+        if (phase != TetrisGamePhase.RUNNING) {
+            return;
+        }
+
+        tetrisView.updateStaticAnimation(tpf);
+        interpolateFallingTetrade(alpha);
+    }
+
+    /**
+     * @return Number of simulation ticks run so far
+     */
+    public long getTick() {
+        return clock.getTick();
+    }
+
+    /**
+     * Runs a single simulation tick regardless of the frame time, for loops that schedule ticks themselves, e.g. a
+     * rollback session re-simulating a few ticks with corrected input within a frame.
+     */
+    public void step() {
+        if (phase != TetrisGamePhase.RUNNING) {
+            return;
+        }
+
+        clock.step();
+        tick();
+    }
+
+    /**
+     * Captures the complete game state, so that {@link #restore(ControllerSnapshot)} brings the game back to this very
+     * tick and the following ticks play out the same given the same commands. Cells are copied into rows the snapshot
+     * keeps for later saves, see {@link TetrisModel#checkpoint(ModelCheckpoint)}; the next tetrade provider is not
+     * captured.
+     */
+    public void save(ControllerSnapshot snapshot) {
+        final ModelCheckpoint checkpoint = snapshot.model;
+        model.checkpoint(checkpoint);
+        checkpoint.setCurrentScore(tetrisScoring.getCurrentScore());
+        checkpoint.setDifficultyLevel(tetrisScoring.getDifficultyLevel());
+        checkpoint.setClearedLines(tetrisScoring.getClearedLines());
+
+        snapshot.phase = phase;
+        snapshot.tick = clock.getTick();
+        snapshot.ticksSinceLastStep = ticksSinceLastStep();
+        snapshot.gravityTicks = gravityTimer.getRemainingTicks();
+        snapshot.downSpeedUp = downSpeedUp;
+        snapshot.spawnNewTetrade = spawnNewTetrade;
+        snapshot.spawnCount = spawnCount;
+        snapshot.checkpointCount = checkpointCount;
+        snapshot.smoothOffset = smoothOffset;
+        autoShift.save(snapshot);
+    }
+
+    /**
+     * Brings the game back to the state captured by the given snapshot, which remains valid. Spawn checkpoints taken
+     * after the snapshot are dropped from the rewind history; those rewound since the snapshot aren't brought back.
+     */
+    public void restore(ControllerSnapshot snapshot) {
+        final ModelCheckpoint checkpoint = snapshot.model;
+        model.restore(checkpoint);
+        tetrisView.clear(); //< this also puts the restored cells to the view
+        tetrisScoring.setCurrentScore(checkpoint.getCurrentScore());
+        tetrisScoring.setDifficultyLevel(checkpoint.getDifficultyLevel());
+        tetrisScoring.setClearedLines(checkpoint.getClearedLines());
+        applyGravity();
+
+        // a snapshot taken before a later rewind is newer than anything left in the history, so nothing is dropped then
+        if (snapshot.checkpointCount < checkpointCount) {
+            history.rewind((int) (checkpointCount - snapshot.checkpointCount));
+            checkpointCount = snapshot.checkpointCount;
+        }
+        if (phase != snapshot.phase) {
+            setPhase(snapshot.phase);
+        }
+        clock.setTick(snapshot.tick);
+        lastStepTick = timers.getTick() - snapshot.ticksSinceLastStep;
+        if (snapshot.gravityTicks > 0) {
+            gravityTimer.schedule(snapshot.gravityTicks);
+        } else {
+            gravityTimer.cancel();
+        }
+        downSpeedUp = snapshot.downSpeedUp;
+        spawnNewTetrade = snapshot.spawnNewTetrade;
+        spawnCount = snapshot.spawnCount;
+        smoothOffset = snapshot.smoothOffset;
+        autoShift.restore(snapshot);
+
+        if (model.getTetradeIndices() != null) {
+            tetrisView.setupFallingTetrade();
+        }
+        if (model.getNextTetradeIndices() != null) {
+            tetrisView.updateNextTetrade();
+        }
+        hudView.announceScore(tetrisScoring.getCurrentScore());
+    }
+
+    /**
+     * Captures the current game state for presentation on another thread.
+     */
+    public void copyTo(BoardSnapshot snapshot) {
+        model.copyTo(snapshot);
+        snapshot.setPhase(phase);
+        snapshot.setCurrentScore(tetrisScoring.getCurrentScore());
+        snapshot.setSpawnCount(spawnCount);
+        snapshot.setTick(clock.getTick());
+        snapshot.setTickNanos(clock.getTickNanos());
+        snapshot.setLastAppliedInputNanos(lastAppliedInputNanos);
+
+        final boolean falling = phase == TetrisGamePhase.RUNNING && !spawnNewTetrade && rowsPerStep == 1
+                && model.canMoveDown();
+        snapshot.setSmoothOffset(falling ? smoothOffset : 0f);
+        snapshot.setSmoothOffsetPerTick(falling ? -1f / ticksPerStep : 0f);
+    }
+
+    private void tick() {
         if (spawnNewTetrade) {
-            moveTick = 0f;
+            timers.advance();
             spawnNewTetrade = false;
 
             // if we're unable to place a newly spawned tetrade, it means game is over!
@@ -121,39 +502,82 @@ public final class TetrisGameController {
                 return;
             }
 
+            ++spawnCount;
             tetrisView.setupFallingTetrade();
             tetrisView.updateNextTetrade();
+            checkpoint();
+            lastStepTick = timers.getTick();
+            gravityTimer.schedule(ticksPerStep);
             return;
         }
 
-        // at this point we're running and we should try to move falling tetrade down
-        moveTick += tpf;
-        if (moveTick >= moveSpeed || downSpeedUp) {
-            final TetrisModel.MoveResult moveResult = model.moveDown();
-            if (moveResult.isLastMove()) {
-                // request new tetrade
-                spawnNewTetrade = true;
-                final int clearedLineCount = moveResult.getClearedLines().size();
-                tetrisScoring.clearLines(clearedLineCount);
-                tetrisView.removeLines(moveResult.getClearedLines());
-                hudView.announceScore(tetrisScoring.getCurrentScore());
-
-                sendLineClearNotifications(clearedLineCount);
-
-                // also reset downSpeedUp otherwise next tetrade will fall too fast
-                downSpeedUp = false;
-            } else {
-                tetrisView.updateFallingTetrade(0f);
+        if (inputSource != null) {
+            inputSource.poll(this);
+            if (spawnNewTetrade || phase != TetrisGamePhase.RUNNING) {
+                return; // the input source has locked the tetrade or paused the game
             }
+        }
 
-            moveTick = 0f;
-            smoothOffset = 0f;
-        } else if (model.canMoveDown()) {
-            smoothOffset = -moveTick / moveSpeed;
+        // held move keys repeat at tick granularity
+        final int autoShiftDx = autoShift.tick();
+        if (autoShiftDx != 0) {
+            moveTetrade(autoShiftDx, 0);
+        }
+
+        // soft drop steps down on every tick
+        if (downSpeedUp) {
+            gravityTimer.schedule(1);
+        }
+
+        timers.advance();
+    }
+
+    private void interpolateFallingTetrade(float alpha) {
+        // interpolate falling tetrade position between the last simulated row and the next one
+        // (only when falling row by row, there is nothing to interpolate at higher gravity)
+        if (phase == TetrisGamePhase.RUNNING && !spawnNewTetrade && rowsPerStep == 1 && model.canMoveDown()) {
+            smoothOffset = -Math.min(1f, (ticksSinceLastStep() + alpha) / ticksPerStep);
             tetrisView.updateFallingTetrade(smoothOffset);
         }
     }
 
+    private void onGravityStep() {
+        // all the rows of a step are fallen at once so that high gravity costs the same as a regular one
+        if (model.canMoveDown()) {
+            model.moveDown(rowsPerStep);
+            tetrisView.updateFallingTetrade(0f);
+            lastStepTick = timers.getTick();
+            smoothOffset = 0f;
+            gravityTimer.schedule(ticksPerStep);
+            return;
+        }
+
+        // resting on the stack, give the player a chance to slide it unless they are soft dropping
+        final int lockDelay = Math.max(ticksPerStep, Gravity.LOCK_DELAY_TICKS);
+        if (downSpeedUp || ticksSinceLastStep() >= lockDelay) {
+            lockTetrade(model.moveDown());
+        } else {
+            gravityTimer.schedule(lockDelay - ticksSinceLastStep());
+        }
+    }
+
+    private void lockTetrade(TetrisModel.MoveResult moveResult) {
+        // request new tetrade
+        spawnNewTetrade = true;
+        final int clearedLineCount = moveResult.getClearedLines().size();
+        tetrisScoring.clearLines(clearedLineCount);
+        applyGravity();
+        tetrisView.removeLines(moveResult.getClearedLines());
+        hudView.announceScore(tetrisScoring.getCurrentScore());
+
+        sendLineClearNotifications(clearedLineCount);
+
+        // also reset downSpeedUp otherwise next tetrade will fall too fast
+        downSpeedUp = false;
+        gravityTimer.cancel();
+        smoothOffset = 0f;
+    }
+
     private void sendLineClearNotifications(int clearedLineCount) {
         if (clearedLineCount == 0) {
             soundEffectsStore.play(TetrisSoundEffects.CLICK);
@@ -187,9 +611,37 @@ public final class TetrisGameController {
     // Private
     //
 
+    private void trackInput(long timestampNanos, boolean applied) {
+        if (applied) {
+            lastAppliedInputNanos = timestampNanos;
+        }
+    }
+
+    private void checkpoint() {
+        ++checkpointCount;
+        final ModelCheckpoint checkpoint = model.checkpoint(history);
+        checkpoint.setCurrentScore(tetrisScoring.getCurrentScore());
+        checkpoint.setDifficultyLevel(tetrisScoring.getDifficultyLevel());
+        checkpoint.setClearedLines(tetrisScoring.getClearedLines());
+    }
+
+    private int ticksSinceLastStep() {
+        return (int) (timers.getTick() - lastStepTick);
+    }
+
+    private void applyGravity() {
+        ticksPerStep = Gravity.ticksPerStep(tetrisScoring.getDifficultyLevel());
+        rowsPerStep = Gravity.rowsPerStep(tetrisScoring.getDifficultyLevel());
+    }
+
     private void setPhase(TetrisGamePhase phase) {
+        final boolean gameOver = phase == TetrisGamePhase.GAME_OVER && this.phase != TetrisGamePhase.GAME_OVER;
         this.phase = phase;
         this.hudView.announcePhase(phase);
+        if (gameOver && !resultReported && resultListener != null) {
+            resultReported = true;
+            resultListener.onGameOver(tetrisScoring);
+        }
     }
 
     private boolean trySaveState() {
@@ -204,9 +656,10 @@ public final class TetrisGameController {
 
         final SaveState state = new SaveState();
         model.save(state);
-        state.setMoveTick(moveTick);
+        state.setMoveTick(ticksSinceLastStep());
         state.setCurrentScore(tetrisScoring.getCurrentScore());
         state.setDifficultyLevel(tetrisScoring.getDifficultyLevel());
+        state.setClearedLines(tetrisScoring.getClearedLines());
         state.setSpawnNewTetrade(spawnNewTetrade);
         state.setSmoothOffset(smoothOffset);
 
@@ -232,15 +685,25 @@ public final class TetrisGameController {
         }
 
         // at this point we can mutate current state and hope everything will be all right
+        model.clearCheckpoints(history);
         model.clear();
         tetrisView.clear();
 
         model.load(state); //< this should also indirectly lead to updating current view
-        moveTick = state.getMoveTick();
+        lastStepTick = timers.getTick() - state.getMoveTick();
         tetrisScoring.setCurrentScore(state.getCurrentScore());
         tetrisScoring.setDifficultyLevel(state.getDifficultyLevel());
+        tetrisScoring.setClearedLines(state.getClearedLines());
+        applyGravity();
         spawnNewTetrade = state.isSpawnNewTetrade();
+        ++spawnCount;
+        if (spawnNewTetrade) {
+            gravityTimer.cancel();
+        } else {
+            gravityTimer.schedule(ticksPerStep - state.getMoveTick());
+        }
         smoothOffset = state.getSmoothOffset();
+        autoShift.reset();
 
         // also recover from game over state
         if (phase == TetrisGamePhase.GAME_OVER) {
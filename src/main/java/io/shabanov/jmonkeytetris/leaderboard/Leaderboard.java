@@ -0,0 +1,130 @@
+package io.shabanov.jmonkeytetris.leaderboard;
+
+import io.shabanov.jmonkeytetris.model.TetrisScoring;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Final scores of all the games played, kept across restarts.
+ *
+ * Every submitted score is appended to a memory-mapped {@link ScoreLog}, which is the only thing stored on disk:
+ * the best scores, the per-player index and the score histogram are rebuilt from it on open. All the methods may be
+ * called by any number of threads at once, submits don't lock each other out and reading the best scores costs a
+ * single volatile load.
+ */
+@ParametersAreNonnullByDefault
+public final class Leaderboard implements AutoCloseable {
+    public static final int DEFAULT_TOP_SIZE = 10;
+
+    private final TopScores topScores;
+    private final ScoreHistogram histogram = new ScoreHistogram();
+    // sequences of the log records of each player, in the order they were submitted
+    private final ConcurrentMap<String, int[]> playerIndex = new ConcurrentHashMap<>();
+    private final ScoreLog scoreLog;
+
+    private Leaderboard(Path path, int topSize) throws IOException {
+        this.topScores = new TopScores(topSize);
+        this.scoreLog = ScoreLog.open(path, this::index);
+    }
+
+    /**
+     * Opens the leaderboard stored at the given path, creating it along with its parent directories if missing.
+     *
+     * @param topSize Number of the best scores to keep at hand
+     */
+    public static Leaderboard open(Path path, int topSize) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        return new Leaderboard(path, topSize);
+    }
+
+    /**
+     * Records the final score of a game.
+     *
+     * @param playerName Name that is cut down to a couple of dozen bytes if longer
+     * @throws UncheckedIOException If the log could not be extended to take the score
+     */
+    public ScoreEntry submit(String playerName, TetrisScoring scoring) {
+        final ScoreEntry entry;
+        try {
+            entry = scoreLog.append(playerName, scoring.getCurrentScore(), scoring.getClearedLines(),
+                    scoring.getDifficultyLevel(), System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        index(entry);
+        return entry;
+    }
+
+    /**
+     * @return Best scores, best first
+     */
+    public List<ScoreEntry> getTopScores() {
+        return topScores.get();
+    }
+
+    /**
+     * @return Scores of the given player in the order they were submitted
+     */
+    public List<ScoreEntry> getHistory(String playerName) {
+        final int[] sequences = playerIndex.get(playerName);
+        if (sequences == null) {
+            return Collections.emptyList();
+        }
+        final List<ScoreEntry> history = new ArrayList<>(sequences.length);
+        for (final int sequence : sequences) {
+            final ScoreEntry entry = scoreLog.read(sequence);
+            if (entry != null) {
+                history.add(entry);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * @return Share of all the recorded games, in 0..100 range, that have scored less than the given score, accurate
+     * to a few percent of the score
+     */
+    public double getPercentileRank(int score) {
+        return histogram.getPercentileRank(score);
+    }
+
+    /**
+     * @return Number of the scores submitted so far, including the ones still being written
+     */
+    public long getGameCount() {
+        return scoreLog.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        scoreLog.close();
+    }
+
+    //
+    // Private
+    //
+
+    private void index(ScoreEntry entry) {
+        topScores.offer(entry);
+        histogram.record(entry.getScore());
+        // the log never exceeds 2GB, so a sequence always fits an int
+        final int sequence = (int) entry.getSequence();
+        playerIndex.merge(entry.getPlayerName(), new int[] {sequence}, (sequences, added) -> {
+            final int[] merged = new int[sequences.length + 1];
+            System.arraycopy(sequences, 0, merged, 0, sequences.length);
+            merged[sequences.length] = sequence;
+            return merged;
+        });
+    }
+}
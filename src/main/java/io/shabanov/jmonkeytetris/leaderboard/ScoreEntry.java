@@ -0,0 +1,19 @@
+package io.shabanov.jmonkeytetris.leaderboard;
+
+import lombok.Value;
+
+/**
+ * Final result of a single game as recorded by a {@link Leaderboard}.
+ */
+@Value
+public class ScoreEntry {
+    /**
+     * Position of the entry in the score log, entries submitted earlier have lower sequences.
+     */
+    long sequence;
+    String playerName;
+    int score;
+    int clearedLines;
+    int difficultyLevel;
+    long timestampMillis;
+}
@@ -0,0 +1,58 @@
+package io.shabanov.jmonkeytetris.leaderboard;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of all the recorded scores for percentile queries, taking a few kilobytes regardless of the
+ * number of games.
+ *
+ * Scores below {@link #SUB_BUCKETS} have a bucket each, larger ones are split into {@link #SUB_BUCKETS} buckets per
+ * power of two, so that a bucket is never wider than about 3% of the scores it holds.
+ */
+final class ScoreHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // powers of two from SUB_BUCKETS up to the largest int
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (Integer.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    void record(int score) {
+        buckets.incrementAndGet(bucketOf(score));
+    }
+
+    /**
+     * @return Share of the recorded scores, in 0..100 range, that are below the given one, scores falling into its
+     * bucket being counted as half below
+     */
+    double getPercentileRank(int score) {
+        final int bucket = bucketOf(score);
+        long below = 0;
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            final long count = buckets.get(i);
+            if (i < bucket) {
+                below += count;
+            }
+            total += count;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        return 100.0 * (below + buckets.get(bucket) / 2.0) / total;
+    }
+
+    //
+    // Private
+    //
+
+    private static int bucketOf(int score) {
+        final int value = Math.max(0, score);
+        if (value < SUB_BUCKETS) {
+            return value;
+        }
+        final int exponent = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(value);
+        final int mantissa = (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + mantissa;
+    }
+}
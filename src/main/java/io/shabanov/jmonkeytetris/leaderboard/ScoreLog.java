@@ -0,0 +1,211 @@
+package io.shabanov.jmonkeytetris.leaderboard;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Append-only file of fixed-size score records, mapped to memory.
+ *
+ * Appends don't lock: a writer claims the next record with an atomic counter and fills it in place, the commit word of
+ * a record being written last with release semantics, so that a reader that sees the record committed also sees its
+ * fields. The mapping grows by {@link #GROWTH_RECORDS} records at a time under a lock, and since
+ * all the mappings share the file, writers still filling records through an older mapping are not affected.
+ *
+ * A record that was not committed, e.g. when the process has died halfway through an append, is skipped on open.
+ */
+@ParametersAreNonnullByDefault
+final class ScoreLog implements AutoCloseable {
+    private static final int MAGIC = 0x54534C47; //< "TSLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 48;
+    static final int GROWTH_RECORDS = 4096;
+    private static final long MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final int COMMITTED = 1;
+    private static final VarHandle COMMIT_WORD =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    // record layout
+    private static final int COMMIT_OFFSET = 0;
+    private static final int SCORE_OFFSET = 4;
+    private static final int CLEARED_LINES_OFFSET = 8;
+    private static final int DIFFICULTY_LEVEL_OFFSET = 12;
+    private static final int TIMESTAMP_OFFSET = 16;
+    private static final int NAME_LENGTH_OFFSET = 24;
+    private static final int NAME_OFFSET = 25;
+    static final int MAX_NAME_BYTES = RECORD_SIZE - NAME_OFFSET;
+
+    private final FileChannel channel;
+    private final AtomicLong nextSequence;
+    private volatile Mapping mapping;
+
+    private static final class Mapping {
+        final MappedByteBuffer buffer;
+        final long records;
+
+        Mapping(MappedByteBuffer buffer, long records) {
+            this.buffer = buffer;
+            this.records = records;
+        }
+    }
+
+    private ScoreLog(FileChannel channel, Mapping mapping, long nextSequence) {
+        this.channel = channel;
+        this.mapping = mapping;
+        this.nextSequence = new AtomicLong(nextSequence);
+    }
+
+    /**
+     * Opens the log at the given path, creating it if missing, and passes every committed record to the visitor.
+     */
+    static ScoreLog open(Path path, Consumer<ScoreEntry> visitor) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            final long size = channel.size();
+            final long records = size <= HEADER_SIZE ? 0L : (size - HEADER_SIZE) / RECORD_SIZE;
+            final Mapping mapping = map(channel, Math.max(GROWTH_RECORDS, records));
+            final MappedByteBuffer buffer = mapping.buffer;
+            if (size == 0) {
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE);
+            } else if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a score log: " + path);
+            } else if (buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+                throw new IOException("Unsupported score log version " + buffer.getInt(4) + ": " + path);
+            }
+
+            long nextSequence = 0L;
+            for (long sequence = 0; sequence < records; ++sequence) {
+                final ScoreEntry entry = read(buffer, sequence);
+                if (entry != null) {
+                    visitor.accept(entry);
+                    nextSequence = sequence + 1;
+                }
+            }
+            return new ScoreLog(channel, mapping, nextSequence);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a record, may be called by any number of threads at once.
+     *
+     * @param playerName Name that is cut down to {@link #MAX_NAME_BYTES} bytes of UTF-8 if longer
+     */
+    ScoreEntry append(String playerName, int score, int clearedLines, int difficultyLevel, long timestampMillis)
+            throws IOException {
+        final long sequence = nextSequence.getAndIncrement();
+        final MappedByteBuffer buffer = mappingOf(sequence).buffer;
+        final byte[] name = encodeName(playerName);
+
+        // absolute puts only, the buffer is shared by all the writers
+        final int offset = offsetOf(sequence);
+        buffer.putInt(offset + SCORE_OFFSET, score);
+        buffer.putInt(offset + CLEARED_LINES_OFFSET, clearedLines);
+        buffer.putInt(offset + DIFFICULTY_LEVEL_OFFSET, difficultyLevel);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestampMillis);
+        buffer.put(offset + NAME_LENGTH_OFFSET, (byte) name.length);
+        for (int i = 0; i < name.length; ++i) {
+            buffer.put(offset + NAME_OFFSET + i, name[i]);
+        }
+        COMMIT_WORD.setRelease(buffer, offset + COMMIT_OFFSET, COMMITTED);
+
+        return new ScoreEntry(sequence, new String(name, StandardCharsets.UTF_8), score, clearedLines,
+                difficultyLevel, timestampMillis);
+    }
+
+    /**
+     * @return Record of the given sequence, or null if it has not been committed yet
+     */
+    @Nullable
+    ScoreEntry read(long sequence) {
+        final Mapping current = mapping;
+        return sequence < current.records ? read(current.buffer, sequence) : null;
+    }
+
+    /**
+     * @return Number of records appended or being appended, committed or not
+     */
+    long size() {
+        return nextSequence.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mapping.buffer.force();
+        channel.close();
+    }
+
+    //
+    // Private
+    //
+
+    private Mapping mappingOf(long sequence) throws IOException {
+        final Mapping current = mapping;
+        if (sequence < current.records) {
+            return current;
+        }
+        synchronized (this) {
+            if (sequence >= mapping.records) {
+                if (sequence >= MAX_RECORDS) {
+                    throw new IOException("Score log is full");
+                }
+                final long records = Math.min(MAX_RECORDS,
+                        (sequence / GROWTH_RECORDS + 1) * GROWTH_RECORDS);
+                mapping = map(channel, records);
+            }
+            return mapping;
+        }
+    }
+
+    private static Mapping map(FileChannel channel, long records) throws IOException {
+        return new Mapping(channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + records * RECORD_SIZE),
+                records);
+    }
+
+    @Nullable
+    private static ScoreEntry read(MappedByteBuffer buffer, long sequence) {
+        final int offset = offsetOf(sequence);
+        if ((int) COMMIT_WORD.getAcquire(buffer, offset + COMMIT_OFFSET) != COMMITTED) {
+            return null;
+        }
+        final byte[] name = new byte[Math.min(MAX_NAME_BYTES, buffer.get(offset + NAME_LENGTH_OFFSET) & 0xff)];
+        for (int i = 0; i < name.length; ++i) {
+            name[i] = buffer.get(offset + NAME_OFFSET + i);
+        }
+        return new ScoreEntry(sequence, new String(name, StandardCharsets.UTF_8),
+                buffer.getInt(offset + SCORE_OFFSET), buffer.getInt(offset + CLEARED_LINES_OFFSET),
+                buffer.getInt(offset + DIFFICULTY_LEVEL_OFFSET), buffer.getLong(offset + TIMESTAMP_OFFSET));
+    }
+
+    private static int offsetOf(long sequence) {
+        return (int) (HEADER_SIZE + sequence * RECORD_SIZE);
+    }
+
+    private static byte[] encodeName(String playerName) {
+        final byte[] bytes = playerName.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_NAME_BYTES) {
+            return bytes;
+        }
+        // don't cut a character in half
+        int length = MAX_NAME_BYTES;
+        while (length > 0 && (bytes[length] & 0xc0) == 0x80) {
+            --length;
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+}
@@ -0,0 +1,70 @@
+package io.shabanov.jmonkeytetris.leaderboard;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Best K scores, read far more often than written to and written to by any number of threads without locking.
+ *
+ * The scores are kept in an immutable array sorted best first, so that a read is a single volatile load. A score is
+ * added by building a new array and swapping it in with a CAS, retried if another score has got in first; a score that
+ * doesn't beat the worst one of a full table is turned down without any copying, which is what most submits do once
+ * the table has filled up.
+ */
+@ParametersAreNonnullByDefault
+final class TopScores {
+    /**
+     * Higher scores first, the one submitted earlier on a tie.
+     */
+    static final Comparator<ScoreEntry> BEST_FIRST = Comparator.comparingInt(ScoreEntry::getScore).reversed()
+            .thenComparingLong(ScoreEntry::getSequence);
+
+    private static final ScoreEntry[] EMPTY = new ScoreEntry[0];
+
+    private final int capacity;
+    private final AtomicReference<ScoreEntry[]> entries = new AtomicReference<>(EMPTY);
+
+    TopScores(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return True if the entry has made it to the table
+     */
+    boolean offer(ScoreEntry entry) {
+        while (true) {
+            final ScoreEntry[] current = entries.get();
+            if (current.length == capacity && BEST_FIRST.compare(entry, current[capacity - 1]) >= 0) {
+                return false;
+            }
+
+            int index = Arrays.binarySearch(current, entry, BEST_FIRST);
+            if (index >= 0) {
+                // the very same entry is already in
+                return false;
+            }
+            index = -index - 1;
+            final ScoreEntry[] updated = new ScoreEntry[Math.min(current.length + 1, capacity)];
+            System.arraycopy(current, 0, updated, 0, index);
+            updated[index] = entry;
+            System.arraycopy(current, index, updated, index + 1, updated.length - index - 1);
+            if (entries.compareAndSet(current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return Unmodifiable view of the table at the time of the call, best score first
+     */
+    List<ScoreEntry> get() {
+        return Collections.unmodifiableList(Arrays.asList(entries.get()));
+    }
+}
@@ -0,0 +1,67 @@
+package io.shabanov.jmonkeytetris.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A copy of the playfield and falling tetrade state taken at the end of a simulation tick, used to hand the state over
+ * to a different thread, e.g. from the simulation thread to the render thread.
+ *
+ * Snapshots are meant to be reused, so that taking one doesn't produce garbage: cells are only copied when the board
+ * has changed since the snapshot has been filled the last time (see {@link #getBoardVersion()}).
+ */
+@Getter
+@Setter
+public final class BoardSnapshot {
+    //
+    // Model state
+    //
+
+    // row-major copy of the cells, cell at x, y has index y * DEFAULT_TETRIS_FIELD_WIDTH + x
+    private final long[] cells = new long[TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH * TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT];
+    private long boardVersion = -1L;
+
+    // index in Tetrades.ORIENTATIONS or -1 if there is no falling tetrade
+    private int tetradeOrientationIndex = -1;
+    private int tetradeX;
+    private int tetradeY;
+    private int projectedTetradeY;
+    private int nextTetradeOrientationIndex = -1;
+
+    //
+    // Controller state
+    //
+
+    private TetrisGamePhase phase = TetrisGamePhase.RUNNING;
+    private int currentScore;
+    // see TetrisGameController.getSpawnCount(), tells a newly falling tetrade from the one that has been falling
+    private long spawnCount;
+    private long tick;
+    private float smoothOffset;
+    // change of smoothOffset over a single tick, zero if the falling tetrade can't move down
+    private float smoothOffsetPerTick;
+    private long tickNanos;
+    // System.nanoTime() when the snapshot has been taken
+    private long takenAtNanos;
+    // System.nanoTime() of the latest player input reflected in this snapshot
+    private long lastAppliedInputNanos;
+
+    public long getCellAt(int x, int y) {
+        return cells[y * TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH + x];
+    }
+
+    /**
+     * Same as {@link TetrisModel#copyRowMasks(int[])} for the snapshot cells.
+     */
+    public void copyRowMasks(int[] dest) {
+        for (int y = 0; y < TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+            int mask = 0;
+            for (int x = 0; x < TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH; ++x) {
+                if (getCellAt(x, y) != 0) {
+                    mask |= 1 << x;
+                }
+            }
+            dest[y] = mask;
+        }
+    }
+}
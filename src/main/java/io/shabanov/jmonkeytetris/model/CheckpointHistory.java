@@ -0,0 +1,78 @@
+package io.shabanov.jmonkeytetris.model;
+
+import javax.annotation.Nullable;
+
+/**
+ * Bounded history of {@link ModelCheckpoint checkpoints}; once full, the oldest checkpoint is reused for the newest one.
+ * See {@link TetrisModel#checkpoint(CheckpointHistory)}.
+ */
+public final class CheckpointHistory {
+    private final ModelCheckpoint[] checkpoints;
+    private int newest = -1;
+    private int size;
+
+    public CheckpointHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity");
+        }
+        checkpoints = new ModelCheckpoint[capacity];
+        for (int i = 0; i < capacity; ++i) {
+            checkpoints[i] = new ModelCheckpoint();
+        }
+    }
+
+    /**
+     * @return Checkpoint to be filled by the caller, it becomes the newest one in the history
+     */
+    public ModelCheckpoint push() {
+        newest = (newest + 1) % checkpoints.length;
+        size = Math.min(size + 1, checkpoints.length);
+        return checkpoints[newest];
+    }
+
+    /**
+     * Drops the given number of the newest checkpoints, or as many as the history has except the oldest one.
+     *
+     * @return Checkpoint that has become the newest one or {@code null} if the history is empty
+     */
+    @Nullable
+    public ModelCheckpoint rewind(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count=" + count);
+        }
+        if (size == 0) {
+            return null;
+        }
+
+        final int dropped = Math.min(count, size - 1);
+        newest = Math.floorMod(newest - dropped, checkpoints.length);
+        size -= dropped;
+        return checkpoints[newest];
+    }
+
+    /**
+     * @return Number of checkpoints held
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == checkpoints.length;
+    }
+
+    /**
+     * @return Checkpoint that is {@code index} positions newer than the oldest one
+     */
+    public ModelCheckpoint fromOldest(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return checkpoints[Math.floorMod(newest - size + 1 + index, checkpoints.length)];
+    }
+
+    public void clear() {
+        newest = -1;
+        size = 0;
+    }
+}
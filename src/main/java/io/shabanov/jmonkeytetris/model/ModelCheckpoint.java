@@ -0,0 +1,38 @@
+package io.shabanov.jmonkeytetris.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * In-memory copy of the game state that the game can be rewound to, see {@link CheckpointHistory}.
+ *
+ * Unlike {@link io.shabanov.jmonkeytetris.model.save.SaveState} this one doesn't copy cells: it references the model
+ * rows, which the model treats as copy-on-write once they have been captured by a checkpoint. Hence consecutive
+ * checkpoints share all the rows that haven't changed in between, and taking one costs a copy of the row references.
+ * A checkpoint that doesn't belong to any history holds a copy of the cells in rows of its own instead, see
+ * {@link TetrisModel#checkpoint(ModelCheckpoint)}.
+ */
+@Getter
+@Setter
+public final class ModelCheckpoint {
+    //
+    // Model state
+    //
+
+    // row references shared with the model and other checkpoints, must never be written to unless owned
+    final long[][] rows = new long[TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT][];
+    // whether the rows belong to this checkpoint alone, as for a checkpoint out of any history
+    boolean ownsRows;
+    private TetrisCoordinate tetradeCenter;
+    private int tetradeOffset;
+    private int nextTetradeOffset;
+    private int tetradeOrientation;
+
+    //
+    // Controller state
+    //
+
+    private int currentScore;
+    private int difficultyLevel;
+    private int clearedLines;
+}
@@ -80,11 +80,23 @@ import java.util.function.Function;
         return random::nextInt;
     }
 
+    /**
+     * @return Orientations of the tetrade the given index in {@link #ORIENTATIONS} belongs to
+     */
+    public static OrientationIndices indicesOf(int orientationIndex) {
+        for (final OrientationIndices indices : INDICES) {
+            if (orientationIndex >= indices.firstOrientationIndex && orientationIndex < indices.lastOrientationIndex) {
+                return indices;
+            }
+        }
+        throw new IllegalArgumentException("unknown orientation index " + orientationIndex);
+    }
+
     @Value(staticConstructor = "of")
     public static class OrientationIndices {
         int firstOrientationIndex;
         int lastOrientationIndex;
 
-        int count() { return lastOrientationIndex - firstOrientationIndex; }
+        public int count() { return lastOrientationIndex - firstOrientationIndex; }
     }
 }
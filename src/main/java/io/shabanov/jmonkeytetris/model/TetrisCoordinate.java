@@ -12,8 +12,24 @@ import java.util.Objects;
  * of a bounding box containing a tetrade.
  * <p>
  * See also {@link Tetrades#BOUNDING_BOX_RADIUS}.
+ * <p>
+ * Coordinates within {@link #CACHE_MIN}..{@link #CACHE_MAX} range on both axes are interned, so that moving
+ * a tetrade around the field doesn't produce garbage.
  */
 public class TetrisCoordinate {
+    private static final int CACHE_MIN = -8;
+    private static final int CACHE_MAX = 39;
+    private static final int CACHE_SIZE = CACHE_MAX - CACHE_MIN + 1;
+    private static final TetrisCoordinate[] CACHE = new TetrisCoordinate[CACHE_SIZE * CACHE_SIZE];
+
+    static {
+        for (int y = CACHE_MIN; y <= CACHE_MAX; ++y) {
+            for (int x = CACHE_MIN; x <= CACHE_MAX; ++x) {
+                CACHE[(y - CACHE_MIN) * CACHE_SIZE + (x - CACHE_MIN)] = new TetrisCoordinate(x, y);
+            }
+        }
+    }
+
     public final int x, y;
 
     private TetrisCoordinate(int x, int y) {
@@ -23,7 +39,10 @@ public class TetrisCoordinate {
 
     @JsonCreator
     public static TetrisCoordinate of(@JsonProperty("x") int x, @JsonProperty("y") int y) {
-        return new TetrisCoordinate(x, y);
+        if (x < CACHE_MIN || x > CACHE_MAX || y < CACHE_MIN || y > CACHE_MAX) {
+            return new TetrisCoordinate(x, y);
+        }
+        return CACHE[(y - CACHE_MIN) * CACHE_SIZE + (x - CACHE_MIN)];
     }
 
     public static TetrisCoordinate of(TetrisCoordinate other) {
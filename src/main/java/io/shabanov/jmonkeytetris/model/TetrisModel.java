@@ -1,10 +1,12 @@
 package io.shabanov.jmonkeytetris.model;
 
 import io.shabanov.jmonkeytetris.model.save.SaveState;
+import io.shabanov.jmonkeytetris.model.search.BoardFeatures;
 import io.shabanov.jmonkeytetris.util.PubSub;
 import lombok.Value;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -25,7 +27,7 @@ public final class TetrisModel {
 
     public static final int DEFAULT_TETRIS_FIELD_WIDTH = 10;
     public static final int DEFAULT_TETRIS_FIELD_HEIGHT = 22;
-    private static final TetrisCoordinate DEFAULT_SPAWNING_POINT = TetrisCoordinate.of(DEFAULT_TETRIS_FIELD_WIDTH / 2, DEFAULT_TETRIS_FIELD_HEIGHT - Tetrades.BOUNDING_BOX_RADIUS);
+    public static final TetrisCoordinate DEFAULT_SPAWNING_POINT = TetrisCoordinate.of(DEFAULT_TETRIS_FIELD_WIDTH / 2, DEFAULT_TETRIS_FIELD_HEIGHT - Tetrades.BOUNDING_BOX_RADIUS);
 
     private final Function<Integer, Integer> nextTetradeProvider;
 
@@ -40,6 +42,18 @@ public final class TetrisModel {
 
     public interface FieldChangeListener {
         void putCell(int x, int y);
+
+        /**
+         * Called after the given full lines, in ascending order, have been removed and the rows above them have
+         * moved down.
+         */
+        default void removeLines(List<Integer> lines) {}
+
+        /**
+         * Called after the stack has been pushed up by the given number of rows, before the cells of the rows opened
+         * up at the bottom are put.
+         */
+        default void insertRows(int count) {}
     }
 
     public TetrisModel(PubSub.Manager pubSubManager, Function<Integer, Integer> nextTetradeProvider) {
@@ -49,13 +63,15 @@ public final class TetrisModel {
 
     public void clear() {
         for (int y = 0; y < getFieldHeight(); ++y) {
-            for (int x = 0; x < getFieldWidth(); ++x) {
-                cells[y][x] = 0;
-            }
+            Arrays.fill(writableRow(y), 0L);
         }
+        Arrays.fill(rowMasks, 0);
+        features.markAllDirty();
 
         tetrade = null;
         nextTetrade = null;
+        boardHash = 0L;
+        ++boardVersion;
     }
 
     public void putFieldAt(int x, int y) {
@@ -65,7 +81,13 @@ public final class TetrisModel {
         if (y < 0 || y >= DEFAULT_TETRIS_FIELD_HEIGHT) {
             throw new IllegalArgumentException("y");
         }
-        cells[y][x] = ++cellIDCounter;
+        if (cells[y][x] == 0) {
+            boardHash ^= ZobristKeys.CELLS[y][x];
+        }
+        writableRow(y)[x] = ++cellIDCounter;
+        rowMasks[y] |= 1 << x;
+        features.markDirty(x, y);
+        ++boardVersion;
     }
 
     //
@@ -82,6 +104,28 @@ public final class TetrisModel {
         return cells[y][x];
     }
 
+    /**
+     * @return Occupancy of the given row as a bit mask, bit {@code x} is set if the cell at x is occupied
+     */
+    public int getRowMask(int y) {
+        return rowMasks[y];
+    }
+
+    /**
+     * Copies occupancy of all the rows, see {@link #getRowMask(int)}.
+     */
+    public void copyRowMasks(int[] dest) {
+        System.arraycopy(rowMasks, 0, dest, 0, rowMasks.length);
+    }
+
+    /**
+     * @return Evaluation features of the board, only the columns changed since the last call are recomputed
+     */
+    public BoardFeatures getFeatures() {
+        features.update(rowMasks);
+        return features;
+    }
+
     public int getFieldWidth() {
         return DEFAULT_TETRIS_FIELD_WIDTH;
     }
@@ -135,7 +179,16 @@ public final class TetrisModel {
 
         MoveResult CONTINUE_MOVING = new MoveResult() {};
 
+        MoveResult LOCKED = new MoveResult() {
+            @Override public boolean isLastMove() {
+                return true;
+            }
+        };
+
         static MoveResult fromClearedLines(List<Integer> linesToClear) {
+            if (linesToClear.isEmpty()) {
+                return LOCKED; // most common case, don't allocate
+            }
             return new MoveResult() {
                 @Override public boolean isLastMove() {
                     return true;
@@ -149,38 +202,39 @@ public final class TetrisModel {
     }
 
     public MoveResult moveDown() {
+        return moveDown(1);
+    }
+
+    /**
+     * Moves the falling tetrade down by up to the given number of rows in a single step, stopping at the projected
+     * position, or locks it if it is already resting on the stack.
+     * This is what makes high gravity levels cost the same as the regular ones.
+     */
+    public MoveResult moveDown(int maxRows) {
         if (tetrade == null) {
             throw new IllegalStateException("no active tetrade");
         }
 
-        final TetrisCoordinate newCenter = TetrisCoordinate.of(tetradeCenter.x, tetradeCenter.y - 1);
-        if (canMoveTo(newCenter.x, newCenter.y, tetradeOrientation)) {
-            tetradeCenter = newCenter;
-            recomputeProjectedCoordinate();
+        // every row between the current and the projected position is known to be free
+        final int newY = Math.max(projectedTetradeY, tetradeCenter.y - maxRows);
+        if (newY < tetradeCenter.y) {
+            tetradeCenter = TetrisCoordinate.of(tetradeCenter.x, newY);
             return MoveResult.CONTINUE_MOVING;
         }
 
-        // apply the tetrade
-        int minY = tetradeCenter.y;
-        int maxY = tetradeCenter.y;
-        final List<TetrisCoordinate> offsets = cellOffsets(tetradeOrientation);
-        for (final TetrisCoordinate offset : offsets) {
-            final int xCell = tetradeCenter.x + offset.x;
-            final int yCell = tetradeCenter.y + offset.y;
-            maxY = Math.max(maxY, yCell);
-            minY = Math.min(minY, yCell);
-            putFieldAt(xCell, yCell);
+        return lock();
+    }
 
-            for (final FieldChangeListener listener : fieldChangeListeners) {
-                listener.putCell(xCell, yCell);
-            }
+    /**
+     * Places the falling tetrade at its projected position and locks it right away.
+     */
+    public MoveResult hardDrop() {
+        if (tetrade == null) {
+            throw new IllegalStateException("no active tetrade");
         }
 
-        final List<Integer> linesToClear = checkLinesToClear(minY, maxY);
-        clearLines(linesToClear);
-
-        tetrade = null;
-        return MoveResult.fromClearedLines(linesToClear);
+        tetradeCenter = TetrisCoordinate.of(tetradeCenter.x, projectedTetradeY);
+        return lock();
     }
 
     public boolean canMoveDown() {
@@ -225,6 +279,26 @@ public final class TetrisModel {
         return cellOffsets(tetradeOrientation);
     }
 
+    /**
+     * @return Orientations of the falling tetrade or {@code null} if there is none
+     */
+    @Nullable
+    public Tetrades.OrientationIndices getTetradeIndices() {
+        return tetrade;
+    }
+
+    @Nullable
+    public Tetrades.OrientationIndices getNextTetradeIndices() {
+        return nextTetrade;
+    }
+
+    /**
+     * @return Orientation of the falling tetrade relative to its first one
+     */
+    public int getTetradeOrientation() {
+        return tetradeOrientation;
+    }
+
     @Nullable
     public List<TetrisCoordinate> getNextTetrade() {
         if (nextTetrade == null) {
@@ -237,6 +311,109 @@ public final class TetrisModel {
         return projectedTetradeY;
     }
 
+    /**
+     * Pushes the stack up by the given number of rows and fills the rows opened up at the bottom, except for a hole
+     * at the given column, as garbage sent by an opponent. Rows are shifted by reference the same way a line clear
+     * does it, only the new garbage cells are written. A falling tetrade that the stack has risen into is pushed up
+     * along with it as far as the field allows.
+     *
+     * @return Whether the stack has fit, i.e. no occupied cells have been pushed out at the top
+     */
+    public boolean insertGarbageRows(int count, int holeX) {
+        if (count <= 0 || count > DEFAULT_TETRIS_FIELD_HEIGHT) {
+            throw new IllegalArgumentException("count");
+        }
+        if (holeX < 0 || holeX >= DEFAULT_TETRIS_FIELD_WIDTH) {
+            throw new IllegalArgumentException("holeX");
+        }
+
+        // the rows pushed out at the top come back as the garbage ones at the bottom
+        final int top = getFieldHeight() - 1;
+        boolean fits = true;
+        for (int i = 0; i < count; ++i) {
+            fits &= rowMasks[top] == 0;
+            final long[] garbageRow = sharedRows[top] ? newRow() : cells[top];
+            System.arraycopy(cells, 0, cells, 1, top);
+            System.arraycopy(sharedRows, 0, sharedRows, 1, top);
+            System.arraycopy(rowMasks, 0, rowMasks, 1, top);
+            cells[0] = garbageRow;
+            sharedRows[0] = false;
+        }
+        for (int j = 0; j < fieldChangeListeners.size(); ++j) {
+            fieldChangeListeners.get(j).insertRows(count);
+        }
+
+        final int garbageMask = ((1 << DEFAULT_TETRIS_FIELD_WIDTH) - 1) & ~(1 << holeX);
+        for (int y = 0; y < count; ++y) {
+            final long[] row = cells[y];
+            for (int x = 0; x < DEFAULT_TETRIS_FIELD_WIDTH; ++x) {
+                row[x] = x == holeX ? 0L : ++cellIDCounter;
+            }
+            rowMasks[y] = garbageMask;
+            for (int j = 0; j < fieldChangeListeners.size(); ++j) {
+                for (int x = 0; x < DEFAULT_TETRIS_FIELD_WIDTH; ++x) {
+                    if (x != holeX) {
+                        fieldChangeListeners.get(j).putCell(x, y);
+                    }
+                }
+            }
+        }
+        boardHash = computeBoardHash();
+        features.markAllDirty();
+        ++boardVersion;
+
+        if (tetrade != null) {
+            for (int i = 0; i < count && !canMoveTo(tetradeCenter.x, tetradeCenter.y, tetradeOrientation); ++i) {
+                if (tetradeCenter.y + 1 >= DEFAULT_TETRIS_FIELD_HEIGHT) {
+                    break;
+                }
+                tetradeCenter = TetrisCoordinate.of(tetradeCenter.x, tetradeCenter.y + 1);
+            }
+            recomputeProjectedCoordinate();
+        }
+        return fits;
+    }
+
+    /**
+     * Zobrist hash of the occupied cells, the falling tetrade (its shape, orientation and position) and the next
+     * tetrade. Equal states have equal hashes regardless of how they have been reached; cell identities don't matter.
+     *
+     * The board part is maintained incrementally as cells are put and lines are cleared, the tetrade part is a few
+     * table lookups, so this is cheap enough to be called on every tick.
+     */
+    public long stateHash() {
+        long hash = boardHash;
+        if (tetrade != null) {
+            hash ^= ZobristKeys.TETRADE_ORIENTATIONS[tetrade.getFirstOrientationIndex() + tetradeOrientation]
+                    ^ ZobristKeys.TETRADE_X[tetradeCenter.x + ZobristKeys.CENTER_OFFSET]
+                    ^ ZobristKeys.TETRADE_Y[tetradeCenter.y + ZobristKeys.CENTER_OFFSET];
+        }
+        if (nextTetrade != null) {
+            hash ^= ZobristKeys.NEXT_TETRADES[nextTetrade.getFirstOrientationIndex()];
+        }
+        return hash;
+    }
+
+    /**
+     * Copies the playfield and falling tetrade state to the given snapshot; cells are copied only if they have changed
+     * since the snapshot has been filled last time.
+     */
+    public void copyTo(BoardSnapshot snapshot) {
+        if (snapshot.getBoardVersion() != boardVersion) {
+            final long[] snapshotCells = snapshot.getCells();
+            for (int y = 0; y < DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+                System.arraycopy(cells[y], 0, snapshotCells, y * DEFAULT_TETRIS_FIELD_WIDTH, DEFAULT_TETRIS_FIELD_WIDTH);
+            }
+            snapshot.setBoardVersion(boardVersion);
+        }
+
+        snapshot.setTetradeOrientationIndex(tetrade == null ? -1 : tetrade.getFirstOrientationIndex() + tetradeOrientation);
+        snapshot.setTetradeX(tetradeCenter.x);
+        snapshot.setTetradeY(tetradeCenter.y);
+        snapshot.setProjectedTetradeY(projectedTetradeY);
+        snapshot.setNextTetradeOrientationIndex(nextTetrade == null ? -1 : nextTetrade.getFirstOrientationIndex());
+    }
+
     public void save(SaveState state) {
         state.setCells(cells);
         state.setTetradeCenter(tetradeCenter);
@@ -250,30 +427,157 @@ public final class TetrisModel {
         // copy cells
         final long[][] savedCells = state.getCells();
         for (int yCell = 0; yCell < cells.length; ++yCell) {
-            System.arraycopy(savedCells[yCell], 0, cells[yCell], 0, DEFAULT_TETRIS_FIELD_WIDTH);
+            System.arraycopy(savedCells[yCell], 0, writableRow(yCell), 0, DEFAULT_TETRIS_FIELD_WIDTH);
         }
         tetradeCenter = state.getTetradeCenter();
         tetrade = state.getTetradeOffset() >= 0 ? Tetrades.INDICES[state.getTetradeOffset()] : null;
         nextTetrade = state.getNextTetradeOffset() >= 0 ? Tetrades.INDICES[state.getNextTetradeOffset()] : null;
         tetradeOrientation = state.getTetradeOrientation();
+        boardHash = computeBoardHash();
+        recomputeRowMasks();
+        if (tetrade != null) {
+            recomputeProjectedCoordinate();
+        }
+        ++boardVersion;
 
         updateFieldListeners();
     }
 
+    /**
+     * Captures the model state into a new checkpoint of the given history without copying cells, rows are shared with
+     * the checkpoint and get copied on the next write instead.
+     * Rows that are no longer referenced once the oldest checkpoint is evicted are reused for later copies, so that
+     * keeping the history doesn't produce garbage.
+     *
+     * @return Newest checkpoint of the history, so that the caller can add its own state to it
+     */
+    public ModelCheckpoint checkpoint(CheckpointHistory history) {
+        if (history.isFull()) {
+            recycleRows(history.fromOldest(0).rows, history.size() > 1 ? history.fromOldest(1).rows : cells);
+        }
+
+        final ModelCheckpoint checkpoint = history.push();
+        System.arraycopy(cells, 0, checkpoint.rows, 0, cells.length);
+        checkpoint.ownsRows = false;
+        Arrays.fill(sharedRows, true);
+        captureTetrades(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * Captures the model state into a checkpoint that doesn't belong to any history. Rows of a history are reused
+     * once it evicts or drops them, hence the cells are copied into rows of the checkpoint's own, which are allocated
+     * on its first use only, and restoring it copies them back.
+     */
+    public void checkpoint(ModelCheckpoint checkpoint) {
+        if (!checkpoint.ownsRows) {
+            for (int y = 0; y < cells.length; ++y) {
+                checkpoint.rows[y] = new long[DEFAULT_TETRIS_FIELD_WIDTH];
+            }
+            checkpoint.ownsRows = true;
+        }
+        for (int y = 0; y < cells.length; ++y) {
+            System.arraycopy(cells[y], 0, checkpoint.rows[y], 0, DEFAULT_TETRIS_FIELD_WIDTH);
+        }
+        captureTetrades(checkpoint);
+    }
+
+    /**
+     * Clears the given history, rows referenced by its checkpoints only are reused for later copies.
+     */
+    public void clearCheckpoints(CheckpointHistory history) {
+        for (int i = 0; i < history.size(); ++i) {
+            recycleRows(history.fromOldest(i).rows, i + 1 < history.size() ? history.fromOldest(i + 1).rows : cells);
+        }
+        history.clear();
+        Arrays.fill(sharedRows, false);
+    }
+
+    /**
+     * Brings the model back to the state captured by the given checkpoint, the checkpoint remains valid. Field
+     * listeners are not told about the restored cells, as they still hold the cells of the state left behind: reset
+     * them, then {@link #updateFieldListeners()}.
+     */
+    public void restore(ModelCheckpoint checkpoint) {
+        if (checkpoint.ownsRows) {
+            for (int y = 0; y < cells.length; ++y) {
+                if (sharedRows[y]) {
+                    cells[y] = newRow();
+                    sharedRows[y] = false;
+                }
+                System.arraycopy(checkpoint.rows[y], 0, cells[y], 0, DEFAULT_TETRIS_FIELD_WIDTH);
+            }
+        } else {
+            System.arraycopy(checkpoint.rows, 0, cells, 0, cells.length);
+            Arrays.fill(sharedRows, true);
+        }
+        tetradeCenter = checkpoint.getTetradeCenter();
+        tetrade = checkpoint.getTetradeOffset() >= 0 ? Tetrades.INDICES[checkpoint.getTetradeOffset()] : null;
+        nextTetrade = checkpoint.getNextTetradeOffset() >= 0 ? Tetrades.INDICES[checkpoint.getNextTetradeOffset()] : null;
+        tetradeOrientation = checkpoint.getTetradeOrientation();
+        if (tetrade != null) {
+            recomputeProjectedCoordinate();
+        }
+        boardHash = computeBoardHash();
+        recomputeRowMasks();
+        ++boardVersion;
+    }
+
     //
     // Private
     //
 
     private final long[][] cells = new long[DEFAULT_TETRIS_FIELD_HEIGHT][DEFAULT_TETRIS_FIELD_WIDTH];
+    // rows referenced by checkpoints, these are copied before being written to
+    private final boolean[] sharedRows = new boolean[DEFAULT_TETRIS_FIELD_HEIGHT];
+    // rows no checkpoint references anymore, ready to be reused
+    private final ArrayDeque<long[]> freeRows = new ArrayDeque<>();
     private TetrisCoordinate tetradeCenter = TetrisCoordinate.of(DEFAULT_SPAWNING_POINT.x, DEFAULT_SPAWNING_POINT.y);
     private int projectedTetradeY;
     private Tetrades.OrientationIndices tetrade;
     private Tetrades.OrientationIndices nextTetrade;
     private int tetradeOrientation;
+    // incremented on every change of cells, lets snapshots skip copying unchanged board
+    private long boardVersion;
+    // Zobrist hash of the occupied cells, see stateHash
+    private long boardHash;
+    // occupancy bit masks of the rows, see getRowMask
+    private final int[] rowMasks = new int[DEFAULT_TETRIS_FIELD_HEIGHT];
+    private final BoardFeatures features = new BoardFeatures();
     private final List<FieldChangeListener> fieldChangeListeners = new ArrayList<>();
 
+    private MoveResult lock() {
+        // apply the tetrade
+        int minY = tetradeCenter.y;
+        int maxY = tetradeCenter.y;
+        final List<TetrisCoordinate> offsets = cellOffsets(tetradeOrientation);
+        for (int i = 0; i < offsets.size(); ++i) {
+            final TetrisCoordinate offset = offsets.get(i);
+            final int xCell = tetradeCenter.x + offset.x;
+            final int yCell = tetradeCenter.y + offset.y;
+            maxY = Math.max(maxY, yCell);
+            minY = Math.min(minY, yCell);
+            putFieldAt(xCell, yCell);
+
+            for (int j = 0; j < fieldChangeListeners.size(); ++j) {
+                fieldChangeListeners.get(j).putCell(xCell, yCell);
+            }
+        }
+
+        final List<Integer> linesToClear = checkLinesToClear(minY, maxY);
+        clearLines(linesToClear);
+        if (!linesToClear.isEmpty()) {
+            for (int j = 0; j < fieldChangeListeners.size(); ++j) {
+                fieldChangeListeners.get(j).removeLines(linesToClear);
+            }
+        }
+
+        tetrade = null;
+        return MoveResult.fromClearedLines(linesToClear);
+    }
+
     private List<Integer> checkLinesToClear(int minY, int maxY) {
-        final List<Integer> result = new ArrayList<>();
+        List<Integer> result = List.of();
         for (int i = minY; i <= maxY; ++i) {
             boolean clearThisLine = true;
             for (int x = 0; x < getFieldWidth(); ++x) {
@@ -283,6 +587,9 @@ public final class TetrisModel {
                 }
             }
             if (clearThisLine) {
+                if (result.isEmpty()) {
+                    result = new ArrayList<>(Tetrades.ELEMENTS_COUNT);
+                }
                 result.add(i);
             }
         }
@@ -290,8 +597,10 @@ public final class TetrisModel {
     }
 
     private boolean canMoveTo(int tetradeCenterX, int tetradeCenterY, int tetradeOrientation) {
+        // indexed loop rather than for-each: this is the hottest spot of the model and must not allocate iterators
         final List<TetrisCoordinate> offsets = cellOffsets(tetradeOrientation);
-        for (final TetrisCoordinate offset : offsets) {
+        for (int i = 0; i < offsets.size(); ++i) {
+            final TetrisCoordinate offset = offsets.get(i);
             final int xCell = tetradeCenterX + offset.x;
             final int yCell = tetradeCenterY + offset.y;
 
@@ -317,12 +626,101 @@ public final class TetrisModel {
     }
 
     private void clearLines(List<Integer> lines) {
+        // shift row references rather than contents, the cleared row becomes an empty top one
         for (int i = lines.size() - 1; i >= 0; --i) {
             final int line = lines.get(i);
-            for (int yScan = line + 1; yScan < getFieldHeight(); ++yScan) {
-                System.arraycopy(cells[yScan], 0, cells[yScan - 1], 0, getFieldWidth());
+            final long[] clearedRow = sharedRows[line] ? newRow() : cells[line];
+            Arrays.fill(clearedRow, 0L);
+
+            final int top = getFieldHeight() - 1;
+            System.arraycopy(cells, line + 1, cells, line, top - line);
+            System.arraycopy(sharedRows, line + 1, sharedRows, line, top - line);
+            System.arraycopy(rowMasks, line + 1, rowMasks, line, top - line);
+            cells[top] = clearedRow;
+            sharedRows[top] = false;
+            rowMasks[top] = 0;
+        }
+        if (!lines.isEmpty()) {
+            // every shifted cell changes its key and every column its height, line clears are rare enough to rehash
+            // the board and recompute all the features
+            boardHash = computeBoardHash();
+            features.markAllDirty();
+        }
+        ++boardVersion;
+    }
+
+    private long computeBoardHash() {
+        long hash = 0L;
+        for (int y = 0; y < DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+            for (int x = 0; x < DEFAULT_TETRIS_FIELD_WIDTH; ++x) {
+                if (cells[y][x] != 0) {
+                    hash ^= ZobristKeys.CELLS[y][x];
+                }
+            }
+        }
+        return hash;
+    }
+
+    private void recomputeRowMasks() {
+        features.markAllDirty();
+        for (int y = 0; y < DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+            int mask = 0;
+            for (int x = 0; x < DEFAULT_TETRIS_FIELD_WIDTH; ++x) {
+                if (cells[y][x] != 0) {
+                    mask |= 1 << x;
+                }
+            }
+            rowMasks[y] = mask;
+        }
+    }
+
+    private long[] writableRow(int y) {
+        if (sharedRows[y]) {
+            final long[] row = newRow();
+            System.arraycopy(cells[y], 0, row, 0, DEFAULT_TETRIS_FIELD_WIDTH);
+            cells[y] = row;
+            sharedRows[y] = false;
+        }
+        return cells[y];
+    }
+
+    private void captureTetrades(ModelCheckpoint checkpoint) {
+        checkpoint.setTetradeCenter(tetradeCenter);
+        checkpoint.setTetradeOffset(indexOf(tetrade));
+        checkpoint.setNextTetradeOffset(indexOf(nextTetrade));
+        checkpoint.setTetradeOrientation(tetradeOrientation);
+    }
+
+    private long[] newRow() {
+        final long[] row = freeRows.pollFirst();
+        return row != null ? row : new long[DEFAULT_TETRIS_FIELD_WIDTH];
+    }
+
+    /**
+     * Releases the rows of an evicted checkpoint that the next newer state doesn't reference: the history is linear,
+     * hence a row replaced on write never comes back in any newer checkpoint or the model itself.
+     */
+    private void recycleRows(long[][] evictedRows, long[][] newerRows) {
+        for (int i = 0; i < evictedRows.length; ++i) {
+            final long[] row = evictedRows[i];
+            boolean referenced = false;
+            for (int j = 0; j < newerRows.length && !referenced; ++j) {
+                referenced = newerRows[j] == row;
+            }
+            if (!referenced) {
+                freeRows.push(row);
+            }
+            evictedRows[i] = null;
+        }
+    }
+
+    private static int indexOf(@Nullable Tetrades.OrientationIndices orientationIndices) {
+        for (int i = 0; i < Tetrades.INDICES.length; ++i) {
+            if (Tetrades.INDICES[i] == orientationIndices) {
+                return i;
             }
         }
+        return -1;
     }
 
     private List<TetrisCoordinate> cellOffsets(int orientation) {
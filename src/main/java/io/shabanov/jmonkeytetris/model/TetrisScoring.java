@@ -6,9 +6,11 @@ package io.shabanov.jmonkeytetris.model;
  */
 public final class TetrisScoring {
     private static final int[] POINTS_PER_LINES = {40, 100, 300, 1200};
+    private static final int LINES_PER_LEVEL = 10;
 
     private int currentScore;
     private int difficultyLevel;
+    private int clearedLines;
 
     public void setDifficultyLevel(int difficultyLevel) {
         this.difficultyLevel = difficultyLevel;
@@ -26,6 +28,18 @@ public final class TetrisScoring {
         this.currentScore = currentScore;
     }
 
+    public int getClearedLines() {
+        return clearedLines;
+    }
+
+    public void setClearedLines(int clearedLines) {
+        this.clearedLines = clearedLines;
+    }
+
+    /**
+     * Adds points for the given number of simultaneously cleared lines, then advances difficulty level every
+     * ten lines (a level set explicitly is never lowered).
+     */
     public void clearLines(int numberOfLines) {
         int pos = numberOfLines - 1;
         if (pos < 0) {
@@ -35,5 +49,7 @@ public final class TetrisScoring {
             pos = POINTS_PER_LINES.length - 1;
         }
         currentScore += POINTS_PER_LINES[pos] * (difficultyLevel + 1);
+        clearedLines += numberOfLines;
+        difficultyLevel = Math.max(difficultyLevel, clearedLines / LINES_PER_LEVEL);
     }
 }
@@ -0,0 +1,43 @@
+package io.shabanov.jmonkeytetris.model;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys of the Zobrist hash of the model state, see {@link TetrisModel#stateHash()}.
+ *
+ * Keys are generated from a fixed seed, so that hashes of the same state match across runs and machines, e.g. when
+ * comparing a replay against the recorded one.
+ */
+@UtilityClass
+class ZobristKeys {
+    private static final long SEED = 0x5DEECE66DL;
+
+    // tetrade centers may lie outside of the field by up to the bounding box radius
+    static final int CENTER_OFFSET = Tetrades.BOUNDING_BOX_RADIUS;
+
+    static final long[][] CELLS = new long[TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT][TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH];
+    static final long[] TETRADE_ORIENTATIONS = new long[Tetrades.ORIENTATIONS.size()];
+    static final long[] TETRADE_X = new long[TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH + 2 * CENTER_OFFSET];
+    static final long[] TETRADE_Y = new long[TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT + 2 * CENTER_OFFSET];
+    // keyed by the first orientation index of a tetrade
+    static final long[] NEXT_TETRADES = new long[Tetrades.ORIENTATIONS.size()];
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (final long[] row : CELLS) {
+            fill(random, row);
+        }
+        fill(random, TETRADE_ORIENTATIONS);
+        fill(random, TETRADE_X);
+        fill(random, TETRADE_Y);
+        fill(random, NEXT_TETRADES);
+    }
+
+    private static void fill(SplittableRandom random, long[] keys) {
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = random.nextLong();
+        }
+    }
+}
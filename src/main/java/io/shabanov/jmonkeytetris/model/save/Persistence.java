@@ -16,4 +16,10 @@ import java.nio.file.Paths;
     public static final Path PREFERENCES_PATH = BASE_PATH.resolve("app-settings.properties");
 
     public static final Path QUICK_SAVE_PATH = BASE_PATH.resolve("saves").resolve("quick");
+
+    public static final Path LEADERBOARD_PATH = BASE_PATH.resolve("leaderboard").resolve("scores.log");
+
+    public static final Path SERVER_LEADERBOARD_PATH = BASE_PATH.resolve("leaderboard").resolve("server-scores.log");
+
+    public static final Path SERVER_REPLAYS_PATH = BASE_PATH.resolve("replays").resolve("server");
 }
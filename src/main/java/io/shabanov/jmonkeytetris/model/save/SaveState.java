@@ -21,9 +21,10 @@ public final class SaveState {
     // Controller state
     //
 
-    private float moveTick;
+    private int moveTick; //< in simulation ticks
     private boolean spawnNewTetrade;
     private float smoothOffset;
     private int currentScore;
     private int difficultyLevel;
+    private int clearedLines;
 }
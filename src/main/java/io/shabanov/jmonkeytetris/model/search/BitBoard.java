@@ -0,0 +1,153 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import lombok.experimental.UtilityClass;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Operations on a playfield represented as row occupancy bit masks, see {@link TetrisModel#getRowMask(int)}.
+ *
+ * Every orientation of every tetrade is precomputed as a set of row masks for each possible center x, so that
+ * collision checks and placements take a few bitwise operations per row and never allocate.
+ */
+@UtilityClass
+public class BitBoard {
+    public static final int WIDTH = TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH;
+    public static final int HEIGHT = TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT;
+    public static final int FULL_ROW = (1 << WIDTH) - 1;
+
+    /**
+     * Tetrade centers may lie outside of the field by up to the bounding box radius.
+     */
+    public static final int CENTER_OFFSET = Tetrades.BOUNDING_BOX_RADIUS;
+    public static final int CENTER_X_COUNT = WIDTH + 2 * CENTER_OFFSET;
+    public static final int CENTER_Y_COUNT = HEIGHT + 2 * CENTER_OFFSET;
+
+    // lowest cell offset of each orientation
+    private static final int[] MIN_DY = new int[Tetrades.ORIENTATIONS.size()];
+    // masks of each orientation for each center x, from the lowest row up; null if a cell falls out of the field
+    private static final int[][][] MASKS = new int[Tetrades.ORIENTATIONS.size()][CENTER_X_COUNT][];
+
+    static {
+        for (int o = 0; o < Tetrades.ORIENTATIONS.size(); ++o) {
+            final List<TetrisCoordinate> offsets = Tetrades.ORIENTATIONS.get(o);
+            int minDy = Integer.MAX_VALUE;
+            int maxDy = Integer.MIN_VALUE;
+            for (final TetrisCoordinate offset : offsets) {
+                minDy = Math.min(minDy, offset.y);
+                maxDy = Math.max(maxDy, offset.y);
+            }
+            MIN_DY[o] = minDy;
+
+            for (int xIndex = 0; xIndex < CENTER_X_COUNT; ++xIndex) {
+                final int x = xIndex - CENTER_OFFSET;
+                final int[] masks = new int[maxDy - minDy + 1];
+                boolean fits = true;
+                for (final TetrisCoordinate offset : offsets) {
+                    final int xCell = x + offset.x;
+                    if (xCell < 0 || xCell >= WIDTH) {
+                        fits = false;
+                        break;
+                    }
+                    masks[offset.y - minDy] |= 1 << xCell;
+                }
+                MASKS[o][xIndex] = fits ? masks : null;
+            }
+        }
+    }
+
+    /**
+     * @param orientationIndex Index in {@link Tetrades#ORIENTATIONS}
+     * @return Whether the tetrade centered at x, y overlaps occupied cells or sticks out of the field
+     */
+    public static boolean collides(int[] rows, int orientationIndex, int x, int y) {
+        final int xIndex = x + CENTER_OFFSET;
+        if (xIndex < 0 || xIndex >= CENTER_X_COUNT) {
+            return true;
+        }
+        final int[] masks = MASKS[orientationIndex][xIndex];
+        if (masks == null) {
+            return true;
+        }
+        final int bottom = y + MIN_DY[orientationIndex];
+        if (bottom < 0 || bottom + masks.length > HEIGHT) {
+            return true;
+        }
+        for (int i = 0; i < masks.length; ++i) {
+            if ((rows[bottom + i] & masks[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Y of the center of the tetrade dropped straight down from x, y
+     */
+    public static int dropY(int[] rows, int orientationIndex, int x, int y) {
+        while (!collides(rows, orientationIndex, x, y - 1)) {
+            --y;
+        }
+        return y;
+    }
+
+    /**
+     * Puts the tetrade onto the board, which must not collide with it, and clears the rows it completes.
+     *
+     * @return Number of cleared rows
+     */
+    public static int place(int[] rows, int orientationIndex, int x, int y) {
+        return place(rows, 0, orientationIndex, x, y);
+    }
+
+    /**
+     * Same as {@link #place(int[], int, int, int)} for a board whose row masks start at the given offset, e.g. one of
+     * many candidate boards laid out in a single array.
+     */
+    public static int place(int[] boards, int offset, int orientationIndex, int x, int y) {
+        final int[] masks = MASKS[orientationIndex][x + CENTER_OFFSET];
+        final int bottom = offset + y + MIN_DY[orientationIndex];
+        for (int i = 0; i < masks.length; ++i) {
+            boards[bottom + i] |= masks[i];
+        }
+
+        // only the rows the tetrade has touched may have become full
+        int cleared = 0;
+        final int top = offset + HEIGHT - 1;
+        for (int i = masks.length - 1; i >= 0; --i) {
+            final int row = bottom + i;
+            if (boards[row] == FULL_ROW) {
+                System.arraycopy(boards, row + 1, boards, row, top - row);
+                boards[top] = 0;
+                ++cleared;
+            }
+        }
+        return cleared;
+    }
+
+    //
+    // Private
+    //
+
+    /**
+     * @return Row masks of the orientation centered at x from its lowest row up, {@code null} if it sticks out of the
+     * field horizontally
+     */
+    @Nullable
+    static int[] masks(int orientationIndex, int x) {
+        final int xIndex = x + CENTER_OFFSET;
+        return xIndex < 0 || xIndex >= CENTER_X_COUNT ? null : MASKS[orientationIndex][xIndex];
+    }
+
+    /**
+     * @return Lowest row the orientation centered at y occupies
+     */
+    static int bottom(int orientationIndex, int y) {
+        return y + MIN_DY[orientationIndex];
+    }
+}
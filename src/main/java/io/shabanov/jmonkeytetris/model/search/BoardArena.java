@@ -0,0 +1,200 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off-heap storage of many boards for large searches, each board being a slot of packed {@link BitBoard} row masks.
+ *
+ * A board takes {@link #SLOT_BYTES} bytes of a direct buffer, a row per {@code short}, against a hundred bytes of an
+ * {@code int[]} of row masks on heap or kilobytes of a model's cells, and none of it is ever scanned or moved by the
+ * garbage collector. Freed slots are linked into a free list kept in the slots themselves and are handed out again
+ * before the untouched ones.
+ *
+ * Boards are placed onto and collision checked in place; {@link PlacementGenerator} and {@link BoardFeatures} read a
+ * slot into their own row buffers, which is a couple dozen loads per board. An arena is not thread safe, parallel
+ * searches are expected to give each worker arenas of its own, the way the bots' beam search does for the boards of
+ * its beam levels.
+ */
+@ParametersAreNonnullByDefault
+public final class BoardArena {
+    public static final int SLOT_BYTES = BitBoard.HEIGHT * Short.BYTES;
+
+    private static final int NO_SLOT = -1;
+
+    static {
+        if (BitBoard.WIDTH > Short.SIZE) {
+            throw new ExceptionInInitializerError("rows don't fit a short");
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+
+    // slots below this one have been handed out at least once
+    private int highWater;
+    // head of the list of freed slots, linked through their first bytes
+    private int freeHead = NO_SLOT;
+    private int size;
+
+    public BoardArena(int capacity) {
+        if (capacity <= 0 || (long) capacity * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity");
+        }
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return Slot of a new empty board
+     * @throws IllegalStateException if all the slots are taken
+     */
+    public int allocate() {
+        final int slot;
+        if (freeHead != NO_SLOT) {
+            slot = freeHead;
+            freeHead = buffer.getInt(slot * SLOT_BYTES);
+        } else if (highWater < capacity) {
+            slot = highWater++;
+        } else {
+            throw new IllegalStateException("arena is full, capacity=" + capacity);
+        }
+        ++size;
+        clear(slot);
+        return slot;
+    }
+
+    /**
+     * @return Slot of a new board with the same cells as the given one
+     */
+    public int allocateCopy(int slot) {
+        return allocateCopy(this, slot);
+    }
+
+    /**
+     * @return Slot of a new board with the same cells as the one in the given slot of another arena
+     */
+    public int allocateCopy(BoardArena source, int slot) {
+        final int copy = allocate();
+        for (int y = 0; y < BitBoard.HEIGHT; ++y) {
+            setRow(copy, y, source.getRow(slot, y));
+        }
+        return copy;
+    }
+
+    /**
+     * Gives the slot back for reuse, the slot must not be accessed afterwards.
+     */
+    public void free(int slot) {
+        buffer.putInt(slot * SLOT_BYTES, freeHead);
+        freeHead = slot;
+        --size;
+    }
+
+    /**
+     * Frees all the slots at once.
+     */
+    public void reset() {
+        highWater = 0;
+        freeHead = NO_SLOT;
+        size = 0;
+    }
+
+    /**
+     * @return Number of boards currently allocated
+     */
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int getRow(int slot, int y) {
+        return buffer.getShort(offset(slot, y)) & 0xffff;
+    }
+
+    public void setRow(int slot, int y, int mask) {
+        buffer.putShort(offset(slot, y), (short) mask);
+    }
+
+    /**
+     * Copies row masks of the board to the given array starting at the given offset.
+     */
+    public void load(int slot, int[] rows, int offset) {
+        for (int y = 0; y < BitBoard.HEIGHT; ++y) {
+            rows[offset + y] = getRow(slot, y);
+        }
+    }
+
+    /**
+     * Replaces the board with the row masks of the given array starting at the given offset.
+     */
+    public void store(int slot, int[] rows, int offset) {
+        for (int y = 0; y < BitBoard.HEIGHT; ++y) {
+            setRow(slot, y, rows[offset + y]);
+        }
+    }
+
+    /**
+     * Same as {@link BitBoard#collides(int[], int, int, int)} for the board in the given slot.
+     */
+    public boolean collides(int slot, int orientationIndex, int x, int y) {
+        final int[] masks = BitBoard.masks(orientationIndex, x);
+        if (masks == null) {
+            return true;
+        }
+        final int bottom = BitBoard.bottom(orientationIndex, y);
+        if (bottom < 0 || bottom + masks.length > BitBoard.HEIGHT) {
+            return true;
+        }
+        for (int i = 0; i < masks.length; ++i) {
+            if ((getRow(slot, bottom + i) & masks[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same as {@link BitBoard#place(int[], int, int, int)} for the board in the given slot.
+     *
+     * @return Number of cleared rows
+     */
+    public int place(int slot, int orientationIndex, int x, int y) {
+        final int[] masks = BitBoard.masks(orientationIndex, x);
+        final int bottom = BitBoard.bottom(orientationIndex, y);
+        for (int i = 0; i < masks.length; ++i) {
+            setRow(slot, bottom + i, getRow(slot, bottom + i) | masks[i]);
+        }
+
+        int cleared = 0;
+        for (int i = masks.length - 1; i >= 0; --i) {
+            final int row = bottom + i;
+            if (getRow(slot, row) == BitBoard.FULL_ROW) {
+                for (int above = row; above < BitBoard.HEIGHT - 1; ++above) {
+                    setRow(slot, above, getRow(slot, above + 1));
+                }
+                setRow(slot, BitBoard.HEIGHT - 1, 0);
+                ++cleared;
+            }
+        }
+        return cleared;
+    }
+
+    //
+    // Private
+    //
+
+    private void clear(int slot) {
+        for (int y = 0; y < BitBoard.HEIGHT; ++y) {
+            setRow(slot, y, 0);
+        }
+    }
+
+    private static int offset(int slot, int y) {
+        return slot * SLOT_BYTES + y * Short.BYTES;
+    }
+}
@@ -0,0 +1,230 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Board features commonly used by placement evaluation heuristics, computed from {@link BitBoard} row masks.
+ *
+ * Per-column values (height, holes, covered cells, transitions) and per-row transitions are cached and only the
+ * columns and rows marked dirty are recomputed on {@link #update(int[])}, so that a board which has just had
+ * a tetrade locked in costs a few columns rather than a scan of the whole grid. Aggregates are then combined from the
+ * cached values by {@link #copyTo(int[], int)}.
+ *
+ * Definitions:
+ * <ul>
+ *     <li>holes: empty cells below the top of their column;</li>
+ *     <li>covered cells: occupied cells above the lowest hole of their column;</li>
+ *     <li>bumpiness: sum of height differences of adjacent columns;</li>
+ *     <li>well depth: sum over columns lower than both neighbours (walls count as infinitely high) of the depth
+ *     relative to the lower neighbour;</li>
+ *     <li>row and column transitions: changes between occupied and empty cells along rows (walls count as occupied,
+ *     only rows below the highest column) and along columns (the floor counts as occupied).</li>
+ * </ul>
+ */
+@ParametersAreNonnullByDefault
+public final class BoardFeatures {
+    public static final int AGGREGATE_HEIGHT = 0;
+    public static final int MAX_HEIGHT = 1;
+    public static final int HOLES = 2;
+    public static final int COVERED_CELLS = 3;
+    public static final int BUMPINESS = 4;
+    public static final int WELL_DEPTH = 5;
+    public static final int ROW_TRANSITIONS = 6;
+    public static final int COLUMN_TRANSITIONS = 7;
+
+    /**
+     * Number of features, i.e. the stride of a feature matrix.
+     */
+    public static final int COUNT = 8;
+
+    private static final int ALL_COLUMNS = (1 << BitBoard.WIDTH) - 1;
+    private static final int ALL_ROWS = (1 << BitBoard.HEIGHT) - 1;
+
+    private final int[] heights = new int[BitBoard.WIDTH];
+    private final int[] holes = new int[BitBoard.WIDTH];
+    private final int[] coveredCells = new int[BitBoard.WIDTH];
+    private final int[] columnTransitions = new int[BitBoard.WIDTH];
+    private final int[] rowTransitions = new int[BitBoard.HEIGHT];
+    // boards stored in a BoardArena are read in here
+    private final int[] arenaRows = new int[BitBoard.HEIGHT];
+
+    // bit masks of the columns and rows to be recomputed
+    private int dirtyColumns = ALL_COLUMNS;
+    private int dirtyRows = ALL_ROWS;
+
+    public void markDirty(int x, int y) {
+        dirtyColumns |= 1 << x;
+        dirtyRows |= 1 << y;
+    }
+
+    public void markAllDirty() {
+        dirtyColumns = ALL_COLUMNS;
+        dirtyRows = ALL_ROWS;
+    }
+
+    public void update(int[] rows) {
+        update(rows, 0);
+    }
+
+    /**
+     * Recomputes dirty columns and rows of the board whose row masks start at the given offset.
+     */
+    public void update(int[] rows, int offset) {
+        for (int columns = dirtyColumns; columns != 0; columns &= columns - 1) {
+            updateColumn(rows, offset, Integer.numberOfTrailingZeros(columns));
+        }
+        for (int dirty = dirtyRows; dirty != 0; dirty &= dirty - 1) {
+            final int y = Integer.numberOfTrailingZeros(dirty);
+            rowTransitions[y] = rowTransitions(rows[offset + y]);
+        }
+        dirtyColumns = 0;
+        dirtyRows = 0;
+    }
+
+    /**
+     * Recomputes dirty columns and rows of the board stored in the given arena slot.
+     */
+    public void update(BoardArena arena, int slot) {
+        arena.load(slot, arenaRows, 0);
+        update(arenaRows, 0);
+    }
+
+    public int getColumnHeight(int x) {
+        return heights[x];
+    }
+
+    /**
+     * Stores all the features at the given offset of the destination, see {@link #COUNT}.
+     */
+    public void copyTo(int[] dest, int offset) {
+        int aggregateHeight = 0;
+        int maxHeight = 0;
+        int totalHoles = 0;
+        int totalCoveredCells = 0;
+        int bumpiness = 0;
+        int wellDepth = 0;
+        int totalColumnTransitions = 0;
+        for (int x = 0; x < BitBoard.WIDTH; ++x) {
+            final int height = heights[x];
+            aggregateHeight += height;
+            maxHeight = Math.max(maxHeight, height);
+            totalHoles += holes[x];
+            totalCoveredCells += coveredCells[x];
+            totalColumnTransitions += columnTransitions[x];
+            if (x > 0) {
+                bumpiness += Math.abs(height - heights[x - 1]);
+            }
+
+            final int left = x > 0 ? heights[x - 1] : Integer.MAX_VALUE;
+            final int right = x < BitBoard.WIDTH - 1 ? heights[x + 1] : Integer.MAX_VALUE;
+            final int depth = Math.min(left, right) - height;
+            if (depth > 0) {
+                wellDepth += depth;
+            }
+        }
+
+        int totalRowTransitions = 0;
+        for (int y = 0; y < maxHeight; ++y) {
+            totalRowTransitions += rowTransitions[y];
+        }
+
+        dest[offset + AGGREGATE_HEIGHT] = aggregateHeight;
+        dest[offset + MAX_HEIGHT] = maxHeight;
+        dest[offset + HOLES] = totalHoles;
+        dest[offset + COVERED_CELLS] = totalCoveredCells;
+        dest[offset + BUMPINESS] = bumpiness;
+        dest[offset + WELL_DEPTH] = wellDepth;
+        dest[offset + ROW_TRANSITIONS] = totalRowTransitions;
+        dest[offset + COLUMN_TRANSITIONS] = totalColumnTransitions;
+    }
+
+    /**
+     * Copies cached values of another instance, e.g. to derive features of a candidate board from its parent by
+     * marking dirty the cells the candidate differs in.
+     */
+    public void copyFrom(BoardFeatures other) {
+        System.arraycopy(other.heights, 0, heights, 0, heights.length);
+        System.arraycopy(other.holes, 0, holes, 0, holes.length);
+        System.arraycopy(other.coveredCells, 0, coveredCells, 0, coveredCells.length);
+        System.arraycopy(other.columnTransitions, 0, columnTransitions, 0, columnTransitions.length);
+        System.arraycopy(other.rowTransitions, 0, rowTransitions, 0, rowTransitions.length);
+        dirtyColumns = other.dirtyColumns;
+        dirtyRows = other.dirtyRows;
+    }
+
+    /**
+     * Evaluates features of many boards at once: board {@code i} is read from {@code boards} at offset
+     * {@code i * BitBoard.HEIGHT} and its features are stored to {@code features} at offset {@code i * COUNT}.
+     * This instance is used as scratch space.
+     */
+    public void extractBatch(int[] boards, int boardCount, int[] features) {
+        for (int i = 0; i < boardCount; ++i) {
+            markAllDirty();
+            update(boards, i * BitBoard.HEIGHT);
+            copyTo(features, i * COUNT);
+        }
+    }
+
+    /**
+     * Same as {@link #extractBatch(int[], int, int[])} for boards stored in an arena: features of the board in
+     * {@code slots[i]} are stored to {@code features} at offset {@code i * COUNT}.
+     */
+    public void extractBatch(BoardArena arena, int[] slots, int boardCount, int[] features) {
+        for (int i = 0; i < boardCount; ++i) {
+            markAllDirty();
+            update(arena, slots[i]);
+            copyTo(features, i * COUNT);
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private void updateColumn(int[] rows, int offset, int x) {
+        final int bit = 1 << x;
+        int height = 0;
+        for (int y = BitBoard.HEIGHT - 1; y >= 0; --y) {
+            if ((rows[offset + y] & bit) != 0) {
+                height = y + 1;
+                break;
+            }
+        }
+
+        int columnHoles = 0;
+        int lowestHole = -1;
+        int transitions = 0;
+        boolean previousOccupied = true; // floor
+        for (int y = 0; y < height; ++y) {
+            final boolean occupied = (rows[offset + y] & bit) != 0;
+            if (!occupied) {
+                ++columnHoles;
+                if (lowestHole < 0) {
+                    lowestHole = y;
+                }
+            }
+            if (occupied != previousOccupied) {
+                ++transitions;
+            }
+            previousOccupied = occupied;
+        }
+
+        int covered = 0;
+        for (int y = lowestHole + 1; lowestHole >= 0 && y < height; ++y) {
+            if ((rows[offset + y] & bit) != 0) {
+                ++covered;
+            }
+        }
+
+        heights[x] = height;
+        holes[x] = columnHoles;
+        coveredCells[x] = covered;
+        columnTransitions[x] = transitions;
+    }
+
+    private static int rowTransitions(int row) {
+        // surround the row with occupied walls and count changes between adjacent bits
+        final int walled = row << 1 | 1 | 1 << (BitBoard.WIDTH + 1);
+        return Integer.bitCount((walled ^ walled >>> 1) & ((1 << (BitBoard.WIDTH + 1)) - 1));
+    }
+}
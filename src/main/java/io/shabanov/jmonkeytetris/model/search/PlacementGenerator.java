@@ -0,0 +1,131 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import lombok.experimental.UtilityClass;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Enumerates every final placement a tetrade can reach from its current position by the moves the player has:
+ * shifting left or right, rotating and moving down one row.
+ *
+ * This is a breadth-first search over (orientation, x, y) states with a visited bit set, so each placement comes with
+ * the shortest move sequence leading to it, including tucks and spins under overhangs that a straight drop misses.
+ * Collisions are checked against {@link BitBoard} row masks, and no allocation happens during the search.
+ */
+@UtilityClass
+@ParametersAreNonnullByDefault
+public class PlacementGenerator {
+
+    /**
+     * Finds placements of the falling tetrade of the model.
+     *
+     * @return Number of placements found, zero if the model has no falling tetrade
+     */
+    public static int generate(TetrisModel model, int[] rowsBuffer, Placements out) {
+        final Tetrades.OrientationIndices tetrade = model.getTetradeIndices();
+        if (tetrade == null) {
+            out.reset();
+            return 0;
+        }
+        model.copyRowMasks(rowsBuffer);
+        final TetrisCoordinate center = model.getTetradeCenter();
+        return generate(rowsBuffer, tetrade, model.getTetradeOrientation(), center.x, center.y, out);
+    }
+
+    /**
+     * Same as {@link #generate(int[], Tetrades.OrientationIndices, int, int, int, Placements)} for a board stored in
+     * an arena.
+     */
+    public static int generate(BoardArena arena, int slot, Tetrades.OrientationIndices tetrade, int orientation,
+                               int x, int y, Placements out) {
+        arena.load(slot, out.rows, 0);
+        return generate(out.rows, tetrade, orientation, x, y, out);
+    }
+
+    /**
+     * Finds placements of the given tetrade starting at the given position.
+     *
+     * @param rows Row masks of the board, see {@link BitBoard}
+     * @param orientation Initial orientation relative to the first orientation of the tetrade
+     * @return Number of placements found, zero if the tetrade doesn't fit the initial position
+     */
+    public static int generate(int[] rows, Tetrades.OrientationIndices tetrade, int orientation, int x, int y,
+                               Placements out) {
+        out.reset();
+        final int first = tetrade.getFirstOrientationIndex();
+        final int count = tetrade.count();
+        if (BitBoard.collides(rows, first + orientation, x, y)) {
+            return 0;
+        }
+
+        int head = 0;
+        int tail = 0;
+        final int start = node(orientation, x, y);
+        visit(out, start, -1, (byte) -1);
+        out.queue[tail++] = start;
+
+        while (head < tail) {
+            final int node = out.queue[head++];
+            final int r = rotationOf(node);
+            final int nx = xOf(node);
+            final int ny = yOf(node);
+            final int orientationIndex = first + r;
+
+            if (!BitBoard.collides(rows, orientationIndex, nx - 1, ny)) {
+                tail = enqueue(out, tail, node(r, nx - 1, ny), node, Placements.MOVE_LEFT);
+            }
+            if (!BitBoard.collides(rows, orientationIndex, nx + 1, ny)) {
+                tail = enqueue(out, tail, node(r, nx + 1, ny), node, Placements.MOVE_RIGHT);
+            }
+            final int rotated = (r + 1) % count;
+            if (rotated != r && !BitBoard.collides(rows, first + rotated, nx, ny)) {
+                tail = enqueue(out, tail, node(rotated, nx, ny), node, Placements.ROTATE);
+            }
+            if (!BitBoard.collides(rows, orientationIndex, nx, ny - 1)) {
+                tail = enqueue(out, tail, node(r, nx, ny - 1), node, Placements.MOVE_DOWN);
+            } else {
+                out.add(orientationIndex, nx, ny, node);
+            }
+        }
+        return out.size();
+    }
+
+    //
+    // Private
+    //
+
+    private static int enqueue(Placements out, int tail, int node, int parent, byte move) {
+        if ((out.visited[node >>> 6] & (1L << node)) != 0) {
+            return tail;
+        }
+        visit(out, node, parent, move);
+        out.queue[tail] = node;
+        return tail + 1;
+    }
+
+    private static void visit(Placements out, int node, int parent, byte move) {
+        out.visited[node >>> 6] |= 1L << node;
+        out.parents[node] = parent;
+        out.moves[node] = move;
+    }
+
+    private static int node(int rotation, int x, int y) {
+        return (rotation * BitBoard.CENTER_X_COUNT + x + BitBoard.CENTER_OFFSET) * BitBoard.CENTER_Y_COUNT
+                + y + BitBoard.CENTER_OFFSET;
+    }
+
+    private static int rotationOf(int node) {
+        return node / (BitBoard.CENTER_X_COUNT * BitBoard.CENTER_Y_COUNT);
+    }
+
+    private static int xOf(int node) {
+        return node / BitBoard.CENTER_Y_COUNT % BitBoard.CENTER_X_COUNT - BitBoard.CENTER_OFFSET;
+    }
+
+    private static int yOf(int node) {
+        return node % BitBoard.CENTER_Y_COUNT - BitBoard.CENTER_OFFSET;
+    }
+}
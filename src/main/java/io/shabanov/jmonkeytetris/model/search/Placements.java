@@ -0,0 +1,104 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import java.util.Arrays;
+
+/**
+ * Final placements of a tetrade found by {@link PlacementGenerator}, along with the moves that lead to each of them.
+ *
+ * All the storage, including the search bookkeeping, is allocated once and reused by every search into the same
+ * instance; an instance must not be shared between threads.
+ */
+public final class Placements {
+    public static final byte MOVE_LEFT = 0;
+    public static final byte MOVE_RIGHT = 1;
+    public static final byte ROTATE = 2;
+    public static final byte MOVE_DOWN = 3;
+
+    static final int MAX_ROTATIONS = 4;
+    static final int NODE_COUNT = MAX_ROTATIONS * BitBoard.CENTER_X_COUNT * BitBoard.CENTER_Y_COUNT;
+
+    /**
+     * Upper bound of a path length, see {@link #copyPath(int, byte[])}.
+     */
+    public static final int MAX_PATH_LENGTH = NODE_COUNT;
+
+    /**
+     * Upper bound of the number of placements a single search finds.
+     */
+    public static final int MAX_COUNT = NODE_COUNT;
+
+    // found placements
+    private int size;
+    private final int[] orientationIndices = new int[NODE_COUNT];
+    private final int[] xs = new int[NODE_COUNT];
+    private final int[] ys = new int[NODE_COUNT];
+    private final int[] nodes = new int[NODE_COUNT];
+
+    // search bookkeeping, indexed by node
+    final long[] visited = new long[(NODE_COUNT + 63) / 64];
+    final int[] parents = new int[NODE_COUNT];
+    final byte[] moves = new byte[NODE_COUNT];
+    final int[] queue = new int[NODE_COUNT];
+    // boards searched out of a BoardArena are read in here
+    final int[] rows = new int[BitBoard.HEIGHT];
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Index of the orientation in {@link io.shabanov.jmonkeytetris.model.Tetrades#ORIENTATIONS}
+     */
+    public int getOrientationIndex(int i) {
+        return orientationIndices[i];
+    }
+
+    public int getX(int i) {
+        return xs[i];
+    }
+
+    public int getY(int i) {
+        return ys[i];
+    }
+
+    public int getPathLength(int i) {
+        int length = 0;
+        for (int node = nodes[i]; parents[node] >= 0; node = parents[node]) {
+            ++length;
+        }
+        return length;
+    }
+
+    /**
+     * Copies the shortest sequence of moves that brings the tetrade from its initial position to the given placement;
+     * the tetrade still has to be locked, e.g. by one more move down.
+     *
+     * @param dest Destination of {@link #MOVE_LEFT}, {@link #MOVE_RIGHT}, {@link #ROTATE} and {@link #MOVE_DOWN} moves
+     * @return Number of moves copied
+     */
+    public int copyPath(int i, byte[] dest) {
+        final int length = getPathLength(i);
+        int pos = length;
+        for (int node = nodes[i]; parents[node] >= 0; node = parents[node]) {
+            dest[--pos] = moves[node];
+        }
+        return length;
+    }
+
+    //
+    // Private
+    //
+
+    void reset() {
+        size = 0;
+        Arrays.fill(visited, 0L);
+    }
+
+    void add(int orientationIndex, int x, int y, int node) {
+        orientationIndices[size] = orientationIndex;
+        xs[size] = x;
+        ys[size] = y;
+        nodes[size] = node;
+        ++size;
+    }
+}
@@ -0,0 +1,167 @@
+package io.shabanov.jmonkeytetris.replay;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.server.Protocol;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import lombok.Getter;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Recorded game: the seed of its tetrade sequence, every command press and release along with the tick it was applied
+ * on, and the outcome claimed by the side that has recorded it.
+ *
+ * A game of a {@link #newModel(long) seeded model} ticked through {@link TetrisGameController#step()} is fully
+ * determined by its seed and commands, so that the outcome can be checked by re-simulating it, see
+ * {@link ReplayVerifier}.
+ *
+ * A replay file is a fixed-size header followed by the commands, each one being a varint of the ticks passed since
+ * the previous command and the command encoded the same way as on the wire, see {@link Protocol}.
+ */
+@ParametersAreNonnullByDefault
+public final class Replay {
+    public static final String FILE_EXTENSION = ".replay";
+
+    /**
+     * Commands a replay may hold: the ones that act on the game alone, unlike e.g. quick load, which depends on a
+     * file of the host.
+     */
+    public static final Set<GameCommand> COMMANDS = Collections.unmodifiableSet(EnumSet.of(GameCommand.MOVE_LEFT,
+            GameCommand.MOVE_RIGHT, GameCommand.ROTATE, GameCommand.SOFT_DROP, GameCommand.HARD_DROP,
+            GameCommand.PAUSE_OR_RESTART));
+
+    private static final int MAGIC = 0x5452504C; //< "TRPL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+
+    @Getter private final long seed;
+    private final long[] commandTicks;
+    private final byte[] commands;
+    @Getter private final long finalTick;
+    @Getter private final int finalScore;
+    @Getter private final long finalStateHash;
+
+    Replay(long seed, long[] commandTicks, byte[] commands, long finalTick, int finalScore, long finalStateHash) {
+        this.seed = seed;
+        this.commandTicks = commandTicks;
+        this.commands = commands;
+        this.finalTick = finalTick;
+        this.finalScore = finalScore;
+        this.finalStateHash = finalStateHash;
+    }
+
+    /**
+     * @return Model of a game that can be replayed, its tetrades being drawn from the given seed
+     */
+    public static TetrisModel newModel(long seed) {
+        return new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(seed)));
+    }
+
+    public int getCommandCount() {
+        return commands.length;
+    }
+
+    /**
+     * @return Tick the command of the given index has been applied on, i.e. the number of ticks run before it
+     */
+    public long getCommandTick(int index) {
+        return commandTicks[index];
+    }
+
+    /**
+     * @return Command of the given index, encoded as per {@link Protocol#encodeCommand(GameCommand, boolean)}
+     */
+    public byte getCommand(int index) {
+        return commands[index];
+    }
+
+    public void write(Path path) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + commands.length * (Long.BYTES + 2));
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(seed).putLong(finalTick).putInt(finalScore)
+                .putLong(finalStateHash).putInt(commands.length);
+        long previousTick = 0L;
+        for (int i = 0; i < commands.length; ++i) {
+            Protocol.putVarint(buffer, commandTicks[i] - previousTick);
+            buffer.put(commands[i]);
+            previousTick = commandTicks[i];
+        }
+        buffer.flip();
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a replay file mapped to memory.
+     *
+     * @throws IOException If the file cannot be read or is not a well-formed replay
+     */
+    public static Replay read(Path path) throws IOException {
+        final MappedByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return read(buffer);
+    }
+
+    /**
+     * @throws IOException If the buffer does not hold a well-formed replay
+     */
+    public static Replay read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a replay");
+            }
+            final int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+            final long seed = buffer.getLong();
+            final long finalTick = buffer.getLong();
+            final int finalScore = buffer.getInt();
+            final long finalStateHash = buffer.getLong();
+            final int count = buffer.getInt();
+            // every command takes two bytes at least
+            if (count < 0 || count > buffer.remaining() / 2) {
+                throw new IOException("Replay is truncated");
+            }
+
+            final long[] commandTicks = new long[count];
+            final byte[] commands = new byte[count];
+            long tick = 0L;
+            for (int i = 0; i < count; ++i) {
+                final long delta = Protocol.getVarint(buffer);
+                if (delta < 0) {
+                    throw new IOException("Replay commands go back in time");
+                }
+                tick += delta;
+                commandTicks[i] = tick;
+                commands[i] = buffer.get();
+                if (!Protocol.isCommand(commands[i]) || !COMMANDS.contains(Protocol.decodeCommand(commands[i]))) {
+                    throw new IOException("Replay holds unsupported command " + commands[i]);
+                }
+            }
+            return new Replay(seed, commandTicks, commands, finalTick, finalScore, finalStateHash);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Replay is truncated", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.shabanov.jmonkeytetris.replay;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.server.Protocol;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Arrays;
+
+/**
+ * Collects the commands applied to a game of a {@link Replay#newModel(long) seeded model}, all the way from its
+ * start, so that a {@link Replay} can be taken whenever a game is over.
+ */
+@ParametersAreNonnullByDefault
+public final class ReplayRecorder {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final long seed;
+    private long[] commandTicks = new long[INITIAL_CAPACITY];
+    private byte[] commands = new byte[INITIAL_CAPACITY];
+    private int count;
+
+    public ReplayRecorder(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Records a command the controller is about to apply, only {@link Replay#COMMANDS} are expected.
+     */
+    public void record(TetrisGameController controller, GameCommand command, boolean pressed) {
+        if (count == commands.length) {
+            commandTicks = Arrays.copyOf(commandTicks, count * 2);
+            commands = Arrays.copyOf(commands, count * 2);
+        }
+        commandTicks[count] = controller.getTick();
+        commands[count] = Protocol.encodeCommand(command, pressed);
+        ++count;
+    }
+
+    /**
+     * @return Replay of the commands recorded so far, the outcome being the current state of the given game
+     */
+    public Replay toReplay(TetrisModel model, TetrisGameController controller) {
+        return new Replay(seed, Arrays.copyOf(commandTicks, count), Arrays.copyOf(commands, count),
+                controller.getTick(), controller.getCurrentScore(), model.stateHash());
+    }
+}
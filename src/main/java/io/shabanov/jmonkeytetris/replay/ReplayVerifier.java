@@ -0,0 +1,162 @@
+package io.shabanov.jmonkeytetris.replay;
+
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.save.Persistence;
+import io.shabanov.jmonkeytetris.server.Protocol;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks the outcome claimed by {@link Replay replays}, e.g. the games submitted to a leaderboard, by re-simulating
+ * them headless from their seeds and commands.
+ *
+ * A directory of replays is verified in parallel, a file per task, each file being read mapped to memory.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+public final class ReplayVerifier {
+
+    @Value
+    public static class Result {
+        Path path;
+        /**
+         * Why the replay could not be re-simulated, null if it could.
+         */
+        @Nullable String error;
+        long claimedTick;
+        long tick;
+        int claimedScore;
+        int score;
+        long claimedStateHash;
+        long stateHash;
+
+        public boolean isMatching() {
+            return error == null && claimedTick == tick && claimedScore == score && claimedStateHash == stateHash;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public ReplayVerifier(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return Results of all the replay files in the given directory, ordered by file name
+     */
+    public List<Result> verifyDirectory(Path directory) throws IOException {
+        final List<Path> paths;
+        try (final Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(Replay.FILE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return pool.submit(() -> paths.parallelStream()
+                .map(ReplayVerifier::verify)
+                .collect(Collectors.toList())).join();
+    }
+
+    public static Result verify(Path path) {
+        final Replay replay;
+        try {
+            replay = Replay.read(path);
+        } catch (IOException e) {
+            return new Result(path, e.getMessage(), 0L, 0L, 0, 0, 0L, 0L);
+        }
+        return verify(path, replay);
+    }
+
+    /**
+     * Re-simulates the game of the given replay, commands being applied after the same number of ticks they were
+     * applied after when recorded.
+     */
+    public static Result verify(Path path, Replay replay) {
+        final TetrisModel model = Replay.newModel(replay.getSeed());
+        final TetrisGameController controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(),
+                SoundEffectsStore.noOp());
+
+        String error = null;
+        for (int i = 0; i < replay.getCommandCount(); ++i) {
+            if (!advanceTo(controller, replay.getCommandTick(i))) {
+                error = "command " + i + " is applied on tick " + replay.getCommandTick(i) + " the game never runs";
+                break;
+            }
+            final byte command = replay.getCommand(i);
+            if (Protocol.isPressed(command)) {
+                controller.press(Protocol.decodeCommand(command), 0L);
+            } else {
+                controller.release(Protocol.decodeCommand(command), 0L);
+            }
+        }
+        if (error == null) {
+            advanceTo(controller, replay.getFinalTick());
+        }
+
+        return new Result(path, error, replay.getFinalTick(), controller.getTick(), replay.getFinalScore(),
+                controller.getCurrentScore(), replay.getFinalStateHash(), model.stateHash());
+    }
+
+    /**
+     * Verifies the replays of the directory given as the argument following {@code --verify-replays}, or of
+     * {@link Persistence#SERVER_REPLAYS_PATH} if there is none, and logs the ones that don't match.
+     */
+    public static void main(String[] args) {
+        Path directory = Persistence.SERVER_REPLAYS_PATH;
+        for (int i = 0; i + 1 < args.length; ++i) {
+            if ("--verify-replays".equals(args[i])) {
+                directory = Paths.get(args[i + 1]);
+            }
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            final long startedAt = System.nanoTime();
+            final List<Result> results = new ReplayVerifier(pool).verifyDirectory(directory);
+            final long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000L;
+
+            int mismatches = 0;
+            for (final Result result : results) {
+                if (!result.isMatching()) {
+                    ++mismatches;
+                    log.warn("Replay mismatch: {}", result);
+                }
+            }
+            log.info("Verified {} replays in {} ms, {} mismatches", results.size(), elapsedMillis, mismatches);
+        } catch (IOException e) {
+            log.error("Unable to list replays in {}", directory, e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //
+    // Private
+    //
+
+    /**
+     * @return Whether the game has run exactly the given number of ticks, which it may fail to reach by being over
+     * or paused before, or having run more ticks already
+     */
+    private static boolean advanceTo(TetrisGameController controller, long tick) {
+        while (controller.getTick() < tick && controller.getPhase() == TetrisGamePhase.RUNNING) {
+            controller.step();
+        }
+        return controller.getTick() == tick;
+    }
+}
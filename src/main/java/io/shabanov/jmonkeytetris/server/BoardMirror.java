@@ -0,0 +1,180 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.nio.ByteBuffer;
+
+/**
+ * Receiving side of {@link BoardSync}: the state of a remote game put together from the frames it sends.
+ */
+@ParametersAreNonnullByDefault
+public final class BoardMirror {
+    private static final TetrisGamePhase[] PHASES = TetrisGamePhase.values();
+
+    private final int[] rows = new int[TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT];
+    private int tetradeOrientationIndex = -1;
+    private int tetradeX;
+    private int tetradeY;
+    private int nextTetradeOrientationIndex = -1;
+    private int currentScore;
+    private int clearedLines;
+    private TetrisGamePhase phase = TetrisGamePhase.RUNNING;
+    private long tick;
+    private boolean synced;
+    private long sessionId = -1L;
+
+    /**
+     * Applies the next frame of the input, if it has been received in full.
+     *
+     * @return Whether a frame has been applied
+     */
+    public boolean readFrame(ByteBuffer in) {
+        if (!Protocol.hasFrame(in)) {
+            return false;
+        }
+        final int length = (int) Protocol.getVarint(in);
+        final int end = in.position() + length;
+        apply(in);
+        if (in.position() != end) {
+            throw new IllegalStateException("malformed frame");
+        }
+        return true;
+    }
+
+    /**
+     * Applies a single frame without its length prefix.
+     */
+    public void apply(ByteBuffer frame) {
+        final byte type = frame.get();
+        switch (type) {
+            case Protocol.SESSION:
+                sessionId = frame.getLong();
+                break;
+
+            case Protocol.KEYFRAME:
+                tick = Protocol.getVarint(frame);
+                phase = PHASES[frame.get()];
+                currentScore = (int) Protocol.getVarint(frame);
+                clearedLines = (int) Protocol.getVarint(frame);
+                readPiece(frame);
+                nextTetradeOrientationIndex = frame.get() - 1;
+                for (int y = 0; y < rows.length; ++y) {
+                    rows[y] = (int) Protocol.getVarint(frame);
+                }
+                synced = true;
+                break;
+
+            case Protocol.DELTA:
+                if (!synced) {
+                    throw new IllegalStateException("delta before keyframe");
+                }
+                tick += Protocol.getVarint(frame);
+                final int flags = frame.get();
+                if ((flags & Protocol.ROWS_CLEARED) != 0) {
+                    removeRows(rows, (int) Protocol.getVarint(frame));
+                }
+                if ((flags & Protocol.ROWS_CHANGED) != 0) {
+                    final int changed = (int) Protocol.getVarint(frame);
+                    for (int y = 0; y < rows.length; ++y) {
+                        if ((changed & 1 << y) != 0) {
+                            rows[y] = (int) Protocol.getVarint(frame);
+                        }
+                    }
+                }
+                if ((flags & Protocol.PIECE_CHANGED) != 0) {
+                    readPiece(frame);
+                }
+                if ((flags & Protocol.NEXT_CHANGED) != 0) {
+                    nextTetradeOrientationIndex = frame.get() - 1;
+                }
+                if ((flags & Protocol.SCORE_CHANGED) != 0) {
+                    currentScore = (int) Protocol.getVarint(frame);
+                    clearedLines = (int) Protocol.getVarint(frame);
+                }
+                if ((flags & Protocol.PHASE_CHANGED) != 0) {
+                    phase = PHASES[frame.get()];
+                }
+                break;
+
+            default:
+                throw new IllegalStateException("unknown frame type " + type);
+        }
+    }
+
+    /**
+     * @return Id of the session as the server has sent it to the player, -1 until then
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * @return Occupancy mask of the row, see {@link TetrisModel#getRowMask(int)}
+     */
+    public int getRowMask(int y) {
+        return rows[y];
+    }
+
+    /**
+     * @return Index in {@link io.shabanov.jmonkeytetris.model.Tetrades#ORIENTATIONS} or -1 if there is no falling
+     * tetrade
+     */
+    public int getTetradeOrientationIndex() {
+        return tetradeOrientationIndex;
+    }
+
+    public int getTetradeX() {
+        return tetradeX;
+    }
+
+    public int getTetradeY() {
+        return tetradeY;
+    }
+
+    public int getNextTetradeOrientationIndex() {
+        return nextTetradeOrientationIndex;
+    }
+
+    public int getCurrentScore() {
+        return currentScore;
+    }
+
+    public int getClearedLines() {
+        return clearedLines;
+    }
+
+    public TetrisGamePhase getPhase() {
+        return phase;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    //
+    // Private
+    //
+
+    /**
+     * Removes the rows of the mask from the top one down, moving the rows above each of them down.
+     */
+    static void removeRows(int[] rows, int mask) {
+        for (int remaining = mask; remaining != 0; remaining &= ~Integer.highestOneBit(remaining)) {
+            final int line = Integer.numberOfTrailingZeros(Integer.highestOneBit(remaining));
+            System.arraycopy(rows, line + 1, rows, line, rows.length - 1 - line);
+            rows[rows.length - 1] = 0;
+        }
+    }
+
+    private void readPiece(ByteBuffer frame) {
+        tetradeOrientationIndex = frame.get() - 1;
+        tetradeX = (int) Protocol.unzigzag(Protocol.getVarint(frame));
+        tetradeY = (int) Protocol.unzigzag(Protocol.getVarint(frame));
+    }
+}
@@ -0,0 +1,234 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Encodes the state of a game as {@link Protocol} frames, keeping a copy of what the receiving side knows so that a
+ * delta carries only what has changed since the previous frame.
+ *
+ * Keyframe layout: type, tick, phase (byte), score, cleared lines, piece, next tetrade and a varint mask per row.
+ * Delta layout: type, ticks since the previous frame, section flags (byte), then the flagged sections:
+ * <ul>
+ *     <li>{@link Protocol#ROWS_CLEARED}: mask of the rows cleared, to be removed top down before anything else;</li>
+ *     <li>{@link Protocol#ROWS_CHANGED}: mask of the rows that differ after that, followed by their new masks;</li>
+ *     <li>{@link Protocol#PIECE_CHANGED}: falling tetrade orientation index plus one (byte, zero if there is none),
+ *     zigzag x and y of its center;</li>
+ *     <li>{@link Protocol#NEXT_CHANGED}: next tetrade orientation index plus one (byte);</li>
+ *     <li>{@link Protocol#SCORE_CHANGED}: score and cleared lines;</li>
+ *     <li>{@link Protocol#PHASE_CHANGED}: phase ordinal (byte).</li>
+ * </ul>
+ * Locked cells usually change a single row and a line clear is a single mask, so a typical delta takes a few bytes.
+ * Cleared rows come from the model change notifications; should two clears happen between frames, the next frame is
+ * a keyframe, as row indices of the second clear refer to the board after the first one.
+ */
+@ParametersAreNonnullByDefault
+public final class BoardSync {
+    private final TetrisModel model;
+    private final TetrisGameController controller;
+
+    // state as the receiving side knows it
+    private final int[] rows = new int[TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT];
+    private int pieceIndex;
+    private int pieceX;
+    private int pieceY;
+    private int nextIndex;
+    private int score;
+    private int clearedLines;
+    private int phase;
+    private long tick;
+
+    // rows cleared by the model since the previous frame
+    private int clearedRows;
+    private boolean keyframeRequired = true;
+
+    public BoardSync(TetrisModel model, TetrisGameController controller) {
+        this.model = model;
+        this.controller = controller;
+        model.addFieldChangeListener(new TetrisModel.FieldChangeListener() {
+            @Override
+            public void putCell(int x, int y) {
+                // locked cells are found by comparing row masks
+            }
+
+            @Override
+            public void removeLines(List<Integer> lines) {
+                if (clearedRows != 0) {
+                    keyframeRequired = true;
+                }
+                for (int i = 0; i < lines.size(); ++i) {
+                    clearedRows |= 1 << lines.get(i);
+                }
+            }
+
+            @Override
+            public void insertRows(int count) {
+                // deltas only describe rows moving down, a risen stack is sent as a whole
+                keyframeRequired = true;
+            }
+        });
+    }
+
+    /**
+     * Makes the next {@link #writeFrame(ByteBuffer)} write a keyframe, e.g. when the receiver has lost track.
+     */
+    public void requireKeyframe() {
+        keyframeRequired = true;
+    }
+
+    /**
+     * Writes a keyframe if one is required, a delta otherwise, or nothing if nothing has changed.
+     *
+     * @param out Destination with at least {@link Protocol#MAX_FRAME_LENGTH} bytes remaining
+     * @return Whether a frame has been written
+     */
+    public boolean writeFrame(ByteBuffer out) {
+        if (keyframeRequired) {
+            writeKeyframe(out);
+            return true;
+        }
+        return writeDelta(out);
+    }
+
+    public void writeKeyframe(ByteBuffer out) {
+        keyframeRequired = false;
+        clearedRows = 0;
+        for (int y = 0; y < rows.length; ++y) {
+            rows[y] = model.getRowMask(y);
+        }
+        pieceIndex = currentPieceIndex();
+        pieceX = model.getTetradeCenter().x;
+        pieceY = model.getTetradeCenter().y;
+        nextIndex = currentNextIndex();
+        score = controller.getCurrentScore();
+        clearedLines = controller.getClearedLines();
+        phase = controller.getPhase().ordinal();
+        tick = controller.getTick();
+        putKeyframe(out);
+    }
+
+    /**
+     * Writes a keyframe of the state the frames written so far have brought the receiving side to, e.g. for a
+     * receiver that has joined late or fallen behind, leaving the frames that follow unaffected.
+     */
+    public void writeResyncFrame(ByteBuffer out) {
+        putKeyframe(out);
+    }
+
+    //
+    // Private
+    //
+
+    private void putKeyframe(ByteBuffer out) {
+        out.put(Protocol.KEYFRAME);
+        Protocol.putVarint(out, tick);
+        out.put((byte) phase);
+        Protocol.putVarint(out, score);
+        Protocol.putVarint(out, clearedLines);
+        putPiece(out);
+        out.put((byte) (nextIndex + 1));
+        for (final int row : rows) {
+            Protocol.putVarint(out, row);
+        }
+    }
+
+    private boolean writeDelta(ByteBuffer out) {
+        int flags = 0;
+
+        final int cleared = clearedRows;
+        clearedRows = 0;
+        if (cleared != 0) {
+            flags |= Protocol.ROWS_CLEARED;
+            BoardMirror.removeRows(rows, cleared);
+        }
+
+        int changedRows = 0;
+        for (int y = 0; y < rows.length; ++y) {
+            if (rows[y] != model.getRowMask(y)) {
+                changedRows |= 1 << y;
+                rows[y] = model.getRowMask(y);
+            }
+        }
+        if (changedRows != 0) {
+            flags |= Protocol.ROWS_CHANGED;
+        }
+
+        final TetrisCoordinate center = model.getTetradeCenter();
+        final int currentPiece = currentPieceIndex();
+        if (currentPiece != pieceIndex || center.x != pieceX || center.y != pieceY) {
+            flags |= Protocol.PIECE_CHANGED;
+            pieceIndex = currentPiece;
+            pieceX = center.x;
+            pieceY = center.y;
+        }
+        final int currentNext = currentNextIndex();
+        if (currentNext != nextIndex) {
+            flags |= Protocol.NEXT_CHANGED;
+            nextIndex = currentNext;
+        }
+        if (controller.getCurrentScore() != score || controller.getClearedLines() != clearedLines) {
+            flags |= Protocol.SCORE_CHANGED;
+            score = controller.getCurrentScore();
+            clearedLines = controller.getClearedLines();
+        }
+        if (controller.getPhase().ordinal() != phase) {
+            flags |= Protocol.PHASE_CHANGED;
+            phase = controller.getPhase().ordinal();
+        }
+        if (flags == 0) {
+            return false;
+        }
+
+        out.put(Protocol.DELTA);
+        Protocol.putVarint(out, controller.getTick() - tick);
+        tick = controller.getTick();
+        out.put((byte) flags);
+        if (cleared != 0) {
+            Protocol.putVarint(out, cleared);
+        }
+        if (changedRows != 0) {
+            Protocol.putVarint(out, changedRows);
+            for (int y = 0; y < rows.length; ++y) {
+                if ((changedRows & 1 << y) != 0) {
+                    Protocol.putVarint(out, rows[y]);
+                }
+            }
+        }
+        if ((flags & Protocol.PIECE_CHANGED) != 0) {
+            putPiece(out);
+        }
+        if ((flags & Protocol.NEXT_CHANGED) != 0) {
+            out.put((byte) (nextIndex + 1));
+        }
+        if ((flags & Protocol.SCORE_CHANGED) != 0) {
+            Protocol.putVarint(out, score);
+            Protocol.putVarint(out, clearedLines);
+        }
+        if ((flags & Protocol.PHASE_CHANGED) != 0) {
+            out.put((byte) phase);
+        }
+        return true;
+    }
+
+    private void putPiece(ByteBuffer out) {
+        out.put((byte) (pieceIndex + 1));
+        Protocol.putVarint(out, Protocol.zigzag(pieceX));
+        Protocol.putVarint(out, Protocol.zigzag(pieceY));
+    }
+
+    private int currentPieceIndex() {
+        final Tetrades.OrientationIndices tetrade = model.getTetradeIndices();
+        return tetrade == null ? -1 : tetrade.getFirstOrientationIndex() + model.getTetradeOrientation();
+    }
+
+    private int currentNextIndex() {
+        final Tetrades.OrientationIndices next = model.getNextTetradeIndices();
+        return next == null ? -1 : next.getFirstOrientationIndex();
+    }
+}
@@ -0,0 +1,28 @@
+package io.shabanov.jmonkeytetris.server;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Direct buffers of the same size handed out to sessions and taken back when they end, so that connection churn
+ * doesn't keep allocating native memory. Not thread safe, each {@link EventLoop} has its own pool.
+ */
+@ParametersAreNonnullByDefault
+final class BufferPool {
+    private final int bufferSize;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+    BufferPool(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    ByteBuffer acquire() {
+        final ByteBuffer buffer = free.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void release(ByteBuffer buffer) {
+        free.push(buffer);
+    }
+}
@@ -0,0 +1,12 @@
+package io.shabanov.jmonkeytetris.server;
+
+/**
+ * A client connection served by an {@link EventLoop}, attached to its selection key.
+ */
+interface Connection {
+    void onReadable();
+
+    void onWritable();
+
+    void close();
+}
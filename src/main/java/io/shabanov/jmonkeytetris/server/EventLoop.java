@@ -0,0 +1,306 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.leaderboard.Leaderboard;
+import io.shabanov.jmonkeytetris.util.FixedStepClock;
+import io.shabanov.jmonkeytetris.util.LatencyStats;
+import io.shabanov.jmonkeytetris.util.TimerWheel;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A thread that serves many sessions at once: it waits for socket events with a selector in between simulation ticks
+ * and on each tick advances a {@link TimerWheel} on which every session has its own tick timer.
+ *
+ * A connection that throws from any of its callbacks is closed alone, the other connections of the loop are not
+ * affected.
+ *
+ * Tick jitter, i.e. how late a tick has started against its schedule, is recorded and logged along with the number
+ * of sessions and spectators every {@link #REPORT_INTERVAL_TICKS} ticks.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+final class EventLoop implements AutoCloseable {
+    static final int REPORT_INTERVAL_TICKS = 10 * FixedStepClock.DEFAULT_TICKS_PER_SECOND;
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private final int index;
+    private final GameServer server;
+    private final Selector selector;
+    private final Thread thread;
+    private final long tickNanos = 1_000_000_000L / FixedStepClock.DEFAULT_TICKS_PER_SECOND;
+    private final TimerWheel timers = new TimerWheel();
+    private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+    private final Queue<Spectator> spectating = new ConcurrentLinkedQueue<>();
+    private final Map<Long, GameSession> sessions = new HashMap<>();
+    private final LatencyStats tickJitter = new LatencyStats();
+    private final BufferPool outputBuffers = new BufferPool(GameSession.OUTPUT_BUFFER_SIZE);
+    private final ByteBuffer frame = ByteBuffer.allocateDirect(Protocol.MAX_FRAME_LENGTH);
+    private volatile boolean running;
+    private volatile int sessionCount;
+    private volatile int spectatorCount;
+    private long nextSessionId;
+
+    EventLoop(int index, GameServer server) throws IOException {
+        this.index = index;
+        this.server = server;
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, "tetris-event-loop-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Hands an accepted connection over to this loop, may be called from any thread.
+     */
+    void register(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Hands a connection that wants to watch a session of this loop over to it, may be called from any thread.
+     */
+    void register(Spectator spectator) {
+        spectating.add(spectator);
+        selector.wakeup();
+    }
+
+    int getSessionCount() {
+        return sessionCount;
+    }
+
+    int getSpectatorCount() {
+        return spectatorCount;
+    }
+
+    //
+    // Loop thread side
+    //
+
+    /**
+     * Creates a timer of the given connection on this loop's wheel, a task that throws closes that connection.
+     */
+    TimerWheel.Timer newTimer(Connection connection, Runnable task) {
+        return timers.newTimer(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                closeFailed(connection, e);
+            }
+        });
+    }
+
+    BufferPool getOutputBuffers() {
+        return outputBuffers;
+    }
+
+    /**
+     * @return Frame buffer shared by the sessions of this loop
+     */
+    ByteBuffer getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return Leaderboard shared by all the loops of the server, if any
+     */
+    @Nullable
+    Leaderboard getLeaderboard() {
+        return server.getLeaderboard();
+    }
+
+    /**
+     * @return Directory the replays of the games played go to, if any
+     */
+    @Nullable
+    Path getReplayDirectory() {
+        return server.getReplayDirectory();
+    }
+
+    /**
+     * Routes a connection that has turned from a player into a spectator to the loop of the session it watches.
+     */
+    void spectate(Spectator spectator) {
+        server.spectate(spectator);
+    }
+
+    void onSessionClosed(GameSession session) {
+        sessions.remove(session.getId());
+        --sessionCount;
+    }
+
+    void onSpectatorClosed() {
+        --spectatorCount;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private void run() {
+        long nextTickAt = System.nanoTime() + tickNanos;
+        try {
+            while (running) {
+                final long waitNanos = nextTickAt - System.nanoTime();
+                if (waitNanos >= NANOS_PER_MILLI) {
+                    selector.select(waitNanos / NANOS_PER_MILLI);
+                } else {
+                    selector.selectNow();
+                }
+                registerAccepted();
+                registerSpectators();
+                processSelected();
+
+                // run the ticks that are due, dropping the backlog if the loop has fallen too far behind
+                int dueTicks = 0;
+                for (long now = System.nanoTime(); nextTickAt - now <= 0; now = System.nanoTime()) {
+                    if (dueTicks == FixedStepClock.DEFAULT_MAX_TICKS_PER_FRAME) {
+                        nextTickAt = now + tickNanos;
+                        break;
+                    }
+                    tickJitter.record(now - nextTickAt);
+                    timers.advance();
+                    nextTickAt += tickNanos;
+                    ++dueTicks;
+                    if (timers.getTick() % REPORT_INTERVAL_TICKS == 0) {
+                        report();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Event loop {} has failed", index, e);
+        } finally {
+            closeSessions();
+        }
+    }
+
+    private void registerAccepted() {
+        for (SocketChannel channel = accepted.poll(); channel != null; channel = accepted.poll()) {
+            final SelectionKey key;
+            try {
+                channel.configureBlocking(false);
+                key = channel.register(selector, SelectionKey.OP_READ);
+            } catch (IOException e) {
+                // e.g. the client has gone already, the other connections are not affected
+                log.debug("Event loop {} connection registration has failed", index, e);
+                closeChannel(channel);
+                continue;
+            }
+            final long id = (long) index << 32 | nextSessionId++;
+            sessions.put(id, new GameSession(id, channel, key, this, ThreadLocalRandom.current().nextLong()));
+            key.attach(sessions.get(id));
+            ++sessionCount;
+        }
+    }
+
+    private void registerSpectators() {
+        for (Spectator spectator = spectating.poll(); spectator != null; spectator = spectating.poll()) {
+            final GameSession session = sessions.get(spectator.getSessionId());
+            if (session == null) {
+                log.debug("Session {} to watch is not found", spectator.getSessionId());
+                closeChannel(spectator.getChannel());
+                continue;
+            }
+            final SelectionKey key;
+            try {
+                key = spectator.getChannel().register(selector, SelectionKey.OP_READ, spectator);
+            } catch (IOException e) {
+                log.debug("Event loop {} spectator registration has failed", index, e);
+                closeChannel(spectator.getChannel());
+                continue;
+            }
+            session.addSpectator(spectator, key);
+            ++spectatorCount;
+        }
+    }
+
+    private void processSelected() {
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            final SelectionKey key = keys.next();
+            keys.remove();
+            final Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isValid() && key.isReadable()) {
+                    connection.onReadable();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.onWritable();
+                }
+            } catch (RuntimeException e) {
+                closeFailed(connection, e);
+            }
+        }
+    }
+
+    private void closeFailed(Connection connection, RuntimeException failure) {
+        log.error("Event loop {} connection has failed, closing it", index, failure);
+        connection.close();
+    }
+
+    private void report() {
+        log.info("Event loop {}: sessions={}, spectators={}, tick jitter {}", index, sessionCount, spectatorCount,
+                tickJitter);
+        tickJitter.reset();
+    }
+
+    private void closeSessions() {
+        for (final SelectionKey key : selector.keys()) {
+            if (key.isValid()) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+        for (SocketChannel channel = accepted.poll(); channel != null; channel = accepted.poll()) {
+            closeChannel(channel);
+        }
+        for (Spectator spectator = spectating.poll(); spectator != null; spectator = spectating.poll()) {
+            closeChannel(spectator.getChannel());
+        }
+        sessionCount = 0;
+        spectatorCount = 0;
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.debug("Event loop {} selector close has failed", index, e);
+        }
+    }
+
+    private void closeChannel(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Event loop {} connection close has failed", index, e);
+        }
+    }
+}
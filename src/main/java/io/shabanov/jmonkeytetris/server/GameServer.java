@@ -0,0 +1,213 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.leaderboard.Leaderboard;
+import io.shabanov.jmonkeytetris.model.save.Persistence;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Hosts many headless games, one per client connection, see {@link Protocol} for what goes over the wire.
+ * Any number of connections may watch a game instead of playing one.
+ *
+ * Connections are accepted by a dedicated thread and spread round-robin over a few {@link EventLoop event loops}, each
+ * serving thousands of sessions on a single thread, so a session costs its game state and a couple of buffers rather
+ * than a thread.
+ *
+ * Final scores of the games played are recorded on a {@link Leaderboard}, if one is given, straight from the event
+ * loops. Every game over also leaves a {@link io.shabanov.jmonkeytetris.replay.Replay replay} of the session in the
+ * replay directory, if one is given, so that the score can be verified later.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+public final class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7777;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private final Thread acceptor;
+    @Nullable private final Leaderboard leaderboard;
+    @Nullable private final Path replayDirectory;
+    private int nextEventLoop;
+
+    public GameServer(InetSocketAddress address, int eventLoopCount) throws IOException {
+        this(address, eventLoopCount, null, null);
+    }
+
+    public GameServer(InetSocketAddress address, int eventLoopCount, @Nullable Leaderboard leaderboard,
+                      @Nullable Path replayDirectory) throws IOException {
+        if (eventLoopCount <= 0) {
+            throw new IllegalArgumentException("eventLoopCount must be positive");
+        }
+        this.leaderboard = leaderboard;
+        this.replayDirectory = replayDirectory;
+        this.serverChannel = ServerSocketChannel.open().bind(address);
+        this.eventLoops = new EventLoop[eventLoopCount];
+        for (int i = 0; i < eventLoopCount; ++i) {
+            eventLoops[i] = new EventLoop(i, this);
+        }
+        this.acceptor = new Thread(this::accept, "tetris-acceptor");
+        this.acceptor.setDaemon(true);
+    }
+
+    public void start() {
+        for (final EventLoop eventLoop : eventLoops) {
+            eventLoop.start();
+        }
+        acceptor.start();
+        log.info("Game server is listening on {} with {} event loops", getLocalAddress(), eventLoops.length);
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return Number of sessions currently hosted
+     */
+    public int getSessionCount() {
+        int count = 0;
+        for (final EventLoop eventLoop : eventLoops) {
+            count += eventLoop.getSessionCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of connections currently watching sessions
+     */
+    public int getSpectatorCount() {
+        int count = 0;
+        for (final EventLoop eventLoop : eventLoops) {
+            count += eventLoop.getSpectatorCount();
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            log.debug("Server channel close has failed", e);
+        }
+        for (final EventLoop eventLoop : eventLoops) {
+            eventLoop.close();
+        }
+    }
+
+    /**
+     * Runs the server on loopback until the process is stopped, recording scores on the leaderboard stored at
+     * {@link Persistence#SERVER_LEADERBOARD_PATH} and replays to {@link Persistence#SERVER_REPLAYS_PATH}.
+     */
+    public static void main(String[] args) {
+        final int port = Integer.getInteger("SERVER_PORT", DEFAULT_PORT);
+        final int eventLoopCount = Integer.getInteger("SERVER_EVENT_LOOPS",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        final CountDownLatch stopped = new CountDownLatch(1);
+        try {
+            Files.createDirectories(Persistence.SERVER_REPLAYS_PATH);
+        } catch (IOException e) {
+            log.error("Unable to create replay directory {}", Persistence.SERVER_REPLAYS_PATH, e);
+            return;
+        }
+        final Leaderboard leaderboard;
+        try {
+            leaderboard = Leaderboard.open(Persistence.SERVER_LEADERBOARD_PATH, Leaderboard.DEFAULT_TOP_SIZE);
+        } catch (IOException e) {
+            log.error("Unable to open leaderboard {}", Persistence.SERVER_LEADERBOARD_PATH, e);
+            return;
+        }
+        final GameServer server;
+        try {
+            server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), eventLoopCount,
+                    leaderboard, Persistence.SERVER_REPLAYS_PATH);
+        } catch (IOException e) {
+            log.error("Unable to start game server on port {}", port, e);
+            closeLeaderboard(leaderboard);
+            return;
+        }
+
+        // event loops submit scores until they have stopped, so the leaderboard is closed after the server
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            closeLeaderboard(leaderboard);
+            stopped.countDown();
+        }, "tetris-server-shutdown"));
+        server.start();
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Nullable
+    Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    @Nullable
+    Path getReplayDirectory() {
+        return replayDirectory;
+    }
+
+    /**
+     * Hands a spectator over to the loop of the session it watches, the loop index being the high half of the id.
+     */
+    void spectate(Spectator spectator) {
+        final long loopIndex = spectator.getSessionId() >>> 32;
+        if (loopIndex >= eventLoops.length) {
+            log.debug("Session {} to watch is not found", spectator.getSessionId());
+            try {
+                spectator.getChannel().close();
+            } catch (IOException e) {
+                log.debug("Spectator channel close has failed", e);
+            }
+            return;
+        }
+        eventLoops[(int) loopIndex].register(spectator);
+    }
+
+    //
+    // Private
+    //
+
+    private static void closeLeaderboard(Leaderboard leaderboard) {
+        try {
+            leaderboard.close();
+        } catch (IOException e) {
+            log.warn("Leaderboard close has failed", e);
+        }
+    }
+
+    private void accept() {
+        while (serverChannel.isOpen()) {
+            try {
+                final SocketChannel channel = serverChannel.accept();
+                channel.socket().setTcpNoDelay(true);
+                eventLoops[nextEventLoop].register(channel);
+                nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Unable to accept a connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.leaderboard.Leaderboard;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.TetrisScoring;
+import io.shabanov.jmonkeytetris.replay.Replay;
+import io.shabanov.jmonkeytetris.replay.ReplayRecorder;
+import io.shabanov.jmonkeytetris.util.TimerWheel;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * A single hosted game: the regular model and controller, driven by commands a client sends over its socket and
+ * stepped by a timer of the {@link EventLoop} the session belongs to. All the methods are called by that loop's
+ * thread only.
+ *
+ * Frames sent to the player are also {@link SpectatorFeed fanned out} to the spectators of the session, if any.
+ * The final score of every game played is submitted to the server's {@link Leaderboard}, if any, under the name of
+ * the session. As the game is only ever advanced by whole ticks, every command being applied in between, the session
+ * can be recorded as a {@link Replay}, which is saved on every game over when the server has a replay directory.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+final class GameSession implements Connection {
+    private static final int INPUT_BUFFER_SIZE = 256;
+    // a client that lets this many bytes of frames pile up unread gets disconnected
+    static final int OUTPUT_BUFFER_SIZE = 16 * 1024;
+
+    // commands that would act on the server host rather than the game, e.g. quick save, are never accepted, which
+    // also keeps the sessions replayable
+    private static final Set<GameCommand> CLIENT_COMMANDS = Replay.COMMANDS;
+
+    private final long id;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final EventLoop eventLoop;
+    private final TetrisModel model;
+    private final TetrisGameController controller;
+    private final TimerWheel.Timer tickTimer;
+    private final ByteBuffer input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+    private final ByteBuffer output;
+    // frame being encoded, shared by all the sessions of the loop
+    private final ByteBuffer frame;
+    private final BoardSync sync;
+    @Nullable private SpectatorFeed spectators;
+    @Nullable private final Leaderboard leaderboard;
+    @Nullable private final Path replayDirectory;
+    @Nullable private final ReplayRecorder replay; //< only set when replays are saved
+    private int gamesOver;
+    private boolean closed;
+
+    GameSession(long id, SocketChannel channel, SelectionKey key, EventLoop eventLoop, long seed) {
+        this.id = id;
+        this.channel = channel;
+        this.key = key;
+        this.eventLoop = eventLoop;
+        this.output = eventLoop.getOutputBuffers().acquire();
+        this.frame = eventLoop.getFrame();
+        this.model = Replay.newModel(seed);
+        this.controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        this.sync = new BoardSync(model, controller);
+        this.leaderboard = eventLoop.getLeaderboard();
+        this.replayDirectory = eventLoop.getReplayDirectory();
+        this.replay = replayDirectory != null ? new ReplayRecorder(seed) : null;
+        controller.setResultListener(this::onGameOver);
+        this.tickTimer = eventLoop.newTimer(this, this::tick);
+        this.tickTimer.schedule(1);
+
+        // goes out along with the first tick's frame
+        frame.clear();
+        frame.put(Protocol.SESSION).putLong(id).flip();
+        Protocol.putFrame(output, frame);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Adds a spectator, which is sent its first frame on the next tick.
+     */
+    void addSpectator(Spectator spectator, SelectionKey spectatorKey) {
+        if (spectators == null) {
+            spectators = new SpectatorFeed(sync);
+        }
+        spectator.start(spectators, spectatorKey, eventLoop::onSpectatorClosed);
+    }
+
+    @Override
+    public void onReadable() {
+        final int read;
+        try {
+            read = channel.read(input);
+        } catch (IOException e) {
+            log.debug("Session {} read has failed", id, e);
+            close();
+            return;
+        }
+        if (read < 0) {
+            close();
+            return;
+        }
+
+        input.flip();
+        final long timestampNanos = System.nanoTime();
+        while (input.hasRemaining()) {
+            final byte encoded = input.get();
+            if (encoded == Protocol.SPECTATE) {
+                if (input.remaining() < Long.BYTES) {
+                    // wait for the rest of the session id
+                    input.position(input.position() - 1).compact();
+                    return;
+                }
+                final long sessionId = input.getLong();
+                // frames still queued for the player, the first one possibly cut short, go out before the keyframe
+                output.flip();
+                final ByteBuffer unsent = ByteBuffer.allocate(output.remaining()).put(output).flip();
+                release();
+                eventLoop.spectate(new Spectator(channel, sessionId, unsent));
+                return;
+            }
+            if (!Protocol.isCommand(encoded) || !CLIENT_COMMANDS.contains(Protocol.decodeCommand(encoded))) {
+                log.debug("Session {} has sent unsupported command {}", id, encoded);
+                continue;
+            }
+            final GameCommand command = Protocol.decodeCommand(encoded);
+            if (replay != null) {
+                replay.record(controller, command, Protocol.isPressed(encoded));
+            }
+            if (Protocol.isPressed(encoded)) {
+                controller.press(command, timestampNanos);
+            } else {
+                controller.release(command, timestampNanos);
+            }
+        }
+        input.clear();
+    }
+
+    @Override
+    public void onWritable() {
+        flush();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        release();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Session {} close has failed", id, e);
+        }
+    }
+
+    //
+    // Private
+    //
+
+    /**
+     * Ends the session leaving its channel open.
+     */
+    private void release() {
+        closed = true;
+        eventLoop.onSessionClosed(this);
+        tickTimer.cancel();
+        key.cancel();
+        if (spectators != null) {
+            spectators.close();
+        }
+        eventLoop.getOutputBuffers().release(output);
+    }
+
+    private void tick() {
+        controller.step();
+
+        frame.clear();
+        final boolean written = sync.writeFrame(frame);
+        if (written) {
+            frame.flip();
+            if (output.remaining() < Protocol.varintLength(frame.remaining()) + frame.remaining()) {
+                log.info("Session {} doesn't keep up with its frames, disconnecting", id);
+                close();
+                return;
+            }
+            Protocol.putFrame(output, frame);
+            flush();
+        }
+        if (closed) {
+            return;
+        }
+        if (spectators != null) {
+            spectators.publish(written ? frame.rewind() : null);
+        }
+        tickTimer.schedule(1);
+    }
+
+    private void onGameOver(TetrisScoring scoring) {
+        final String name = "session-" + Long.toHexString(id);
+        ++gamesOver;
+        if (leaderboard != null) {
+            try {
+                leaderboard.submit(name, scoring);
+            } catch (UncheckedIOException e) {
+                log.warn("Session {} score is not recorded", id, e);
+            }
+        }
+        if (replay != null && replayDirectory != null) {
+            final Path path = replayDirectory.resolve(name + "-" + gamesOver + Replay.FILE_EXTENSION);
+            try {
+                replay.toReplay(model, controller).write(path);
+            } catch (IOException e) {
+                log.warn("Session {} replay is not saved to {}", id, path, e);
+            }
+        }
+    }
+
+    private void flush() {
+        output.flip();
+        try {
+            channel.write(output);
+        } catch (IOException e) {
+            log.debug("Session {} write has failed", id, e);
+            // the buffer goes back to the pool on close, it must not be touched afterwards
+            close();
+            return;
+        }
+        output.compact();
+
+        // wait for the socket to drain if it couldn't take everything
+        final int ops = output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.isValid() && key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of {@link GameServer} sessions.
+ *
+ * A client sends one byte per command press or release: the {@link GameCommand} ordinal shifted left by one, with the
+ * lowest bit set for a press, same as {@link io.shabanov.jmonkeytetris.controller.SimulationThread} queues them.
+ * Instead of playing, a client may send {@link #SPECTATE} followed by a session id (long) to watch that session; the
+ * frames of its own game that were sent before the switch are followed by a keyframe of the watched one.
+ *
+ * The server sends frames, each prefixed by its length as a varint and starting with a type byte:
+ * <ul>
+ *     <li>{@link #SESSION}: id of the player's session (long), sent on connect;</li>
+ *     <li>{@link #KEYFRAME}: the whole visible state, sent first and whenever the client has to resync;</li>
+ *     <li>{@link #DELTA}: what has changed since the previous frame, sent at the end of the ticks that change
+ *     anything.</li>
+ * </ul>
+ * Numbers are unsigned LEB128 varints, signed ones zigzag encoded first, so that typical values take a byte.
+ * See {@link BoardSync} for the frame layouts and {@link BoardMirror} for decoding them.
+ */
+@UtilityClass
+public class Protocol {
+    public static final byte SESSION = 1;
+    public static final byte KEYFRAME = 2;
+    public static final byte DELTA = 3;
+
+    // delta sections, present in this order when their flag is set
+    static final int ROWS_CLEARED = 1;
+    static final int ROWS_CHANGED = 1 << 1;
+    static final int PIECE_CHANGED = 1 << 2;
+    static final int NEXT_CHANGED = 1 << 3;
+    static final int SCORE_CHANGED = 1 << 4;
+    static final int PHASE_CHANGED = 1 << 5;
+
+    /**
+     * Upper bound of a frame length, a keyframe being the longest one.
+     */
+    public static final int MAX_FRAME_LENGTH = 256;
+
+    /**
+     * Client byte that makes the connection a spectator of the session whose id follows.
+     */
+    public static final byte SPECTATE = (byte) 0xff;
+
+    public static byte encodeCommand(GameCommand command, boolean pressed) {
+        return (byte) (command.ordinal() << 1 | (pressed ? 1 : 0));
+    }
+
+    public static GameCommand decodeCommand(byte encoded) {
+        return GameCommand.fromOrdinal((encoded & 0xff) >>> 1);
+    }
+
+    public static boolean isPressed(byte encoded) {
+        return (encoded & 1) != 0;
+    }
+
+    /**
+     * @return Whether the byte encodes a known command
+     */
+    public static boolean isCommand(byte encoded) {
+        return (encoded & 0xff) >>> 1 < GameCommand.values().length;
+    }
+
+    public static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            final byte b = in.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    public static int varintLength(long value) {
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+    }
+
+    public static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    public static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Appends the frame, from its position to its limit, prefixed by its length.
+     */
+    public static void putFrame(ByteBuffer out, ByteBuffer frame) {
+        putVarint(out, frame.remaining());
+        out.put(frame);
+    }
+
+    /**
+     * @return Whether the input holds a whole frame from its position on; the position is left unchanged
+     */
+    public static boolean hasFrame(ByteBuffer in) {
+        int length = 0;
+        for (int i = in.position(), shift = 0; i < in.limit() && shift < 32; ++i, shift += 7) {
+            final byte b = in.get(i);
+            length |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return in.limit() - i - 1 >= length;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,203 @@
+package io.shabanov.jmonkeytetris.server;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A connection that watches a session: it is sent a keyframe first and then the frames of the session's
+ * {@link SpectatorFeed}, straight from the feed's buffer.
+ *
+ * Backpressure is per spectator: frames the socket doesn't take stay in the feed and are written as it drains, but
+ * once the spectator falls half the feed behind, the frames it has missed are skipped and it is sent a keyframe
+ * instead. A spectator that doesn't take even that before falling behind again gets disconnected.
+ */
+@Slf4j
+@ParametersAreNonnullByDefault
+final class Spectator implements Connection {
+    private static final int INPUT_BUFFER_SIZE = 64;
+
+    private final SocketChannel channel;
+    private final long sessionId;
+    private final ByteBuffer input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+    // rest of a frame cut short followed by a keyframe
+    private final ByteBuffer resync;
+
+    private SpectatorFeed feed;
+    private SelectionKey key;
+    private Runnable onClose;
+    // a view of the feed per frame slot
+    private ByteBuffer[] views;
+    // sequence number of the next frame to be written
+    private long nextFrame;
+    // partly written frame or resync, written before anything else
+    @Nullable private ByteBuffer pending;
+    private boolean resyncRequired = true;
+    private boolean closed;
+
+    Spectator(SocketChannel channel, long sessionId) {
+        this(channel, sessionId, ByteBuffer.allocate(0));
+    }
+
+    /**
+     * @param unsent Bytes the connection still owes its client from before it has turned into a spectator, e.g. the
+     *               rest of a frame cut short; they go out ahead of the first keyframe
+     */
+    Spectator(SocketChannel channel, long sessionId, ByteBuffer unsent) {
+        this.channel = channel;
+        this.sessionId = sessionId;
+        this.resync = ByteBuffer.allocate(SpectatorFeed.SLOT_SIZE + Math.max(SpectatorFeed.SLOT_SIZE,
+                unsent.remaining()));
+        this.pending = unsent.hasRemaining() ? unsent : null;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    long getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Starts watching, the first keyframe is sent on the next tick of the session.
+     */
+    void start(SpectatorFeed feed, SelectionKey key, Runnable onClose) {
+        this.feed = feed;
+        this.key = key;
+        this.onClose = onClose;
+        this.views = new ByteBuffer[SpectatorFeed.FRAME_SLOTS];
+        for (int i = 0; i < views.length; ++i) {
+            views[i] = feed.newView();
+        }
+        feed.add(this);
+    }
+
+    /**
+     * Called by the feed after each tick of the session.
+     */
+    void onPublished() {
+        if (resyncRequired || feed.getPublished() - nextFrame > SpectatorFeed.FRAME_SLOTS / 2) {
+            resync();
+        } else {
+            flush();
+        }
+    }
+
+    @Override
+    public void onReadable() {
+        try {
+            // spectators have nothing to say, anything they send is dropped
+            if (channel.read(input) < 0) {
+                close();
+            }
+        } catch (IOException e) {
+            log.debug("Spectator of session {} read has failed", sessionId, e);
+            close();
+        }
+        input.clear();
+    }
+
+    @Override
+    public void onWritable() {
+        flush();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        feed.remove(this);
+        onClose.run();
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Spectator of session {} close has failed", sessionId, e);
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private void resync() {
+        if (pending == resync) {
+            log.info("Spectator of session {} doesn't keep up with its frames, disconnecting", sessionId);
+            close();
+            return;
+        }
+
+        resync.clear();
+        if (pending != null) {
+            // the slot of a frame cut short is never reused before the spectator is found half the feed behind
+            resync.put(pending);
+        }
+        final ByteBuffer keyframe = feed.keyframe();
+        resync.put(keyframe);
+        keyframe.rewind();
+        resync.flip();
+
+        pending = resync;
+        nextFrame = feed.getPublished();
+        resyncRequired = false;
+        flush();
+    }
+
+    private void flush() {
+        if (pending == null && nextFrame == feed.getPublished()) {
+            return;
+        }
+        try {
+            if (pending != null) {
+                channel.write(pending);
+                if (pending.hasRemaining()) {
+                    updateInterest();
+                    return;
+                }
+                pending = null;
+            }
+
+            while (nextFrame < feed.getPublished()) {
+                // frames up to the end of the ring go out in a single gathering write
+                final int first = SpectatorFeed.slotOf(nextFrame);
+                final int count = (int) Math.min(feed.getPublished() - nextFrame, views.length - first);
+                for (int i = 0; i < count; ++i) {
+                    feed.select(views[first + i], nextFrame + i);
+                }
+                channel.write(views, first, count);
+
+                int written = 0;
+                while (written < count && !views[first + written].hasRemaining()) {
+                    ++written;
+                }
+                nextFrame += written;
+                if (written < count) {
+                    pending = views[first + written];
+                    ++nextFrame;
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Spectator of session {} write has failed", sessionId, e);
+            close();
+            return;
+        }
+        updateInterest();
+    }
+
+    private void updateInterest() {
+        final boolean waiting = pending != null || nextFrame < feed.getPublished();
+        final int ops = waiting ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.isValid() && key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+}
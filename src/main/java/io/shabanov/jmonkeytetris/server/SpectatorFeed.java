@@ -0,0 +1,118 @@
+package io.shabanov.jmonkeytetris.server;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frames of a session fanned out to its spectators.
+ *
+ * Each frame is encoded once and kept in a ring of {@link #FRAME_SLOTS} slots of a single direct buffer, from which
+ * every spectator writes read-only views of its own, so the per-spectator cost of a frame is a gathering write without
+ * any copying. A spectator that falls half the ring behind is {@link Spectator resynced} with a keyframe, which is
+ * also encoded once per tick however many spectators need it.
+ */
+@ParametersAreNonnullByDefault
+final class SpectatorFeed {
+    static final int FRAME_SLOTS = 32;
+    static final int SLOT_SIZE = Protocol.MAX_FRAME_LENGTH + 2; // length prefix included
+
+    private final BoardSync sync;
+    private final ByteBuffer frames = ByteBuffer.allocateDirect(FRAME_SLOTS * SLOT_SIZE);
+    private final int[] frameLengths = new int[FRAME_SLOTS];
+    private final List<Spectator> spectators = new ArrayList<>();
+    private long published;
+
+    private final ByteBuffer keyframeScratch = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+    private final ByteBuffer keyframe = ByteBuffer.allocate(SLOT_SIZE);
+    private long keyframePublished = -1L;
+
+    SpectatorFeed(BoardSync sync) {
+        this.sync = sync;
+    }
+
+    void add(Spectator spectator) {
+        spectators.add(spectator);
+    }
+
+    void remove(Spectator spectator) {
+        spectators.remove(spectator);
+    }
+
+    int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    /**
+     * Stores the frame of this tick, if there is one, and lets spectators write it.
+     *
+     * @param frame Frame from its position to its limit, without the length prefix
+     */
+    void publish(@Nullable ByteBuffer frame) {
+        if (frame != null) {
+            final int slot = slotOf(published);
+            frames.clear().position(slot * SLOT_SIZE);
+            Protocol.putFrame(frames, frame);
+            frameLengths[slot] = frames.position() - slot * SLOT_SIZE;
+            ++published;
+        }
+        for (int i = spectators.size() - 1; i >= 0; --i) {
+            spectators.get(i).onPublished();
+        }
+    }
+
+    void close() {
+        for (int i = spectators.size() - 1; i >= 0; --i) {
+            spectators.get(i).close();
+        }
+    }
+
+    //
+    // Spectator side
+    //
+
+    /**
+     * @return Number of frames published so far, i.e. the sequence number of the next one
+     */
+    long getPublished() {
+        return published;
+    }
+
+    /**
+     * @return A read-only view of the whole ring, to be positioned with {@link #select(ByteBuffer, long)}
+     */
+    ByteBuffer newView() {
+        return frames.asReadOnlyBuffer();
+    }
+
+    /**
+     * Makes the view span the given frame, which must be one of the last {@link #FRAME_SLOTS} published.
+     */
+    void select(ByteBuffer view, long sequence) {
+        final int slot = slotOf(sequence);
+        view.limit(slot * SLOT_SIZE + frameLengths[slot]);
+        view.position(slot * SLOT_SIZE);
+    }
+
+    static int slotOf(long sequence) {
+        return (int) (sequence % FRAME_SLOTS);
+    }
+
+    /**
+     * @return Length prefixed keyframe of the state the frames published so far lead to, valid until the next publish
+     */
+    ByteBuffer keyframe() {
+        if (keyframePublished != published) {
+            keyframeScratch.clear();
+            sync.writeResyncFrame(keyframeScratch);
+            keyframeScratch.flip();
+            keyframe.clear();
+            Protocol.putFrame(keyframe, keyframeScratch);
+            keyframe.flip();
+            keyframePublished = published;
+        }
+        return keyframe;
+    }
+}
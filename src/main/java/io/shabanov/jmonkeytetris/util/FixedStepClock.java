@@ -0,0 +1,107 @@
+package io.shabanov.jmonkeytetris.util;
+
+/**
+ * Converts variable frame times into a whole number of fixed-length simulation ticks.
+ *
+ * Frame times are accumulated in integer nanoseconds, so the number of ticks for the same total time doesn't depend on
+ * how that time was split into frames. The remainder that didn't make up a whole tick is exposed as
+ * {@link #getAlpha()} so that presentation can interpolate between the last two simulation states.
+ */
+public final class FixedStepClock {
+    public static final int DEFAULT_TICKS_PER_SECOND = 60;
+
+    /**
+     * Upper bound for ticks simulated in one frame, so that a long stall (e.g. window drag or a breakpoint)
+     * doesn't turn into a long burst of catch-up simulation.
+     */
+    public static final int DEFAULT_MAX_TICKS_PER_FRAME = 10;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int ticksPerSecond;
+    private final long tickNanos;
+    private final int maxTicksPerFrame;
+
+    private long accumulatedNanos;
+    private long tick;
+
+    public FixedStepClock() {
+        this(DEFAULT_TICKS_PER_SECOND, DEFAULT_MAX_TICKS_PER_FRAME);
+    }
+
+    public FixedStepClock(int ticksPerSecond, int maxTicksPerFrame) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond");
+        }
+        if (maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("maxTicksPerFrame");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+        this.tickNanos = NANOS_PER_SECOND / ticksPerSecond;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Accounts for the time passed since the previous frame.
+     *
+     * @param tpf Time per frame, in seconds
+     * @return Number of simulation ticks the caller should run during this frame
+     */
+    public int advance(float tpf) {
+        accumulatedNanos += Math.max(0L, Math.round(tpf * (double) NANOS_PER_SECOND));
+
+        int ticks = (int) Math.min(accumulatedNanos / tickNanos, maxTicksPerFrame);
+        accumulatedNanos -= ticks * tickNanos;
+        if (ticks == maxTicksPerFrame && accumulatedNanos >= tickNanos) {
+            accumulatedNanos %= tickNanos; // too far behind, drop the rest
+        }
+
+        tick += ticks;
+        return ticks;
+    }
+
+    /**
+     * Accounts for a single tick run on a schedule other than this clock's, e.g. by a network session.
+     */
+    public void step() {
+        ++tick;
+    }
+
+    /**
+     * @return Fraction of a tick accumulated on top of the last simulated one, in 0..1 range
+     */
+    public float getAlpha() {
+        return accumulatedNanos / (float) tickNanos;
+    }
+
+    /**
+     * @return Number of ticks simulated since the clock has been created or reset
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Takes the tick count back or forth, e.g. to the tick a restored game state has been captured on.
+     */
+    public void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public int secondsToTicks(float seconds) {
+        return Math.round(seconds * ticksPerSecond);
+    }
+
+    public void reset() {
+        accumulatedNanos = 0L;
+        tick = 0L;
+    }
+}
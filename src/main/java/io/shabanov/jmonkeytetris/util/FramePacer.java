@@ -0,0 +1,106 @@
+package io.shabanov.jmonkeytetris.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how long a frame should last, so that frames of a scene that hardly moves don't burn a core.
+ *
+ * Every frame whoever shows something states its {@link Demand demand}, the frame gets the rate of the highest one.
+ * Frames are capped at {@link Demand#STATIC} while the window is out of focus, and run at full rate for
+ * {@link #DEFAULT_INPUT_GRACE_NANOS} after any input regardless of the demand. Input is only noticed once the frame
+ * being held back is over, so a key press may wait for up to a frame at the capped rate, a tenth of a second while
+ * nothing moves; the frames after it are not held back.
+ */
+public final class FramePacer {
+    public static final long DEFAULT_INPUT_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    /**
+     * Frame rate a scene needs, from the lowest to the highest.
+     */
+    public enum Demand {
+        /**
+         * Nothing moves, e.g. a paused game: a few frames a second keep the window responsive.
+         */
+        STATIC(10),
+        /**
+         * Slow ambient animation, e.g. the title screen.
+         */
+        ANIMATED(30),
+        /**
+         * Gameplay, frames are not held back at all.
+         */
+        FULL(0);
+
+        private final int framesPerSecond;
+
+        Demand(int framesPerSecond) {
+            this.framesPerSecond = framesPerSecond;
+        }
+
+        /**
+         * @return Frame rate cap, 0 if there is none
+         */
+        public int getFramesPerSecond() {
+            return framesPerSecond;
+        }
+    }
+
+    private final long inputGraceNanos;
+    private Demand demand = Demand.STATIC;
+    private boolean focused = true;
+    private long lastInputNanos;
+    private boolean hadInput;
+
+    public FramePacer() {
+        this(DEFAULT_INPUT_GRACE_NANOS);
+    }
+
+    public FramePacer(long inputGraceNanos) {
+        this.inputGraceNanos = inputGraceNanos;
+    }
+
+    /**
+     * Raises the demand of the current frame to the given one, lower demands are ignored.
+     */
+    public void demand(Demand demand) {
+        if (demand.compareTo(this.demand) > 0) {
+            this.demand = demand;
+        }
+    }
+
+    public void onInput(long nowNanos) {
+        lastInputNanos = nowNanos;
+        hadInput = true;
+    }
+
+    public void setFocused(boolean focused) {
+        this.focused = focused;
+    }
+
+    public boolean isFocused() {
+        return focused;
+    }
+
+    /**
+     * Ends the current frame, the demand is reset for the next one.
+     *
+     * @param frameStartNanos {@link System#nanoTime()} the frame has started at
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return Nanoseconds to wait for before the next frame starts, 0 if it should start right away
+     */
+    public long endFrame(long frameStartNanos, long nowNanos) {
+        Demand frameDemand = focused ? demand : Demand.STATIC;
+        if (hadInput && nowNanos - lastInputNanos < inputGraceNanos) {
+            frameDemand = Demand.FULL;
+        }
+        demand = Demand.STATIC;
+
+        if (frameDemand.framesPerSecond == 0) {
+            return 0L;
+        }
+        final long frameNanos = NANOS_PER_SECOND / frameDemand.framesPerSecond;
+        return Math.max(0L, frameStartNanos + frameNanos - nowNanos);
+    }
+}
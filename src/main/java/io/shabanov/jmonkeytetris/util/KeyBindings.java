@@ -6,6 +6,8 @@ import com.jme3.input.controls.KeyTrigger;
 import lombok.experimental.UtilityClass;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.HashMap;
+import java.util.Map;
 
 @ParametersAreNonnullByDefault
 @UtilityClass public class KeyBindings {
@@ -18,6 +20,37 @@ import javax.annotation.ParametersAreNonnullByDefault;
         }
     }
 
+    /**
+     * Receives actions resolved by a listener created with {@link #dispatchingListener(ActionDetails[], ActionHandler)}.
+     */
+    public interface ActionHandler<TAction extends ActionDetails> {
+        /**
+         * @param timestampNanos {@link System#nanoTime()} at the moment the input event has been received
+         */
+        void onAction(TAction action, boolean isPressed, long timestampNanos);
+    }
+
+    /**
+     * Creates a listener that resolves mapping names back to actions through a lookup table built once, rather than
+     * matching the name against every action, and timestamps each input event.
+     */
+    public static <TAction extends ActionDetails> ActionListener dispatchingListener(
+            TAction[] actionValues,
+            ActionHandler<TAction> handler
+    ) {
+        final Map<String, TAction> actionsByCode = new HashMap<>();
+        for (final TAction action : actionValues) {
+            actionsByCode.put(action.getCode(), action);
+        }
+        return (name, isPressed, tpf) -> {
+            final long timestampNanos = System.nanoTime();
+            final TAction action = actionsByCode.get(name);
+            if (action != null) {
+                handler.onAction(action, isPressed, timestampNanos);
+            }
+        };
+    }
+
     public static <TAction extends ActionDetails> void bindActions(
             TAction[] actionValues,
             InputManager inputManager,
@@ -0,0 +1,72 @@
+package io.shabanov.jmonkeytetris.util;
+
+/**
+ * Garbage-free accumulator of latency samples with a logarithmic histogram for percentile estimates.
+ */
+public final class LatencyStats {
+    private static final int BUCKET_COUNT = 64;
+
+    // bucket i holds samples in [2^i, 2^(i+1)) nanoseconds range, bucket 0 also holds zero
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count;
+    private long sumNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+
+    public void record(long latencyNanos) {
+        final long sample = Math.max(0L, latencyNanos);
+        ++buckets[sample == 0 ? 0 : 63 - Long.numberOfLeadingZeros(sample)];
+        ++count;
+        sumNanos += sample;
+        minNanos = Math.min(minNanos, sample);
+        maxNanos = Math.max(maxNanos, sample);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMinNanos() {
+        return count == 0 ? 0L : minNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0L : sumNanos / count;
+    }
+
+    /**
+     * @param percentile Value in 0..100 range
+     * @return Upper bound of the histogram bucket the given percentile falls into, capped by the maximum sample
+     */
+    public long getPercentileNanos(double percentile) {
+        final long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += buckets[i];
+            if (seen >= rank && seen > 0) {
+                return i >= 62 ? maxNanos : Math.min(maxNanos, (1L << (i + 1)) - 1);
+            }
+        }
+        return maxNanos;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        sumNanos = 0;
+        minNanos = Long.MAX_VALUE;
+        maxNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, min=%.2fms, mean=%.2fms, p99=%.2fms, max=%.2fms", count,
+                getMinNanos() / 1e6, getMeanNanos() / 1e6, getPercentileNanos(99) / 1e6, getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,76 @@
+package io.shabanov.jmonkeytetris.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue of timestamped integer commands for a single producer and a single consumer thread.
+ *
+ * Commands are kept in preallocated primitive arrays, so that neither offering nor polling produces garbage.
+ */
+public final class SpscCommandQueue {
+    private final int[] commands;
+    private final long[] timestamps;
+    private final int mask;
+
+    // next position to read, written by consumer only
+    private final AtomicLong head = new AtomicLong();
+
+    // next position to write, written by producer only
+    private final AtomicLong tail = new AtomicLong();
+
+    // consumer-side state of the last polled command
+    private int polledCommand;
+    private long polledTimestamp;
+
+    public SpscCommandQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two");
+        }
+        this.commands = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Producer side: enqueues a command.
+     *
+     * @return False if the queue is full and the command has been dropped
+     */
+    public boolean offer(int command, long timestampNanos) {
+        final long currentTail = tail.get();
+        if (currentTail - head.get() > mask) {
+            return false;
+        }
+        final int index = (int) currentTail & mask;
+        commands[index] = command;
+        timestamps[index] = timestampNanos;
+        tail.lazySet(currentTail + 1); // publishes the slot to consumer
+        return true;
+    }
+
+    /**
+     * Consumer side: dequeues a command, which then becomes available through {@link #getPolledCommand()} and
+     * {@link #getPolledTimestamp()}.
+     *
+     * @return False if the queue is empty
+     */
+    public boolean poll() {
+        final long currentHead = head.get();
+        if (currentHead >= tail.get()) {
+            return false;
+        }
+        final int index = (int) currentHead & mask;
+        polledCommand = commands[index];
+        polledTimestamp = timestamps[index];
+        head.lazySet(currentHead + 1); // releases the slot to producer
+        return true;
+    }
+
+    public int getPolledCommand() {
+        return polledCommand;
+    }
+
+    public long getPolledTimestamp() {
+        return polledTimestamp;
+    }
+}
@@ -0,0 +1,199 @@
+package io.shabanov.jmonkeytetris.util;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Hashed timing wheel of one-shot timers counted in simulation ticks.
+ *
+ * Scheduling and cancelling a timer is O(1): it is linked into (or out of) the bucket its deadline hashes to.
+ * Each {@link #advance()} visits a single bucket, so the per-tick cost is proportional to the timers due on that tick
+ * (plus the ones scheduled more than a wheel revolution ahead that share the bucket), not to the number of timers
+ * alive.
+ *
+ * Timers are created once and re-armed as many times as needed, so that steady state scheduling doesn't allocate.
+ * The wheel is not thread safe, it is meant to be advanced by the thread that owns the simulation.
+ */
+@ParametersAreNonnullByDefault
+public final class TimerWheel {
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Re-armable timer handle, see {@link #newTimer(Runnable)}.
+     */
+    public static final class Timer {
+        private final TimerWheel wheel;
+        private final Runnable task;
+
+        private long deadline;
+        private boolean scheduled;
+        // expired on the current tick, but its task hasn't run yet
+        private boolean firing;
+        @Nullable private Timer prev;
+        @Nullable private Timer next;
+        @Nullable private Timer nextExpired;
+
+        private Timer(TimerWheel wheel, Runnable task) {
+            this.wheel = wheel;
+            this.task = task;
+        }
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        /**
+         * @return Tick this timer fires on, meaningful only while it is {@link #isScheduled() scheduled}
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * @return Ticks left until this timer fires or 0 if it is not scheduled
+         */
+        public int getRemainingTicks() {
+            return scheduled ? (int) (deadline - wheel.tick) : 0;
+        }
+
+        public void schedule(int delayTicks) {
+            wheel.schedule(this, delayTicks);
+        }
+
+        public void cancel() {
+            wheel.cancel(this);
+        }
+    }
+
+    private final Timer[] buckets;
+    private final int mask;
+    private long tick;
+    private int scheduledCount;
+
+    public TimerWheel() {
+        this(DEFAULT_WHEEL_SIZE);
+    }
+
+    public TimerWheel(int wheelSize) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.buckets = new Timer[wheelSize];
+        this.mask = wheelSize - 1;
+    }
+
+    /**
+     * Creates a timer that runs the given task on the tick it expires. The task may re-schedule its own timer.
+     */
+    public Timer newTimer(Runnable task) {
+        return new Timer(this, task);
+    }
+
+    /**
+     * Arms the timer to fire after the given number of ticks, re-arming it if it is already scheduled.
+     *
+     * @param delayTicks Delay in ticks, the smallest one being 1, i.e. the next {@link #advance()}
+     */
+    public void schedule(Timer timer, int delayTicks) {
+        if (timer.wheel != this) {
+            throw new IllegalArgumentException("timer belongs to another wheel");
+        }
+        cancel(timer);
+
+        timer.deadline = tick + Math.max(delayTicks, 1);
+        final int index = (int) (timer.deadline & mask);
+        timer.next = buckets[index];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        buckets[index] = timer;
+        timer.scheduled = true;
+        ++scheduledCount;
+    }
+
+    public void cancel(Timer timer) {
+        timer.firing = false;
+        if (!timer.scheduled) {
+            return;
+        }
+
+        unlink(timer);
+    }
+
+    /**
+     * Moves the wheel one tick forward and runs the tasks of the timers that expire on it.
+     *
+     * @return Number of timers that have fired
+     */
+    public int advance() {
+        ++tick;
+
+        // unlink all the expired timers first so that tasks are free to schedule and cancel any timers
+        Timer expired = null;
+        Timer timer = buckets[(int) (tick & mask)];
+        while (timer != null) {
+            final Timer next = timer.next;
+            if (timer.deadline == tick) {
+                unlink(timer);
+                timer.firing = true;
+                timer.nextExpired = expired;
+                expired = timer;
+            }
+            timer = next;
+        }
+
+        int fired = 0;
+        while (expired != null) {
+            final Timer next = expired.nextExpired;
+            expired.nextExpired = null;
+            if (expired.firing) {
+                expired.firing = false;
+                expired.task.run();
+                ++fired;
+            }
+            expired = next;
+        }
+        return fired;
+    }
+
+    /**
+     * @return Number of ticks the wheel has been advanced by
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    public int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * Cancels all the scheduled timers.
+     */
+    public void clear() {
+        for (int i = 0; i < buckets.length; ++i) {
+            while (buckets[i] != null) {
+                cancel(buckets[i]);
+            }
+        }
+    }
+
+    //
+    // Private
+    //
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            buckets[(int) (timer.deadline & mask)] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.scheduled = false;
+        --scheduledCount;
+    }
+}
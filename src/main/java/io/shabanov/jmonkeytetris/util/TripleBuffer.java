@@ -0,0 +1,64 @@
+package io.shabanov.jmonkeytetris.util;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free handoff of the latest state from a single writer thread to a single reader thread.
+ *
+ * The writer fills {@link #getWriteBuffer()} and {@link #publish() publishes} it, the reader {@link #acquire() acquires}
+ * the most recently published buffer. Neither side ever waits for the other one: three buffers make sure that the writer
+ * always has a buffer the reader doesn't look at and vice versa, buffers are exchanged through a single atomic index.
+ */
+@ParametersAreNonnullByDefault
+public final class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0b11;
+    private static final int DIRTY = 0b100;
+
+    private final Object[] buffers = new Object[3];
+
+    // index of the buffer in between writer and reader along with DIRTY flag set if it hasn't been acquired yet
+    private final AtomicInteger middle = new AtomicInteger(2);
+
+    // accessed by writer thread only
+    private int writeIndex = 0;
+
+    // accessed by reader thread only
+    private int readIndex = 1;
+
+    public TripleBuffer(Supplier<T> bufferSupplier) {
+        for (int i = 0; i < buffers.length; ++i) {
+            buffers[i] = bufferSupplier.get();
+        }
+    }
+
+    /**
+     * Writer side: buffer to fill, it is not visible to the reader until {@link #publish()}.
+     */
+    public T getWriteBuffer() {
+        return get(writeIndex);
+    }
+
+    /**
+     * Writer side: makes the write buffer the latest one and takes over a stale buffer for the next write.
+     */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | DIRTY) & INDEX_MASK;
+    }
+
+    /**
+     * Reader side: takes the latest published buffer or keeps the current one if nothing has been published since then.
+     */
+    public T acquire() {
+        if ((middle.get() & DIRTY) != 0) {
+            readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        }
+        return get(readIndex);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T get(int index) {
+        return (T) buffers[index];
+    }
+}
@@ -22,6 +22,10 @@ public interface SoundEffectsStore {
         }
         return new DefaultSoundEffectsStore(nodes);
     }
+
+    static SoundEffectsStore noOp() {
+        return effect -> {}; // do nothing
+    }
 }
 
 @Slf4j
@@ -0,0 +1,21 @@
+package io.shabanov.jmonkeytetris.versus;
+
+/**
+ * Carries per-tick inputs between the peers of a {@link RollbackSession}. Inputs are expected to be delivered once
+ * and in tick order, e.g. over a stream connection.
+ */
+public interface InputTransport {
+    interface Receiver {
+        void onInput(long tick, int input);
+    }
+
+    /**
+     * Sends the local player's input for the given tick.
+     */
+    void send(long tick, int input);
+
+    /**
+     * Hands the remote player's inputs that have arrived since the previous call over to the receiver.
+     */
+    void receive(Receiver receiver);
+}
@@ -0,0 +1,47 @@
+package io.shabanov.jmonkeytetris.versus;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayDeque;
+
+/**
+ * In-process stand-in for a network connection between two peers, with a latency counted in
+ * {@link #receive(Receiver) receive} calls, i.e. in frames when the peers receive once per frame.
+ * Not thread safe, both ends are meant to be driven by the same thread, e.g. by a test.
+ */
+@ParametersAreNonnullByDefault
+public final class LoopbackTransport implements InputTransport {
+    private final int latencyFrames;
+    // messages on their way to this end: frame they arrive on, tick and input
+    private final ArrayDeque<long[]> inbound = new ArrayDeque<>();
+    private LoopbackTransport peer;
+    private long frame;
+
+    private LoopbackTransport(int latencyFrames) {
+        this.latencyFrames = latencyFrames;
+    }
+
+    /**
+     * @return Two connected ends
+     */
+    public static LoopbackTransport[] pair(int latencyFrames) {
+        final LoopbackTransport first = new LoopbackTransport(latencyFrames);
+        final LoopbackTransport second = new LoopbackTransport(latencyFrames);
+        first.peer = second;
+        second.peer = first;
+        return new LoopbackTransport[] {first, second};
+    }
+
+    @Override
+    public void send(long tick, int input) {
+        peer.inbound.add(new long[] {peer.frame + latencyFrames, tick, input});
+    }
+
+    @Override
+    public void receive(Receiver receiver) {
+        ++frame;
+        while (!inbound.isEmpty() && inbound.peekFirst()[0] <= frame) {
+            final long[] message = inbound.pollFirst();
+            receiver.onInput(message[1], (int) message[2]);
+        }
+    }
+}
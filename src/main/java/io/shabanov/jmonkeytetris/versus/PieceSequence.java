@@ -0,0 +1,46 @@
+package io.shabanov.jmonkeytetris.versus;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.function.Function;
+
+/**
+ * Next tetrade provider whose choice depends on the seed and the number of tetrades drawn so far only, so that a game
+ * re-simulated from a snapshot draws the same tetrades once the {@link #setPosition(long) position} is restored, and
+ * players of a match started with the same seed get the same sequence.
+ */
+@ParametersAreNonnullByDefault
+public final class PieceSequence implements Function<Integer, Integer> {
+    private final long seed;
+    private long position;
+
+    public PieceSequence(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public Integer apply(Integer bound) {
+        return Math.floorMod(mix(seed + position++ * 0x9e3779b97f4a7c15L), bound);
+    }
+
+    /**
+     * @return Number of tetrades drawn so far
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    //
+    // Private
+    //
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+        return z ^ z >>> 31;
+    }
+}
@@ -0,0 +1,170 @@
+package io.shabanov.jmonkeytetris.versus;
+
+import lombok.Getter;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * One peer of a networked {@link VersusMatch}: the local player's input is applied right away, without the delay
+ * lockstep would add, while the remote player's input, which arrives late, is predicted to stay what it has been.
+ *
+ * A snapshot of the match is saved before every tick. When the remote input of a tick turns out to differ from the
+ * one predicted, the match is restored to that tick and the ticks since are re-simulated with the input corrected,
+ * all within the same frame. Prediction only goes as far as {@code maxRollbackTicks} ahead of the last remote input;
+ * beyond that the session stalls until the remote player catches up.
+ */
+@ParametersAreNonnullByDefault
+public final class RollbackSession {
+    public static final int DEFAULT_MAX_ROLLBACK_TICKS = 8;
+
+    private static final long NO_ROLLBACK = Long.MAX_VALUE;
+
+    private final VersusMatch match;
+    private final int localPlayer;
+    private final InputTransport transport;
+    private final int maxRollbackTicks;
+    private final InputTransport.Receiver receiver = this::onRemoteInput;
+
+    // match state before each of the last few ticks
+    private final VersusMatch.Snapshot[] snapshots;
+    // inputs of the ticks that may still be rolled back to or that the remote player is ahead with
+    private final int[] localInputs;
+    private final int[] remoteInputs;
+    // remote inputs the ticks have been simulated with, be it confirmed or predicted ones
+    private final int[] simulatedRemoteInputs;
+
+    // next tick to simulate
+    private long tick;
+    // latest tick the remote input is known for and that input
+    private long confirmedTick = -1L;
+    private int confirmedInput;
+    // earliest tick simulated with a wrong prediction
+    private long rollbackFrom = NO_ROLLBACK;
+
+    /**
+     * Total number of ticks re-simulated.
+     */
+    @Getter private long rolledBackTicks;
+
+    /**
+     * Number of frames the session has stalled waiting for the remote player.
+     */
+    @Getter private long stalledFrames;
+
+    public RollbackSession(VersusMatch match, int localPlayer, InputTransport transport) {
+        this(match, localPlayer, transport, DEFAULT_MAX_ROLLBACK_TICKS);
+    }
+
+    public RollbackSession(VersusMatch match, int localPlayer, InputTransport transport, int maxRollbackTicks) {
+        if (match.getPlayerCount() != VersusMatch.MIN_PLAYERS) {
+            throw new IllegalArgumentException("rollback sessions are played by two players");
+        }
+        if (localPlayer < 0 || localPlayer >= VersusMatch.MIN_PLAYERS) {
+            throw new IllegalArgumentException("localPlayer");
+        }
+        if (maxRollbackTicks <= 0) {
+            throw new IllegalArgumentException("maxRollbackTicks must be positive");
+        }
+        this.match = match;
+        this.localPlayer = localPlayer;
+        this.transport = transport;
+        this.maxRollbackTicks = maxRollbackTicks;
+        this.snapshots = new VersusMatch.Snapshot[maxRollbackTicks + 1];
+        for (int i = 0; i < snapshots.length; ++i) {
+            snapshots[i] = match.newSnapshot();
+        }
+        // the remote player may be ahead by as much as this peer may be
+        final int inputWindow = 2 * (maxRollbackTicks + 1);
+        this.localInputs = new int[inputWindow];
+        this.remoteInputs = new int[inputWindow];
+        this.simulatedRemoteInputs = new int[inputWindow];
+    }
+
+    /**
+     * Runs one frame: takes in the remote inputs that have arrived, corrects the ticks mispredicted, then runs the
+     * next tick with the given local input unless the remote player has fallen too far behind.
+     *
+     * @param localInput Commands the local player holds, see {@link VersusMatch#inputOf}
+     * @return Whether a tick has run; if not, the local input has been dropped
+     */
+    public boolean advance(int localInput) {
+        poll();
+        if (tick - confirmedTick > maxRollbackTicks) {
+            ++stalledFrames;
+            return false;
+        }
+
+        localInputs[inputSlot(tick)] = localInput;
+        transport.send(tick, localInput);
+        simulate(tick);
+        ++tick;
+        return true;
+    }
+
+    /**
+     * Takes in the remote inputs that have arrived and corrects the ticks mispredicted without running a new tick.
+     */
+    public void poll() {
+        transport.receive(receiver);
+        if (rollbackFrom != NO_ROLLBACK) {
+            final long from = rollbackFrom;
+            rollbackFrom = NO_ROLLBACK;
+            match.restore(snapshots[snapshotSlot(from)]);
+            for (long t = from; t < tick; ++t) {
+                simulate(t);
+            }
+            rolledBackTicks += tick - from;
+        }
+    }
+
+    public VersusMatch getMatch() {
+        return match;
+    }
+
+    /**
+     * @return Number of ticks run so far
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return Number of ticks that have run with the remote input known, i.e. that will never be rolled back
+     */
+    public long getConfirmedTicks() {
+        return Math.min(tick, confirmedTick + 1);
+    }
+
+    //
+    // Private
+    //
+
+    private void onRemoteInput(long remoteTick, int input) {
+        remoteInputs[inputSlot(remoteTick)] = input;
+        confirmedTick = remoteTick;
+        confirmedInput = input;
+        if (remoteTick < tick && simulatedRemoteInputs[inputSlot(remoteTick)] != input) {
+            rollbackFrom = Math.min(rollbackFrom, remoteTick);
+        }
+    }
+
+    private void simulate(long t) {
+        match.save(snapshots[snapshotSlot(t)]);
+        final int remoteInput = t <= confirmedTick ? remoteInputs[inputSlot(t)] : confirmedInput;
+        simulatedRemoteInputs[inputSlot(t)] = remoteInput;
+        final int localInput = localInputs[inputSlot(t)];
+        if (localPlayer == 0) {
+            match.tick(localInput, remoteInput);
+        } else {
+            match.tick(remoteInput, localInput);
+        }
+    }
+
+    private int snapshotSlot(long t) {
+        return (int) (t % snapshots.length);
+    }
+
+    private int inputSlot(long t) {
+        return (int) (t % localInputs.length);
+    }
+}
@@ -0,0 +1,319 @@
+package io.shabanov.jmonkeytetris.versus;
+
+import io.shabanov.jmonkeytetris.controller.ControllerSnapshot;
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Games of {@link #MIN_PLAYERS} to {@link #MAX_PLAYERS} players played side by side tick by tick, driven by the
+ * commands each player holds on every tick, see {@link #tick(int[])}. Given the same seed and the same inputs, a match plays out the same wherever it runs, and
+ * it can be {@link #save(Snapshot) saved} and {@link #restore(Snapshot) restored} on any tick, which is what
+ * {@link RollbackSession} relies upon.
+ *
+ * All the players get the same tetrade sequence. Clearing two or more lines at once sends garbage rows to
+ * the opponent, the next player still in the game in turn order, see {@link #GARBAGE_ROWS}: they first cancel garbage
+ * still pending for the sender, the rest is queued for the opponent and pushes their stack up as soon as their
+ * falling tetrade locks. The match is over once at most one game is still going.
+ */
+@ParametersAreNonnullByDefault
+public final class VersusMatch {
+    public static final int MIN_PLAYERS = 2;
+    public static final int MAX_PLAYERS = 4;
+
+    /**
+     * Garbage rows sent by the number of lines cleared at once.
+     */
+    public static final int[] GARBAGE_ROWS = {0, 0, 1, 2, 4};
+
+    // commands that make up an input, the rest act on the host rather than the game
+    private static final GameCommand[] INPUT_COMMANDS = {GameCommand.MOVE_LEFT, GameCommand.MOVE_RIGHT,
+            GameCommand.ROTATE, GameCommand.SOFT_DROP, GameCommand.HARD_DROP};
+
+    /**
+     * State of a match on a given tick, allocated once and refilled, see {@link #newSnapshot()}.
+     */
+    public static final class Snapshot {
+        private final ControllerSnapshot[] controllers;
+        private final long[] piecePositions;
+        private final int[] inputs;
+        private final int[] clearedLines;
+        private final int[] pendingGarbage;
+        private final long[] holePositions;
+
+        private Snapshot(int players) {
+            this.controllers = new ControllerSnapshot[players];
+            for (int i = 0; i < players; ++i) {
+                controllers[i] = new ControllerSnapshot();
+            }
+            this.piecePositions = new long[players];
+            this.inputs = new int[players];
+            this.clearedLines = new int[players];
+            this.pendingGarbage = new int[players];
+            this.holePositions = new long[players];
+        }
+    }
+
+    /**
+     * Creates the views of the players' games, the headless match uses no-op ones.
+     */
+    public interface ViewFactory {
+        FieldView newFieldView(int player, TetrisModel model);
+
+        StatusView newStatusView(int player);
+    }
+
+    private final int players;
+    private final TetrisModel[] models;
+    private final TetrisGameController[] controllers;
+    private final PieceSequence[] pieces;
+    // commands held on the previous tick, as input bit masks
+    private final int[] inputs;
+    // lines cleared by the end of the previous tick, the difference is what has been cleared since
+    private final int[] clearedLines;
+    // garbage rows received but not inserted yet
+    private final int[] pendingGarbage;
+    // columns of the garbage holes, drawn the same deterministic way as the tetrades
+    private final PieceSequence[] holes;
+    // inputs of a two player tick, see tick(int, int)
+    private final int[] pairInputs = new int[MIN_PLAYERS];
+
+    /**
+     * Creates a headless two player match.
+     */
+    public VersusMatch(long seed) {
+        this(seed, MIN_PLAYERS);
+    }
+
+    /**
+     * Creates a headless match of the given number of players.
+     */
+    public VersusMatch(long seed, int players) {
+        this(seed, players, NO_OP_VIEWS, SoundEffectsStore.noOp());
+    }
+
+    public VersusMatch(long seed, int players, ViewFactory views, SoundEffectsStore soundEffectsStore) {
+        if (players < MIN_PLAYERS || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("players");
+        }
+        this.players = players;
+        this.models = new TetrisModel[players];
+        this.controllers = new TetrisGameController[players];
+        this.pieces = new PieceSequence[players];
+        this.inputs = new int[players];
+        this.clearedLines = new int[players];
+        this.pendingGarbage = new int[players];
+        this.holes = new PieceSequence[players];
+        for (int i = 0; i < players; ++i) {
+            pieces[i] = new PieceSequence(seed);
+            holes[i] = new PieceSequence(~seed + i);
+            models[i] = new TetrisModel(PubSub.noOpManager(), pieces[i]);
+            controllers[i] = new TetrisGameController(models[i], views.newFieldView(i, models[i]),
+                    views.newStatusView(i), soundEffectsStore);
+        }
+    }
+
+    /**
+     * @return Input bit of the given command, an input being the bitwise or of the commands held
+     */
+    public static int inputOf(GameCommand command) {
+        return 1 << command.ordinal();
+    }
+
+    /**
+     * Same as {@link #tick(int[])} for a two player match.
+     */
+    public void tick(int input0, int input1) {
+        if (players != MIN_PLAYERS) {
+            throw new IllegalStateException("match of " + players + " players");
+        }
+        pairInputs[0] = input0;
+        pairInputs[1] = input1;
+        tick(pairInputs);
+    }
+
+    /**
+     * Presses and releases commands as per the given inputs, one per player, and runs a single tick of all the games,
+     * then exchanges garbage for the lines cleared on this tick.
+     */
+    public void tick(int[] playerInputs) {
+        for (int i = 0; i < players; ++i) {
+            applyInput(i, playerInputs[i]);
+        }
+        for (int i = 0; i < players; ++i) {
+            // garbage never lands under a falling tetrade, it waits for the tetrade to lock and goes in before
+            // the next one spawns
+            if (pendingGarbage[i] > 0 && models[i].getTetradeIndices() == null) {
+                final int rows = Math.min(pendingGarbage[i], models[i].getFieldHeight());
+                pendingGarbage[i] = 0;
+                controllers[i].insertGarbage(rows, holes[i].apply(models[i].getFieldWidth()));
+            }
+            controllers[i].step();
+        }
+
+        for (int i = 0; i < players; ++i) {
+            final int cleared = controllers[i].getClearedLines() - clearedLines[i];
+            clearedLines[i] += cleared;
+            final int garbage = GARBAGE_ROWS[Math.min(cleared, GARBAGE_ROWS.length - 1)];
+            final int cancelled = Math.min(garbage, pendingGarbage[i]);
+            pendingGarbage[i] -= cancelled;
+            final int opponent = opponentOf(i);
+            if (opponent >= 0) {
+                pendingGarbage[opponent] += garbage - cancelled;
+            }
+        }
+    }
+
+    /**
+     * Frame update of the players' views for a match ticked on a clock of the caller, see
+     * {@link TetrisGameController#present(float, float)}.
+     */
+    public void present(float tpf, float alpha) {
+        for (final TetrisGameController controller : controllers) {
+            controller.present(tpf, alpha);
+        }
+    }
+
+    public Snapshot newSnapshot() {
+        return new Snapshot(players);
+    }
+
+    public void save(Snapshot snapshot) {
+        for (int i = 0; i < players; ++i) {
+            controllers[i].save(snapshot.controllers[i]);
+            snapshot.piecePositions[i] = pieces[i].getPosition();
+            snapshot.inputs[i] = inputs[i];
+            snapshot.clearedLines[i] = clearedLines[i];
+            snapshot.pendingGarbage[i] = pendingGarbage[i];
+            snapshot.holePositions[i] = holes[i].getPosition();
+        }
+    }
+
+    public void restore(Snapshot snapshot) {
+        for (int i = 0; i < players; ++i) {
+            controllers[i].restore(snapshot.controllers[i]);
+            pieces[i].setPosition(snapshot.piecePositions[i]);
+            inputs[i] = snapshot.inputs[i];
+            clearedLines[i] = snapshot.clearedLines[i];
+            pendingGarbage[i] = snapshot.pendingGarbage[i];
+            holes[i].setPosition(snapshot.holePositions[i]);
+        }
+    }
+
+    public int getPlayerCount() {
+        return players;
+    }
+
+    public TetrisModel getModel(int player) {
+        return models[player];
+    }
+
+    public TetrisGameController getController(int player) {
+        return controllers[player];
+    }
+
+    public long getTick() {
+        return controllers[0].getTick();
+    }
+
+    /**
+     * @return Garbage rows the given player has received but not got inserted yet
+     */
+    public int getPendingGarbage(int player) {
+        return pendingGarbage[player];
+    }
+
+    public boolean isOver() {
+        int playing = 0;
+        for (final TetrisGameController controller : controllers) {
+            if (controller.getPhase() != TetrisGamePhase.GAME_OVER) {
+                ++playing;
+            }
+        }
+        return playing <= 1;
+    }
+
+    /**
+     * @return The last player still in the game once the match {@link #isOver() is over}, or -1 if there is none,
+     * e.g. when the last games have ended on the same tick
+     */
+    public int getWinner() {
+        if (!isOver()) {
+            return -1;
+        }
+        for (int i = 0; i < players; ++i) {
+            if (controllers[i].getPhase() != TetrisGamePhase.GAME_OVER) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Hash of all the games, equal on every peer that has simulated the same inputs
+     */
+    public long stateHash() {
+        long hash = getTick();
+        for (int i = 0; i < players; ++i) {
+            hash = hash * 31 + models[i].stateHash();
+            hash = hash * 31 + controllers[i].getCurrentScore();
+            hash = hash * 31 + pendingGarbage[i];
+        }
+        return hash;
+    }
+
+    //
+    // Private
+    //
+
+    private static final ViewFactory NO_OP_VIEWS = new ViewFactory() {
+        @Override
+        public FieldView newFieldView(int player, TetrisModel model) {
+            return FieldView.noOp();
+        }
+
+        @Override
+        public StatusView newStatusView(int player) {
+            return StatusView.noOp();
+        }
+    };
+
+    /**
+     * @return Next player in turn order who is still in the game, or -1 if there is none
+     */
+    private int opponentOf(int player) {
+        for (int i = 1; i < players; ++i) {
+            final int opponent = (player + i) % players;
+            if (controllers[opponent].getPhase() != TetrisGamePhase.GAME_OVER) {
+                return opponent;
+            }
+        }
+        return -1;
+    }
+
+    private void applyInput(int player, int input) {
+        final int changed = inputs[player] ^ input;
+        inputs[player] = input;
+        if (changed == 0) {
+            return;
+        }
+        for (final GameCommand command : INPUT_COMMANDS) {
+            final int bit = inputOf(command);
+            if ((changed & bit) == 0) {
+                continue;
+            }
+            if ((input & bit) != 0) {
+                controllers[player].press(command, 0L);
+            } else {
+                controllers[player].release(command, 0L);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.shabanov.jmonkeytetris.view;
+
+import com.jme3.light.DirectionalLight;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import com.jme3.scene.Node;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays out up to {@link #MAX_BOARDS} boards of a scene, e.g. for split-screen play or spectating, and picks the level
+ * of detail of each one by the size it is shown at.
+ *
+ * Without a focused board all the boards are laid out in a grid of equal cells. A focused board is shown full-size on
+ * the left with the rest of the boards as thumbnails in a grid to its right. Boards shown at
+ * {@link #FULL_DETAIL_SCALE} of full size or larger get the full detail style, smaller ones the thumbnail style.
+ *
+ * All the boards are lit by a single light of the grid, the grid itself is centered at the origin.
+ */
+@ParametersAreNonnullByDefault
+public final class BoardGrid {
+    public static final int MAX_BOARDS = 16;
+
+    /**
+     * Smallest scale, relative to a full-size board, boards are shown with full detail at.
+     */
+    public static final float FULL_DETAIL_SCALE = .5f;
+
+    private static final float FIELD_WIDTH = TetrisModel.DEFAULT_TETRIS_FIELD_WIDTH;
+    private static final float FIELD_HEIGHT = TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT;
+    // grid cell of a full-size board: the field along with the next tetrade preview on its right and some padding
+    private static final float BOARD_WIDTH = FIELD_WIDTH + 9f;
+    private static final float BOARD_HEIGHT = FIELD_HEIGHT + 2f;
+
+    private final Node holder = new Node("boardGrid");
+    private final DirectionalLight sun = new DirectionalLight();
+    private final TetrisView.CellPresentationStyle fullDetailStyle;
+    private final TetrisView.CellPresentationStyle thumbnailStyle;
+    private final List<TetrisView> boards = new ArrayList<>();
+    private int focusedIndex = -1;
+
+    // extents of the current layout
+    private float layoutWidth;
+    private float layoutHeight;
+
+    public BoardGrid() {
+        this(TetrisView.CellPresentationStyle.PEBBLE, TetrisView.CellPresentationStyle.BOX);
+    }
+
+    public BoardGrid(TetrisView.CellPresentationStyle fullDetailStyle, TetrisView.CellPresentationStyle thumbnailStyle) {
+        this.fullDetailStyle = fullDetailStyle;
+        this.thumbnailStyle = thumbnailStyle;
+
+        sun.setDirection(new Vector3f(-1, -2, -10).normalizeLocal());
+        sun.setColor(ColorRGBA.White);
+        holder.addLight(sun);
+    }
+
+    public void add(TetrisView board) {
+        if (boards.size() == MAX_BOARDS) {
+            throw new IllegalStateException("at most " + MAX_BOARDS + " boards are supported");
+        }
+        boards.add(board);
+        holder.attachChild(board.getHolderNode());
+        layout();
+    }
+
+    public void remove(TetrisView board) {
+        final int index = boards.indexOf(board);
+        if (index < 0) {
+            return;
+        }
+        boards.remove(index);
+        holder.detachChild(board.getHolderNode());
+        if (focusedIndex == index) {
+            focusedIndex = -1;
+        } else if (focusedIndex > index) {
+            --focusedIndex;
+        }
+        layout();
+    }
+
+    /**
+     * Shows the board at the given index full-size next to the thumbnails of the others, or, given -1, all the
+     * boards in a grid of equal cells.
+     */
+    public void setFocused(int index) {
+        if (index < -1 || index >= boards.size()) {
+            throw new IllegalArgumentException("index");
+        }
+        focusedIndex = index;
+        layout();
+    }
+
+    public int getFocused() {
+        return focusedIndex;
+    }
+
+    public List<TetrisView> getBoards() {
+        return boards;
+    }
+
+    public Node getHolderNode() {
+        return holder;
+    }
+
+    public float getLayoutWidth() {
+        return layoutWidth;
+    }
+
+    public float getLayoutHeight() {
+        return layoutHeight;
+    }
+
+    /**
+     * Points the camera so that the whole layout is in sight, the same way a single board is framed.
+     */
+    public void frameCamera(Camera cam) {
+        // fields are taller than wide, so the height is what frames a single board
+        final float extent = Math.max(layoutHeight, layoutWidth * FIELD_HEIGHT / BOARD_WIDTH);
+        cam.setLocation(new Vector3f(0, .6f * layoutHeight + .6f * extent, 1.2f * extent));
+        cam.lookAt(new Vector3f(0, .6f * layoutHeight, 0), new Vector3f(0, 1, 0));
+    }
+
+    //
+    // Private
+    //
+
+    private void layout() {
+        final int count = boards.size();
+        if (count == 0) {
+            layoutWidth = 0f;
+            layoutHeight = 0f;
+            return;
+        }
+
+        if (focusedIndex < 0 || count == 1) {
+            final int columns = columnsOf(count);
+            final int rows = (count + columns - 1) / columns;
+            final float scale = 1f / rows;
+            layoutWidth = columns * BOARD_WIDTH * scale;
+            layoutHeight = ((rows - 1) * BOARD_HEIGHT + FIELD_HEIGHT) * scale;
+            for (int i = 0; i < count; ++i) {
+                place(boards.get(i), -layoutWidth / 2 + (i % columns) * BOARD_WIDTH * scale,
+                        (rows - 1 - i / columns) * BOARD_HEIGHT * scale, scale);
+            }
+            return;
+        }
+
+        final int thumbnails = count - 1;
+        final int columns = columnsOf(thumbnails);
+        final int rows = (thumbnails + columns - 1) / columns;
+        final float scale = 1f / rows;
+        layoutWidth = BOARD_WIDTH + columns * BOARD_WIDTH * scale;
+        layoutHeight = FIELD_HEIGHT;
+        final float left = -layoutWidth / 2;
+        place(boards.get(focusedIndex), left, 0f, 1f);
+        for (int i = 0, thumbnail = 0; i < count; ++i) {
+            if (i == focusedIndex) {
+                continue;
+            }
+            place(boards.get(i), left + BOARD_WIDTH + (thumbnail % columns) * BOARD_WIDTH * scale,
+                    (rows - 1 - thumbnail / columns) * BOARD_HEIGHT * scale, scale);
+            ++thumbnail;
+        }
+    }
+
+    private void place(TetrisView board, float cellLeft, float cellBottom, float scale) {
+        // the field is centered within its cell, the next tetrade preview takes the rest of the cell
+        final Node node = board.getHolderNode();
+        node.setLocalScale(scale);
+        node.setLocalTranslation(cellLeft + (BOARD_WIDTH - FIELD_WIDTH) / 2 * scale, cellBottom, 0f);
+        board.setPresentationStyle(scale >= FULL_DETAIL_SCALE ? fullDetailStyle : thumbnailStyle);
+    }
+
+    private static int columnsOf(int count) {
+        return (int) Math.ceil(Math.sqrt(count));
+    }
+}
@@ -0,0 +1,98 @@
+package io.shabanov.jmonkeytetris.view;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.debug.Grid;
+import com.jme3.scene.shape.Box;
+import io.shabanov.jmonkeytetris.util.Tango;
+import io.shabanov.jmonkeytetris.view.presentation.TetradeColors;
+import lombok.Getter;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Materials and meshes shared by all the {@link TetrisView boards} of a scene, so that every board that is added
+ * costs its own spatials only: boards that share a material are rendered without switching render state, and
+ * the cells of a {@link TetrisView.CellPresentationStyle#isBatched() batched} style are merged into a draw call per
+ * material.
+ *
+ * Resources of a style are loaded on the first board that uses it.
+ */
+@ParametersAreNonnullByDefault
+public final class BoardResources {
+    private static final String UNSHADED_MATERIAL = "Common/MatDefs/Misc/Unshaded.j3md";
+
+    /**
+     * Materials of the cells shown in a given style.
+     */
+    public static final class StyleMaterials {
+        private final Material[] cells = new Material[TetradeColors.CELL_CUBE_COLORS.length];
+        @Getter private final Material fallingTetrade;
+        @Getter private final Material nextTetrade;
+
+        private StyleMaterials(AssetManager assetManager, TetrisView.CellPresentationStyle style) {
+            for (int i = 0; i < cells.length; ++i) {
+                cells[i] = style.createMaterial(assetManager, TetradeColors.CELL_CUBE_COLORS[i]);
+            }
+            this.fallingTetrade = style.createMaterial(assetManager, Tango.ALUMINUM_1);
+            this.nextTetrade = style.createMaterial(assetManager, Tango.SCARLET_RED_1);
+        }
+
+        public int getCellColorCount() {
+            return cells.length;
+        }
+
+        public Material getCell(int colorIndex) {
+            return cells[colorIndex];
+        }
+    }
+
+    @Getter private final AssetManager assetManager;
+    private final Map<TetrisView.CellPresentationStyle, StyleMaterials> styleMaterials =
+            new EnumMap<>(TetrisView.CellPresentationStyle.class);
+
+    @Getter private final Box projectedCellMesh = new Box(.5f, .5f, .5f);
+    @Getter private final Box hintCellMesh = new Box(.45f, .45f, .45f);
+    @Getter private final Material projectedCellMaterial;
+    @Getter private final Material hintCellMaterial;
+
+    // field grid meshes by their line count and materials by their color
+    private final Map<Integer, Grid> gridMeshes = new HashMap<>();
+    private final Map<ColorRGBA, Material> gridMaterials = new HashMap<>();
+
+    public BoardResources(AssetManager assetManager) {
+        this.assetManager = assetManager;
+        this.projectedCellMaterial = newWireframeMaterial(ColorRGBA.Orange);
+        this.hintCellMaterial = newWireframeMaterial(Tango.CHAMELEON_2);
+    }
+
+    public StyleMaterials getMaterials(TetrisView.CellPresentationStyle style) {
+        return styleMaterials.computeIfAbsent(style, s -> new StyleMaterials(assetManager, s));
+    }
+
+    /**
+     * @return Grid of 4 by the given number of unit cells, shared by all the boards of the same dimensions
+     */
+    public Grid getGridMesh(int lines) {
+        return gridMeshes.computeIfAbsent(lines, n -> new Grid(4, n, 1f));
+    }
+
+    public Material getGridMaterial(ColorRGBA color) {
+        return gridMaterials.computeIfAbsent(color, this::newWireframeMaterial);
+    }
+
+    //
+    // Private
+    //
+
+    private Material newWireframeMaterial(ColorRGBA color) {
+        final Material material = new Material(assetManager, UNSHADED_MATERIAL);
+        material.getAdditionalRenderState().setWireframe(true);
+        material.setColor("Color", color);
+        return material;
+    }
+}
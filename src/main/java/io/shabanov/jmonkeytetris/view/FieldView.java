@@ -0,0 +1,44 @@
+package io.shabanov.jmonkeytetris.view;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
+
+/**
+ * Presentation of a tetris field as seen by the game controller.
+ * The main implementation is {@link TetrisView}, a no-op one is used when the game runs without a display.
+ */
+@ParametersAreNonnullByDefault
+public interface FieldView {
+    void setupFallingTetrade();
+
+    void updateFallingTetrade(float offset);
+
+    void updateNextTetrade();
+
+    void removeLines(List<Integer> linesToClear);
+
+    void clear();
+
+    void updateStaticAnimation(float tpf);
+
+    static FieldView noOp() {
+        return NoOpFieldView.INSTANCE;
+    }
+}
+
+@ParametersAreNonnullByDefault
+final class NoOpFieldView implements FieldView {
+    static final FieldView INSTANCE = new NoOpFieldView();
+
+    @Override public void setupFallingTetrade() {}
+
+    @Override public void updateFallingTetrade(float offset) {}
+
+    @Override public void updateNextTetrade() {}
+
+    @Override public void removeLines(List<Integer> linesToClear) {}
+
+    @Override public void clear() {}
+
+    @Override public void updateStaticAnimation(float tpf) {}
+}
@@ -6,16 +6,19 @@ import com.jme3.font.BitmapText;
 import com.jme3.math.ColorRGBA;
 import com.jme3.scene.Node;
 import com.jme3.system.AppSettings;
+import io.shabanov.jmonkeytetris.leaderboard.ScoreEntry;
 import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
 import io.shabanov.jmonkeytetris.util.fadeout.FadeoutTextBlock;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
 
 @ParametersAreNonnullByDefault
-public final class HudView {
+public final class HudView implements StatusView {
     private final Node holderNode = new Node();
     private final BitmapText phaseAnnounceText;
     private final BitmapText scoreAnnounceText;
+    private final BitmapText leaderboardText;
     private final FadeoutTextBlock notifications;
 
 
@@ -43,6 +46,12 @@ public final class HudView {
         scoreAnnounceText.scale(1.65f);
         holderNode.attachChild(scoreAnnounceText);
 
+        leaderboardText = new BitmapText(guiFont, false, false);
+        leaderboardText.setSize(guiFont.getCharSet().getRenderedSize());
+        leaderboardText.setLocalTranslation(10, scoreAnnounceTextY - 3 * scoreLabelText.getLineHeight(), 0);
+        leaderboardText.setColor(ColorRGBA.LightGray);
+        holderNode.attachChild(leaderboardText);
+
         notifications = new FadeoutTextBlock(5, () -> {
             final BitmapText text = new BitmapText(guiFont, false, false);
             text.setSize(guiFont.getCharSet().getRenderedSize());
@@ -56,10 +65,12 @@ public final class HudView {
         return holderNode;
     }
 
+    @Override
     public void addNotification(String notification) {
         notifications.pushText(ColorRGBA.White, notification);
     }
 
+    @Override
     public void announcePhase(TetrisGamePhase phase) {
         switch (phase) {
             case PAUSED:
@@ -75,13 +86,33 @@ public final class HudView {
             default:
                 phaseAnnounceText.setColor(ColorRGBA.Black);
                 phaseAnnounceText.setText("");
+                leaderboardText.setText("");
         }
     }
 
+    @Override
     public void announceScore(int currentScore) {
         scoreAnnounceText.setText(String.format("%08d", currentScore));
     }
 
+    /**
+     * Shows the best scores along with how the latest game compares to all the others, until the next game starts.
+     *
+     * @param latest Score of the game that is just over, marked in the table if it has made it there
+     * @param percentileRank Share of the recorded games, in 0..100 range, that have scored less than the latest one
+     */
+    public void showLeaderboard(List<ScoreEntry> topScores, ScoreEntry latest, double percentileRank) {
+        final StringBuilder text = new StringBuilder("Top Scores:\n");
+        for (int i = 0; i < topScores.size(); ++i) {
+            final ScoreEntry entry = topScores.get(i);
+            text.append(entry.getSequence() == latest.getSequence() ? "> " : "  ")
+                    .append(String.format("%2d. %08d  %s\n", i + 1, entry.getScore(), entry.getPlayerName()));
+        }
+        text.append(String.format("\nBetter than %.0f%% of games", percentileRank));
+        leaderboardText.setText(text.toString());
+    }
+
+    @Override
     public void update(float tpf) {
         notifications.update(tpf);
     }
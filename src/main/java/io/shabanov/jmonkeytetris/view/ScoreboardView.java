@@ -0,0 +1,136 @@
+package io.shabanov.jmonkeytetris.view;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.font.BitmapFont;
+import com.jme3.font.BitmapText;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Node;
+import com.jme3.system.AppSettings;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.util.fadeout.FadeoutTextBlock;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Single HUD for the games of several players: a column with the score and the phase of each player's game across
+ * the top of the screen and one notification block shared by all of them.
+ * Each game's controller talks to its own {@link #getPlayerView(int) player view}.
+ */
+@ParametersAreNonnullByDefault
+public final class ScoreboardView {
+    private final Node holderNode = new Node();
+    private final BitmapText[] scoreTexts;
+    private final BitmapText[] phaseTexts;
+    private final FadeoutTextBlock notifications;
+    private final StatusView[] playerViews;
+
+    public ScoreboardView(AssetManager assetManager, AppSettings appSettings, int players) {
+        final BitmapFont guiFont = assetManager.loadFont("Interface/Fonts/Default.fnt");
+        final float columnWidth = appSettings.getWidth() / (float) players;
+
+        scoreTexts = new BitmapText[players];
+        phaseTexts = new BitmapText[players];
+        playerViews = new StatusView[players];
+        for (int i = 0; i < players; ++i) {
+            final float x = 10 + i * columnWidth;
+            float y = appSettings.getHeight();
+
+            final BitmapText labelText = newText(guiFont);
+            labelText.setColor(ColorRGBA.Gray);
+            labelText.setText("Player " + (i + 1) + ":");
+            labelText.setLocalTranslation(x, y, 0);
+            holderNode.attachChild(labelText);
+            y -= labelText.getLineHeight();
+
+            scoreTexts[i] = newText(guiFont);
+            scoreTexts[i].setColor(ColorRGBA.Green);
+            scoreTexts[i].setLocalTranslation(x, y, 0);
+            holderNode.attachChild(scoreTexts[i]);
+            y -= scoreTexts[i].getLineHeight();
+
+            phaseTexts[i] = newText(guiFont);
+            phaseTexts[i].setLocalTranslation(x, y, 0);
+            holderNode.attachChild(phaseTexts[i]);
+
+            playerViews[i] = new PlayerView(i);
+        }
+
+        notifications = new FadeoutTextBlock(5, () -> newText(guiFont));
+        holderNode.attachChild(notifications.getHolderNode());
+        notifications.getHolderNode().setLocalTranslation(10, 40, 0);
+    }
+
+    public Node getHolderNode() {
+        return holderNode;
+    }
+
+    /**
+     * @return Status view of the given player's game, its notifications go to the shared block prefixed by the player
+     */
+    public StatusView getPlayerView(int player) {
+        return playerViews[player];
+    }
+
+    public void addNotification(String notification) {
+        notifications.pushText(ColorRGBA.White, notification);
+    }
+
+    /**
+     * Animates the shared notification block, meant to be called once a frame rather than by every player's view.
+     */
+    public void update(float tpf) {
+        notifications.update(tpf);
+    }
+
+    //
+    // Private
+    //
+
+    private static BitmapText newText(BitmapFont guiFont) {
+        final BitmapText text = new BitmapText(guiFont, false, false);
+        text.setSize(guiFont.getCharSet().getRenderedSize());
+        return text;
+    }
+
+    private final class PlayerView implements StatusView {
+        private final int player;
+
+        PlayerView(int player) {
+            this.player = player;
+        }
+
+        @Override
+        public void addNotification(String notification) {
+            ScoreboardView.this.addNotification("Player " + (player + 1) + ": " + notification);
+        }
+
+        @Override
+        public void announcePhase(TetrisGamePhase phase) {
+            final BitmapText phaseText = phaseTexts[player];
+            switch (phase) {
+                case PAUSED:
+                    phaseText.setColor(ColorRGBA.White);
+                    phaseText.setText("PAUSED");
+                    break;
+
+                case GAME_OVER:
+                    phaseText.setColor(ColorRGBA.Red);
+                    phaseText.setText("GAME OVER");
+                    break;
+
+                default:
+                    phaseText.setText("");
+            }
+        }
+
+        @Override
+        public void announceScore(int currentScore) {
+            scoreTexts[player].setText(String.format("%08d", currentScore));
+        }
+
+        @Override
+        public void update(float tpf) {
+            // the shared notification block is updated once a frame by the owner
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.shabanov.jmonkeytetris.view;
+
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Presentation of the game status (phase, score and notifications) as seen by the game controller.
+ * The main implementation is {@link HudView}, a no-op one is used when the game runs without a display.
+ */
+@ParametersAreNonnullByDefault
+public interface StatusView {
+    void addNotification(String notification);
+
+    void announcePhase(TetrisGamePhase phase);
+
+    void announceScore(int currentScore);
+
+    void update(float tpf);
+
+    static StatusView noOp() {
+        return NoOpStatusView.INSTANCE;
+    }
+}
+
+@ParametersAreNonnullByDefault
+final class NoOpStatusView implements StatusView {
+    static final StatusView INSTANCE = new NoOpStatusView();
+
+    @Override public void addNotification(String notification) {}
+
+    @Override public void announcePhase(TetrisGamePhase phase) {}
+
+    @Override public void announceScore(int currentScore) {}
+
+    @Override public void update(float tpf) {}
+}
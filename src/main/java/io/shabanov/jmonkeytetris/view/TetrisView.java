@@ -5,63 +5,92 @@ import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.FastMath;
 import com.jme3.math.Vector3f;
+import com.jme3.scene.BatchNode;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
-import com.jme3.scene.debug.Grid;
 import com.jme3.scene.shape.Box;
 import com.jme3.util.TangentBinormalGenerator;
+import io.shabanov.jmonkeytetris.ai.PlacementHints;
+import io.shabanov.jmonkeytetris.ai.Plan;
+import io.shabanov.jmonkeytetris.model.BoardSnapshot;
 import io.shabanov.jmonkeytetris.model.Tetrades;
 import io.shabanov.jmonkeytetris.model.TetrisModel;
 import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
-import io.shabanov.jmonkeytetris.util.Tango;
-import io.shabanov.jmonkeytetris.view.presentation.TetradeColors;
+import io.shabanov.jmonkeytetris.model.search.BitBoard;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
  * All-in-one presentation logic for a tetris gameplay field.
  *
+ * The view is either driven by the game controller through {@link FieldView} methods and model change notifications,
+ * or, when the model is updated on another thread, by {@link #render(BoardSnapshot)} only.
+ *
+ * Views of a scene share their materials and meshes through {@link BoardResources}; the level of detail of each one is
+ * set by its {@link CellPresentationStyle}, e.g. pebbles for the board a player is focused on and batched boxes for
+ * thumbnails, see {@link BoardGrid}.
+ *
  * TODO: more interaction with a model.
  */
-public final class TetrisView {
+public final class TetrisView implements FieldView {
+    private static final Box CELL_MESH = new Box(.5f, .5f, .5f);
 
     private final Node fieldHolder;
 
+    // parent of the row nodes, a batch node when the cells are batched
+    private Node stackHolder;
+
     private final Node fallingTetradeHolder;
 
     private final Node nextTetradeHolder;
 
-    private final Spatial[][] fieldNodes;
-
-    private final Material fallingTetradeMaterial;
-    private final Material nextTetradeMaterial;
+    // cells of a row are attached to its node, so that shifting the stack moves row nodes rather than every cell
+    private final Node[] rowNodes;
 
-    private final Material[] cellCubeMaterials = new Material[TetradeColors.CELL_CUBE_COLORS.length];
+    private final Spatial[][] fieldNodes;
 
     private final Random random;
 
-    private final AssetManager assetManager;
+    private final BoardResources resources;
 
-    private final CellPresentationStyle cellPresentationStyle = CellPresentationStyle.PEBBLE;
+    private CellPresentationStyle cellPresentationStyle;
+    private BoardResources.StyleMaterials materials;
+    // cells have been attached or detached since the stack has been batched last time
+    private boolean stackChanged;
 
     private final List<Spatial> projectedTetradeElements = new ArrayList<>();
 
     private final TetrisModel model;
+    private final boolean listenToModel;
+
+    // best placement suggested to the player next to the projected tetrade, shown only when hints are set
+    private final List<Spatial> hintElements = new ArrayList<>();
+    @Nullable private PlacementHints hints;
+    private final int[] hintRows = new int[BitBoard.HEIGHT];
+    private long hintedSpawnCount = -1L;
+
+    // snapshot rendering state: ids of the cells currently shown and spatials of the cells that might have moved
+    private final long[][] renderedCellIds;
+    private long renderedBoardVersion = -1L;
+    private final Map<Long, Spatial> movedCells = new HashMap<>();
 
     public enum CellPresentationStyle {
         BRICK {
             @Override
             public Spatial getSpatial(AssetManager assetManager) {
-                return new Geometry("brick-cell", new Box(.5f, .5f, .5f));
+                return new Geometry("brick-cell", CELL_MESH);
             }
 
             @Override
-            public String getMaterialName() {
-                return "Materials/brick.j3m";
+            public Material createMaterial(AssetManager assetManager, ColorRGBA color) {
+                return litMaterial(assetManager, "Materials/brick.j3m", color);
             }
         },
 
@@ -79,34 +108,98 @@ public final class TetrisView {
             }
 
             @Override
-            public String getMaterialName() {
-                return "Materials/pebble.j3m";
+            public Material createMaterial(AssetManager assetManager, ColorRGBA color) {
+                return litMaterial(assetManager, "Materials/pebble.j3m", color);
+            }
+        },
+
+        /**
+         * Unlit boxes, the cheapest style meant for small thumbnails: all the cells of a color make up a single
+         * draw call per board.
+         */
+        BOX {
+            @Override
+            public Spatial getSpatial(AssetManager assetManager) {
+                return new Geometry("box-cell", CELL_MESH);
+            }
+
+            @Override
+            public Material createMaterial(AssetManager assetManager, ColorRGBA color) {
+                final Material material = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
+                material.setColor("Color", color);
+                return material;
+            }
+
+            @Override
+            public boolean isBatched() {
+                return true;
             }
         };
 
         public abstract Spatial getSpatial(AssetManager assetManager);
 
-        public abstract String getMaterialName();
+        public abstract Material createMaterial(AssetManager assetManager, ColorRGBA color);
+
+        /**
+         * @return Whether the stack cells are merged into a mesh per material, which pays off when the stack changes
+         * rarely compared to how often it is drawn
+         */
+        public boolean isBatched() {
+            return false;
+        }
+
+        private static Material litMaterial(AssetManager assetManager, String name, ColorRGBA color) {
+            final Material material = assetManager.loadMaterial(name);
+            material.setColor("Diffuse", color);
+            return material;
+        }
     }
 
     public TetrisView(Random random, AssetManager assetManager, TetrisModel model) {
-        this.random = random;
-        this.assetManager = assetManager;
-        this.model = model;
+        this(random, new BoardResources(assetManager), model, CellPresentationStyle.PEBBLE, true);
+    }
 
-        for (int i = 0; i < TetradeColors.CELL_CUBE_COLORS.length; ++i) {
-            this.cellCubeMaterials[i] = assetManager.loadMaterial(cellPresentationStyle.getMaterialName());
-            this.cellCubeMaterials[i].setColor("Diffuse", TetradeColors.CELL_CUBE_COLORS[i]);
-        }
+    public TetrisView(Random random, BoardResources resources, TetrisModel model, CellPresentationStyle style) {
+        this(random, resources, model, style, true);
+    }
 
-        this.fallingTetradeMaterial = assetManager.loadMaterial(cellPresentationStyle.getMaterialName());
-        this.fallingTetradeMaterial.setColor("Diffuse", Tango.ALUMINUM_1);
+    /**
+     * Creates a view that is driven by {@link #render(BoardSnapshot)} only and doesn't access the model except for
+     * its dimensions, so that the model can be updated on a different thread.
+     */
+    public static TetrisView forSnapshots(Random random, AssetManager assetManager, TetrisModel model) {
+        return new TetrisView(random, new BoardResources(assetManager), model, CellPresentationStyle.PEBBLE, false);
+    }
 
-        this.nextTetradeMaterial = this.fallingTetradeMaterial.clone();
-        this.nextTetradeMaterial.setColor("Diffuse", Tango.SCARLET_RED_1);
+    /**
+     * Same as {@link #forSnapshots(Random, AssetManager, TetrisModel)} for a view that shares resources with other
+     * boards of the scene.
+     */
+    public static TetrisView forSnapshots(Random random, BoardResources resources, TetrisModel model,
+                                          CellPresentationStyle style) {
+        return new TetrisView(random, resources, model, style, false);
+    }
+
+    private TetrisView(Random random, BoardResources resources, TetrisModel model, CellPresentationStyle style,
+                       boolean listenToModel) {
+        this.random = random;
+        this.resources = resources;
+        this.model = model;
+        this.listenToModel = listenToModel;
+        this.cellPresentationStyle = style;
+        this.materials = resources.getMaterials(style);
 
         this.fieldNodes = new Spatial[model.getFieldHeight()][model.getFieldWidth()];
+        this.renderedCellIds = new long[model.getFieldHeight()][model.getFieldWidth()];
         this.fieldHolder = new Node("fieldHolder");
+        this.stackHolder = newStackHolder(style);
+        this.fieldHolder.attachChild(this.stackHolder);
+        this.rowNodes = new Node[model.getFieldHeight()];
+        for (int y = 0; y < rowNodes.length; ++y) {
+            rowNodes[y] = new Node("row");
+            stackHolder.attachChild(rowNodes[y]);
+        }
+        translateRows(0);
 
         this.fallingTetradeHolder = new Node("fallingTetradeHolder");
         this.fieldHolder.attachChild(this.fallingTetradeHolder);
@@ -116,26 +209,43 @@ public final class TetrisView {
         this.nextTetradeHolder.setLocalTranslation(model.getFieldWidth() + 5, model.getFieldHeight(), 0);
 
         for (int i = 0; i < Tetrades.ELEMENTS_COUNT; ++i) {
-            final Geometry projectedCell = new Geometry("projected-cell", new Box(.5f, .5f, .5f));
-            final Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            mat.getAdditionalRenderState().setWireframe(true);
-            mat.setColor("Color", ColorRGBA.Orange);
-            projectedCell.setMaterial(mat);
+            final Geometry projectedCell = new Geometry("projected-cell", resources.getProjectedCellMesh());
+            projectedCell.setMaterial(resources.getProjectedCellMaterial());
             projectedTetradeElements.add(projectedCell);
+
+            final Geometry hintCell = new Geometry("hint-cell", resources.getHintCellMesh());
+            hintCell.setMaterial(resources.getHintCellMaterial());
+            hintCell.setCullHint(Spatial.CullHint.Always);
+            hintElements.add(hintCell);
+            fieldHolder.attachChild(hintCell);
         }
 
-        createStaticFieldElements(assetManager);
+        createStaticFieldElements();
+
+        if (!listenToModel) {
+            return;
+        }
+
+        model.addFieldChangeListener(new TetrisModel.FieldChangeListener() {
+            @Override
+            public void putCell(int x, int y) {
+                if (fieldNodes[y][x] != null) {
+                    throw new IllegalStateException("duplicate node at x=" + x + ", y=" + y);
+                }
+                final Spatial cellBox = getCellBox(x, 0, null);
+                fieldNodes[y][x] = cellBox;
+                rowNodes[y].attachChild(cellBox);
+                stackChanged = true;
+            }
 
-        model.addFieldChangeListener((x, y) -> {
-            if (fieldNodes[y][x] != null) {
-                throw new IllegalStateException("duplicate node at x=" + x + ", y=" + y);
+            @Override
+            public void insertRows(int count) {
+                TetrisView.this.insertRows(count);
             }
-            final Spatial cellBox = getCellBox(x, y, null);
-            fieldNodes[y][x] = cellBox;
-            fieldHolder.attachChild(cellBox);
         });
     }
 
+    @Override
     public void setupFallingTetrade() {
         final List<TetrisCoordinate> tetradeCoordinates = model.getCurrentTetrade();
         final TetrisCoordinate tetradeCenter = model.getTetradeCenter();
@@ -147,7 +257,7 @@ public final class TetrisView {
 
         // TODO: instead of moving each falling tetrade cell individually, move the whole tetrade down
         for (final TetrisCoordinate c : tetradeCoordinates) {
-            fallingTetradeHolder.attachChild(getCellBox(c.x + tetradeCenter.x, c.y + tetradeCenter.y, fallingTetradeMaterial));
+            fallingTetradeHolder.attachChild(getCellBox(c.x + tetradeCenter.x, c.y + tetradeCenter.y, materials.getFallingTetrade()));
         }
 
         final int projectedTetradeY = model.getProjectedTetradeY();
@@ -157,8 +267,11 @@ public final class TetrisView {
             projectedTetradeElements.get(i).setLocalTranslation(
                     new Vector3f(coordinate.x + tetradeCenter.x, coordinate.y + projectedTetradeY, -1));
         }
+
+        requestHint();
     }
 
+    @Override
     public void updateFallingTetrade(float offset) {
         final List<TetrisCoordinate> tetradeCoordinates = model.getCurrentTetrade();
         final TetrisCoordinate tetradeCenter = model.getTetradeCenter();
@@ -182,61 +295,75 @@ public final class TetrisView {
         }
     }
 
+    @Override
     public void updateNextTetrade() {
         final List<TetrisCoordinate> coordinates = model.getNextTetrade();
         if (coordinates == null) {
             return; // TODO: warning
         }
 
-        if (nextTetradeHolder.getQuantity() == 0) {
-            for (int i = 0; i < Tetrades.ELEMENTS_COUNT; ++i) {
-                final Spatial cell = getCellBox(0, 0, this.nextTetradeMaterial);
-                nextTetradeHolder.attachChild(cell);
-            }
+        showNextTetrade(coordinates);
+    }
+
+    /**
+     * Brings the view in line with the given snapshot, meant to be called every frame.
+     */
+    public void render(BoardSnapshot snapshot) {
+        if (snapshot.getBoardVersion() != renderedBoardVersion) {
+            renderField(snapshot);
+            renderedBoardVersion = snapshot.getBoardVersion();
         }
 
-        for (int i = 0; i < coordinates.size(); ++i) {
-            final TetrisCoordinate c = coordinates.get(i);
-            nextTetradeHolder.getChild(i).setLocalTranslation(c.x, c.y, -1);
+        renderFallingTetrade(snapshot);
+        renderHint(snapshot);
+        batchStack();
+
+        if (snapshot.getNextTetradeOrientationIndex() >= 0) {
+            showNextTetrade(Tetrades.ORIENTATIONS.get(snapshot.getNextTetradeOrientationIndex()));
         }
     }
 
+    @Override
     public void removeLines(List<Integer> linesToClear) {
+        // the cleared row nodes are emptied and become the top ones, the same way the model shifts its rows
+        final int top = model.getFieldHeight() - 1;
         for (int i = linesToClear.size() - 1; i >= 0; --i) {
             final int line = linesToClear.get(i);
-            // detach all children
-            for (final Spatial spatialToRemove : fieldNodes[line]) {
-                assert spatialToRemove != null;
-                fieldHolder.detachChild(spatialToRemove);
-            }
-            // copy lines
-            for (int yScan = line + 1; yScan < model.getFieldHeight(); ++yScan) {
-                for (final Spatial spatialToMove : fieldNodes[yScan]) {
-                    if (spatialToMove != null) {
-                        spatialToMove.move(0, -1f, 0);
-                    }
-                }
-                System.arraycopy(fieldNodes[yScan], 0, fieldNodes[yScan - 1], 0, model.getFieldWidth());
-            }
+            final Node clearedRow = rowNodes[line];
+            final Spatial[] clearedNodes = fieldNodes[line];
+            clearedRow.detachAllChildren();
+            Arrays.fill(clearedNodes, null);
+            stackChanged = true;
+
+            System.arraycopy(rowNodes, line + 1, rowNodes, line, top - line);
+            System.arraycopy(fieldNodes, line + 1, fieldNodes, line, top - line);
+            rowNodes[top] = clearedRow;
+            fieldNodes[top] = clearedNodes;
+        }
+        if (!linesToClear.isEmpty()) {
+            translateRows(linesToClear.get(0));
         }
 
         // make projected tetrade disappear
         for (Spatial projectedTetradeElement : projectedTetradeElements) {
             fieldHolder.detachChild(projectedTetradeElement);
         }
+
+        // the hint is for the tetrade that has just locked
+        if (hints != null) {
+            hints.cancel();
+            showHint(null);
+        }
     }
 
+    @Override
     public void clear() {
         // detach all children
         for (int y = 0; y < fieldNodes.length; ++y) {
-            final Spatial[] line = fieldNodes[y];
-            for (int x = 0; x < line.length; ++x) {
-                if (fieldNodes[y][x] != null) {
-                    fieldHolder.detachChild(fieldNodes[y][x]);
-                    fieldNodes[y][x] = null;
-                }
-            }
+            rowNodes[y].detachAllChildren();
+            Arrays.fill(fieldNodes[y], null);
         }
+        stackChanged = true;
 
         model.updateFieldListeners();
     }
@@ -245,45 +372,292 @@ public final class TetrisView {
         return fieldHolder;
     }
 
+    public CellPresentationStyle getPresentationStyle() {
+        return cellPresentationStyle;
+    }
+
+    /**
+     * Switches the level of detail, e.g. when the board gets or loses focus; all the cells are re-created in the
+     * new style.
+     */
+    public void setPresentationStyle(CellPresentationStyle style) {
+        if (style == cellPresentationStyle) {
+            return;
+        }
+        cellPresentationStyle = style;
+        materials = resources.getMaterials(style);
+
+        // batched geometries can't be taken apart, the new stack holder starts over
+        fieldHolder.detachChild(stackHolder);
+        stackHolder = newStackHolder(style);
+        fieldHolder.attachChild(stackHolder);
+        for (final Node rowNode : rowNodes) {
+            rowNode.detachAllChildren();
+            stackHolder.attachChild(rowNode);
+        }
+        for (final Spatial[] row : fieldNodes) {
+            Arrays.fill(row, null);
+        }
+        fallingTetradeHolder.detachAllChildren();
+        nextTetradeHolder.detachAllChildren();
+
+        if (listenToModel) {
+            model.updateFieldListeners();
+            setupFallingTetrade();
+            updateNextTetrade();
+        } else {
+            // the next snapshot is rendered from scratch
+            for (final long[] row : renderedCellIds) {
+                Arrays.fill(row, 0L);
+            }
+            renderedBoardVersion = -1L;
+        }
+        stackChanged = true;
+        batchStack();
+    }
+
+    /**
+     * Turns the placement hint on or off; hints are computed by the given service in the background, the view only
+     * shows whatever has been found by the time a frame is rendered.
+     */
+    public void setHints(@Nullable PlacementHints hints) {
+        if (this.hints != null) {
+            this.hints.cancel();
+        }
+        this.hints = hints;
+        hintedSpawnCount = -1L;
+        showHint(null);
+
+        // the falling tetrade might have spawned already, don't wait for the next one
+        if (listenToModel) {
+            requestHint();
+        }
+    }
+
+    public boolean isShowingHints() {
+        return hints != null;
+    }
+
+    @Override
     public void updateStaticAnimation(float tpf) {
         // update next tetrade rotation
         this.nextTetradeHolder.rotate(0, tpf * 0.7f, 0);
+
+        if (hints != null) {
+            showHint(hints.poll());
+        }
+        batchStack();
     }
 
     //
     // Private
     //
 
-    private void createStaticFieldElements(AssetManager assetManager) {
+    private static Node newStackHolder(CellPresentationStyle style) {
+        return style.isBatched() ? new BatchNode("stackHolder") : new Node("stackHolder");
+    }
+
+    /**
+     * Merges the stack cells of a batched style once all the changes of a frame have been applied.
+     */
+    private void batchStack() {
+        if (stackChanged && stackHolder instanceof BatchNode) {
+            ((BatchNode) stackHolder).batch();
+        }
+        stackChanged = false;
+    }
+
+    private void insertRows(int count) {
+        // the row nodes pushed out at the top come back empty at the bottom, cells of the garbage rows are put next
+        final int top = model.getFieldHeight() - 1;
+        for (int i = 0; i < count; ++i) {
+            final Node insertedRow = rowNodes[top];
+            final Spatial[] insertedNodes = fieldNodes[top];
+            insertedRow.detachAllChildren();
+            Arrays.fill(insertedNodes, null);
+            stackChanged = true;
+
+            System.arraycopy(rowNodes, 0, rowNodes, 1, top);
+            System.arraycopy(fieldNodes, 0, fieldNodes, 1, top);
+            rowNodes[0] = insertedRow;
+            fieldNodes[0] = insertedNodes;
+        }
+        translateRows(0);
+    }
+
+    private void translateRows(int fromY) {
+        for (int y = fromY; y < rowNodes.length; ++y) {
+            rowNodes[y].setLocalTranslation(0, y, 0);
+        }
+    }
+
+    private void showNextTetrade(List<TetrisCoordinate> coordinates) {
+        if (nextTetradeHolder.getQuantity() == 0) {
+            for (int i = 0; i < Tetrades.ELEMENTS_COUNT; ++i) {
+                final Spatial cell = getCellBox(0, 0, materials.getNextTetrade());
+                nextTetradeHolder.attachChild(cell);
+            }
+        }
+
+        for (int i = 0; i < coordinates.size(); ++i) {
+            final TetrisCoordinate c = coordinates.get(i);
+            nextTetradeHolder.getChild(i).setLocalTranslation(c.x, c.y, -1);
+        }
+    }
+
+    private void renderField(BoardSnapshot snapshot) {
+        final int width = model.getFieldWidth();
+        final int height = model.getFieldHeight();
+
+        // cells are identified by unique ids, so that the ones that have been moved down by a line clear are reused
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (snapshot.getCellAt(x, y) != renderedCellIds[y][x] && fieldNodes[y][x] != null) {
+                    movedCells.put(renderedCellIds[y][x], fieldNodes[y][x]);
+                    fieldNodes[y][x] = null;
+                }
+            }
+        }
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final long cellId = snapshot.getCellAt(x, y);
+                if (cellId == renderedCellIds[y][x]) {
+                    continue;
+                }
+                renderedCellIds[y][x] = cellId;
+                if (cellId == 0) {
+                    continue;
+                }
+
+                Spatial cell = movedCells.remove(cellId);
+                if (cell == null) {
+                    cell = getCellBox(x, 0, null);
+                } else {
+                    cell.setLocalTranslation(x, 0, -1);
+                }
+                rowNodes[y].attachChild(cell); //< this also detaches a moved cell from its previous row
+                fieldNodes[y][x] = cell;
+                stackChanged = true;
+            }
+        }
+
+        // whatever hasn't been reused belongs to the cleared lines
+        for (final Spatial cell : movedCells.values()) {
+            cell.removeFromParent();
+            stackChanged = true;
+        }
+        movedCells.clear();
+    }
+
+    private void renderFallingTetrade(BoardSnapshot snapshot) {
+        final int orientationIndex = snapshot.getTetradeOrientationIndex();
+        final Spatial.CullHint cullHint = orientationIndex < 0 ? Spatial.CullHint.Always : Spatial.CullHint.Inherit;
+        fallingTetradeHolder.setCullHint(cullHint);
+        for (final Spatial projectedTetradeElement : projectedTetradeElements) {
+            projectedTetradeElement.setCullHint(cullHint);
+        }
+        if (orientationIndex < 0) {
+            return;
+        }
+
+        if (fallingTetradeHolder.getQuantity() == 0) {
+            for (int i = 0; i < Tetrades.ELEMENTS_COUNT; ++i) {
+                fallingTetradeHolder.attachChild(getCellBox(0, 0, materials.getFallingTetrade()));
+                fieldHolder.attachChild(projectedTetradeElements.get(i));
+            }
+        }
+
+        // keep the tetrade moving smoothly in between the snapshots
+        final float ticksSinceSnapshot = Math.min(1f,
+                (System.nanoTime() - snapshot.getTakenAtNanos()) / (float) Math.max(1L, snapshot.getTickNanos()));
+        final float offset = Math.max(-1f, snapshot.getSmoothOffset() + snapshot.getSmoothOffsetPerTick() * ticksSinceSnapshot);
+
+        final List<TetrisCoordinate> coordinates = Tetrades.ORIENTATIONS.get(orientationIndex);
+        for (int i = 0; i < coordinates.size(); ++i) {
+            final TetrisCoordinate c = coordinates.get(i);
+            fallingTetradeHolder.getChild(i).setLocalTranslation(c.x + snapshot.getTetradeX(), c.y + snapshot.getTetradeY() + offset, -1);
+            projectedTetradeElements.get(i).setLocalTranslation(c.x + snapshot.getTetradeX(), c.y + snapshot.getProjectedTetradeY(), -1);
+        }
+    }
+
+    private void requestHint() {
+        final Tetrades.OrientationIndices tetrade = model.getTetradeIndices();
+        if (hints == null || tetrade == null) {
+            return;
+        }
+
+        model.copyRowMasks(hintRows);
+        final TetrisCoordinate center = model.getTetradeCenter();
+        hints.request(hintRows, tetrade, model.getTetradeOrientation(), center.x, center.y,
+                model.getNextTetradeIndices());
+        showHint(null);
+    }
+
+    private void renderHint(BoardSnapshot snapshot) {
+        if (hints == null) {
+            return;
+        }
+
+        final int orientationIndex = snapshot.getTetradeOrientationIndex();
+        if (orientationIndex < 0) {
+            if (hintedSpawnCount >= 0) {
+                hints.cancel();
+                hintedSpawnCount = -1L;
+            }
+            showHint(null);
+            return;
+        }
+
+        if (snapshot.getSpawnCount() != hintedSpawnCount) {
+            hintedSpawnCount = snapshot.getSpawnCount();
+            final Tetrades.OrientationIndices tetrade = Tetrades.indicesOf(orientationIndex);
+            final int nextIndex = snapshot.getNextTetradeOrientationIndex();
+            snapshot.copyRowMasks(hintRows);
+            hints.request(hintRows, tetrade, orientationIndex - tetrade.getFirstOrientationIndex(),
+                    snapshot.getTetradeX(), snapshot.getTetradeY(), nextIndex >= 0 ? Tetrades.indicesOf(nextIndex) : null);
+        }
+        showHint(hints.poll());
+    }
+
+    private void showHint(@Nullable Plan plan) {
+        if (plan == null) {
+            for (final Spatial hintElement : hintElements) {
+                hintElement.setCullHint(Spatial.CullHint.Always);
+            }
+            return;
+        }
+
+        final List<TetrisCoordinate> coordinates = Tetrades.ORIENTATIONS.get(plan.getOrientationIndex());
+        for (int i = 0; i < coordinates.size(); ++i) {
+            final TetrisCoordinate c = coordinates.get(i);
+            final Spatial hintElement = hintElements.get(i);
+            hintElement.setLocalTranslation(c.x + plan.getX(), c.y + plan.getY(), -1);
+            hintElement.setCullHint(Spatial.CullHint.Inherit);
+        }
+    }
+
+    private void createStaticFieldElements() {
         final Node gridHolder = new Node();
         fieldHolder.attachChild(gridHolder);
 
         { // add grid pad
             final int fieldHorizontalDimension = model.getFieldWidth() + 1;
-            final Geometry wireGrid = new Geometry("wireframe-grid-bottom", new Grid(4, fieldHorizontalDimension, 1f));
-            final Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            mat.getAdditionalRenderState().setWireframe(true);
-            mat.setColor("Color", ColorRGBA.Red);
-            wireGrid.setMaterial(mat);
+            final Geometry wireGrid = new Geometry("wireframe-grid-bottom", resources.getGridMesh(fieldHorizontalDimension));
+            wireGrid.setMaterial(resources.getGridMaterial(ColorRGBA.Red));
             wireGrid.center().move(new Vector3f(-fieldHorizontalDimension / 2f, 0, 0));
             gridHolder.attachChild(wireGrid);
         }
         { // add grid left
-            final Geometry wireGrid = new Geometry("wireframe-grid-left", new Grid(4, model.getFieldHeight(), 1f));
-            final Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            mat.getAdditionalRenderState().setWireframe(true);
-            mat.setColor("Color", ColorRGBA.Green);
-            wireGrid.setMaterial(mat);
+            final Geometry wireGrid = new Geometry("wireframe-grid-left", resources.getGridMesh(model.getFieldHeight()));
+            wireGrid.setMaterial(resources.getGridMaterial(ColorRGBA.Green));
             wireGrid.center().move(new Vector3f(0, 0, 0));
             wireGrid.rotate(0, 0,  FastMath.HALF_PI);
             gridHolder.attachChild(wireGrid);
         }
         { // add grid right
-            final Geometry wireGrid = new Geometry("wireframe-grid-left", new Grid(4, model.getFieldHeight(), 1f));
-            final Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            mat.getAdditionalRenderState().setWireframe(true);
-            mat.setColor("Color", ColorRGBA.Blue);
-            wireGrid.setMaterial(mat);
+            final Geometry wireGrid = new Geometry("wireframe-grid-left", resources.getGridMesh(model.getFieldHeight()));
+            wireGrid.setMaterial(resources.getGridMaterial(ColorRGBA.Blue));
             wireGrid.center().move(new Vector3f(model.getFieldWidth(), 0, 0));
             wireGrid.rotate(0, 0, FastMath.HALF_PI);
             gridHolder.attachChild(wireGrid);
@@ -292,11 +666,12 @@ public final class TetrisView {
     }
 
     private Spatial getCellBox(int x, int y, @Nullable Material optionalMaterial) {
-        final Spatial spatialCell = cellPresentationStyle.getSpatial(assetManager);
+        final Spatial spatialCell = cellPresentationStyle.getSpatial(resources.getAssetManager());
 
         spatialCell.setLocalTranslation(new Vector3f(x, y, -1));
 
-        final Material material = optionalMaterial != null ? optionalMaterial : cellCubeMaterials[random.nextInt(cellCubeMaterials.length)];
+        final Material material = optionalMaterial != null ? optionalMaterial :
+                materials.getCell(random.nextInt(materials.getCellColorCount()));
         spatialCell.setMaterial(material);
 
         return spatialCell;
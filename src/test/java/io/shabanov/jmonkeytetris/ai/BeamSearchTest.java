@@ -0,0 +1,112 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.search.BitBoard;
+import io.shabanov.jmonkeytetris.model.search.Placements;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BeamSearchTest {
+    private static final Tetrades.OrientationIndices I = Tetrades.INDICES[6];
+    private static final Tetrades.OrientationIndices O = Tetrades.INDICES[3];
+    private static final TetrisCoordinate SPAWN = TetrisModel.DEFAULT_SPAWNING_POINT;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldFillWellWithStraightTetrade() {
+        // Given: (four rows with a gap in the last column)
+        final int[] rows = new int[BitBoard.HEIGHT];
+        for (int y = 0; y < 4; ++y) {
+            rows[y] = BitBoard.FULL_ROW & ~(1 << (BitBoard.WIDTH - 1));
+        }
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH, pool);
+
+        // When:
+        final Plan plan = search.search(rows, I, 0, SPAWN.x, SPAWN.y, List.of(O), BeamSearch.NO_DEADLINE, () -> false);
+
+        // Then:
+        assertNotNull(plan);
+        assertEquals(2, plan.getDepth());
+        assertEquals(4, BitBoard.place(rows.clone(), plan.getOrientationIndex(), plan.getX(), plan.getY()));
+    }
+
+    @Test
+    void shouldReplayPlannedPath() {
+        // Given:
+        final int[] rows = new int[BitBoard.HEIGHT];
+        rows[0] = 0b0111111100;
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH, pool);
+        final Plan plan = search.search(rows, Tetrades.INDICES[0], 0, SPAWN.x, SPAWN.y, List.of(I),
+                BeamSearch.NO_DEADLINE, () -> false);
+        assertNotNull(plan);
+
+        // When: (rotate and shift as planned, then drop)
+        final int first = Tetrades.INDICES[0].getFirstOrientationIndex();
+        int orientation = 0;
+        int x = SPAWN.x;
+        for (final byte move : plan.getPath()) {
+            switch (move) {
+                case Placements.MOVE_LEFT: --x; break;
+                case Placements.MOVE_RIGHT: ++x; break;
+                case Placements.ROTATE: orientation = (orientation + 1) % 4; break;
+                default: break;
+            }
+            assertFalse(BitBoard.collides(rows, first + orientation, x, SPAWN.y));
+        }
+
+        // Then:
+        assertEquals(plan.getOrientationIndex(), first + orientation);
+        assertEquals(plan.getX(), x);
+        assertEquals(plan.getY(), BitBoard.dropY(rows, first + orientation, x, SPAWN.y));
+    }
+
+    @Test
+    void shouldStopAtDeadlineWithFallingTetradeOnly() {
+        // Given:
+        final int[] rows = new int[BitBoard.HEIGHT];
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH, pool);
+
+        // When:
+        final Plan plan = search.search(rows, O, 0, SPAWN.x, SPAWN.y, List.of(I, O, I), System.nanoTime() - 1L,
+                () -> false);
+
+        // Then:
+        assertNotNull(plan);
+        assertEquals(1, plan.getDepth());
+    }
+
+    @Test
+    void shouldReturnNothingWhenCancelled() {
+        // Given:
+        final int[] rows = new int[BitBoard.HEIGHT];
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH, pool);
+
+        // When:
+        final Plan plan = search.search(rows, O, 0, SPAWN.x, SPAWN.y, List.of(I), BeamSearch.NO_DEADLINE, () -> true);
+
+        // Then:
+        assertNull(plan);
+    }
+}
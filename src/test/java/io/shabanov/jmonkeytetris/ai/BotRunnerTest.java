@@ -0,0 +1,46 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotRunnerTest {
+
+    @Test
+    void shouldSurviveAndClearLines() {
+        // Given:
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH, pool);
+
+        // When:
+        final List<BotRunner.Result> results = BotRunner.playAll(search, pool, 1L, 4, 200);
+        pool.shutdown();
+
+        // Then: (200 pieces make 80 lines worth of cells, most of which must have been cleared)
+        assertEquals(4, results.size());
+        for (final BotRunner.Result result : results) {
+            assertFalse(result.isGameOver(), result.toString());
+            assertEquals(200, result.getPieces());
+            assertTrue(result.getClearedLines() >= 60, result.toString());
+        }
+    }
+
+    @Test
+    void shouldPlaySameGameForSameSeed() {
+        // Given:
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH,
+                ForkJoinPool.commonPool());
+
+        // When:
+        final BotRunner.Result first = BotRunner.play(search, 7L, 50);
+        final BotRunner.Result second = BotRunner.play(search, 7L, 50);
+
+        // Then:
+        assertEquals(first, second);
+    }
+}
@@ -0,0 +1,61 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.search.BitBoard;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlacementHintsTest {
+    private static final Tetrades.OrientationIndices I = Tetrades.INDICES[6];
+    private static final Tetrades.OrientationIndices O = Tetrades.INDICES[3];
+    private static final TetrisCoordinate SPAWN = TetrisModel.DEFAULT_SPAWNING_POINT;
+
+    @Test
+    void shouldDeliverLatestRequestOnly() {
+        // Given: (searches are held back until run explicitly)
+        final List<Runnable> tasks = new ArrayList<>();
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH,
+                ForkJoinPool.commonPool());
+        final PlacementHints hints = new PlacementHints(search, tasks::add, Long.MAX_VALUE / 2);
+        final int[] rows = new int[BitBoard.HEIGHT];
+
+        // When:
+        hints.request(rows, O, 0, SPAWN.x, SPAWN.y, I);
+        hints.request(rows, I, 0, SPAWN.x, SPAWN.y, O);
+        assertNull(hints.poll());
+        tasks.get(1).run();
+        tasks.get(0).run(); //< the superseded search completes last
+
+        // Then:
+        final Plan plan = hints.poll();
+        assertNotNull(plan);
+        assertEquals(I, Tetrades.indicesOf(plan.getOrientationIndex()));
+    }
+
+    @Test
+    void shouldDropHintOnCancel() {
+        // Given:
+        final List<Runnable> tasks = new ArrayList<>();
+        final BeamSearch search = new BeamSearch(EvaluationWeights.defaults(), BeamSearch.DEFAULT_BEAM_WIDTH,
+                ForkJoinPool.commonPool());
+        final PlacementHints hints = new PlacementHints(search, tasks::add, Long.MAX_VALUE / 2);
+        hints.request(new int[BitBoard.HEIGHT], O, 0, SPAWN.x, SPAWN.y, null);
+        tasks.get(0).run();
+        assertNotNull(hints.poll());
+
+        // When:
+        hints.cancel();
+
+        // Then:
+        assertNull(hints.poll());
+    }
+}
@@ -0,0 +1,50 @@
+package io.shabanov.jmonkeytetris.ai;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightTunerTest {
+    private static final WeightTuner.Settings SETTINGS = new WeightTuner.Settings(6, 2, 30, 0.5, 1);
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldResumeFromCheckpoint(@TempDir Path dir) {
+        // Given: (two generations run in one go and one generation at a time with a restart in between)
+        final Path straightPath = dir.resolve("straight.json");
+        final Path resumedPath = dir.resolve("resumed.json");
+        final TuningState straight = new WeightTuner(SETTINGS, pool, straightPath).run(2);
+        new WeightTuner(SETTINGS, pool, resumedPath).run(1);
+
+        // When:
+        final TuningState resumed = new WeightTuner(SETTINGS, pool, resumedPath).run(2);
+
+        // Then:
+        assertTrue(Files.exists(resumedPath));
+        assertEquals(2, resumed.getGeneration());
+        assertEquals(2L * 6 * 2, resumed.getTotalGames());
+        assertArrayEquals(straight.getMean(), resumed.getMean());
+        assertArrayEquals(straight.getBestWeights(), resumed.getBestWeights());
+        assertEquals(straight.getBestFitness(), resumed.getBestFitness());
+    }
+}
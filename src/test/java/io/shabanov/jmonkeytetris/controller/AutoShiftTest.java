@@ -0,0 +1,54 @@
+package io.shabanov.jmonkeytetris.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AutoShiftTest {
+
+    @Test
+    void shouldRepeatAfterDelay() {
+        // Given:
+        final AutoShift autoShift = new AutoShift(3, 2);
+
+        // When:
+        autoShift.press(1);
+        final List<Integer> moves = tick(autoShift, 8);
+
+        // Then:
+        assertEquals(List.of(0, 0, 1, 0, 1, 0, 1, 0), moves);
+    }
+
+    @Test
+    void shouldPreferLastPressedDirectionAndRechargeOnRelease() {
+        // Given:
+        final AutoShift autoShift = new AutoShift(2, 1);
+
+        // When:
+        autoShift.press(-1);
+        final List<Integer> leftMoves = tick(autoShift, 2);
+        autoShift.press(1);
+        final List<Integer> bothMoves = tick(autoShift, 2);
+        autoShift.release(1);
+        final List<Integer> leftAgainMoves = tick(autoShift, 3);
+        autoShift.release(-1);
+        final List<Integer> releasedMoves = tick(autoShift, 2);
+
+        // Then:
+        assertEquals(List.of(0, -1), leftMoves);
+        assertEquals(List.of(0, 1), bothMoves);
+        assertEquals(List.of(0, -1, -1), leftAgainMoves);
+        assertEquals(List.of(0, 0), releasedMoves);
+    }
+
+    private static List<Integer> tick(AutoShift autoShift, int ticks) {
+        final List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < ticks; ++i) {
+            result.add(autoShift.tick());
+        }
+        return result;
+    }
+}
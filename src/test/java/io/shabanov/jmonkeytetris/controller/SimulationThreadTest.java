@@ -0,0 +1,90 @@
+package io.shabanov.jmonkeytetris.controller;
+
+import io.shabanov.jmonkeytetris.model.BoardSnapshot;
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationThreadTest {
+
+    @Test
+    void shouldPublishSnapshotsAndExecuteCommands() throws Exception {
+        // Given:
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+        final TetrisGameController controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(),
+                SoundEffectsStore.noOp());
+
+        try (final SimulationThread simulation = new SimulationThread(controller, 240)) {
+            simulation.start();
+
+            // When:
+            final BoardSnapshot running = awaitSnapshot(simulation, (s) -> s.getTetradeOrientationIndex() >= 0);
+            simulation.post(GameCommand.PAUSE_OR_RESTART, true, System.nanoTime());
+            final BoardSnapshot paused = awaitSnapshot(simulation, (s) -> s.getPhase() == TetrisGamePhase.PAUSED);
+
+            // Then:
+            assertTrue(running.getTick() > 0);
+            assertEquals(TetrisGamePhase.PAUSED, paused.getPhase());
+        }
+    }
+
+    @Test
+    void shouldStopWhenControllerFails() throws Exception {
+        // Given:
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+        final StatusView failingStatusView = new StatusView() {
+            @Override public void addNotification(String notification) {}
+
+            @Override public void announcePhase(TetrisGamePhase phase) {
+                throw new IllegalStateException("status view has failed");
+            }
+
+            @Override public void announceScore(int currentScore) {}
+
+            @Override public void update(float tpf) {}
+        };
+        final TetrisGameController controller = new TetrisGameController(model, FieldView.noOp(), failingStatusView,
+                SoundEffectsStore.noOp());
+
+        try (final SimulationThread simulation = new SimulationThread(controller, 240)) {
+            simulation.start();
+            awaitSnapshot(simulation, (s) -> s.getTetradeOrientationIndex() >= 0);
+            assertFalse(simulation.isStopped());
+
+            // When:
+            simulation.post(GameCommand.PAUSE_OR_RESTART, true, System.nanoTime());
+
+            // Then:
+            final long deadline = System.currentTimeMillis() + 5_000L;
+            while (!simulation.isStopped() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1L);
+            }
+            assertTrue(simulation.isStopped());
+        }
+    }
+
+    private static BoardSnapshot awaitSnapshot(SimulationThread simulation, Predicate<BoardSnapshot> condition)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000L;
+        while (System.currentTimeMillis() < deadline) {
+            final BoardSnapshot snapshot = simulation.acquireSnapshot();
+            if (condition.test(snapshot)) {
+                return snapshot;
+            }
+            Thread.sleep(1L);
+        }
+        throw new AssertionError("snapshot condition hasn't been met in time");
+    }
+}
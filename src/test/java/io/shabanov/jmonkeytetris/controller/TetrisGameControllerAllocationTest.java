@@ -0,0 +1,44 @@
+package io.shabanov.jmonkeytetris.controller;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static io.shabanov.jmonkeytetris.util.AllocationMeter.assertAllocationWithinBudget;
+
+/**
+ * Runs the controller headless and keeps its per-frame update garbage-free.
+ */
+final class TetrisGameControllerAllocationTest {
+    private static final float FRAME_TPF = 1f / 60f;
+
+    @Test
+    void shouldTickWithinBudget() {
+        // line clears are the only ticks that are allowed to allocate
+        final double budgetBytesPerTick = 1;
+
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+        final TetrisGameController controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        final Random random = new Random(7L);
+
+        assertAllocationWithinBudget("update", budgetBytesPerTick, (i) -> {
+            if (i % 8 == 0) {
+                controller.moveTetrade(random.nextInt(3) - 1, random.nextInt(2));
+            }
+            controller.setDownSpeedUp(i % 16 == 0);
+            controller.update(FRAME_TPF);
+            if (!controller.togglePause()) {
+                controller.restart(); // game over
+            } else {
+                controller.togglePause(); // resume
+            }
+        });
+    }
+}
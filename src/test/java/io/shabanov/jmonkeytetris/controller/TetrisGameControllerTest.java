@@ -0,0 +1,264 @@
+package io.shabanov.jmonkeytetris.controller;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TetrisGameControllerTest {
+
+    @Test
+    void shouldPlayIdenticallyAtDifferentFrameRates() {
+        // Given:
+        final TetrisModel slowModel = newModel();
+        final TetrisGameController slowController = newController(slowModel);
+        final TetrisModel fastModel = newModel();
+        final TetrisGameController fastController = newController(fastModel);
+
+        // When: (play 30 seconds at 32 and 256 frames per second)
+        for (int i = 0; i < 32 * 30; ++i) {
+            slowController.update(1f / 32);
+        }
+        for (int i = 0; i < 256 * 30; ++i) {
+            fastController.update(1f / 256);
+        }
+
+        // Then:
+        assertEquals(slowController.getTick(), fastController.getTick());
+        assertEquals(slowModel.getTetradeCenter(), fastModel.getTetradeCenter());
+        for (int y = 0; y < slowModel.getFieldHeight(); ++y) {
+            for (int x = 0; x < slowModel.getFieldWidth(); ++x) {
+                assertEquals(slowModel.getFieldAt(x, y), fastModel.getFieldAt(x, y), String.format("field at %dx%d", x, y));
+            }
+        }
+    }
+
+    @Test
+    void shouldLockRightAwayOnHardDrop() {
+        // Given:
+        final TetrisModel model = newModel();
+        final TetrisGameController controller = newController(model);
+        controller.update(1f / 60); // spawn
+
+        // When:
+        controller.execute(GameCommand.HARD_DROP);
+
+        // Then:
+        assertNull(model.getCurrentTetrade());
+        assertEquals(0, model.getTetradeCenter().y - model.getProjectedTetradeY());
+    }
+
+    @Test
+    void shouldRewindToPreviousTetrade() {
+        // Given:
+        final TetrisModel model = newModel();
+        final TetrisGameController controller = newController(model);
+        controller.update(1f / 60); // spawn
+        final List<TetrisCoordinate> firstTetrade = model.getCurrentTetrade();
+        controller.execute(GameCommand.HARD_DROP);
+        controller.update(1f / 60); // spawn the second one
+        controller.execute(GameCommand.HARD_DROP);
+        controller.update(1f / 60); // spawn the third one
+
+        // When:
+        final int rewound = controller.rewind(2);
+
+        // Then: (the first tetrade is falling again over an empty field)
+        assertEquals(2, rewound);
+        assertEquals(firstTetrade, model.getCurrentTetrade());
+        for (int y = 0; y < model.getFieldHeight(); ++y) {
+            for (int x = 0; x < model.getFieldWidth(); ++x) {
+                assertEquals(0L, model.getFieldAt(x, y), String.format("field at %dx%d", x, y));
+            }
+        }
+    }
+
+    @Test
+    void shouldRepopulateListeningViewOnceOnRewindAndRestore() {
+        // Given: (a view that, like the scene one, refuses a cell put twice, and a stack of two tetrades)
+        final TetrisModel model = newModel();
+        final StackView view = new StackView(model);
+        final TetrisGameController controller = new TetrisGameController(model, view, StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        controller.update(1f / 60); // spawn
+        controller.execute(GameCommand.HARD_DROP);
+        controller.update(1f / 60); // spawn the second one
+        final ControllerSnapshot snapshot = new ControllerSnapshot();
+        controller.save(snapshot);
+        controller.execute(GameCommand.HARD_DROP);
+        controller.update(1f / 60); // spawn the third one
+
+        // When:
+        controller.restore(snapshot);
+        final int stackAfterRestore = view.cellCount;
+        controller.execute(GameCommand.HARD_DROP);
+        controller.update(1f / 60); // spawn the third one again
+        final int rewound = controller.rewind(1);
+
+        // Then: (one tetrade is in the stack, the view holds its four cells)
+        assertEquals(4, stackAfterRestore);
+        assertEquals(1, rewound);
+        assertEquals(4, view.cellCount);
+    }
+
+    @Test
+    void shouldKeepHistoryOfSnapshotRestoredAfterRewind() {
+        // Given: (a snapshot taken as the second tetrade spawns, two more tetrades and a rewind of one of them)
+        final TetrisModel model = newModel();
+        final StackView view = new StackView(model);
+        final TetrisGameController controller = new TetrisGameController(model, view, StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        controller.update(1f / 60); // spawn
+        controller.execute(GameCommand.HARD_DROP);
+        controller.update(1f / 60); // spawn the second one
+        final ControllerSnapshot snapshot = new ControllerSnapshot();
+        controller.save(snapshot);
+        for (int i = 0; i < 2; ++i) {
+            controller.execute(GameCommand.HARD_DROP);
+            controller.update(1f / 60); // spawn the next one
+        }
+        controller.rewind(1);
+
+        // When:
+        controller.restore(snapshot);
+        final int rewound = controller.rewind(0);
+
+        // Then: (the spawn of the second tetrade is still the newest checkpoint)
+        assertEquals(0, rewound);
+        assertEquals(4, view.cellCount);
+    }
+
+    @Test
+    void shouldNotBringBackRewoundHistoryWhenRestoringOlderSnapshot() {
+        // Given: (a snapshot taken as the third tetrade spawns, then a rewind of two tetrades and another one played)
+        final TetrisModel model = newModel();
+        final StackView view = new StackView(model);
+        final TetrisGameController controller = new TetrisGameController(model, view, StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        controller.update(1f / 60); // spawn
+        for (int i = 0; i < 2; ++i) {
+            controller.execute(GameCommand.HARD_DROP);
+            controller.update(1f / 60); // spawn the next one
+        }
+        final ControllerSnapshot snapshot = new ControllerSnapshot();
+        controller.save(snapshot);
+        controller.rewind(2);
+        controller.execute(GameCommand.HARD_DROP);
+        controller.update(1f / 60); // spawn the next one
+
+        // When:
+        controller.restore(snapshot);
+        final int rewound = controller.rewind(Integer.MAX_VALUE);
+
+        // Then: (only the checkpoints left after the rewind remain, the first spawn has nothing stacked yet)
+        assertEquals(1, rewound);
+        assertEquals(0, view.cellCount);
+    }
+
+    @Test
+    void shouldReportGameOnceUntilRestart() {
+        // Given:
+        final TetrisModel model = newModel();
+        final TetrisGameController controller = newController(model);
+        final List<Integer> scores = new ArrayList<>();
+        controller.setResultListener((scoring) -> scores.add(scoring.getCurrentScore()));
+
+        // When: (the game is over, rewound and over again, then restarted and over)
+        playUntilOver(controller);
+        controller.rewind(3);
+        playUntilOver(controller);
+        final int reportedBeforeRestart = scores.size();
+        controller.restart();
+        playUntilOver(controller);
+
+        // Then:
+        assertEquals(1, reportedBeforeRestart);
+        assertEquals(2, scores.size());
+    }
+
+    @Test
+    void shouldNotAutoShiftAcrossRestart() {
+        // Given: (left is held as the game restarts)
+        final TetrisModel model = newModel();
+        final TetrisGameController controller = newController(model);
+        controller.update(1f / 60); // spawn
+        controller.press(GameCommand.MOVE_LEFT, 0L);
+
+        // When:
+        controller.restart();
+        for (int i = 0; i < 30; ++i) {
+            controller.step();
+        }
+
+        // Then: (the new tetrade stays at its spawning column)
+        assertEquals(TetrisModel.DEFAULT_SPAWNING_POINT.x, model.getTetradeCenter().x);
+    }
+
+    private static void playUntilOver(TetrisGameController controller) {
+        while (controller.getPhase() != TetrisGamePhase.GAME_OVER) {
+            controller.update(1f / 60);
+            controller.execute(GameCommand.HARD_DROP);
+        }
+    }
+
+    private static TetrisModel newModel() {
+        return new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+    }
+
+    private static TetrisGameController newController(TetrisModel model) {
+        return new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(), SoundEffectsStore.noOp());
+    }
+
+    /**
+     * Keeps track of the stack cells put by the model, the way {@link io.shabanov.jmonkeytetris.view.TetrisView} does.
+     */
+    private static final class StackView implements FieldView {
+        private final TetrisModel model;
+        private final boolean[][] cells;
+        private int cellCount;
+
+        StackView(TetrisModel model) {
+            this.model = model;
+            this.cells = new boolean[model.getFieldHeight()][model.getFieldWidth()];
+            model.addFieldChangeListener((x, y) -> {
+                if (cells[y][x]) {
+                    throw new IllegalStateException("duplicate cell at x=" + x + ", y=" + y);
+                }
+                cells[y][x] = true;
+                ++cellCount;
+            });
+        }
+
+        @Override public void setupFallingTetrade() {}
+
+        @Override public void updateFallingTetrade(float offset) {}
+
+        @Override public void updateNextTetrade() {}
+
+        @Override public void removeLines(List<Integer> linesToClear) {}
+
+        @Override
+        public void clear() {
+            for (final boolean[] row : cells) {
+                Arrays.fill(row, false);
+            }
+            cellCount = 0;
+            model.updateFieldListeners();
+        }
+
+        @Override public void updateStaticAnimation(float tpf) {}
+    }
+}
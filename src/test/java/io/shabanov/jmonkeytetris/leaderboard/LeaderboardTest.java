@@ -0,0 +1,137 @@
+package io.shabanov.jmonkeytetris.leaderboard;
+
+import io.shabanov.jmonkeytetris.model.TetrisScoring;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardTest {
+
+    @Test
+    void shouldKeepScoresAcrossRestarts(@TempDir Path dir) throws Exception {
+        // Given:
+        final Path path = dir.resolve("scores.log");
+        try (final Leaderboard leaderboard = Leaderboard.open(path, 3)) {
+            leaderboard.submit("alice", scoring(400, 10));
+            leaderboard.submit("bob", scoring(1200, 12));
+            leaderboard.submit("alice", scoring(100, 2));
+            leaderboard.submit("carol", scoring(800, 8));
+        }
+
+        // When:
+        try (final Leaderboard leaderboard = Leaderboard.open(path, 3)) {
+            leaderboard.submit("alice", scoring(900, 9));
+
+            // Then:
+            assertEquals(5, leaderboard.getGameCount());
+            assertEquals(List.of(1200, 900, 800), scoresOf(leaderboard.getTopScores()));
+            assertEquals("bob", leaderboard.getTopScores().get(0).getPlayerName());
+            assertEquals(List.of(400, 100, 900), scoresOf(leaderboard.getHistory("alice")));
+            assertEquals(10, leaderboard.getHistory("alice").get(0).getClearedLines());
+            assertTrue(leaderboard.getHistory("dave").isEmpty());
+        }
+    }
+
+    @Test
+    void shouldRankScoresByPercentile(@TempDir Path dir) throws Exception {
+        // Given:
+        try (final Leaderboard leaderboard = Leaderboard.open(dir.resolve("scores.log"), 10)) {
+            for (int i = 1; i <= 100; ++i) {
+                leaderboard.submit("player", scoring(i * 1000, i));
+            }
+
+            // When:
+            final double lowest = leaderboard.getPercentileRank(0);
+            final double median = leaderboard.getPercentileRank(50_000);
+            final double highest = leaderboard.getPercentileRank(1_000_000);
+
+            // Then: (buckets are a few percent of the score wide)
+            assertEquals(0.0, lowest);
+            assertEquals(50.0, median, 3.0);
+            assertEquals(100.0, highest);
+        }
+    }
+
+    @Test
+    void shouldTakeScoresFromConcurrentSubmitters(@TempDir Path dir) throws Exception {
+        // Given:
+        final Path path = dir.resolve("scores.log");
+        final int threads = 8;
+        // enough for the log to be remapped a few times while submits are going on
+        final int scoresPerThread = ScoreLog.GROWTH_RECORDS;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When:
+        try (final Leaderboard leaderboard = Leaderboard.open(path, 5)) {
+            final List<Future<?>> submitters = new ArrayList<>();
+            for (int t = 0; t < threads; ++t) {
+                final String player = "player-" + t;
+                final int offset = t;
+                submitters.add(executor.submit(() -> {
+                    for (int i = 0; i < scoresPerThread; ++i) {
+                        leaderboard.submit(player, scoring(i * threads + offset, 0));
+                    }
+                }));
+            }
+            for (final Future<?> submitter : submitters) {
+                submitter.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then: (every score is in the log and the best ones are in the table)
+        try (final Leaderboard leaderboard = Leaderboard.open(path, 5)) {
+            final int best = threads * scoresPerThread - 1;
+            assertEquals((long) threads * scoresPerThread, leaderboard.getGameCount());
+            assertEquals(List.of(best, best - 1, best - 2, best - 3, best - 4),
+                    scoresOf(leaderboard.getTopScores()));
+            for (int t = 0; t < threads; ++t) {
+                assertEquals(scoresPerThread, leaderboard.getHistory("player-" + t).size());
+            }
+        }
+    }
+
+    @Test
+    void shouldCutLongNamesAtCharacterBoundary(@TempDir Path dir) throws Exception {
+        // Given:
+        final String name = "\u00fc".repeat(ScoreLog.MAX_NAME_BYTES);
+
+        // When:
+        final ScoreEntry entry;
+        try (final Leaderboard leaderboard = Leaderboard.open(dir.resolve("scores.log"), 1)) {
+            entry = leaderboard.submit(name, scoring(1, 0));
+        }
+
+        // Then:
+        assertEquals("\u00fc".repeat(ScoreLog.MAX_NAME_BYTES / 2), entry.getPlayerName());
+        try (final Leaderboard leaderboard = Leaderboard.open(dir.resolve("scores.log"), 1)) {
+            assertEquals(entry, leaderboard.getTopScores().get(0));
+        }
+    }
+
+    private static TetrisScoring scoring(int score, int clearedLines) {
+        final TetrisScoring scoring = new TetrisScoring();
+        scoring.setCurrentScore(score);
+        scoring.setClearedLines(clearedLines);
+        scoring.setDifficultyLevel(clearedLines / 10);
+        return scoring;
+    }
+
+    private static List<Integer> scoresOf(List<ScoreEntry> entries) {
+        final List<Integer> scores = new ArrayList<>();
+        for (final ScoreEntry entry : entries) {
+            scores.add(entry.getScore());
+        }
+        return scores;
+    }
+}
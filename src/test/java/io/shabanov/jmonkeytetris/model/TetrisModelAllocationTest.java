@@ -0,0 +1,55 @@
+package io.shabanov.jmonkeytetris.model;
+
+import io.shabanov.jmonkeytetris.util.PubSub;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static io.shabanov.jmonkeytetris.util.AllocationMeter.assertAllocationWithinBudget;
+
+/**
+ * Keeps the model's hot path garbage-free, see also {@link TetrisModelTest} for correctness checks.
+ */
+final class TetrisModelAllocationTest {
+
+    @Test
+    void shouldShiftAndRotateWithoutAllocating() {
+        final double budgetBytesPerMove = 0;
+
+        final TetrisModel model = newModel();
+        model.spawnNewTetrade();
+
+        assertAllocationWithinBudget("tryMoveTo", budgetBytesPerMove, (i) -> {
+            switch (i % 3) {
+                case 0: model.tryMoveTo(-1, 0); break;
+                case 1: model.tryMoveTo(1, 0); break;
+                default: model.tryMoveTo(0, 1);
+            }
+        });
+    }
+
+    @Test
+    void shouldPlayPiecesWithinBudget() {
+        // line clears are the only moves that are allowed to allocate
+        final double budgetBytesPerMove = 1;
+
+        final TetrisModel model = newModel();
+        final Random random = new Random(7L);
+
+        assertAllocationWithinBudget("spawn/tryMoveTo/moveDown", budgetBytesPerMove, (i) -> {
+            if (model.getCurrentTetrade() == null && !model.spawnNewTetrade()) {
+                model.clear(); // game over, start from scratch
+                return;
+            }
+            if (i % 4 == 0) {
+                model.tryMoveTo(random.nextInt(3) - 1, random.nextInt(2));
+            } else {
+                model.moveDown();
+            }
+        });
+    }
+
+    private static TetrisModel newModel() {
+        return new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+    }
+}
@@ -2,14 +2,21 @@ package io.shabanov.jmonkeytetris.model;
 
 import io.shabanov.jmonkeytetris.model.Tetrades;
 import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.save.SaveState;
 import io.shabanov.jmonkeytetris.util.PubSub;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class TetrisModelTest {
@@ -44,6 +51,200 @@ final class TetrisModelTest {
         }
     }
 
+    @Test
+    void shouldHardDropOntoProjectedPosition() {
+        // Given:
+        final Function<Integer, Integer> tetradeProvider = (n) -> 3; // O-element
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), tetradeProvider);
+        spawnAndFallDown(model, 0);
+        assertTrue(model.spawnNewTetrade());
+        final int projectedTetradeY = model.getProjectedTetradeY();
+
+        // When:
+        final TetrisModel.MoveResult result = model.hardDrop();
+
+        // Then: (second O-element lands on top of the first one)
+        assertTrue(result.isLastMove());
+        assertEquals(projectedTetradeY, model.getTetradeCenter().y);
+        for (int y = 0; y < 4; ++y) {
+            assertTrue(model.getFieldAt(model.getFieldWidth() / 2, y) != 0, "field at y=" + y);
+        }
+    }
+
+    @Test
+    void shouldFallSeveralRowsInOneStepAndStopAtProjectedPosition() {
+        // Given:
+        final Function<Integer, Integer> tetradeProvider = (n) -> 3; // O-element
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), tetradeProvider);
+        assertTrue(model.spawnNewTetrade());
+        final int projectedTetradeY = model.getProjectedTetradeY();
+
+        // When:
+        final TetrisModel.MoveResult fallResult = model.moveDown(model.getFieldHeight());
+        final TetrisModel.MoveResult lockResult = model.moveDown(model.getFieldHeight());
+
+        // Then:
+        assertFalse(fallResult.isLastMove());
+        assertEquals(projectedTetradeY, model.getTetradeCenter().y);
+        assertTrue(lockResult.isLastMove());
+    }
+
+    @Test
+    void shouldRestoreCheckpointTakenBeforeLinesWereCleared() {
+        // Given: (four O-elements at the bottom, the fifth one will clear two lines)
+        final Function<Integer, Integer> tetradeProvider = (n) -> 3; // O-element
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), tetradeProvider);
+        final CheckpointHistory history = new CheckpointHistory(2);
+        for (final int dx : List.of(-4, -2, 0, 2)) {
+            spawnAndFallDown(model, dx);
+        }
+        final long[][] expectedCells = cellsOf(model);
+        assertTrue(model.spawnNewTetrade());
+        model.checkpoint(history);
+
+        // When:
+        model.tryMoveTo(4, 0);
+        model.hardDrop();
+        final long[][] clearedCells = cellsOf(model);
+        model.restore(history.rewind(0));
+
+        // Then:
+        assertEquals(0, clearedCells[0][0], "lines should have been cleared");
+        assertArrayEquals(expectedCells, cellsOf(model));
+        assertEquals(TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT - Tetrades.BOUNDING_BOX_RADIUS, model.getTetradeCenter().y);
+    }
+
+    @Test
+    void shouldKeepIncrementalStateHashEqualToRecomputedOne() {
+        // Given:
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+        final TetrisModel copy = new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+        final Random random = new Random(7L);
+        final SaveState state = new SaveState();
+        final Set<Long> hashes = new HashSet<>();
+
+        // When: (play random moves and rebuild the state from scratch every now and then)
+        for (int i = 0; i < 5_000; ++i) {
+            if (model.getCurrentTetrade() == null && !model.spawnNewTetrade()) {
+                model.clear();
+                continue;
+            }
+            if (i % 3 == 0) {
+                model.tryMoveTo(random.nextInt(3) - 1, random.nextInt(2));
+            } else {
+                model.moveDown();
+            }
+            hashes.add(model.stateHash());
+
+            // Then:
+            if (i % 50 == 0) {
+                model.save(state);
+                copy.load(state);
+                assertEquals(copy.stateHash(), model.stateHash(), "hash at move " + i);
+            }
+        }
+        assertTrue(hashes.size() > 1_000, "hashes should differ across states, distinct=" + hashes.size());
+    }
+
+    @Test
+    void shouldPushStackUpWhenGarbageRowsAreInserted() {
+        // Given: (an O-element at the bottom and a checkpoint sharing its rows)
+        final Function<Integer, Integer> tetradeProvider = (n) -> 3; // O-element
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), tetradeProvider);
+        spawnAndFallDown(model, 0);
+        final int stackMask = model.getRowMask(0);
+        final long stackCell = model.getFieldAt(model.getFieldWidth() / 2, 0);
+        final ModelCheckpoint checkpoint = new ModelCheckpoint();
+        model.checkpoint(checkpoint);
+        final List<Integer> insertedRows = new ArrayList<>();
+        model.addFieldChangeListener(new TetrisModel.FieldChangeListener() {
+            @Override
+            public void putCell(int x, int y) {}
+
+            @Override
+            public void insertRows(int count) {
+                insertedRows.add(count);
+            }
+        });
+
+        // When:
+        final boolean fits = model.insertGarbageRows(2, 3);
+
+        // Then:
+        assertTrue(fits);
+        assertEquals(List.of(2), insertedRows);
+        final int garbageMask = (1 << model.getFieldWidth()) - 1 & ~(1 << 3);
+        assertEquals(garbageMask, model.getRowMask(0));
+        assertEquals(garbageMask, model.getRowMask(1));
+        assertEquals(stackMask, model.getRowMask(2));
+        assertEquals(stackMask, model.getRowMask(3));
+        assertEquals(stackCell, model.getFieldAt(model.getFieldWidth() / 2, 2), "stack cells should keep their ids");
+        assertEquals(0, model.getFieldAt(3, 0));
+
+        final TetrisModel copy = new TetrisModel(PubSub.noOpManager(), tetradeProvider);
+        final SaveState state = new SaveState();
+        model.save(state);
+        copy.load(state);
+        assertEquals(copy.stateHash(), model.stateHash());
+
+        // the checkpoint taken before is not affected
+        model.restore(checkpoint);
+        assertEquals(stackMask, model.getRowMask(0));
+        assertEquals(0, model.getRowMask(2));
+    }
+
+    @Test
+    void shouldReportGarbageThatPushesStackOutOfField() {
+        // Given: (a stack of five O-elements, ten rows high)
+        final Function<Integer, Integer> tetradeProvider = (n) -> 3; // O-element
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), tetradeProvider);
+        for (int i = 0; i < 5; ++i) {
+            spawnAndFallDown(model, -4);
+        }
+
+        // When:
+        final boolean filled = model.insertGarbageRows(model.getFieldHeight() - 10, 0);
+        final boolean overflown = model.insertGarbageRows(1, 0);
+
+        // Then:
+        assertTrue(filled);
+        assertFalse(overflown);
+    }
+
+    @Test
+    void shouldKeepFreeStandingCheckpointWhenHistoryIsCleared() {
+        // Given: (a checkpoint out of any history taken along with a history one)
+        final Function<Integer, Integer> tetradeProvider = (n) -> 3; // O-element
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), tetradeProvider);
+        final CheckpointHistory history = new CheckpointHistory(4);
+        spawnAndFallDown(model, -4);
+        model.checkpoint(history);
+        final ModelCheckpoint checkpoint = new ModelCheckpoint();
+        model.checkpoint(checkpoint);
+        final long[][] expectedCells = cellsOf(model);
+
+        // When: (the history is dropped and a new game reuses its rows, as on restart)
+        model.clearCheckpoints(history);
+        model.clear();
+        for (final int dx : List.of(0, 2, 4)) {
+            spawnAndFallDown(model, dx);
+        }
+        model.restore(checkpoint);
+
+        // Then:
+        assertArrayEquals(expectedCells, cellsOf(model));
+    }
+
+    private static long[][] cellsOf(TetrisModel model) {
+        final long[][] result = new long[model.getFieldHeight()][model.getFieldWidth()];
+        for (int y = 0; y < model.getFieldHeight(); ++y) {
+            for (int x = 0; x < model.getFieldWidth(); ++x) {
+                result[y][x] = model.getFieldAt(x, y);
+            }
+        }
+        return result;
+    }
+
     private TetrisModel.MoveResult spawnAndFallDown(TetrisModel model, int dx) {
         assertTrue(model.spawnNewTetrade());
         model.tryMoveTo(dx, 0);
@@ -0,0 +1,128 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static io.shabanov.jmonkeytetris.util.AllocationMeter.assertAllocationWithinBudget;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoardArenaTest {
+    private static final TetrisCoordinate SPAWN = TetrisModel.DEFAULT_SPAWNING_POINT;
+
+    @Test
+    void shouldReuseFreedSlots() {
+        // Given:
+        final BoardArena arena = new BoardArena(2);
+        final int first = arena.allocate();
+        final int second = arena.allocate();
+        arena.setRow(first, 3, 0b101);
+
+        // When:
+        arena.free(first);
+        final int reused = arena.allocate();
+
+        // Then:
+        assertEquals(first, reused);
+        assertEquals(0, arena.getRow(reused, 3), "reused slot must be empty");
+        assertEquals(2, arena.size());
+        assertThrows(IllegalStateException.class, arena::allocate);
+        arena.free(second);
+        assertEquals(second, arena.allocate());
+    }
+
+    @Test
+    void shouldCopyBoardsAcrossArenas() {
+        // Given:
+        final BoardArena parents = new BoardArena(1);
+        final BoardArena children = new BoardArena(2);
+        final int parent = parents.allocate();
+        parents.setRow(parent, 0, 0b1100110011);
+        children.allocate();
+
+        // When:
+        final int child = children.allocateCopy(parents, parent);
+        children.setRow(child, 1, 0b1);
+
+        // Then:
+        assertEquals(1, child);
+        assertEquals(0b1100110011, children.getRow(child, 0));
+        assertEquals(0, parents.getRow(parent, 1), "copy must not share cells with the original");
+    }
+
+    @Test
+    void shouldPlaySameAsHeapBoard() {
+        // Given: (drop random tetrades at random columns onto both an arena slot and an int[] board)
+        final Random random = new Random(42L);
+        final BoardArena arena = new BoardArena(1);
+        final int slot = arena.allocate();
+        final int[] rows = new int[BitBoard.HEIGHT];
+        final int[] loaded = new int[BitBoard.HEIGHT];
+
+        for (int i = 0; i < 200; ++i) {
+            final Tetrades.OrientationIndices tetrade = Tetrades.INDICES[random.nextInt(Tetrades.INDICES.length)];
+            final int o = tetrade.getFirstOrientationIndex() + random.nextInt(tetrade.count());
+            final int x = random.nextInt(BitBoard.WIDTH);
+            if (BitBoard.collides(rows, o, x, SPAWN.y)) {
+                assertEquals(true, arena.collides(slot, o, x, SPAWN.y));
+                continue;
+            }
+            final int y = BitBoard.dropY(rows, o, x, SPAWN.y);
+            assertEquals(true, arena.collides(slot, o, x, y - 1));
+
+            // When:
+            final int cleared = arena.place(slot, o, x, y);
+
+            // Then:
+            assertEquals(BitBoard.place(rows, o, x, y), cleared);
+            arena.load(slot, loaded, 0);
+            assertArrayEquals(rows, loaded);
+        }
+    }
+
+    @Test
+    void shouldSearchAndEvaluateArenaBoards() {
+        // Given:
+        final BoardArena arena = new BoardArena(4);
+        final int[] rows = new int[BitBoard.HEIGHT];
+        rows[0] = 0b1110111111;
+        rows[1] = 0b0110011110;
+        final int slot = arena.allocate();
+        arena.store(slot, rows, 0);
+        final Tetrades.OrientationIndices t = Tetrades.INDICES[0];
+
+        // When:
+        final Placements fromArena = new Placements();
+        final Placements fromHeap = new Placements();
+        final int count = PlacementGenerator.generate(arena, slot, t, 0, SPAWN.x, SPAWN.y, fromArena);
+        final BoardFeatures features = new BoardFeatures();
+        final int[] arenaFeatures = new int[BoardFeatures.COUNT];
+        features.extractBatch(arena, new int[] {slot}, 1, arenaFeatures);
+
+        // Then:
+        assertEquals(PlacementGenerator.generate(rows, t, 0, SPAWN.x, SPAWN.y, fromHeap), count);
+        final int[] heapFeatures = new int[BoardFeatures.COUNT];
+        features.extractBatch(rows, 1, heapFeatures);
+        assertArrayEquals(heapFeatures, arenaFeatures);
+    }
+
+    @Test
+    void shouldNotAllocateOnHeap() {
+        // Given:
+        final BoardArena arena = new BoardArena(16);
+        final int root = arena.allocate();
+        final int o = Tetrades.INDICES[6].getFirstOrientationIndex();
+
+        // Then:
+        assertAllocationWithinBudget("copy, place and free", 1, (i) -> {
+            final int child = arena.allocateCopy(root);
+            arena.place(child, o, i % 7 + 2, 0);
+            arena.free(child);
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoardFeaturesTest {
+
+    @Test
+    void shouldComputeFeaturesOfKnownBoard() {
+        // Given: (x marks occupied cells, the rest of the board is empty)
+        //   y=2 .x........
+        //   y=1 x.........
+        //   y=0 x.xx......
+        final int[] rows = new int[BitBoard.HEIGHT];
+        rows[0] = 0b1101;
+        rows[1] = 0b0001;
+        rows[2] = 0b0010;
+        final BoardFeatures features = new BoardFeatures();
+        final int[] result = new int[BoardFeatures.COUNT];
+
+        // When:
+        features.update(rows);
+        features.copyTo(result, 0);
+
+        // Then:
+        assertEquals(2 + 3 + 1 + 1, result[BoardFeatures.AGGREGATE_HEIGHT]);
+        assertEquals(3, result[BoardFeatures.MAX_HEIGHT]);
+        assertEquals(2, result[BoardFeatures.HOLES]); // both below x=1
+        assertEquals(1, result[BoardFeatures.COVERED_CELLS]);
+        assertEquals(1 + 2 + 0 + 1, result[BoardFeatures.BUMPINESS]);
+        assertEquals(1, result[BoardFeatures.WELL_DEPTH]); // x=0 between the wall and x=1
+        assertEquals(4 + 2 + 4, result[BoardFeatures.ROW_TRANSITIONS]);
+        assertEquals(2, result[BoardFeatures.COLUMN_TRANSITIONS]); // floor to hole and hole to cell at x=1
+    }
+
+    @Test
+    void shouldMaintainModelFeaturesIncrementally() {
+        // Given:
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+        final Random random = new Random(7L);
+        final int[] rows = new int[BitBoard.HEIGHT];
+        final BoardFeatures scratch = new BoardFeatures();
+        final int[] incremental = new int[BoardFeatures.COUNT];
+        final int[] batch = new int[BoardFeatures.COUNT];
+
+        for (int i = 0; i < 3_000; ++i) {
+            // When:
+            if (model.getCurrentTetrade() == null && !model.spawnNewTetrade()) {
+                model.clear();
+            } else if (i % 3 == 0) {
+                model.tryMoveTo(random.nextInt(5) - 2, random.nextInt(2));
+            } else if (model.moveDown().isLastMove()) {
+                model.getFeatures().copyTo(incremental, 0);
+                model.copyRowMasks(rows);
+                scratch.extractBatch(rows, 1, batch);
+
+                // Then:
+                assertArrayEquals(batch, incremental, "features after move " + i);
+            }
+        }
+    }
+}
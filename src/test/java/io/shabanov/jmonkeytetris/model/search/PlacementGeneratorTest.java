@@ -0,0 +1,97 @@
+package io.shabanov.jmonkeytetris.model.search;
+
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.model.save.SaveState;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static io.shabanov.jmonkeytetris.util.AllocationMeter.assertAllocationWithinBudget;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlacementGeneratorTest {
+    private static final int O_ELEMENT = 3;
+
+    @Test
+    void shouldFindEveryColumnForOElementOnEmptyBoard() {
+        // Given:
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(), (n) -> O_ELEMENT);
+        assertTrue(model.spawnNewTetrade());
+        final Placements placements = new Placements();
+
+        // When:
+        final int count = PlacementGenerator.generate(model, new int[BitBoard.HEIGHT], placements);
+
+        // Then:
+        assertEquals(model.getFieldWidth() - 1, count);
+        for (int i = 0; i < count; ++i) {
+            assertEquals(0, placements.getY(i));
+        }
+    }
+
+    @Test
+    void shouldReachEveryPlacementByItsPath() {
+        // Given: (a board with some garbage on it)
+        final TetrisModel model = newModel();
+        final Random random = new Random(7L);
+        for (int i = 0; i < 300; ++i) {
+            if (model.getCurrentTetrade() == null && !model.spawnNewTetrade()) {
+                model.clear();
+            } else if (i % 3 == 0) {
+                model.tryMoveTo(random.nextInt(5) - 2, random.nextInt(2));
+            } else {
+                model.moveDown();
+            }
+        }
+        if (model.getCurrentTetrade() == null) {
+            assertTrue(model.spawnNewTetrade());
+        }
+        final SaveState state = new SaveState();
+        model.save(state);
+        final Placements placements = new Placements();
+        final byte[] path = new byte[Placements.MAX_PATH_LENGTH];
+
+        // When:
+        final int count = PlacementGenerator.generate(model, new int[BitBoard.HEIGHT], placements);
+
+        // Then: (replaying each path through the model brings the tetrade to a resting position of that placement)
+        assertTrue(count > 0);
+        final TetrisModel replay = newModel();
+        for (int i = 0; i < count; ++i) {
+            replay.load(state);
+            final int length = placements.copyPath(i, path);
+            for (int j = 0; j < length; ++j) {
+                final boolean moved;
+                switch (path[j]) {
+                    case Placements.MOVE_LEFT: moved = replay.tryMoveTo(-1, 0); break;
+                    case Placements.MOVE_RIGHT: moved = replay.tryMoveTo(1, 0); break;
+                    case Placements.ROTATE: moved = replay.tryMoveTo(0, 1); break;
+                    default: moved = !replay.moveDown().isLastMove();
+                }
+                assertTrue(moved, "placement " + i + ", move " + j);
+            }
+            assertEquals(placements.getX(i), replay.getTetradeCenter().x);
+            assertEquals(placements.getY(i), replay.getTetradeCenter().y);
+            assertEquals(placements.getOrientationIndex(i),
+                    replay.getTetradeIndices().getFirstOrientationIndex() + replay.getTetradeOrientation());
+            assertTrue(!replay.canMoveDown(), "placement " + i + " should rest on the stack");
+        }
+    }
+
+    @Test
+    void shouldSearchWithoutAllocating() {
+        final TetrisModel model = newModel();
+        assertTrue(model.spawnNewTetrade());
+        final int[] rows = new int[BitBoard.HEIGHT];
+        final Placements placements = new Placements();
+
+        assertAllocationWithinBudget("generate", 0, (i) -> PlacementGenerator.generate(model, rows, placements));
+    }
+
+    private static TetrisModel newModel() {
+        return new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(42L)));
+    }
+}
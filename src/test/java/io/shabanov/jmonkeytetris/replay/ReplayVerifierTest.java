@@ -0,0 +1,126 @@
+package io.shabanov.jmonkeytetris.replay;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayVerifierTest {
+    private static final GameCommand[] MOVES = {GameCommand.MOVE_LEFT, GameCommand.MOVE_RIGHT, GameCommand.ROTATE,
+            GameCommand.SOFT_DROP, GameCommand.HARD_DROP};
+
+    @Test
+    void shouldMatchRecordedGames(@TempDir Path dir) throws Exception {
+        // Given:
+        final int games = 16;
+        for (int i = 0; i < games; ++i) {
+            play(i).write(dir.resolve("game-" + i + Replay.FILE_EXTENSION));
+        }
+        Files.writeString(dir.resolve("notes.txt"), "not a replay");
+
+        // When:
+        final List<ReplayVerifier.Result> results = new ReplayVerifier(ForkJoinPool.commonPool()).verifyDirectory(dir);
+
+        // Then:
+        assertEquals(games, results.size());
+        for (final ReplayVerifier.Result result : results) {
+            assertNull(result.getError());
+            assertTrue(result.isMatching(), result.toString());
+            assertTrue(result.getScore() > 0 || result.getTick() > 0);
+        }
+    }
+
+    @Test
+    void shouldReportTamperedScore(@TempDir Path dir) throws Exception {
+        // Given:
+        final Replay played = play(42);
+        final Replay tampered = new Replay(played.getSeed(), ticksOf(played), commandsOf(played),
+                played.getFinalTick(), played.getFinalScore() + 1000, played.getFinalStateHash());
+        final Path path = dir.resolve("tampered" + Replay.FILE_EXTENSION);
+        tampered.write(path);
+
+        // When:
+        final ReplayVerifier.Result result = ReplayVerifier.verify(path);
+
+        // Then:
+        assertFalse(result.isMatching());
+        assertNull(result.getError());
+        assertEquals(played.getFinalScore(), result.getScore());
+        assertEquals(played.getFinalScore() + 1000, result.getClaimedScore());
+    }
+
+    @Test
+    void shouldReportMalformedReplay(@TempDir Path dir) throws Exception {
+        // Given:
+        final Path truncated = dir.resolve("truncated" + Replay.FILE_EXTENSION);
+        play(7).write(truncated);
+        final byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // When:
+        final ReplayVerifier.Result result = ReplayVerifier.verify(truncated);
+
+        // Then:
+        assertFalse(result.isMatching());
+        assertNotNull(result.getError());
+    }
+
+    /**
+     * Plays a game with random commands, the way a session does: commands in between the steps.
+     */
+    private static Replay play(long seed) {
+        final TetrisModel model = Replay.newModel(seed);
+        final TetrisGameController controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        final ReplayRecorder recorder = new ReplayRecorder(seed);
+        final Random random = new Random(~seed);
+        while (controller.getPhase() == TetrisGamePhase.RUNNING && controller.getTick() < 20_000) {
+            if (random.nextInt(4) == 0) {
+                final GameCommand command = MOVES[random.nextInt(MOVES.length)];
+                final boolean pressed = random.nextBoolean();
+                recorder.record(controller, command, pressed);
+                if (pressed) {
+                    controller.press(command, 0L);
+                } else {
+                    controller.release(command, 0L);
+                }
+            }
+            controller.step();
+        }
+        return recorder.toReplay(model, controller);
+    }
+
+    private static long[] ticksOf(Replay replay) {
+        final long[] ticks = new long[replay.getCommandCount()];
+        for (int i = 0; i < ticks.length; ++i) {
+            ticks[i] = replay.getCommandTick(i);
+        }
+        return ticks;
+    }
+
+    private static byte[] commandsOf(Replay replay) {
+        final byte[] commands = new byte[replay.getCommandCount()];
+        for (int i = 0; i < commands.length; ++i) {
+            commands[i] = replay.getCommand(i);
+        }
+        return commands;
+    }
+}
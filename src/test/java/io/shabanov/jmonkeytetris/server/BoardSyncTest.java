@@ -0,0 +1,85 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.ai.AiPlayer;
+import io.shabanov.jmonkeytetris.ai.BeamSearch;
+import io.shabanov.jmonkeytetris.ai.EvaluationWeights;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardSyncTest {
+
+    @Test
+    void shouldMirrorGameFromFrames() {
+        // Given:
+        final TetrisModel model = new TetrisModel(PubSub.noOpManager(),
+                Tetrades.tetradeProviderFromRandom(new Random(42L)));
+        final TetrisGameController controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(),
+                SoundEffectsStore.noOp());
+        controller.setInputSource(AiPlayer.synchronous(model,
+                new BeamSearch(EvaluationWeights.defaults(), 1, ForkJoinPool.commonPool())));
+        final BoardSync sync = new BoardSync(model, controller);
+        final BoardMirror mirror = new BoardMirror();
+        final ByteBuffer frame = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+        final ByteBuffer stream = ByteBuffer.allocate(4 * Protocol.MAX_FRAME_LENGTH);
+
+        // When:
+        long bytes = 0L;
+        int frames = 0;
+        for (int ticks = 0; ticks < 6_000 && controller.getPhase() == TetrisGamePhase.RUNNING; ++ticks) {
+            controller.update(1f / 60);
+            if (ticks % 1_000 == 999) {
+                sync.requireKeyframe();
+            }
+
+            frame.clear();
+            if (sync.writeFrame(frame)) {
+                frame.flip();
+                bytes += frame.remaining();
+                ++frames;
+                stream.clear();
+                Protocol.putFrame(stream, frame);
+                stream.flip();
+                assertTrue(mirror.readFrame(stream));
+                assertEquals(0, stream.remaining());
+                assertEquals(controller.getTick(), mirror.getTick());
+            }
+
+            // Then:
+            assertMirrors(model, controller, mirror);
+        }
+        assertTrue(controller.getClearedLines() > 10, "cleared lines " + controller.getClearedLines());
+        frame.clear();
+        sync.writeKeyframe(frame);
+        assertTrue(bytes * 4 < (long) frames * frame.position(), "bytes " + bytes + " in frames " + frames);
+    }
+
+    private static void assertMirrors(TetrisModel model, TetrisGameController controller, BoardMirror mirror) {
+        for (int y = 0; y < TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+            assertEquals(model.getRowMask(y), mirror.getRowMask(y), "row " + y);
+        }
+        final Tetrades.OrientationIndices tetrade = model.getTetradeIndices();
+        assertEquals(tetrade == null ? -1 : tetrade.getFirstOrientationIndex() + model.getTetradeOrientation(),
+                mirror.getTetradeOrientationIndex());
+        if (tetrade != null) {
+            assertEquals(model.getTetradeCenter().x, mirror.getTetradeX());
+            assertEquals(model.getTetradeCenter().y, mirror.getTetradeY());
+        }
+        assertEquals(controller.getCurrentScore(), mirror.getCurrentScore());
+        assertEquals(controller.getClearedLines(), mirror.getClearedLines());
+        assertEquals(controller.getPhase(), mirror.getPhase());
+    }
+}
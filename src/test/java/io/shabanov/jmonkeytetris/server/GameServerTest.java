@@ -0,0 +1,183 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.model.TetrisGamePhase;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameServerTest {
+
+    @Test
+    void shouldHostSessionsDrivenByClients() throws Exception {
+        // Given:
+        try (final GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2)) {
+            server.start();
+            final List<SocketChannel> clients = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                clients.add(SocketChannel.open(server.getLocalAddress()));
+            }
+            final SocketChannel client = clients.get(0);
+            final ByteBuffer input = ByteBuffer.allocate(GameSession.OUTPUT_BUFFER_SIZE);
+            final BoardMirror mirror = new BoardMirror();
+            readFrame(client, input, mirror); // session id
+            assertTrue(mirror.getSessionId() >= 0L);
+            readFrame(client, input, mirror); // first tetrade has spawned
+            assertTrue(mirror.isSynced());
+            assertTrue(mirror.getTetradeOrientationIndex() >= 0);
+            assertEquals(0, stackedCells(mirror));
+
+            // When:
+            client.write(ByteBuffer.wrap(new byte[] {
+                    Protocol.encodeCommand(GameCommand.HARD_DROP, true),
+                    Protocol.encodeCommand(GameCommand.HARD_DROP, false),
+                    Protocol.encodeCommand(GameCommand.QUICK_SAVE, true)
+            }));
+
+            // Then: (the tetrade lands on the floor, quick save is ignored)
+            while (stackedCells(mirror) == 0) {
+                readFrame(client, input, mirror);
+            }
+            assertEquals(4, stackedCells(mirror));
+            assertEquals(TetrisGamePhase.RUNNING, mirror.getPhase());
+            assertEquals(8, server.getSessionCount());
+
+            for (final SocketChannel channel : clients) {
+                channel.close();
+            }
+            awaitSessionCount(server, 0);
+        }
+    }
+
+    @Test
+    void shouldFanOutSessionToSpectators() throws Exception {
+        // Given:
+        try (final GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2)) {
+            server.start();
+            final SocketChannel player = SocketChannel.open(server.getLocalAddress());
+            final ByteBuffer playerInput = ByteBuffer.allocate(GameSession.OUTPUT_BUFFER_SIZE);
+            final BoardMirror playerMirror = new BoardMirror();
+            readFrame(player, playerInput, playerMirror);
+            readFrame(player, playerInput, playerMirror);
+
+            final List<SocketChannel> spectators = new ArrayList<>();
+            final ByteBuffer spectate = ByteBuffer.allocate(1 + Long.BYTES);
+            for (int i = 0; i < 64; ++i) {
+                final SocketChannel spectator = SocketChannel.open(server.getLocalAddress());
+                spectate.clear();
+                spectate.put(Protocol.SPECTATE).putLong(playerMirror.getSessionId()).flip();
+                spectator.write(spectate);
+                spectators.add(spectator);
+            }
+            awaitSessionCount(server, 1);
+
+            // When:
+            player.write(ByteBuffer.wrap(new byte[] {
+                    Protocol.encodeCommand(GameCommand.HARD_DROP, true),
+                    Protocol.encodeCommand(GameCommand.HARD_DROP, false)
+            }));
+
+            // Then: (every spectator is sent a keyframe and then sees the tetrade land)
+            final ByteBuffer input = ByteBuffer.allocate(GameSession.OUTPUT_BUFFER_SIZE);
+            for (final SocketChannel spectator : spectators) {
+                final BoardMirror mirror = new BoardMirror();
+                input.clear();
+                // frames of the game the connection had until it has asked to spectate may come first
+                while (!mirror.isSynced() || stackedCells(mirror) == 0) {
+                    readFrame(spectator, input, mirror);
+                }
+                assertEquals(4, stackedCells(mirror));
+            }
+            assertEquals(64, server.getSpectatorCount());
+
+            player.close();
+            final long deadline = System.currentTimeMillis() + 5_000L;
+            while (server.getSpectatorCount() != 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1L);
+            }
+            assertEquals(0, server.getSpectatorCount());
+            input.clear();
+            int read;
+            do {
+                read = spectators.get(0).read(input);
+                input.clear();
+            } while (read > 0);
+            assertTrue(read < 0, "spectators are disconnected along with the session");
+        }
+    }
+
+    @Test
+    void shouldKeepServingWhenConnectionCannotBeRegistered() throws Exception {
+        // Given: (a loop serving a client and a connection that is closed before the loop gets to it)
+        final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (final GameServer server = new GameServer(address, 1);
+             final ServerSocketChannel listener = ServerSocketChannel.open().bind(address);
+             final EventLoop loop = new EventLoop(0, server);
+             final SocketChannel first = SocketChannel.open(listener.getLocalAddress());
+             final SocketChannel second = SocketChannel.open(listener.getLocalAddress());
+             final SocketChannel third = SocketChannel.open(listener.getLocalAddress())) {
+            loop.start();
+            loop.register(listener.accept());
+            final SocketChannel gone = listener.accept();
+            gone.close();
+
+            // When:
+            loop.register(gone);
+            loop.register(listener.accept());
+
+            // Then: (the failed connection is dropped alone, the others are served)
+            final long deadline = System.currentTimeMillis() + 5_000L;
+            while (loop.getSessionCount() != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1L);
+            }
+            assertEquals(2, loop.getSessionCount());
+            for (final SocketChannel client : List.of(first, third)) {
+                final ByteBuffer input = ByteBuffer.allocate(GameSession.OUTPUT_BUFFER_SIZE);
+                final BoardMirror mirror = new BoardMirror();
+                readFrame(client, input, mirror); // session id
+                readFrame(client, input, mirror); // first tetrade has spawned
+                assertTrue(mirror.isSynced());
+            }
+            assertTrue(second.read(ByteBuffer.allocate(1)) < 0, "the dropped connection gets nothing but the close");
+        }
+    }
+
+    private static void readFrame(SocketChannel channel, ByteBuffer input, BoardMirror mirror) throws IOException {
+        input.flip();
+        while (!mirror.readFrame(input)) {
+            input.compact();
+            if (channel.read(input) < 0) {
+                throw new IOException("connection closed");
+            }
+            input.flip();
+        }
+        input.compact();
+    }
+
+    private static int stackedCells(BoardMirror mirror) {
+        int cells = 0;
+        for (int y = 0; y < TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+            cells += Integer.bitCount(mirror.getRowMask(y));
+        }
+        return cells;
+    }
+
+    private static void awaitSessionCount(GameServer server, int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000L;
+        while (server.getSessionCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertTrue(server.getSessionCount() == count, "session count " + server.getSessionCount());
+    }
+}
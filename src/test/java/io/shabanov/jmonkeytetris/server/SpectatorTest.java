@@ -0,0 +1,191 @@
+package io.shabanov.jmonkeytetris.server;
+
+import io.shabanov.jmonkeytetris.ai.AiPlayer;
+import io.shabanov.jmonkeytetris.ai.BeamSearch;
+import io.shabanov.jmonkeytetris.ai.EvaluationWeights;
+import io.shabanov.jmonkeytetris.controller.TetrisGameController;
+import io.shabanov.jmonkeytetris.model.Tetrades;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import io.shabanov.jmonkeytetris.util.PubSub;
+import io.shabanov.jmonkeytetris.util.audio.SoundEffectsStore;
+import io.shabanov.jmonkeytetris.view.FieldView;
+import io.shabanov.jmonkeytetris.view.StatusView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpectatorTest {
+    private static final int SOCKET_BUFFER_SIZE = 4 * 1024;
+
+    private TetrisModel model;
+    private TetrisGameController controller;
+    private BoardSync sync;
+    private SpectatorFeed feed;
+    private final ByteBuffer frame = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+
+    private Selector selector;
+    private SocketChannel client;
+    private SelectionKey key;
+    private Spectator spectator;
+    private boolean closed;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        model = new TetrisModel(PubSub.noOpManager(), Tetrades.tetradeProviderFromRandom(new Random(3L)));
+        controller = new TetrisGameController(model, FieldView.noOp(), StatusView.noOp(), SoundEffectsStore.noOp());
+        controller.setInputSource(AiPlayer.synchronous(model,
+                new BeamSearch(EvaluationWeights.defaults(), 1, ForkJoinPool.commonPool())));
+        sync = new BoardSync(model, controller);
+        feed = new SpectatorFeed(sync);
+
+        selector = Selector.open();
+        connect(ByteBuffer.allocate(0));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        spectator.close();
+        client.close();
+        selector.close();
+    }
+
+    @Test
+    void shouldResyncSpectatorThatHasFallenBehind() throws IOException {
+        // Given: (the spectator doesn't read until its socket is full and it is half the feed behind)
+        int ticks = 0;
+        while ((key.interestOps() & SelectionKey.OP_WRITE) == 0 && ticks < 100_000) {
+            tick();
+            ++ticks;
+        }
+        assertTrue((key.interestOps() & SelectionKey.OP_WRITE) != 0, "socket hasn't filled up");
+        for (int i = 0; i <= SpectatorFeed.FRAME_SLOTS / 2; ++i) {
+            tick();
+        }
+
+        // When: (it reads along from then on)
+        final BoardMirror mirror = new BoardMirror();
+        final ByteBuffer input = ByteBuffer.allocate(64 * 1024);
+        for (int i = 0; i < 1_000; ++i) {
+            tick();
+            spectator.onWritable();
+            read(input, mirror);
+        }
+        while ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+            spectator.onWritable();
+            read(input, mirror);
+        }
+        read(input, mirror);
+
+        // Then:
+        assertFalse(closed);
+        assertTrue(mirror.isSynced());
+        for (int y = 0; y < TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+            assertEquals(model.getRowMask(y), mirror.getRowMask(y), "row " + y);
+        }
+        assertEquals(controller.getCurrentScore(), mirror.getCurrentScore());
+    }
+
+    @Test
+    void shouldDisconnectSpectatorThatDoesNotRead() {
+        // When:
+        for (int ticks = 0; !closed && ticks < 100_000; ++ticks) {
+            tick();
+        }
+
+        // Then:
+        assertTrue(closed);
+        assertEquals(0, feed.getSpectatorCount());
+    }
+
+    @Test
+    void shouldSendUnsentBytesAheadOfFirstKeyframe() throws IOException {
+        // Given: (the connection has turned into a spectator with the rest of a player frame still unsent)
+        spectator.close();
+        client.close();
+        closed = false;
+        final byte[] unsent = {3, 1, 4};
+        connect(ByteBuffer.wrap(unsent));
+
+        // When:
+        tick();
+        final ByteBuffer input = ByteBuffer.allocate(64 * 1024);
+        for (int attempt = 0; attempt < 1_000 && input.position() <= unsent.length; ++attempt) {
+            client.read(input);
+            Thread.onSpinWait();
+        }
+
+        // Then: (the rest goes first, a keyframe the client syncs to right after)
+        input.flip();
+        for (final byte expected : unsent) {
+            assertEquals(expected, input.get());
+        }
+        final BoardMirror mirror = new BoardMirror();
+        while (mirror.readFrame(input)) {
+            // applied
+        }
+        input.compact();
+        read(input, mirror);
+        assertFalse(closed);
+        assertTrue(mirror.isSynced());
+        for (int y = 0; y < TetrisModel.DEFAULT_TETRIS_FIELD_HEIGHT; ++y) {
+            assertEquals(model.getRowMask(y), mirror.getRowMask(y), "row " + y);
+        }
+    }
+
+    private void connect(ByteBuffer unsent) throws IOException {
+        // small socket buffers, so that a spectator that doesn't read falls behind quickly
+        try (final ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            client = SocketChannel.open();
+            client.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_BUFFER_SIZE);
+            client.connect(server.getLocalAddress());
+            client.configureBlocking(false);
+            final SocketChannel channel = server.accept();
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SOCKET_BUFFER_SIZE);
+            channel.configureBlocking(false);
+            key = channel.register(selector, SelectionKey.OP_READ);
+            spectator = new Spectator(channel, 0L, unsent);
+            spectator.start(feed, key, () -> closed = true);
+        }
+    }
+
+    private void tick() {
+        controller.update(1f / 60);
+        frame.clear();
+        final boolean written = sync.writeFrame(frame);
+        feed.publish(written ? frame.flip() : null);
+    }
+
+    private void read(ByteBuffer input, BoardMirror mirror) throws IOException {
+        // the last frame may arrive in parts, so wait a little for the rest of it
+        for (int attempt = 0; attempt < 100; ++attempt) {
+            while (client.read(input) > 0) {
+                input.flip();
+                while (mirror.readFrame(input)) {
+                    // applied
+                }
+                input.compact();
+            }
+            if (input.position() == 0) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.shabanov.jmonkeytetris.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Test harness that measures bytes allocated by the current thread while running an operation many times.
+ *
+ * The operation is run for a number of warmup iterations first, so that the JIT has a chance to compile it and apply
+ * escape analysis, and only then the steady-state allocation is measured.
+ */
+public final class AllocationMeter {
+    public static final int DEFAULT_WARMUP_OPERATIONS = 100_000;
+    public static final int DEFAULT_MEASURED_OPERATIONS = 200_000;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationMeter() {}
+
+    /**
+     * Asserts that steady-state allocation of the given operation doesn't exceed the budget.
+     *
+     * @param name Operation name, used in the failure message
+     * @param budgetBytesPerOperation Maximum average number of bytes a single operation may allocate, rounded to whole
+     *                                bytes
+     * @param operation Operation to measure, receives a sequential operation number
+     */
+    public static void assertAllocationWithinBudget(String name, double budgetBytesPerOperation, IntConsumer operation) {
+        final double bytesPerOperation = measureBytesPerOperation(
+                DEFAULT_WARMUP_OPERATIONS, DEFAULT_MEASURED_OPERATIONS, operation);
+        // the measurement overhead isn't exactly the same every time, so fractions of a byte don't count
+        assertTrue(Math.round(bytesPerOperation) <= budgetBytesPerOperation, String.format(
+                "%s allocates %.2f bytes per operation, budget is %.2f", name, bytesPerOperation, budgetBytesPerOperation));
+    }
+
+    public static double measureBytesPerOperation(int warmupOperations, int measuredOperations, IntConsumer operation) {
+        assumeTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported(), "thread allocation measurement is not supported");
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < warmupOperations; ++i) {
+            operation.accept(i);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        // account for whatever the measurement itself allocates
+        final long probe = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        final long overhead = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - probe;
+
+        final long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < measuredOperations; ++i) {
+            operation.accept(warmupOperations + i);
+        }
+        final long allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        return Math.max(0L, allocated) / (double) measuredOperations;
+    }
+}
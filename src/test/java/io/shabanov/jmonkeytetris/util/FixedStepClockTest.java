@@ -0,0 +1,56 @@
+package io.shabanov.jmonkeytetris.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedStepClockTest {
+
+    @Test
+    void shouldProduceSameTicksRegardlessOfFrameRate() {
+        // Given:
+        final FixedStepClock slowClock = new FixedStepClock();
+        final FixedStepClock fastClock = new FixedStepClock();
+
+        // When: (simulate 10 seconds at 32 and 256 frames per second)
+        int slowTicks = 0;
+        for (int i = 0; i < 32 * 10; ++i) {
+            slowTicks += slowClock.advance(1f / 32);
+        }
+        int fastTicks = 0;
+        for (int i = 0; i < 256 * 10; ++i) {
+            fastTicks += fastClock.advance(1f / 256);
+        }
+
+        // Then:
+        assertEquals(slowTicks, fastTicks);
+        assertEquals(slowClock.getTick(), fastClock.getTick());
+        assertEquals(slowClock.getAlpha(), fastClock.getAlpha());
+    }
+
+    @Test
+    void shouldRunSeveralTicksPerFrame() {
+        // Given:
+        final FixedStepClock clock = new FixedStepClock(60, 10);
+
+        // When:
+        final int ticks = clock.advance(0.1f);
+
+        // Then:
+        assertEquals(6, ticks);
+    }
+
+    @Test
+    void shouldCapCatchUpTicks() {
+        // Given:
+        final FixedStepClock clock = new FixedStepClock(60, 10);
+
+        // When: (one long stall followed by a regular frame)
+        final int stallTicks = clock.advance(5f);
+        final int nextTicks = clock.advance(1f / 60);
+
+        // Then:
+        assertEquals(10, stallTicks);
+        assertEquals(1, nextTicks);
+    }
+}
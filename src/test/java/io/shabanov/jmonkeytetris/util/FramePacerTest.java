@@ -0,0 +1,64 @@
+package io.shabanov.jmonkeytetris.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FramePacerTest {
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void shouldPaceFramesByHighestDemand() {
+        // Given:
+        final FramePacer pacer = new FramePacer(500 * MILLIS);
+
+        // When:
+        final long staticWait = pacer.endFrame(0L, 20 * MILLIS);
+        pacer.demand(FramePacer.Demand.ANIMATED);
+        pacer.demand(FramePacer.Demand.STATIC);
+        final long animatedWait = pacer.endFrame(0L, 20 * MILLIS);
+        pacer.demand(FramePacer.Demand.FULL);
+        final long fullWait = pacer.endFrame(0L, 1 * MILLIS);
+        final long resetWait = pacer.endFrame(0L, 20 * MILLIS);
+
+        // Then: (demand is reset on every frame)
+        assertEquals(80 * MILLIS, staticWait);
+        assertEquals(13_333_333L, animatedWait);
+        assertEquals(0L, fullWait);
+        assertEquals(80 * MILLIS, resetWait);
+    }
+
+    @Test
+    void shouldRunAtFullRateRightAfterInput() {
+        // Given:
+        final FramePacer pacer = new FramePacer(500 * MILLIS);
+        final long inputAt = 1000 * MILLIS;
+
+        // When:
+        pacer.onInput(inputAt);
+        final long graceWait = pacer.endFrame(inputAt, inputAt + 10 * MILLIS);
+        final long laterWait = pacer.endFrame(inputAt + 600 * MILLIS, inputAt + 610 * MILLIS);
+
+        // Then:
+        assertEquals(0L, graceWait);
+        assertEquals(90 * MILLIS, laterWait);
+    }
+
+    @Test
+    void shouldCapFramesOutOfFocus() {
+        // Given:
+        final FramePacer pacer = new FramePacer(500 * MILLIS);
+        pacer.setFocused(false);
+
+        // When:
+        pacer.demand(FramePacer.Demand.FULL);
+        final long unfocusedWait = pacer.endFrame(0L, 10 * MILLIS);
+        pacer.setFocused(true);
+        pacer.demand(FramePacer.Demand.FULL);
+        final long focusedWait = pacer.endFrame(0L, 10 * MILLIS);
+
+        // Then:
+        assertEquals(90 * MILLIS, unfocusedWait);
+        assertEquals(0L, focusedWait);
+    }
+}
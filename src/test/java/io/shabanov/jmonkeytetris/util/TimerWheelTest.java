@@ -0,0 +1,89 @@
+package io.shabanov.jmonkeytetris.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    @Test
+    void shouldFireOnDeadlineIncludingDelaysLongerThanWheel() {
+        // Given:
+        final TimerWheel wheel = new TimerWheel(8);
+        final List<Long> firedAt = new ArrayList<>();
+        final TimerWheel.Timer shortTimer = wheel.newTimer(() -> firedAt.add(wheel.getTick()));
+        final TimerWheel.Timer longTimer = wheel.newTimer(() -> firedAt.add(-wheel.getTick()));
+
+        // When:
+        shortTimer.schedule(3);
+        longTimer.schedule(19);
+        for (int i = 0; i < 20; ++i) {
+            wheel.advance();
+        }
+
+        // Then:
+        assertEquals(List.of(3L, -19L), firedAt);
+        assertEquals(0, wheel.getScheduledCount());
+    }
+
+    @Test
+    void shouldCancelAndReschedule() {
+        // Given:
+        final TimerWheel wheel = new TimerWheel(8);
+        final int[] fired = new int[1];
+        final TimerWheel.Timer timer = wheel.newTimer(() -> ++fired[0]);
+
+        // When:
+        timer.schedule(2);
+        timer.cancel();
+        wheel.advance();
+        wheel.advance();
+
+        // Then:
+        assertEquals(0, fired[0]);
+        assertFalse(timer.isScheduled());
+
+        // When: (re-arming replaces the previous deadline)
+        timer.schedule(2);
+        timer.schedule(5);
+        assertEquals(5, timer.getRemainingTicks());
+        for (int i = 0; i < 5; ++i) {
+            wheel.advance();
+        }
+
+        // Then:
+        assertEquals(1, fired[0]);
+    }
+
+    @Test
+    void shouldLetTasksRescheduleAndCancelTimersOfTheSameTick() {
+        // Given:
+        final TimerWheel wheel = new TimerWheel(8);
+        final int[] fired = new int[2];
+        final TimerWheel.Timer[] timers = new TimerWheel.Timer[2];
+        timers[0] = wheel.newTimer(() -> {
+            ++fired[0];
+            timers[1].cancel();
+            timers[0].schedule(1);
+        });
+        timers[1] = wheel.newTimer(() -> {
+            ++fired[1];
+            timers[0].cancel();
+        });
+
+        // When:
+        timers[0].schedule(1);
+        timers[1].schedule(1);
+        final int firedOnFirstTick = wheel.advance();
+
+        // Then: (whichever of the two runs first cancels the other one)
+        assertEquals(1, firedOnFirstTick);
+        assertEquals(1, fired[0] + fired[1]);
+        assertTrue(fired[0] == 0 || timers[0].isScheduled());
+    }
+}
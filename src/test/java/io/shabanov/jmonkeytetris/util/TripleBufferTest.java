@@ -0,0 +1,60 @@
+package io.shabanov.jmonkeytetris.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripleBufferTest {
+
+    @Test
+    void shouldKeepCurrentBufferUntilPublished() {
+        // Given:
+        final TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[1]);
+        buffer.getWriteBuffer()[0] = 1;
+        buffer.publish();
+
+        // When:
+        final long[] first = buffer.acquire();
+        buffer.getWriteBuffer()[0] = 2; //< not published yet
+        final long[] second = buffer.acquire();
+
+        // Then:
+        assertEquals(1, first[0]);
+        assertEquals(1, second[0]);
+    }
+
+    @Test
+    void shouldNeverGoBackInTimeAcrossThreads() throws Exception {
+        // Given:
+        final TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+        final AtomicBoolean done = new AtomicBoolean();
+        final long lastValue = 1_000_000;
+
+        // When:
+        final Thread writer = new Thread(() -> {
+            for (long i = 1; i <= lastValue; ++i) {
+                final long[] values = buffer.getWriteBuffer();
+                values[0] = i;
+                values[1] = -i;
+                buffer.publish();
+            }
+            done.set(true);
+        });
+        writer.start();
+
+        long previous = 0;
+        boolean consistent = true;
+        while (!done.get() || previous != lastValue) {
+            final long[] values = buffer.acquire();
+            consistent &= values[0] >= previous && values[0] == -values[1];
+            previous = values[0];
+        }
+        writer.join();
+
+        // Then:
+        assertTrue(consistent, "reader observed a torn or stale buffer");
+    }
+}
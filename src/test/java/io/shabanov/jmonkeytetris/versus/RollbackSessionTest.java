@@ -0,0 +1,113 @@
+package io.shabanov.jmonkeytetris.versus;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollbackSessionTest {
+    private static final long SEED = 11L;
+    private static final GameCommand[] COMMANDS = {GameCommand.MOVE_LEFT, GameCommand.MOVE_RIGHT, GameCommand.ROTATE,
+            GameCommand.SOFT_DROP, GameCommand.HARD_DROP};
+
+    @Test
+    void shouldReplaySameTicksAfterRestore() {
+        // Given:
+        final VersusMatch match = new VersusMatch(SEED);
+        final int[][] inputs = randomInputs(new Random(1L), 600);
+        for (int t = 0; t < 200; ++t) {
+            match.tick(inputs[0][t], inputs[1][t]);
+        }
+        final VersusMatch.Snapshot snapshot = match.newSnapshot();
+        match.save(snapshot);
+        final long[] hashes = new long[400];
+        for (int t = 200; t < 600; ++t) {
+            match.tick(inputs[0][t], inputs[1][t]);
+            hashes[t - 200] = match.stateHash();
+        }
+
+        // When:
+        match.restore(snapshot);
+
+        // Then:
+        assertEquals(200, match.getTick());
+        for (int t = 200; t < 600; ++t) {
+            match.tick(inputs[0][t], inputs[1][t]);
+            assertEquals(hashes[t - 200], match.stateHash(), "tick " + t);
+        }
+    }
+
+    @Test
+    void shouldAgreeWithLockstepDespiteLatency() {
+        // Given:
+        final LoopbackTransport[] transports = LoopbackTransport.pair(3);
+        final RollbackSession first = new RollbackSession(new VersusMatch(SEED), 0, transports[0]);
+        final RollbackSession second = new RollbackSession(new VersusMatch(SEED), 1, transports[1]);
+        final int frames = 3_000;
+        final int[][] inputs = randomInputs(new Random(2L), frames);
+
+        // When:
+        for (int t = 0; t < frames; ++t) {
+            assertTrue(first.advance(inputs[0][t]));
+            assertTrue(second.advance(inputs[1][t]));
+        }
+        for (int i = 0; i < 3; ++i) {
+            first.poll();
+            second.poll();
+        }
+
+        // Then: (both peers end up where a match that has known all the inputs right away is)
+        final VersusMatch reference = new VersusMatch(SEED);
+        for (int t = 0; t < frames; ++t) {
+            reference.tick(inputs[0][t], inputs[1][t]);
+        }
+        assertEquals(frames, first.getConfirmedTicks());
+        assertEquals(frames, second.getConfirmedTicks());
+        assertEquals(reference.stateHash(), first.getMatch().stateHash());
+        assertEquals(reference.stateHash(), second.getMatch().stateHash());
+        assertTrue(reference.getController(0).getSpawnCount() > 5 && reference.getController(1).getSpawnCount() > 5);
+        assertTrue(first.getRolledBackTicks() > 0);
+        assertEquals(0L, first.getStalledFrames());
+    }
+
+    @Test
+    void shouldStallRatherThanPredictBeyondRollbackWindow() {
+        // Given:
+        final LoopbackTransport[] transports = LoopbackTransport.pair(12);
+        final RollbackSession first = new RollbackSession(new VersusMatch(SEED), 0, transports[0], 8);
+        final RollbackSession second = new RollbackSession(new VersusMatch(SEED), 1, transports[1], 8);
+
+        // When:
+        for (int t = 0; t < 600; ++t) {
+            first.advance(0);
+            second.advance(0);
+
+            // Then:
+            assertTrue(first.getTick() - first.getConfirmedTicks() <= 8);
+        }
+        assertTrue(first.getStalledFrames() > 0);
+        assertTrue(first.getTick() > 0);
+    }
+
+    /**
+     * @return Inputs of both players: commands held for a few ticks each, a hard drop now and then
+     */
+    private static int[][] randomInputs(Random random, int ticks) {
+        final int[][] inputs = new int[VersusMatch.MIN_PLAYERS][ticks];
+        for (int player = 0; player < VersusMatch.MIN_PLAYERS; ++player) {
+            int input = 0;
+            for (int t = 0; t < ticks; ++t) {
+                if (random.nextInt(8) == 0) {
+                    input = VersusMatch.inputOf(COMMANDS[random.nextInt(COMMANDS.length)]);
+                } else if (random.nextInt(4) == 0) {
+                    input = 0;
+                }
+                inputs[player][t] = input;
+            }
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,167 @@
+package io.shabanov.jmonkeytetris.versus;
+
+import io.shabanov.jmonkeytetris.controller.GameCommand;
+import io.shabanov.jmonkeytetris.model.TetrisCoordinate;
+import io.shabanov.jmonkeytetris.model.TetrisModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersusMatchTest {
+    private static final long SEED = 11L;
+
+    @Test
+    void shouldSendGarbageOnceOpponentTetradeLocks() {
+        // Given: (the first player's stack is filled around the spot their tetrade lands on, so that it clears lines)
+        final VersusMatch match = new VersusMatch(SEED);
+        match.tick(0, 0);
+        final TetrisModel model = match.getModel(0);
+        final int clearingRows = prepareLineClear(model);
+        assertTrue(clearingRows >= 2, "landing spot should complete at least two rows, got " + clearingRows);
+        final int hardDrop = VersusMatch.inputOf(GameCommand.HARD_DROP);
+        final int expectedGarbage = VersusMatch.GARBAGE_ROWS[clearingRows];
+
+        // When: (the first player clears lines while the opponent's tetrade is still falling)
+        match.tick(hardDrop, 0);
+
+        // Then:
+        assertEquals(clearingRows, match.getController(0).getClearedLines());
+        assertEquals(expectedGarbage, match.getPendingGarbage(1));
+        assertEquals(0, match.getModel(1).getRowMask(0), "garbage should wait for the falling tetrade to lock");
+
+        // When:
+        match.tick(0, hardDrop);
+
+        // Then: (garbage rows with a single hole each are under the opponent's locked tetrade)
+        assertEquals(0, match.getPendingGarbage(1));
+        final TetrisModel opponent = match.getModel(1);
+        for (int y = 0; y < expectedGarbage; ++y) {
+            assertEquals(opponent.getFieldWidth() - 1, Integer.bitCount(opponent.getRowMask(y)), "garbage row " + y);
+        }
+        assertTrue(opponent.getRowMask(expectedGarbage) != 0, "locked tetrade should have been pushed up");
+    }
+
+    @Test
+    void shouldReplayGarbageAfterRestore() {
+        // Given:
+        final VersusMatch match = new VersusMatch(SEED);
+        match.tick(0, 0);
+        prepareLineClear(match.getModel(0));
+        final VersusMatch.Snapshot snapshot = match.newSnapshot();
+        match.save(snapshot);
+        final int hardDrop = VersusMatch.inputOf(GameCommand.HARD_DROP);
+        match.tick(hardDrop, 0);
+        match.tick(0, hardDrop);
+        final long expectedHash = match.stateHash();
+
+        // When:
+        match.restore(snapshot);
+        match.tick(hardDrop, 0);
+        match.tick(0, hardDrop);
+
+        // Then:
+        assertEquals(expectedHash, match.stateHash());
+    }
+
+    @Test
+    void shouldSendGarbageToNextPlayerStillInGame() {
+        // Given: (the second of three players is out of the game)
+        final VersusMatch match = new VersusMatch(SEED, 3);
+        match.tick(new int[3]);
+        final TetrisModel out = match.getModel(1);
+        match.getController(1).insertGarbage(out.getFieldHeight(), 0);
+        assertFalse(match.getController(1).insertGarbage(1, 0));
+        final int clearingRows = prepareLineClear(match.getModel(0));
+
+        // When:
+        match.tick(new int[]{VersusMatch.inputOf(GameCommand.HARD_DROP), 0, 0});
+
+        // Then:
+        assertEquals(0, match.getPendingGarbage(1));
+        assertEquals(VersusMatch.GARBAGE_ROWS[clearingRows], match.getPendingGarbage(2));
+        assertFalse(match.isOver());
+        assertEquals(-1, match.getWinner());
+    }
+
+    /**
+     * Rotates the falling tetrade to the orientation that completes most rows when it lands on the floor and fills
+     * the cells around its landing spot that don't stand in its way.
+     *
+     * @return Number of rows the tetrade completes
+     */
+    private static int prepareLineClear(TetrisModel model) {
+        int bestRows = 0;
+        int bestRotation = 0;
+        for (int rotation = 0; rotation < 4; ++rotation) {
+            final int rows = completedRows(model, model.getCurrentTetrade());
+            if (rows > bestRows) {
+                bestRows = rows;
+                bestRotation = rotation;
+            }
+            model.tryMoveTo(0, 1);
+        }
+        for (int rotation = 0; rotation < bestRotation; ++rotation) {
+            model.tryMoveTo(0, 1);
+        }
+
+        final int[] lowest = lowestCells(model, model.getCurrentTetrade());
+        final int minY = minY(model.getCurrentTetrade());
+        for (int x = 0; x < model.getFieldWidth(); ++x) {
+            // only the cells below the tetrade cells of a column, so that it drops down freely
+            final int fillHeight = lowest[x] != Integer.MAX_VALUE ? lowest[x] - minY : bestRows;
+            for (int y = 0; y < Math.min(fillHeight, bestRows); ++y) {
+                model.putFieldAt(x, y);
+            }
+        }
+        model.tryMoveTo(0, 0);
+        return bestRows;
+    }
+
+    private static int completedRows(TetrisModel model, List<TetrisCoordinate> offsets) {
+        final int[] lowest = lowestCells(model, offsets);
+        final int minY = minY(offsets);
+        int rows = 0;
+        for (int y = 0; y < 4; ++y, ++rows) {
+            for (int x = 0; x < model.getFieldWidth(); ++x) {
+                if (lowest[x] != Integer.MAX_VALUE && lowest[x] - minY <= y && !contains(model, offsets, x, y + minY)) {
+                    return rows;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static int[] lowestCells(TetrisModel model, List<TetrisCoordinate> offsets) {
+        final int[] lowest = new int[model.getFieldWidth()];
+        Arrays.fill(lowest, Integer.MAX_VALUE);
+        final int centerX = model.getTetradeCenter().x;
+        for (final TetrisCoordinate offset : offsets) {
+            final int x = centerX + offset.x;
+            lowest[x] = Math.min(lowest[x], offset.y);
+        }
+        return lowest;
+    }
+
+    private static boolean contains(TetrisModel model, List<TetrisCoordinate> offsets, int x, int offsetY) {
+        final int centerX = model.getTetradeCenter().x;
+        for (final TetrisCoordinate offset : offsets) {
+            if (centerX + offset.x == x && offset.y == offsetY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int minY(List<TetrisCoordinate> offsets) {
+        int minY = Integer.MAX_VALUE;
+        for (final TetrisCoordinate offset : offsets) {
+            minY = Math.min(minY, offset.y);
+        }
+        return minY;
+    }
+}